@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Serializable;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures OQL queries without an index on a large replicated region, scanned on the calling
+ * thread and on a pool of scan threads (gemfire.Query.PARALLEL_SCAN_THREADS).
+ */
+@Fork(value = 3, jvmArgsAppend = "-Xmx8g")
+public class ParallelRegionScanBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class ReplicatedRegionState {
+    @Param({"5000000"})
+    private int size;
+
+    @Param({"1", "8"})
+    private int scanThreads;
+
+    private Cache cache;
+    private Query filterQuery;
+    private Query countQuery;
+
+    public ReplicatedRegionState() {}
+
+    @Setup
+    public void setup() {
+      // read when the first query runs; each parameter combination runs in its own forks
+      System.setProperty("gemfire.Query.PARALLEL_SCAN_THREADS", String.valueOf(scanThreads));
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      Region<Integer, Position> region = cache.<Integer, Position>createRegionFactory(
+          RegionShortcut.REPLICATE).create("positions");
+      for (int i = 0; i < size; i++) {
+        region.put(i, new Position(i, i % 1000, i % 2 == 0 ? "active" : "inactive"));
+      }
+      filterQuery = cache.getQueryService()
+          .newQuery("SELECT p.id FROM /positions p WHERE p.bucket = 7");
+      countQuery = cache.getQueryService()
+          .newQuery("SELECT DISTINCT COUNT(*) FROM /positions p WHERE p.status = 'active'");
+
+      try {
+        assertEquals(size / 1000, ((SelectResults<?>) filterQuery.execute()).size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+  }
+
+  public static class Position implements Serializable {
+    public final int id;
+    public final int bucket;
+    public final String status;
+
+    public Position(int id, int bucket, String status) {
+      this.id = id;
+      this.bucket = bucket;
+      this.status = status;
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object projectWhereFieldMatches(ReplicatedRegionState state) throws Exception {
+    return state.filterQuery.execute();
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object countDistinctWhereFieldMatches(ReplicatedRegionState state) throws Exception {
+    return state.countQuery.execute();
+  }
+}
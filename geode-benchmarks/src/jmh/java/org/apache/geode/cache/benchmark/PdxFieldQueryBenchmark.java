@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.AttributeDescriptor;
+import org.apache.geode.cache.query.internal.DefaultQueryService;
+import org.apache.geode.pdx.PdxInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures OQL queries that read fields of the PdxInstance values of a region without an index,
+ * and reading one field of a PdxInstance through an AttributeDescriptor, as queries do, compared
+ * with PdxInstance.getField.
+ */
+@Fork(value = 3, jvmArgsAppend = "-Xmx8g")
+public class PdxFieldQueryBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class PdxRegionState {
+    @Param({"10000000"})
+    private int size;
+
+    private Cache cache;
+    private Query projectionQuery;
+    private Query countQuery;
+    private PdxInstance[] instances;
+    private AttributeDescriptor amount;
+
+    public PdxRegionState() {}
+
+    @Setup
+    public void setup() {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      Region<Integer, PdxInstance> region =
+          cache.<Integer, PdxInstance>createRegionFactory(RegionShortcut.REPLICATE)
+              .create("portfolios");
+      instances = new PdxInstance[1000];
+      for (int i = 0; i < size; i++) {
+        PdxInstance instance = cache.createPdxInstanceFactory("Portfolio").writeInt("id", i)
+            .writeString("status", i % 2 == 0 ? "active" : "inactive")
+            .writeLong("amount", i % 1000).writeString("owner", "owner" + i).create();
+        region.put(i, instance);
+        if (i < instances.length) {
+          instances[i] = instance;
+        }
+      }
+      amount = new AttributeDescriptor(
+          ((DefaultQueryService) cache.getQueryService()).getMethodInvocationAuthorizer(),
+          "amount");
+      projectionQuery = cache.getQueryService()
+          .newQuery("SELECT p.owner FROM /portfolios p WHERE p.amount > 994");
+      countQuery = cache.getQueryService().newQuery(
+          "SELECT COUNT(*) FROM /portfolios p WHERE p.status = 'active' AND p.amount < 10");
+
+      try {
+        assertEquals(size / 200, ((SelectResults<?>) projectionQuery.execute()).size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+
+    private PdxInstance randomInstance() {
+      return instances[ThreadLocalRandom.current().nextInt(instances.length)];
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object projectFieldWhereFieldGreaterThan(PdxRegionState state) throws Exception {
+    return state.projectionQuery.execute();
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object countWhereTwoFieldsMatch(PdxRegionState state) throws Exception {
+    return state.countQuery.execute();
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object readFieldWithAttributeDescriptor(PdxRegionState state) throws Exception {
+    return state.amount.read(state.randomInstance());
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object readFieldWithGetField(PdxRegionState state) {
+    return state.randomInstance().getField("amount");
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionFactory;
+import org.apache.geode.cache.RegionShortcut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the single entry and bulk region operations across the region types, key types and
+ * value sizes that select the different specialized region entry classes (for example
+ * VMThinRegionEntryHeapIntKey, VMThinRegionEntryHeapStringKey1 and
+ * VMThinRegionEntryHeapUUIDKey). Run with the GC profiler (enabled in the jmh block of the build)
+ * to get allocation rates per operation.
+ *
+ * <p>
+ * {@link Concurrent} runs the same matrix with one thread per available processor.
+ */
+@Fork(3)
+@Threads(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class RegionOperationMatrixBenchmark {
+
+  private static final int BULK_SIZE = 100;
+
+  public enum RegionType {
+    REPLICATE(RegionShortcut.REPLICATE, false),
+    REPLICATE_OVERFLOW(RegionShortcut.REPLICATE_OVERFLOW, false),
+    REPLICATE_PERSISTENT(RegionShortcut.REPLICATE_PERSISTENT, false),
+    REPLICATE_OFF_HEAP(RegionShortcut.REPLICATE, true),
+    PARTITION(RegionShortcut.PARTITION, false),
+    PARTITION_REDUNDANT(RegionShortcut.PARTITION_REDUNDANT, false),
+    PARTITION_OVERFLOW(RegionShortcut.PARTITION_OVERFLOW, false),
+    PARTITION_PERSISTENT(RegionShortcut.PARTITION_PERSISTENT, false),
+    PARTITION_OFF_HEAP(RegionShortcut.PARTITION, true);
+
+    private final RegionShortcut shortcut;
+    private final boolean offHeap;
+
+    RegionType(RegionShortcut shortcut, boolean offHeap) {
+      this.shortcut = shortcut;
+      this.offHeap = offHeap;
+    }
+  }
+
+  public enum KeyType {
+    INT {
+      @Override
+      Object createKey(int i) {
+        return i;
+      }
+    },
+    LONG {
+      @Override
+      Object createKey(int i) {
+        return (long) i;
+      }
+    },
+    STRING {
+      @Override
+      Object createKey(int i) {
+        return "k" + i;
+      }
+    },
+    UUID {
+      @Override
+      Object createKey(int i) {
+        return new UUID(0L, i);
+      }
+    };
+
+    abstract Object createKey(int i);
+  }
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    @Param({"REPLICATE", "REPLICATE_OVERFLOW", "REPLICATE_PERSISTENT", "REPLICATE_OFF_HEAP",
+        "PARTITION", "PARTITION_REDUNDANT", "PARTITION_OVERFLOW", "PARTITION_PERSISTENT",
+        "PARTITION_OFF_HEAP"})
+    public RegionType regionType;
+
+    @Param({"INT", "LONG", "STRING", "UUID"})
+    public KeyType keyType;
+
+    @Param({"16", "1024", "16384"})
+    public int valueSize;
+
+    @Param({"10000"})
+    public int entryCount;
+
+    private Cache cache;
+    private Region<Object, Object> region;
+    private Object[] keys;
+    private byte[] value;
+    private File diskDir;
+
+    @Setup
+    public void setup() throws IOException {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "")
+          .set("off-heap-memory-size", regionType.offHeap ? "1g" : "").create();
+
+      diskDir = Files.createTempDirectory("RegionOperationMatrixBenchmark").toFile();
+      cache.createDiskStoreFactory().setDiskDirs(new File[] {diskDir}).create("benchmark");
+
+      RegionFactory<Object, Object> factory =
+          cache.<Object, Object>createRegionFactory(regionType.shortcut);
+      factory.setOffHeap(regionType.offHeap);
+      factory.setDiskStoreName("benchmark");
+      region = factory.create("region");
+
+      keys = new Object[entryCount];
+      for (int i = 0; i < entryCount; i++) {
+        keys[i] = keyType.createKey(i);
+      }
+      value = new byte[valueSize];
+      for (Object key : keys) {
+        region.put(key, value);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+      deleteRecursively(diskDir);
+    }
+
+    private Object randomKey() {
+      return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    private List<Object> randomKeys() {
+      List<Object> result = new ArrayList<>(BULK_SIZE);
+      for (int i = 0; i < BULK_SIZE; i++) {
+        result.add(randomKey());
+      }
+      return result;
+    }
+
+    private Map<Object, Object> randomEntries() {
+      Map<Object, Object> result = new HashMap<>();
+      for (int i = 0; i < BULK_SIZE; i++) {
+        result.put(randomKey(), value);
+      }
+      return result;
+    }
+
+    private static void deleteRecursively(File file) {
+      File[] children = file.listFiles();
+      if (children != null) {
+        for (File child : children) {
+          deleteRecursively(child);
+        }
+      }
+      file.delete();
+    }
+  }
+
+  @Benchmark
+  public Object get(CacheState state) {
+    return state.region.get(state.randomKey());
+  }
+
+  @Benchmark
+  public Object put(CacheState state) {
+    return state.region.put(state.randomKey(), state.value);
+  }
+
+  @Benchmark
+  public Object getAll(CacheState state) {
+    return state.region.getAll(state.randomKeys());
+  }
+
+  @Benchmark
+  public void putAll(CacheState state) {
+    state.region.putAll(state.randomEntries());
+  }
+
+  /**
+   * Destroys an entry and puts it back so that the region size stays stable for the duration of
+   * the run. The score therefore includes the cost of one create.
+   */
+  @Benchmark
+  public Object destroyAndCreate(CacheState state) {
+    Object key = state.randomKey();
+    Object oldValue = state.region.remove(key);
+    state.region.put(key, state.value);
+    return oldValue;
+  }
+
+  /**
+   * Puts a value and invalidates it again so that every invocation invalidates an entry that has a
+   * value, however long the run. The score therefore includes the cost of one put.
+   */
+  @Benchmark
+  public void putAndInvalidate(CacheState state) {
+    Object key = state.randomKey();
+    state.region.put(key, state.value);
+    state.region.invalidate(key);
+  }
+
+  @Threads(Threads.MAX)
+  public static class Concurrent extends RegionOperationMatrixBenchmark {
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares updates and range queries of a compact range index on a long timestamp field with the
+ * keys kept unboxed in sorted chunks and in the skip list.
+ */
+@Fork(value = 3, jvmArgsAppend = "-Xmx4g")
+public class TimestampIndexBenchmark {
+
+  private static final int ENTRIES = 1000000;
+
+  @State(Scope.Benchmark)
+  public static class IndexState {
+    @Param({"false", "true"})
+    private boolean skipList;
+
+    private Cache cache;
+    private Region<Integer, Event> region;
+    private Query rangeQuery;
+
+    public IndexState() {}
+
+    @Setup
+    public void setup() {
+      System.setProperty(
+          DistributionConfig.GEMFIRE_PREFIX + "index.DisablePrimitiveKeyIndexStore",
+          String.valueOf(skipList));
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      region = cache.<Integer, Event>createRegionFactory(RegionShortcut.REPLICATE)
+          .setValueConstraint(Event.class).create("events");
+      try {
+        cache.getQueryService().createIndex("timestampIndex", "e.timestamp", "/events e");
+        for (int i = 0; i < ENTRIES; i++) {
+          region.put(i, new Event(i));
+        }
+        rangeQuery = cache.getQueryService()
+            .newQuery("SELECT * FROM /events e WHERE e.timestamp >= $1 AND e.timestamp < $2");
+
+        assertEquals(100, ((SelectResults<?>) rangeQuery.execute(new Object[] {0L, 100L})).size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+
+    private int randomKey() {
+      return ThreadLocalRandom.current().nextInt(ENTRIES);
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object update(IndexState state) {
+    int key = state.randomKey();
+    return state.region.put(key, new Event(key + ThreadLocalRandom.current().nextInt(100)));
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object rangeQuery(IndexState state) throws Exception {
+    long from = state.randomKey();
+    return ((SelectResults<?>) state.rangeQuery.execute(new Object[] {from, from + 100}))
+        .asList();
+  }
+
+  public static class Event implements Serializable {
+    public final long timestamp;
+
+    public Event(long timestamp) {
+      this.timestamp = timestamp;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.ha.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.internal.cache.Conflatable;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.ha.HARegionQueue;
+
+/**
+ * Several put threads feeding one client subscription queue that a single dispatcher thread
+ * drains in batches, the way a CacheClientProxy uses it. The put and drain rates of the group are
+ * reported separately; a queue should keep up with at least 100k events/s.
+ */
+@Fork(3)
+public class HARegionQueueBenchmark {
+
+  private static final int BATCH_SIZE = 100;
+
+  @State(Scope.Group)
+  public static class QueueState {
+    private Cache cache;
+
+    private HARegionQueue queue;
+
+    private final AtomicLong threadIds = new AtomicLong();
+
+    public QueueState() {}
+
+    @Setup
+    public void setup() {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      try {
+        queue = HARegionQueue.getHARegionQueueInstance("subscriptionQueue",
+            (InternalCache) cache, HARegionQueue.BLOCKING_HA_QUEUE, false);
+        queue.put(new Event("key", 0, 0));
+        assertEquals(1, queue.size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ProducerState {
+    private long threadId;
+
+    private long sequenceId;
+
+    public ProducerState() {}
+
+    @Setup
+    public void setup(QueueState queueState) {
+      threadId = queueState.threadIds.incrementAndGet();
+    }
+  }
+
+  @Benchmark
+  @Group("subscription")
+  @GroupThreads(4)
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public boolean put(QueueState state, ProducerState producer) throws Exception {
+    long sequenceId = ++producer.sequenceId;
+    return state.queue.put(new Event("key" + (sequenceId & 1023), producer.threadId, sequenceId));
+  }
+
+  @Benchmark
+  @Group("subscription")
+  @GroupThreads(1)
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public int dispatch(QueueState state) throws Exception {
+    List batch = state.queue.peek(BATCH_SIZE, -1);
+    state.queue.remove();
+    return batch.size();
+  }
+
+  private static class Event implements Conflatable {
+    private final Object key;
+
+    private final EventID eventId;
+
+    Event(Object key, long threadId, long sequenceId) {
+      this.key = key;
+      this.eventId = new EventID(new byte[] {1}, threadId, sequenceId);
+    }
+
+    @Override
+    public boolean shouldBeConflated() {
+      return false;
+    }
+
+    @Override
+    public String getRegionToConflate() {
+      return "region";
+    }
+
+    @Override
+    public Object getKeyToConflate() {
+      return key;
+    }
+
+    @Override
+    public Object getValueToConflate() {
+      return "value";
+    }
+
+    @Override
+    public void setLatestValue(Object value) {}
+
+    @Override
+    public EventID getEventId() {
+      return eventId;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares serializing and deserializing an auto serialized object through the method handles the
+ * auto serializer composes for its class with the earlier per-field wrappers, which the
+ * "gemfire.AutoSerializer.NO_METHOD_HANDLES" property switches back to.
+ */
+@Fork(3)
+public class AutoSerializerBenchmark {
+
+  private static final String FIELD_WRAPPERS =
+      "-Dgemfire.AutoSerializer.NO_METHOD_HANDLES=true";
+
+  @State(Scope.Benchmark)
+  public static class AutoSerializerState {
+    private Cache cache;
+    private Trade trade;
+    private byte[] blob;
+
+    public AutoSerializerState() {}
+
+    @Setup
+    public void setup() throws IOException, ClassNotFoundException {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "")
+          .setPdxSerializer(
+              new ReflectionBasedAutoSerializer("org\\.apache\\.geode\\.pdx\\.benchmark\\..*"))
+          .create();
+      trade = new Trade(42);
+      // the first serialization defines the type, later ones write the fields in order
+      BlobHelper.serializeToBlob(trade);
+      blob = BlobHelper.serializeToBlob(trade);
+      assertEquals(trade.id, ((Trade) BlobHelper.deserializeBlob(blob)).id);
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public byte[] serializeWithMethodHandles(AutoSerializerState state) throws IOException {
+    return BlobHelper.serializeToBlob(state.trade);
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = FIELD_WRAPPERS)
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public byte[] serializeWithFieldWrappers(AutoSerializerState state) throws IOException {
+    return BlobHelper.serializeToBlob(state.trade);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object deserializeWithMethodHandles(AutoSerializerState state)
+      throws IOException, ClassNotFoundException {
+    return BlobHelper.deserializeBlob(state.blob);
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = FIELD_WRAPPERS)
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object deserializeWithFieldWrappers(AutoSerializerState state)
+      throws IOException, ClassNotFoundException {
+    return BlobHelper.deserializeBlob(state.blob);
+  }
+
+  public static class Trade {
+    private int id;
+    private long timestamp;
+    private double price;
+    private double quantity;
+    private boolean buy;
+    private char currency;
+    private short venue;
+    private String symbol;
+    private String account;
+    private Date settlement;
+    private long[] fills;
+
+    public Trade() {}
+
+    Trade(int id) {
+      this.id = id;
+      this.timestamp = System.currentTimeMillis();
+      this.price = 101.25;
+      this.quantity = 500;
+      this.buy = true;
+      this.currency = '$';
+      this.venue = 7;
+      this.symbol = "GEODE";
+      this.account = "account-" + id;
+      this.settlement = new Date(timestamp);
+      this.fills = new long[] {100, 250, 150};
+    }
+  }
+}
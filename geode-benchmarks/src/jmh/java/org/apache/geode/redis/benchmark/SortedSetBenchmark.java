@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.redis.internal.ByteArrayWrapper;
+import org.apache.geode.redis.internal.Coder;
+import org.apache.geode.redis.internal.DoubleWrapper;
+import org.apache.geode.redis.internal.RedisSortedSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ZADD, ZRANGE and ZRANK on a sorted set kept as one {@link RedisSortedSet} region entry
+ * with the earlier layout of one region per sorted set queried through OQL.
+ */
+@Fork(3)
+public class SortedSetBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SortedSetState {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Cache cache;
+    private Region<ByteArrayWrapper, DoubleWrapper> regionPerSet;
+    private Query rangeQuery;
+    private Query rankQuery;
+    private Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+    private RedisSortedSet sortedSet;
+    private ByteArrayWrapper[] members;
+    private final ByteArrayWrapper key = member(-1);
+
+    public SortedSetState() {}
+
+    @Setup
+    public void setup() {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+
+      regionPerSet = cache.<ByteArrayWrapper, DoubleWrapper>createRegionFactory(
+          RegionShortcut.REPLICATE).create("zset");
+      sortedSetRegion = cache.<ByteArrayWrapper, RedisSortedSet>createRegionFactory(
+          RegionShortcut.REPLICATE).create("sortedSets");
+      sortedSet = new RedisSortedSet();
+      members = new ByteArrayWrapper[size];
+      try {
+        cache.getQueryService().createIndex("scoreIndex", "entry.value.score",
+            "/zset.entrySet entry");
+        cache.getQueryService().createIndex("scoreIndex2", "value.score", "/zset.values value");
+        for (int i = 0; i < size; i++) {
+          members[i] = member(i);
+          regionPerSet.put(members[i], new DoubleWrapper((double) i));
+          sortedSet.add(members[i], i);
+        }
+        sortedSetRegion.put(key, sortedSet);
+        rangeQuery = cache.getQueryService()
+            .newQuery("SELECT DISTINCT entry.key, entry.value FROM /zset.entrySet entry"
+                + " ORDER BY entry.value asc, entry.key asc LIMIT $1");
+        rankQuery = cache.getQueryService().newQuery("SELECT COUNT(*) FROM /zset.entrySet entry"
+            + " WHERE entry.value < $1 OR (entry.value = $2 AND entry.key.compareTo($3) < 0)");
+
+        assertEquals(10, ((SelectResults<?>) rangeQuery.execute(new Object[] {10})).size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+
+    private int randomIndex() {
+      return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    private static ByteArrayWrapper member(int i) {
+      return new ByteArrayWrapper(Coder.stringToBytes("member" + i));
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object zaddRegionPerSet(SortedSetState state) {
+    int i = state.randomIndex();
+    return state.regionPerSet.put(state.members[i], new DoubleWrapper((double) i));
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object zaddSortedSet(SortedSetState state) {
+    int i = state.randomIndex();
+    RedisSortedSet set = state.sortedSetRegion.get(state.key);
+    synchronized (set) {
+      set.add(state.members[i], i);
+      return state.sortedSetRegion.put(state.key, set);
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object zrangeRegionPerSet(SortedSetState state) throws Exception {
+    return ((SelectResults<?>) state.rangeQuery.execute(new Object[] {10})).asList();
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object zrangeSortedSet(SortedSetState state) {
+    return state.sortedSetRegion.get(state.key).range(0, 10, false);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public Object zrankRegionPerSet(SortedSetState state) throws Exception {
+    int i = state.randomIndex();
+    double score = state.regionPerSet.get(state.members[i]).score;
+    return state.rankQuery.execute(new Object[] {score, score, state.members[i]});
+  }
+
+  @Benchmark
+  @Warmup(iterations = 20)
+  @Measurement(iterations = 20)
+  public int zrankSortedSet(SortedSetState state) {
+    return state.sortedSetRegion.get(state.key).rank(state.members[state.randomIndex()]);
+  }
+}
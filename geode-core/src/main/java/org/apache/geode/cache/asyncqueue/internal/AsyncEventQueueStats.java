@@ -60,6 +60,17 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
             f.createIntCounter(BATCHES_REDISTRIBUTED,
                 "Number of batches of events removed from the event queue and resent.",
                 "operations", false),
+            f.createIntGauge(BATCHES_IN_FLIGHT,
+                "Number of batches sent to the gateway receiver and not yet acknowledged.",
+                "operations", false),
+            f.createLongCounter(BATCH_BYTES_UNCOMPRESSED,
+                "Total number of bytes of the batches that were compressed, before compression.",
+                "bytes", false),
+            f.createLongCounter(BATCH_BYTES_COMPRESSED,
+                "Total number of bytes of the batches that were compressed, after compression.",
+                "bytes", false),
+            f.createLongCounter(BATCH_COMPRESSION_TIME, "Total time spent compressing batches.",
+                "nanoseconds", false),
             f.createIntCounter(UNPROCESSED_TOKENS_ADDED_BY_PRIMARY,
                 "Number of tokens added to the secondary's unprocessed token map by the primary (though a listener).",
                 "tokens"),
@@ -112,6 +123,10 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
     batchDistributionTimeId = type.nameToId(BATCH_DISTRIBUTION_TIME);
     batchesDistributedId = type.nameToId(BATCHES_DISTRIBUTED);
     batchesRedistributedId = type.nameToId(BATCHES_REDISTRIBUTED);
+    batchesInFlightId = type.nameToId(BATCHES_IN_FLIGHT);
+    batchBytesUncompressedId = type.nameToId(BATCH_BYTES_UNCOMPRESSED);
+    batchBytesCompressedId = type.nameToId(BATCH_BYTES_COMPRESSED);
+    batchCompressionTimeId = type.nameToId(BATCH_COMPRESSION_TIME);
     unprocessedTokensAddedByPrimaryId = type.nameToId(UNPROCESSED_TOKENS_ADDED_BY_PRIMARY);
     unprocessedEventsAddedBySecondaryId = type.nameToId(UNPROCESSED_EVENTS_ADDED_BY_SECONDARY);
     unprocessedEventsRemovedByPrimaryId = type.nameToId(UNPROCESSED_EVENTS_REMOVED_BY_PRIMARY);
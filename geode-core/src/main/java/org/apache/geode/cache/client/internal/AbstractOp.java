@@ -17,6 +17,7 @@ package org.apache.geode.cache.client.internal;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 
 import org.apache.logging.log4j.Logger;
 
@@ -192,10 +193,24 @@ public abstract class AbstractOp implements Op {
    * @throws Exception if the execute failed
    */
   protected Object attemptReadResponse(Connection cnx) throws Exception {
+    return attemptReadResponse(cnx, cnx.getCommBuffer());
+  }
+
+  /**
+   * Attempts to read a response to this operation from the given connection using the given comm
+   * buffer instead of the connection's own one. This allows the response to be read while other
+   * messages are being sent on the same connection.
+   * 
+   * @param cnx the connection to read the response from
+   * @param commBuffer the buffer to read the response into
+   * @return the result of the operation or <code>null</code> if the operation has no result.
+   * @throws Exception if the execute failed
+   */
+  protected Object attemptReadResponse(Connection cnx, ByteBuffer commBuffer) throws Exception {
     Message msg = createResponseMessage();
     if (msg != null) {
-      msg.setComms(cnx.getSocket(), cnx.getInputStream(), cnx.getOutputStream(),
-          cnx.getCommBuffer(), cnx.getStats());
+      msg.setComms(cnx.getSocket(), cnx.getInputStream(), cnx.getOutputStream(), commBuffer,
+          cnx.getStats());
       if (msg instanceof ChunkedMessage) {
         try {
           return processResponse(msg, cnx);
@@ -402,6 +417,58 @@ public abstract class AbstractOp implements Op {
     }
   }
 
+  /**
+   * Sends this operation's message on the given connection without waiting for the response. The
+   * response must later be read with {@link #attemptPipelinedRead} in the same order the messages
+   * were sent, since a server processes the messages of a connection one at a time.
+   * 
+   * @param cnx the connection to use when sending
+   * @return the start time of this attempt to pass to {@link #attemptPipelinedRead}
+   * @throws Exception if the send fails
+   */
+  long attemptPipelinedSend(Connection cnx) throws Exception {
+    this.failed = true;
+    this.timedOut = false;
+    long start = startAttempt(cnx.getStats());
+    boolean sent = false;
+    try {
+      attemptSend(cnx);
+      this.failed = false;
+      sent = true;
+    } finally {
+      endSendAttempt(cnx.getStats(), start);
+      if (!sent) {
+        endAttempt(cnx.getStats(), start);
+      }
+    }
+    return start;
+  }
+
+  /**
+   * Reads the response to a message sent by {@link #attemptPipelinedSend}.
+   * 
+   * @param cnx the connection to read the response from
+   * @param commBuffer a buffer not used by the thread sending messages on cnx
+   * @param start the value returned by {@link #attemptPipelinedSend}
+   * @return the result of the operation or <code>null</code> if the operation has no result.
+   * @throws Exception if the execute failed
+   */
+  Object attemptPipelinedRead(Connection cnx, ByteBuffer commBuffer, long start)
+      throws Exception {
+    this.failed = true;
+    try {
+      Object result = attemptReadResponse(cnx, commBuffer);
+      this.failed = false;
+      return result;
+    } catch (SocketTimeoutException ste) {
+      this.failed = false;
+      this.timedOut = true;
+      throw ste;
+    } finally {
+      endAttempt(cnx.getStats(), start);
+    }
+  }
+
   protected boolean hasFailed() {
     return this.failed;
   }
@@ -238,6 +238,52 @@ public class ClientMetadataService {
     return serverToKeysMap;
   }
 
+  /**
+   * Groups the keys of a getAll, putAll or removeAll by the server hosting the primary of their
+   * bucket. Unlike {@link #getServerToFilterMap}, a bucket whose primary is not known yet, for
+   * example because it has not been created, does not send the whole operation through a single
+   * server: only the keys of such buckets go to a random server, which routes them to their owners
+   * as it would without single hop, and the metadata is refreshed in the background.
+   * 
+   * @return the keys to send to each server, or null if there is no metadata for the region
+   */
+  public Map<ServerLocation, HashSet> getServerToBulkKeysMap(final Collection keys,
+      final Region region) {
+    ClientPartitionAdvisor prAdvisor = this.getClientPartitionAdvisor(region.getFullPath());
+    ServerLocation randomServer =
+        prAdvisor == null ? null : prAdvisor.adviseRandomServerLocation();
+    if (randomServer == null) {
+      scheduleGetPRMetaData((LocalRegion) region, false);
+      return null;
+    }
+    HashMap<Integer, HashSet> bucketToKeysMap =
+        groupByBucketOnClientSide(region, prAdvisor, keys, false);
+
+    HashMap<ServerLocation, HashSet> serverToKeysMap = new HashMap<ServerLocation, HashSet>();
+    boolean primaryUnknown = false;
+    for (Map.Entry<Integer, HashSet> entry : bucketToKeysMap.entrySet()) {
+      ServerLocation server = prAdvisor.advisePrimaryServerLocation(entry.getKey());
+      if (server == null) {
+        primaryUnknown = true;
+        server = randomServer;
+      }
+      // use LinkedHashSet to maintain the order of keys
+      HashSet serverKeys = serverToKeysMap.get(server);
+      if (serverKeys == null) {
+        serverKeys = new LinkedHashSet();
+        serverToKeysMap.put(server, serverKeys);
+      }
+      serverKeys.addAll(entry.getValue());
+    }
+    if (primaryUnknown) {
+      scheduleGetPRMetaData((LocalRegion) region, false);
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("Returning server to bulk keys map : {}", serverToKeysMap);
+    }
+    return serverToKeysMap;
+  }
+
   public HashMap<ServerLocation, HashSet<Integer>> groupByServerToAllBuckets(Region region,
       boolean primaryOnly) {
     final String regionFullPath = region.getFullPath();
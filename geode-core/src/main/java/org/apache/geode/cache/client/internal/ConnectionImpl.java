@@ -68,7 +68,7 @@ public class ConnectionImpl implements Connection {
 
   private Socket theSocket;
   private ByteBuffer commBuffer;
-  private ByteBuffer commBufferForAsyncRead;
+  private volatile ByteBuffer commBufferForAsyncRead;
   private ServerQueueStatus status;
   private volatile boolean connectFinished;
   private final AtomicBoolean destroyed = new AtomicBoolean();
@@ -259,7 +259,8 @@ public class ConnectionImpl implements Connection {
     Object result;
     // Do not synchronize when used for GatewaySender
     // as the same connection is being used
-    if ((op instanceof AbstractOp) && ((AbstractOp) op).isGatewaySenderOp()) {
+    if ((op instanceof AbstractOp) && ((AbstractOp) op).isGatewaySenderOp()
+        || op instanceof PipelinedConnection.Unsynchronized) {
       result = op.attempt(this);
       endpoint.updateLastExecute();
       return result;
@@ -323,13 +324,18 @@ public class ConnectionImpl implements Connection {
     TEST_DURABLE_CLIENT_CRASH = v;
   }
 
-  public ByteBuffer getCommBufferForAsyncRead() throws SocketException {
+  public synchronized ByteBuffer getCommBufferForAsyncRead() throws SocketException {
     if (isDestroyed()) {
       // see bug 52193. Since the code used to see this
       // as an attempt to use a close socket just throw
       // a SocketException.
       throw new SocketException("socket was closed");
     }
+    if (commBufferForAsyncRead == null) {
+      // only allocated up front for gateway senders; pipelined connections need one too
+      commBufferForAsyncRead =
+          ServerConnection.allocateCommBuffer(commBuffer.capacity(), theSocket);
+    }
     return commBufferForAsyncRead;
   }
 
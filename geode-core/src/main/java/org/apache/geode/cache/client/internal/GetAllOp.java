@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.Logger;
 
@@ -60,12 +61,30 @@ public class GetAllOp {
     return ((VersionedObjectList) pool.execute(op)).setKeys(keys);
   }
 
+  /**
+   * Does a region getAll on a server without waiting for the reply, sharing one connection with
+   * other asynchronous operations of the pool. Single hop is not used.
+   * 
+   * @param pool the pool to use to communicate with the server.
+   * @param region the name of the region to do the getAll on
+   * @param keys list of keys to get
+   * @return a future completed with the map of values found by the getAll if any
+   * @since Geode 1.3
+   */
+  public static CompletableFuture<VersionedObjectList> executeAsync(ExecutablePool pool,
+      String region, List keys, Object callback) {
+    AbstractOp op = new GetAllOpImpl(region, keys, callback);
+    op.initMessagePart();
+    return ((PoolImpl) pool).executeAsync(op)
+        .thenApply(result -> ((VersionedObjectList) result).setKeys(keys));
+  }
+
   public static VersionedObjectList execute(ExecutablePool pool, Region region, List keys,
       int retryAttempts, Object callback) {
     AbstractOp op = new GetAllOpImpl(region.getFullPath(), keys, callback);
     ClientMetadataService cms = ((LocalRegion) region).getCache().getClientMetadataService();
 
-    Map<ServerLocation, HashSet> serverToFilterMap = cms.getServerToFilterMap(keys, region, true);
+    Map<ServerLocation, HashSet> serverToFilterMap = cms.getServerToBulkKeysMap(keys, region);
 
     if (serverToFilterMap == null || serverToFilterMap.isEmpty()) {
       op.initMessagePart();
@@ -14,6 +14,8 @@
  */
 package org.apache.geode.cache.client.internal;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.cache.CacheClosedException;
@@ -91,6 +93,22 @@ public class GetOp {
     return pool.execute(op);
   }
 
+  /**
+   * Does a region get on a server without waiting for the reply, sharing one connection with other
+   * asynchronous operations of the pool. Single hop is not used.
+   * 
+   * @param pool the pool to use to communicate with the server.
+   * @param region the region to do the get on
+   * @param key the entry key to do the get on
+   * @param callbackArg an optional callback arg to pass to any cache callbacks
+   * @return a future completed with the entry value found by the get if any
+   * @since Geode 1.3
+   */
+  public static CompletableFuture<Object> executeAsync(ExecutablePool pool, LocalRegion region,
+      Object key, Object callbackArg) {
+    GetOpImpl op = new GetOpImpl(region, key, callbackArg, false, null);
+    return ((PoolImpl) pool).executeAsync(op);
+  }
 
   private GetOp() {
     // no instances allowed
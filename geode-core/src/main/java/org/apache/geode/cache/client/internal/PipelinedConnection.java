@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.cache.client.ServerConnectivityException;
+import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.cache.client.internal.pooling.ConnectionManager;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
+
+/**
+ * A pooled connection that is checked out for the lifetime of this object and used to keep many
+ * operations in flight at once. Callers write their message on their own thread and get a
+ * {@link CompletableFuture} back; a single reader thread reads the replies and completes the
+ * futures.
+ * <p>
+ * A server handles the messages of one connection one at a time and replies in the order they
+ * were received, so replies are correlated with requests by their position in the pending queue.
+ * The transaction id carried in the message header can not be used for this since it already
+ * identifies the client transaction an operation belongs to.
+ * <p>
+ * Any failure to send or read leaves the connection in an unknown state, so it is destroyed and
+ * every operation still in flight is completed exceptionally. Operations are not retried.
+ *
+ * @since Geode 1.3
+ */
+public class PipelinedConnection {
+
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The maximum number of operations that can be waiting for a reply on a connection. Callers
+   * block once this many are outstanding.
+   */
+  public static final int MAX_IN_FLIGHT =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "PipelinedConnection.MAX_IN_FLIGHT",
+          256);
+
+  private final ConnectionManager manager;
+
+  private final Connection connection;
+
+  private final ByteBuffer readBuffer;
+
+  private final LinkedBlockingQueue<PendingOp> pending = new LinkedBlockingQueue<>();
+
+  private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+  private final Object sendLock = new Object();
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private final Thread reader;
+
+  PipelinedConnection(ConnectionManager manager, Connection connection) throws Exception {
+    this.manager = manager;
+    this.connection = connection;
+    this.readBuffer = (ByteBuffer) connection.execute(new GetReadBufferOp());
+    this.reader = new Thread(
+        LoggingThreadGroup.createThreadGroup("Pipelined Connection Reader Threads", logger),
+        this::readResponses, "Pipelined Connection Reader for " + connection.getServer());
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  /**
+   * Sends the given op on the calling thread and returns a future that is completed by the reader
+   * thread with the op's result once its reply arrives.
+   */
+  CompletableFuture<Object> execute(AbstractOp op) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    boolean interrupted = Thread.interrupted();
+    try {
+      while (true) {
+        try {
+          this.inFlight.acquire();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    Exception failure = null;
+    synchronized (this.sendLock) {
+      if (this.closed.get()) {
+        this.inFlight.release();
+        future.completeExceptionally(
+            new ServerConnectivityException("Pipelined connection " + this + " is closed"));
+        return future;
+      }
+      try {
+        SendOp send = new SendOp(op);
+        this.connection.execute(send);
+        this.pending.add(new PendingOp(op, future, send.start));
+      } catch (Exception e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      this.inFlight.release();
+      future.completeExceptionally(failure);
+      close(failure);
+    }
+    return future;
+  }
+
+  boolean isClosed() {
+    return this.closed.get();
+  }
+
+  /**
+   * Destroys the connection and completes all operations that are still waiting for a reply
+   * exceptionally.
+   */
+  void close(Throwable cause) {
+    if (!this.closed.compareAndSet(false, true)) {
+      return;
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("Closing {} with {} operations in flight", this, this.pending.size(), cause);
+    }
+    this.reader.interrupt();
+    if (Thread.currentThread() != this.reader) {
+      // Closing the socket gets a reader blocked on a dead server unstuck. The connection is only
+      // destroyed once the reader is done with the read buffer that destroy releases.
+      closeSocket();
+      joinReader();
+    }
+    this.connection.destroy();
+    this.manager.returnConnection(this.connection);
+    synchronized (this.sendLock) {
+      // no sender can add to pending once it sees closed
+    }
+
+    List<PendingOp> abandoned = new ArrayList<>();
+    this.pending.drainTo(abandoned);
+    for (PendingOp op : abandoned) {
+      this.inFlight.release();
+      op.future.completeExceptionally(new ServerConnectivityException(
+          "Pipelined connection to " + this.connection.getServer() + " was closed", cause));
+    }
+  }
+
+  private void closeSocket() {
+    try {
+      this.connection.getSocket().close();
+    } catch (IOException | RuntimeException ignore) {
+      // the reader sees the failure and exits
+    }
+  }
+
+  private void joinReader() {
+    boolean interrupted = Thread.interrupted();
+    try {
+      while (this.reader.isAlive()) {
+        try {
+          this.reader.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void readResponses() {
+    while (!isClosed()) {
+      PendingOp op;
+      try {
+        op = this.pending.take();
+      } catch (InterruptedException e) {
+        // close interrupts us
+        continue;
+      }
+      Object result;
+      try {
+        result = this.connection.execute(new ReadOp(op.op, this.readBuffer, op.start));
+      } catch (Exception e) {
+        this.inFlight.release();
+        op.future.completeExceptionally(e);
+        if (!(e instanceof ServerOperationException)) {
+          // the reply may have been partially read so the connection can't be used anymore
+          close(e);
+        }
+        continue;
+      }
+      this.inFlight.release();
+      op.future.complete(result);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PipelinedConnection[" + this.connection + "]";
+  }
+
+  private static class PendingOp {
+    final AbstractOp op;
+    final CompletableFuture<Object> future;
+    final long start;
+
+    PendingOp(AbstractOp op, CompletableFuture<Object> future, long start) {
+      this.op = op;
+      this.future = future;
+      this.start = start;
+    }
+  }
+
+  /**
+   * Marks the ops this class hands to {@link Connection#execute(Op)}. They are run without holding
+   * the connection's lock so that a read can be in progress while the next message is sent.
+   */
+  interface Unsynchronized {
+  }
+
+  private static class SendOp implements Op, Unsynchronized {
+    private final AbstractOp op;
+    long start;
+
+    SendOp(AbstractOp op) {
+      this.op = op;
+    }
+
+    @Override
+    public Object attempt(Connection cnx) throws Exception {
+      this.start = this.op.attemptPipelinedSend(cnx);
+      return null;
+    }
+
+    @Override
+    public boolean useThreadLocalConnection() {
+      return false;
+    }
+  }
+
+  private static class ReadOp implements Op, Unsynchronized {
+    private final AbstractOp op;
+    private final ByteBuffer readBuffer;
+    private final long start;
+
+    ReadOp(AbstractOp op, ByteBuffer readBuffer, long start) {
+      this.op = op;
+      this.readBuffer = readBuffer;
+      this.start = start;
+    }
+
+    @Override
+    public Object attempt(Connection cnx) throws Exception {
+      return this.op.attemptPipelinedRead(cnx, this.readBuffer, this.start);
+    }
+
+    @Override
+    public boolean useThreadLocalConnection() {
+      return false;
+    }
+  }
+
+  private static class GetReadBufferOp implements Op {
+    @Override
+    public Object attempt(Connection cnx) throws Exception {
+      return ((ConnectionImpl) cnx).getCommBufferForAsyncRead();
+    }
+
+    @Override
+    public boolean useThreadLocalConnection() {
+      return false;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -64,6 +65,7 @@ import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.PoolFactoryImpl;
 import org.apache.geode.internal.cache.PoolManagerImpl;
 import org.apache.geode.internal.cache.PoolStats;
+import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.tier.sockets.ClientProxyMembershipID;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.InternalLogWriter;
@@ -143,6 +145,11 @@ public class PoolImpl implements InternalPool {
 
   private final ArrayList<ProxyCache> proxyCacheList;
 
+  private final Object pipelinedConnectionLock = new Object();
+
+  /** guarded by pipelinedConnectionLock */
+  private PipelinedConnection pipelinedConnection;
+
   private final GatewaySender gatewaySender;
 
   private boolean keepAlive = false;
@@ -610,6 +617,14 @@ public class PoolImpl implements InternalPool {
             e);
       }
 
+      synchronized (this.pipelinedConnectionLock) {
+        if (this.pipelinedConnection != null) {
+          this.pipelinedConnection
+              .close(new PoolCancelledException("Pool " + this + " is shut down"));
+          this.pipelinedConnection = null;
+        }
+      }
+
       try {
         if (this.manager != null) {
           manager.close(keepAlive);
@@ -774,6 +789,65 @@ public class PoolImpl implements InternalPool {
     return executor.execute(op);
   }
 
+  /**
+   * Execute the given op without waiting for its reply. The op is sent on a connection that is
+   * shared by all asynchronous ops of this pool so that many of them can be in flight at once.
+   * Unlike {@link #execute(Op)} the op is not retried if the connection fails.
+   * <p>
+   * Ops that run in a transaction or need per-message user authentication can not share a
+   * connection this way. They are executed synchronously on the calling thread instead and the
+   * returned future is already complete.
+   * 
+   * @param op the operation to execute
+   * @return a future completed with the result of execution if any; null if not
+   * @since Geode 1.3
+   */
+  public CompletableFuture<Object> executeAsync(AbstractOp op) {
+    PipelinedConnection cnx = null;
+    if (!this.multiuserSecureModeEnabled
+        && TXManagerImpl.getCurrentTXUniqueId() == TXManagerImpl.NOTX) {
+      cnx = getPipelinedConnection();
+    }
+    if (cnx == null) {
+      CompletableFuture<Object> future = new CompletableFuture<>();
+      try {
+        future.complete(execute(op));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+    return cnx.execute(op);
+  }
+
+  /**
+   * Returns the connection used by {@link #executeAsync}, creating it if needed, or null if the
+   * server it would connect to requires credentials.
+   */
+  private PipelinedConnection getPipelinedConnection() {
+    synchronized (this.pipelinedConnectionLock) {
+      PipelinedConnection cnx = this.pipelinedConnection;
+      if (cnx != null && !cnx.isClosed()) {
+        return cnx;
+      }
+      this.cancelCriterion.checkCancelInProgress(null);
+      Connection pooled = this.manager.borrowConnection(this.freeConnectionTimeout);
+      if (pooled.getServer().getRequiresCredentials()) {
+        this.manager.returnConnection(pooled);
+        return null;
+      }
+      try {
+        cnx = new PipelinedConnection(this.manager, pooled);
+      } catch (Exception e) {
+        pooled.destroy();
+        this.manager.returnConnection(pooled);
+        throw new ServerConnectivityException("Could not create a pipelined connection", e);
+      }
+      this.pipelinedConnection = cnx;
+      return cnx;
+    }
+  }
+
   /**
    * Execute the given op on the servers that this pool connects to. This method is responsible for
    * retrying the op if an attempt fails. It will only execute it once and on one server.
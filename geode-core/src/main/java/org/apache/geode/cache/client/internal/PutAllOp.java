@@ -91,7 +91,7 @@ public class PutAllOp {
     ClientMetadataService cms = ((LocalRegion) region).getCache().getClientMetadataService();
 
     Map<ServerLocation, HashSet> serverToFilterMap =
-        cms.getServerToFilterMap(map.keySet(), region, true);
+        cms.getServerToBulkKeysMap(map.keySet(), region);
 
     if (serverToFilterMap == null || serverToFilterMap.isEmpty()) {
       AbstractOp op = new PutAllOpImpl(region, map, eventId,
@@ -27,7 +27,6 @@ import org.apache.geode.internal.cache.CachedDeserializable;
 import org.apache.geode.internal.cache.EntryEventImpl;
 import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.tier.MessageType;
-import org.apache.geode.internal.cache.tier.sockets.ChunkedMessage;
 import org.apache.geode.internal.cache.tier.sockets.Message;
 import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.versions.VersionTag;
@@ -35,6 +34,7 @@ import org.apache.geode.internal.logging.LogService;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.Logger;
 
@@ -104,6 +104,28 @@ public class PutOp {
   }
 
 
+  /**
+   * Does a region put on a server without waiting for the reply, sharing one connection with other
+   * asynchronous operations of the pool. The full value is always sent since a failed delta would
+   * have to be resent before the replies of later operations could be read. Single hop is not
+   * used.
+   * 
+   * @param pool the pool to use to communicate with the server.
+   * @param region the region to do the put on
+   * @param key the entry key to do the put on
+   * @param value the entry value to put
+   * @param event the event for this put
+   * @param callbackArg an optional callback arg to pass to any cache callbacks
+   * @return a future completed when the server has done the put
+   * @since Geode 1.3
+   */
+  public static CompletableFuture<Object> executeAsync(ExecutablePool pool, LocalRegion region,
+      Object key, Object value, EntryEventImpl event, Object callbackArg) {
+    PutOpImpl op = new PutOpImpl(region, key, value, null, event, Operation.UPDATE, false, null,
+        callbackArg, true/* send full obj */, false);
+    return ((PoolImpl) pool).executeAsync(op);
+  }
+
   /**
    * This is a unit test method. It does a region put on a server using the given connection from
    * the given pool to communicate with the server. Do not call this method if the value is Delta
@@ -443,41 +465,6 @@ public class PutOp {
       return "PutOp:" + key;
     }
 
-    /**
-     * Attempts to read a response to this operation by reading it from the given connection, and
-     * returning it.
-     * 
-     * @param cnx the connection to read the response from
-     * @return the result of the operation or <code>null</code if the operation has no result.
-     * @throws Exception if the execute failed
-     */
-    @Override
-    protected Object attemptReadResponse(Connection cnx) throws Exception {
-      Message msg = createResponseMessage();
-      if (msg != null) {
-        msg.setComms(cnx.getSocket(), cnx.getInputStream(), cnx.getOutputStream(),
-            cnx.getCommBuffer(), cnx.getStats());
-        if (msg instanceof ChunkedMessage) {
-          try {
-            return processResponse(msg, cnx);
-          } finally {
-            msg.unsetComms();
-            processSecureBytes(cnx, msg);
-          }
-        } else {
-          try {
-            msg.recv();
-          } finally {
-            msg.unsetComms();
-            processSecureBytes(cnx, msg);
-          }
-          return processResponse(msg, cnx);
-        }
-      } else {
-        return null;
-      }
-    }
-
     void setMetaRegionPutOp(boolean bool) {
       this.isMetaRegionPutOp = bool;
     }
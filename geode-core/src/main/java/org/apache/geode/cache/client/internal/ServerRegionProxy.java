@@ -20,6 +20,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.Logger;
 
@@ -42,6 +43,7 @@ import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.TXCommitMessage;
 import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.TXStateProxy;
+import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.execute.ServerRegionFunctionExecutor;
 import org.apache.geode.internal.cache.tier.InterestType;
 import org.apache.geode.internal.cache.tier.sockets.VersionedObjectList;
@@ -115,6 +117,54 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   }
 
 
+  /**
+   * Does a get on the server without blocking the calling thread. Many asynchronous operations can
+   * be in flight on one connection. The operation goes straight to the server; the local region is
+   * neither read nor updated. Invalid and destroyed entries complete the future with null.
+   * <p>
+   * The asynchronous operations are only available on this internal class, not on the public
+   * {@link org.apache.geode.cache.Region} API. Operations in a transaction, in multi-user secure
+   * mode or against servers that require credentials can not be pipelined. They run synchronously
+   * on the calling thread and the returned future is already complete.
+   * 
+   * @since Geode 1.3
+   */
+  public CompletableFuture<Object> getAsync(Object key, Object callbackArg) {
+    return GetOp.executeAsync(this.pool, this.region, key, callbackArg)
+        .thenApply(value -> Token.isInvalidOrRemoved(value) ? null : value);
+  }
+
+  /**
+   * Does a put on the server without blocking the calling thread. Many asynchronous operations can
+   * be in flight on one connection. The operation goes straight to the server; the local region is
+   * not updated. See {@link #getAsync} for when it runs synchronously.
+   * 
+   * @since Geode 1.3
+   */
+  public CompletableFuture<Object> putAsync(Object key, Object value, Object callbackArg) {
+    final EntryEventImpl event = EntryEventImpl.create(this.region, Operation.UPDATE, key, value,
+        callbackArg, false, this.region.getCache().getMyId());
+    event.setNewEventId(this.region.getCache().getDistributedSystem());
+    CompletableFuture<Object> future;
+    try {
+      future = PutOp.executeAsync(this.pool, this.region, key, value, event, callbackArg);
+    } catch (RuntimeException e) {
+      event.release();
+      throw e;
+    }
+    return future.whenComplete((result, ex) -> event.release());
+  }
+
+  /**
+   * Does a getAll on the server without blocking the calling thread. Many asynchronous operations
+   * can be in flight on one connection. The operation goes straight to the server; the local
+   * region is neither read nor updated. See {@link #getAsync} for when it runs synchronously.
+   * 
+   * @since Geode 1.3
+   */
+  public CompletableFuture<VersionedObjectList> getAllAsync(List keys, Object callback) {
+    return GetAllOp.executeAsync(this.pool, this.regionName, keys, callback);
+  }
 
   public int size() {
     return SizeOp.execute(this.pool, this.regionName);
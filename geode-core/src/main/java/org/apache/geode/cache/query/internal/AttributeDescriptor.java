@@ -38,7 +38,9 @@ import org.apache.geode.pdx.JSONFormatter;
 import org.apache.geode.pdx.PdxInstance;
 import org.apache.geode.pdx.PdxSerializationException;
 import org.apache.geode.pdx.internal.FieldNotFoundInPdxVersion;
+import org.apache.geode.pdx.internal.PdxField;
 import org.apache.geode.pdx.internal.PdxInstanceImpl;
+import org.apache.geode.pdx.internal.PdxType;
 
 /**
  * Utility for managing an attribute
@@ -52,7 +54,8 @@ public class AttributeDescriptor {
   private final MethodInvocationAuthorizer _methodInvocationAuthorizer;
   /** cache for remembering the correct Member for a class and attribute */
   private static final ConcurrentMap<List, Member> _localCache = new ConcurrentHashMap();
-
+  /** the PdxField this attribute was last read from, and the PdxType it was found in */
+  private volatile PdxFieldBinding _pdxFieldBinding;
 
 
   public AttributeDescriptor(MethodInvocationAuthorizer methodInvocationAuthorizer, String name) {
@@ -60,6 +63,10 @@ public class AttributeDescriptor {
     _name = name;
   }
 
+  MethodInvocationAuthorizer getMethodInvocationAuthorizer() {
+    return _methodInvocationAuthorizer;
+  }
+
 
 
   /** Validate whether this attribute <i>can</i> be evaluated for target type */
@@ -208,10 +215,11 @@ public class AttributeDescriptor {
       throws NameNotFoundException, QueryInvocationTargetException {
     if (target instanceof PdxInstanceImpl) {
       PdxInstanceImpl pdxInstance = (PdxInstanceImpl) target;
+      PdxField field = getPdxField(pdxInstance.getPdxType());
       // if the field is present in the pdxinstance
-      if (pdxInstance.hasField(_name)) {
+      if (field != null) {
         // return PdxString if field is a String otherwise invoke readField
-        return pdxInstance.getRawField(_name);
+        return pdxInstance.getRawField(field);
       } else {
         // field not found in the pdx instance, look for the field in any of the
         // PdxTypes (versions of the pdxinstance) in the type registry
@@ -258,6 +266,20 @@ public class AttributeDescriptor {
     }
   }
 
+  /**
+   * Returns the field with this attribute's name in the given type, or null if it has none. The
+   * field found in the last type is remembered, so reading the attribute of many instances of the
+   * same type looks it up once.
+   */
+  private PdxField getPdxField(PdxType type) {
+    PdxFieldBinding binding = _pdxFieldBinding;
+    if (binding == null || binding.type != type) {
+      binding = new PdxFieldBinding(type, type.getPdxField(_name));
+      _pdxFieldBinding = binding;
+    }
+    return binding.field;
+  }
+
   private Object readFieldFromDeserializedObject(PdxInstanceImpl pdxInstance, Object target)
       throws NameNotFoundException, QueryInvocationTargetException {
     try {
@@ -306,7 +328,13 @@ public class AttributeDescriptor {
     return false;
   }
 
+  private static class PdxFieldBinding {
+    private final PdxType type;
+    private final PdxField field;
 
-
+    PdxFieldBinding(PdxType type, PdxField field) {
+      this.type = type;
+      this.field = field;
+    }
+  }
 }
-
@@ -34,6 +34,7 @@ import org.apache.geode.internal.cache.PartitionedRegion;
 public class CompiledPath extends AbstractCompiledValue {
   private CompiledValue _receiver; // the value represented by the expression before the dot
   private String _tailID; // the identifier after the dot.
+  private volatile AttributeDescriptor _attributeDescriptor;
 
   public CompiledPath(CompiledValue rcvr, String id) {
     _receiver = rcvr;
@@ -136,7 +137,8 @@ public class CompiledPath extends AbstractCompiledValue {
     // getTailID());
     // }
 
-    Object obj = PathUtils.evaluateAttribute(context, evalRcvr, getTailID());
+    Object obj =
+        PathUtils.evaluateAttribute(evalRcvr, getTailID(), getAttributeDescriptor(context));
     // check for BucketRegion substitution
     PartitionedRegion pr = context.getPartitionedRegion();
     if (pr != null && (obj instanceof Region)) {
@@ -147,6 +149,21 @@ public class CompiledPath extends AbstractCompiledValue {
     return obj;
   }
 
+  /**
+   * Returns the descriptor of the tail attribute, which is kept so that evaluating this path for
+   * each entry of a query can reuse the PDX field it found in earlier entries.
+   */
+  private AttributeDescriptor getAttributeDescriptor(ExecutionContext context) {
+    MethodInvocationAuthorizer authorizer =
+        context.getCache().getQueryService().getMethodInvocationAuthorizer();
+    AttributeDescriptor descriptor = _attributeDescriptor;
+    if (descriptor == null || descriptor.getMethodInvocationAuthorizer() != authorizer) {
+      descriptor = new AttributeDescriptor(authorizer, getTailID());
+      _attributeDescriptor = descriptor;
+    }
+    return descriptor;
+  }
+
   public String getTailID() {
     return _tailID;
   }
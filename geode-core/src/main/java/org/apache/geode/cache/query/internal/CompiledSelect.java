@@ -540,6 +540,10 @@ public class CompiledSelect extends AbstractCompiledValue {
                     .beforeApplyingProjectionOnFilterEvaluatedResults(result);
                 result = applyProjectionOnCollection(result, context, !needsTopLevelOrdering);
               }
+            } else if (ParallelRegionScan.canScan(this, context)) {
+              // otherwise iterate over ranges of the region on several threads
+              result = prepareEmptyResultSet(context, false);
+              ParallelRegionScan.scan(this, context, result);
             } else {
               // otherwise iterate over the single from var to evaluate
               result = doIterationEvaluate(context, true);
@@ -620,6 +624,29 @@ public class CompiledSelect extends AbstractCompiledValue {
     }
   }
 
+  /**
+   * Evaluates this select for the region entries that a parallel scan set as the scan range of the
+   * context, returning what a scan of the whole region would have added to the results for them.
+   */
+  SelectResults evaluateScanRange(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    context.newScope((Integer) context.cacheGet(scopeID));
+    context.pushExecCache((Integer) context.cacheGet(scopeID));
+    context.setDistinct(this.distinct);
+    try {
+      if (context.getQuery() != null) {
+        ((DefaultQuery) context.getQuery()).keepResultsSerialized(this, context);
+      }
+      for (Object iterator : iterators) {
+        context.bindIterator(((CompiledIteratorDef) iterator).getRuntimeIterator(context));
+      }
+      return doIterationEvaluate(context, true);
+    } finally {
+      context.popScope();
+      context.popExecCache();
+    }
+  }
+
   /**
    * The index is locked during query to prevent it from being removed by another thread. So we have
    * to release the lock only after whole query is finished as one query can use an index multiple
@@ -830,6 +857,12 @@ public class CompiledSelect extends AbstractCompiledValue {
         ((QRegion) sr).setKeepSerialized(true);
       }
 
+      // a parallel scan evaluates some of the entries of the region on each of its threads
+      Collection<?> scanRange = context.getScanRange(this);
+      if (level == 0 && scanRange != null && sr instanceof QRegion) {
+        ((QRegion) sr).setKeysForIteration(scanRange);
+      }
+
       // Iterate through the data set.
       for (Object aSr : sr) {
         // Check if query execution on this thread is canceled.
@@ -15,6 +15,7 @@
 package org.apache.geode.cache.query.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -89,6 +90,9 @@ public class ExecutionContext {
   // used when querying on a PR: Substitute reference to PartitionedRegion with BucketRegion
   private BucketRegion bukRgn = null;
   private PartitionedRegion pr = null;
+  // used by a parallel scan: the select whose iteration is restricted to some region entries
+  private CompiledSelect scanSelect = null;
+  private Collection<?> scanRange = null;
   private boolean distinct = false;
   private Object currentProjectionField = null;
   private boolean isPRQueryNode = false;
@@ -571,6 +575,25 @@ public class ExecutionContext {
     return this.pr;
   }
 
+  /**
+   * Restricts the iteration of the given select over its region to the given region entries.
+   */
+  void setScanRange(CompiledSelect select, Collection<?> regionEntries) {
+    this.scanSelect = select;
+    this.scanRange = regionEntries;
+  }
+
+  /**
+   * Returns the region entries the given select iterates, or null if it iterates all of them.
+   */
+  Collection<?> getScanRange(CompiledSelect select) {
+    return select == this.scanSelect ? this.scanRange : null;
+  }
+
+  boolean isScanRangeSet() {
+    return this.scanSelect != null;
+  }
+
   void cachePut(Object key, Object value) {}
 
   public Object cacheGet(Object key) {
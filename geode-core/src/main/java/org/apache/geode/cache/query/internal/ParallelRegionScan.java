@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+
+/**
+ * Scans the region of a query on several threads. When a select iterates a replicated or local
+ * region with a WHERE clause that no index evaluates, the entries of the region are split into
+ * ranges as they are iterated and each range is evaluated by a task on a fork-join pool, with an
+ * ExecutionContext of its own. The results of the ranges are added to the results of the select on
+ * the querying thread, which then treats them as if it had scanned the region itself.
+ * <p>
+ * Parallel scans are off unless gemfire.Query.PARALLEL_SCAN_THREADS is more than one. They are
+ * only used for the top level select of a query, iterating one region of at least two ranges of
+ * entries, without ORDER BY, GROUP BY, aggregates or a COUNT that is not DISTINCT.
+ *
+ * @since Geode 1.3
+ */
+class ParallelRegionScan {
+
+  static final int NUM_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.PARALLEL_SCAN_THREADS", 1);
+
+  static final int RANGE_SIZE = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.PARALLEL_SCAN_RANGE_SIZE", 10000);
+
+  /* For Test purpose */
+  static int TEST_NUM_THREADS = 0;
+
+  /** how long the querying thread waits for a range before checking whether it was canceled */
+  private static final long CANCEL_CHECK_MILLIS = 100;
+
+  private static ForkJoinPool pool;
+
+  private static synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      pool = new ForkJoinPool(TEST_NUM_THREADS > 1 ? TEST_NUM_THREADS : NUM_THREADS);
+    }
+    return pool;
+  }
+
+  /**
+   * Returns true if the iteration of the select over its region for its WHERE clause can be done
+   * by {@link #scan}.
+   */
+  static boolean canScan(CompiledSelect select, ExecutionContext context) {
+    if (NUM_THREADS <= 1 && TEST_NUM_THREADS <= 1) {
+      return false;
+    }
+    // ordering, grouping and counting all need every result of the select on one thread
+    if (select.getClass() != CompiledSelect.class || select.isOrderBy() || select.isGroupBy()
+        || (select.isCount() && !select.isDistinct())) {
+      return false;
+    }
+    if (!(context instanceof QueryExecutionContext) || context.isScanRangeSet()
+        || context.getBucketList() != null || context.getPartitionedRegion() != null
+        || context.isCqQueryContext()) {
+      return false;
+    }
+    Query query = context.getQuery();
+    if (!(query instanceof DefaultQuery) || ((DefaultQuery) query).getSimpleSelect() != select) {
+      return false;
+    }
+    LocalRegion region = getRegion(select, context);
+    return region != null && region.size() >= 2 * RANGE_SIZE;
+  }
+
+  /**
+   * Evaluates the select for each entry of its region on the scan threads and adds its results to
+   * the given results.
+   */
+  static void scan(CompiledSelect select, ExecutionContext context, SelectResults results)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    LocalRegion region = getRegion(select, context);
+    int limit = select.getLimitValue(context.bindArguments);
+    // the scan threads are canceled along with the querying thread
+    AtomicBoolean status = QueryMonitor.getQueryExecutionStatus();
+    ForkJoinPool pool = getPool();
+    List<ForkJoinTask<SelectResults>> tasks = new ArrayList<>();
+    try {
+      List<Object> range = new ArrayList<>(RANGE_SIZE);
+      for (Object entry : region.getSharedDataView().getRegionKeysForIteration(region)) {
+        range.add(entry);
+        if (range.size() == RANGE_SIZE) {
+          QueryMonitor.isQueryExecutionCanceled();
+          tasks.add(pool.submit(new RangeScan(select, context, range, status)));
+          range = new ArrayList<>(RANGE_SIZE);
+        }
+      }
+      if (!range.isEmpty()) {
+        tasks.add(pool.submit(new RangeScan(select, context, range, status)));
+      }
+
+      for (ForkJoinTask<SelectResults> task : tasks) {
+        SelectResults rangeResults = waitFor(task);
+        if (rangeResults != null) {
+          results.addAll(rangeResults);
+        }
+        if (limit > -1 && results.size() >= limit) {
+          break;
+        }
+      }
+    } finally {
+      // ranges that have not started are not needed after a failure or once the limit is reached
+      for (ForkJoinTask<SelectResults> task : tasks) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  private static LocalRegion getRegion(CompiledSelect select, ExecutionContext context) {
+    List iterators = select.getIterators();
+    if (iterators.size() != 1) {
+      return null;
+    }
+    CompiledValue collection = ((CompiledIteratorDef) iterators.get(0)).getCollectionExpr();
+    if (!(collection instanceof CompiledRegion)) {
+      return null;
+    }
+    Region region = context.getCache().getRegion(((CompiledRegion) collection).getRegionPath());
+    if (!(region instanceof LocalRegion)
+        || region.getAttributes().getDataPolicy().withPartitioning()) {
+      return null;
+    }
+    return (LocalRegion) region;
+  }
+
+  private static SelectResults waitFor(ForkJoinTask<SelectResults> task)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    for (;;) {
+      // Check if query execution on this thread is canceled.
+      QueryMonitor.isQueryExecutionCanceled();
+      try {
+        return task.get(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException ignore) {
+        // check for cancellation and wait again
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new QueryExecutionCanceledException("Query was interrupted", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof FunctionDomainException) {
+          throw (FunctionDomainException) cause;
+        } else if (cause instanceof TypeMismatchException) {
+          throw (TypeMismatchException) cause;
+        } else if (cause instanceof NameResolutionException) {
+          throw (NameResolutionException) cause;
+        } else if (cause instanceof QueryInvocationTargetException) {
+          throw (QueryInvocationTargetException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new QueryInvocationTargetException(cause);
+      }
+    }
+  }
+
+  /**
+   * Evaluates a select for a range of the entries of its region, on a scan thread.
+   */
+  private static class RangeScan implements Callable<SelectResults> {
+    private final CompiledSelect select;
+    private final Object[] bindArguments;
+    private final InternalCache cache;
+    private final DefaultQuery query;
+    private final List<Object> range;
+    private final AtomicBoolean status;
+
+    RangeScan(CompiledSelect select, ExecutionContext context, List<Object> range,
+        AtomicBoolean status) {
+      this.select = select;
+      this.bindArguments = context.bindArguments;
+      this.cache = context.getCache();
+      this.query = (DefaultQuery) context.getQuery();
+      this.range = range;
+      this.status = status;
+    }
+
+    @Override
+    public SelectResults call() throws Exception {
+      QueryMonitor.setQueryExecutionStatus(this.status);
+      DefaultQuery.setPdxReadSerialized(this.cache, true);
+      try {
+        QueryExecutionContext context =
+            new QueryExecutionContext(this.bindArguments, this.cache, this.query);
+        context.setScanRange(this.select, this.range);
+        this.select.computeDependencies(context);
+        return this.select.evaluateScanRange(context);
+      } finally {
+        DefaultQuery.setPdxReadSerialized(this.cache, false);
+        DefaultQuery.getPdxClasstofieldsmap().clear();
+        DefaultQuery.getPdxClasstoMethodsmap().clear();
+        QueryMonitor.setQueryExecutionStatus(null);
+      }
+    }
+  }
+}
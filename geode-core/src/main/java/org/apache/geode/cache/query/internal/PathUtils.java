@@ -63,6 +63,17 @@ public class PathUtils {
 
   public static Object evaluateAttribute(ExecutionContext context, Object target, String attribute)
       throws NameNotFoundException, QueryInvocationTargetException {
+    return evaluateAttribute(target, attribute, new AttributeDescriptor(
+        context.getCache().getQueryService().getMethodInvocationAuthorizer(), attribute));
+  }
+
+  /**
+   * Evaluates the attribute with the given descriptor, so that a caller evaluating it for many
+   * targets can reuse what the descriptor learns about where to find the attribute.
+   */
+  public static Object evaluateAttribute(Object target, String attribute,
+      AttributeDescriptor attributeDescriptor)
+      throws NameNotFoundException, QueryInvocationTargetException {
     if (target instanceof Struct) {
       Struct struct = (Struct) target;
       try {
@@ -72,9 +83,7 @@ public class PathUtils {
       }
     }
     try {
-      return new AttributeDescriptor(
-          context.getCache().getQueryService().getMethodInvocationAuthorizer(), attribute)
-              .read(target);
+      return attributeDescriptor.read(target);
     } catch (NameNotFoundException nfe) {
       if (DefaultQueryService.QUERY_HETEROGENEOUS_OBJECTS
           || DefaultQueryService.TEST_QUERY_HETEROGENEOUS_OBJECTS) {
@@ -85,18 +94,6 @@ public class PathUtils {
     }
   }
 
-  /*
-   * This was added as part of CQ performance changes. The change is done to re-use the
-   * AttributeDescriptor object instead of creating it each time.
-   */
-  /*
-   * public static Object evaluateAttribute(Object target, String attribute, AttributeDescriptor
-   * attributeDescriptor) throws NameNotFoundException, QueryInvocationTargetException { if(target
-   * instanceof Struct){ Struct struct = (Struct)target; try{ return struct.get(attribute);
-   * }catch(Exception e){ throw new NameNotFoundException(attribute); } } return
-   * attributeDescriptor.read(target); }
-   */
-
   /**
    * @param pathArray the path starting with an attribute on the initial type.
    * @return array of types starting with the initialType and ending with the type of the last
@@ -105,6 +105,15 @@ public class QRegion implements SelectResults {
     ((ResultsCollectionWrapper) (this.values)).setKeepSerialized(keepSerialized);
   }
 
+  /**
+   * Restricts iteration of the values to the given entries of the region.
+   *
+   * @see org.apache.geode.internal.cache.EntriesSet#setKeysForIteration(Collection)
+   */
+  public void setKeysForIteration(Collection<?> keysForIteration) {
+    ((ResultsCollectionWrapper) (this.values)).setKeysForIteration(keysForIteration);
+  }
+
   protected ObjectType getKeyType() {
     Class constraint = this.region.getAttributes().getKeyConstraint();
     if (constraint == null) {
@@ -172,6 +172,26 @@ public class QueryMonitor implements Runnable {
     }
   }
 
+  /**
+   * Returns the query execution status of the current thread, so that threads executing parts of
+   * its query can be canceled with it.
+   */
+  static AtomicBoolean getQueryExecutionStatus() {
+    return queryExecutionStatus.get();
+  }
+
+  /**
+   * Makes the current thread use the query execution status of another thread, or its own again if
+   * the status is null.
+   */
+  static void setQueryExecutionStatus(AtomicBoolean status) {
+    if (status == null) {
+      queryExecutionStatus.remove();
+    } else {
+      queryExecutionStatus.set(status);
+    }
+  }
+
   /**
    * Stops query monitoring.
    */
@@ -613,6 +613,12 @@ public class ResultsCollectionWrapper implements SelectResults, DataSerializable
     }
   }
 
+  public void setKeysForIteration(Collection<?> keysForIteration) {
+    if (base instanceof EntriesSet) {
+      ((EntriesSet) base).setKeysForIteration(keysForIteration);
+    }
+  }
+
   public void setIgnoreCopyOnReadForQuery(boolean ignore) {
     if (base instanceof EntriesSet) {
       ((EntriesSet) base).setIgnoreCopyOnReadForQuery(ignore);
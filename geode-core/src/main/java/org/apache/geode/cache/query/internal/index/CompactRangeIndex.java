@@ -46,6 +46,7 @@ import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.CqEntry;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.IndexInfo;
+import org.apache.geode.cache.query.internal.PathUtils;
 import org.apache.geode.cache.query.internal.QRegion;
 import org.apache.geode.cache.query.internal.QueryMonitor;
 import org.apache.geode.cache.query.internal.QueryObserver;
@@ -56,7 +57,6 @@ import org.apache.geode.cache.query.internal.StructImpl;
 import org.apache.geode.cache.query.internal.Support;
 import org.apache.geode.cache.query.internal.index.IndexManager.TestHook;
 import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
-import org.apache.geode.cache.query.internal.index.MemoryIndexStore.MemoryIndexStoreEntry;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.internal.types.TypeUtils;
@@ -278,7 +278,7 @@ public class CompactRangeIndex extends AbstractIndex {
     CompactRangeIndex index = (CompactRangeIndex) indexInfo._getIndex();
     RuntimeIterator runtimeItr = index.getRuntimeIteratorForThisIndex(context, indexInfo);
     if (runtimeItr != null) {
-      runtimeItr.setCurrent(((MemoryIndexStoreEntry) entry).getDeserializedValue());
+      runtimeItr.setCurrent(entry.getDeserializedValue());
     }
     return evaluateEntry(indexInfo, context, keyVal);
   }
@@ -658,9 +658,35 @@ public class CompactRangeIndex extends AbstractIndex {
 
   @Override
   void instantiateEvaluator(IndexCreationHelper indexCreationHelper) {
+    if (indexStore instanceof MemoryIndexStore && !IndexManager.DISABLE_PRIMITIVE_KEY_INDEX_STORE
+        && !IndexManager.isObjectModificationInplace()) {
+      // keep the keys unboxed if the indexed expression is known to be an int, long or double
+      PrimitiveKeyIndexStore.KeyType keyType =
+          PrimitiveKeyIndexStore.keyTypeFor(getIndexedExpressionType(indexCreationHelper));
+      if (keyType != null) {
+        indexStore = new PrimitiveKeyIndexStore(region, internalIndexStats, keyType);
+      }
+    }
     this.evaluator = new IMQEvaluator(indexCreationHelper);
   }
 
+  /**
+   * Returns the type of the indexed expression as declared by the value constraint of the region,
+   * or null if it is not known.
+   */
+  private ObjectType getIndexedExpressionType(IndexCreationHelper indexCreationHelper) {
+    if (!(indexCreationHelper instanceof FunctionalIndexCreationHelper)) {
+      return null;
+    }
+    FunctionalIndexCreationHelper helper = (FunctionalIndexCreationHelper) indexCreationHelper;
+    try {
+      return PathUtils.computeElementTypeOfExpression(helper.context,
+          helper.getCompiledIndexedExpression());
+    } catch (AmbiguousNameException ignore) {
+      return null;
+    }
+  }
+
   // Only used by CompactMapRangeIndex. This is due to the way the index initialization happens
   // first we use the IMQEvaluator for CompactMapRangeIndex
   // Each index in CMRI is a CRI that has the CRI.IMQ and not AbstractIndex.IMQ
@@ -136,6 +136,13 @@ public class IndexManager {
   public static final boolean RANGEINDEX_ONLY = Boolean.valueOf(
       System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "index.RANGEINDEX_ONLY", "false"));
 
+  /**
+   * System property to keep the keys of compact range indexes on int, long and double expressions
+   * in a skip list rather than unboxed.
+   */
+  public static final boolean DISABLE_PRIMITIVE_KEY_INDEX_STORE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "index.DisablePrimitiveKeyIndexStore");
+
   /** For test purpose only */
   public static boolean TEST_RANGEINDEX_ONLY = false;
   public static final String INDEX_ELEMARRAY_THRESHOLD_PROP = "index_elemarray_threshold";
@@ -515,7 +515,7 @@ public class MemoryIndexStore implements IndexStore {
     return ((LocalRegion) this.region).new NonTXEntry(entry);
   }
 
-  private Object getTargetObjectForUpdate(RegionEntry entry) {
+  Object getTargetObjectForUpdate(RegionEntry entry) {
     if (indexOnValues) {
       Object o = entry.getValue((LocalRegion) this.region);
       try {
@@ -664,22 +664,26 @@ public class MemoryIndexStore implements IndexStore {
     public void close() {
       // do nothing
     }
+  }
 
-    public boolean removeFromKeysToRemove(Collection keysToRemove, Object key) {
-      Iterator iterator = keysToRemove.iterator();
-      while (iterator.hasNext()) {
-        try {
-          if (TypeUtils.compare(key, iterator.next(), OQLLexerTokenTypes.TOK_EQ)
-              .equals(Boolean.TRUE)) {
-            iterator.remove();
-            return true;
-          }
-        } catch (TypeMismatchException e) {
-          // they are not equals, so we just continue iterating
+  /**
+   * Removes the first of the keys to remove that is equal to the given index key, returning true if
+   * there was one.
+   */
+  static boolean removeFromKeysToRemove(Collection keysToRemove, Object key) {
+    Iterator iterator = keysToRemove.iterator();
+    while (iterator.hasNext()) {
+      try {
+        if (TypeUtils.compare(key, iterator.next(), OQLLexerTokenTypes.TOK_EQ)
+            .equals(Boolean.TRUE)) {
+          iterator.remove();
+          return true;
         }
+      } catch (TypeMismatchException e) {
+        // they are not equals, so we just continue iterating
       }
-      return false;
     }
+    return false;
   }
 
   public String printAll() {
@@ -714,7 +718,7 @@ public class MemoryIndexStore implements IndexStore {
     private Object value;
     private long iteratorStartTime;
 
-    private MemoryIndexStoreEntry(long iteratorStartTime) {
+    MemoryIndexStoreEntry(long iteratorStartTime) {
       this.iteratorStartTime = iteratorStartTime;
     }
 
@@ -0,0 +1,1157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.NullToken;
+import org.apache.geode.cache.query.internal.Undefined;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.cache.query.types.ObjectType;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * The in-memory index storage for indexes whose indexed expression has an int, long or double
+ * type. Rather than a boxed key and a skip list node for every index key, the keys are kept
+ * unboxed and sorted in chunks of up to {@link #MAX_CHUNK_SIZE} keys, next to the RegionEntry (or
+ * collection of RegionEntries) they map to. Each chunk has its own lock, so as with the skip
+ * list, changes to keys in different chunks run concurrently. Only adding and removing chunks takes
+ * the write lock, which happens once every many changes. Iterators copy a batch of keys at a time,
+ * so like the skip list iterators they are weakly consistent and never block changes for long.
+ * <p>
+ * NULL and UNDEFINED index keys are kept apart, as range iterators skip them. If a key of any other
+ * type is added, for example a field written with another type by a PdxSerializer, the mappings are
+ * moved into the skip list of {@link MemoryIndexStore} which is used from then on.
+ *
+ * @since Geode 1.3
+ */
+class PrimitiveKeyIndexStore extends MemoryIndexStore {
+  private static final Logger logger = LogService.getLogger();
+
+  static final int MAX_CHUNK_SIZE = 256;
+
+  private static final int BATCH_SIZE = 128;
+
+  private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+  /**
+   * The types of index keys that are kept unboxed. Byte and short keys are already int keys, see
+   * {@link TypeUtils#indexKeyFor(Object)}.
+   */
+  enum KeyType {
+    INT, LONG, DOUBLE
+  }
+
+  private final KeyType keyType;
+
+  private final Region region;
+
+  private final InternalIndexStatistics internalIndexStats;
+
+  // The read lock is held to look up a chunk, and its keys are read and changed under the lock of
+  // the chunk. The write lock is held to add or remove chunks.
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // the chunks of keys in key order, guarded by lock
+  private Chunk[] chunks = NO_CHUNKS;
+
+  private int chunkCount;
+
+  // set when a remove left an empty chunk or chunks that can be merged
+  private volatile boolean needsCompaction;
+
+  private final Object nullOrUndefinedLock = new Object();
+
+  // the RegionEntries of the NULL and UNDEFINED keys, guarded by nullOrUndefinedLock
+  private Object nullEntries;
+
+  private Object undefinedEntries;
+
+  private final AtomicInteger numKeys = new AtomicInteger();
+
+  private volatile boolean usesSkipList;
+
+  PrimitiveKeyIndexStore(Region region, InternalIndexStatistics internalIndexStats,
+      KeyType keyType) {
+    super(region, internalIndexStats);
+    this.region = region;
+    this.internalIndexStats = internalIndexStats;
+    this.keyType = keyType;
+  }
+
+  /**
+   * Returns the type of index keys to keep unboxed for an indexed expression of the given type, or
+   * null if its keys are not all int, long or double values.
+   */
+  static KeyType keyTypeFor(ObjectType type) {
+    Class clazz = type == null ? null : type.resolveClass();
+    if (clazz == int.class || clazz == Integer.class || clazz == short.class
+        || clazz == Short.class || clazz == byte.class || clazz == Byte.class) {
+      return KeyType.INT;
+    } else if (clazz == long.class || clazz == Long.class) {
+      return KeyType.LONG;
+    } else if (clazz == double.class || clazz == Double.class) {
+      return KeyType.DOUBLE;
+    }
+    return null;
+  }
+
+  KeyType getKeyType() {
+    return keyType;
+  }
+
+  boolean usesSkipList() {
+    return usesSkipList;
+  }
+
+  @Override
+  public void updateMapping(Object indexKey, Object oldKey, RegionEntry re, Object oldValue)
+      throws IMQException {
+    if (!usesSkipList) {
+      if (DefaultQuery.testHook != null) {
+        DefaultQuery.testHook.doTestHook(3);
+      }
+      Object newKey = toIndexKey(indexKey);
+      if (isKeyOfType(newKey) || isNullOrUndefined(newKey)) {
+        if (basicUpdateMapping(newKey, oldKey, re, oldValue)) {
+          return;
+        }
+      } else {
+        lock.writeLock().lock();
+        try {
+          if (!usesSkipList) {
+            moveToSkipList(newKey);
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+    }
+    super.updateMapping(indexKey, oldKey, re, oldValue);
+  }
+
+  /**
+   * Returns false, without changing the mappings, if they have been moved into the skip list.
+   */
+  private boolean basicUpdateMapping(Object newKey, Object oldKey, RegionEntry re,
+      Object oldValue) throws IMQException {
+    // If the old and new values are the same, the value got updated in place and the old index key
+    // can only be found by looking for the entry.
+    if (oldValue != null && oldValue == getTargetObjectInVM(re)) {
+      oldKey = getOldKey(newKey, re);
+    }
+    // No need to update the mappings if new and old index key are the same.
+    if (oldKey != null && oldKey.equals(newKey)) {
+      return true;
+    }
+    if (newKey instanceof Undefined && Token.isInvalidOrRemoved(getTargetObjectForUpdate(re))) {
+      if (oldKey != null) {
+        basicRemoveMapping(oldKey, re, false);
+      }
+      return true;
+    }
+
+    boolean added;
+    lock.readLock().lock();
+    try {
+      if (usesSkipList) {
+        return false;
+      }
+      added = tryAddMapping(newKey, re);
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (!added) {
+      lock.writeLock().lock();
+      try {
+        if (usesSkipList) {
+          return false;
+        }
+        addToChunks(encode(newKey), re);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    internalIndexStats.incNumValues(1);
+    // remove the mapping of the old key in case of an update
+    if (oldKey != null) {
+      basicRemoveMapping(oldKey, re, false);
+    }
+    return true;
+  }
+
+  /**
+   * Adds a mapping unless the key belongs in a full chunk or there are no chunks yet, in which case
+   * it returns false. Called with the read lock held.
+   */
+  private boolean tryAddMapping(Object indexKey, RegionEntry re) {
+    if (isNullOrUndefined(indexKey)) {
+      synchronized (nullOrUndefinedLock) {
+        if (indexKey instanceof NullToken) {
+          if (nullEntries == null) {
+            keyAdded();
+          }
+          nullEntries = addEntry(nullEntries, re);
+        } else {
+          if (undefinedEntries == null) {
+            keyAdded();
+          }
+          undefinedEntries = addEntry(undefinedEntries, re);
+        }
+      }
+      return true;
+    }
+    if (chunkCount == 0) {
+      return false;
+    }
+    long key = encode(indexKey);
+    Chunk chunk = chunks[chunkFor(key)];
+    synchronized (chunk) {
+      int index = chunk.indexOf(key);
+      if (index >= 0) {
+        chunk.values[index] = addEntry(chunk.values[index], re);
+        return true;
+      }
+      if (chunk.size == MAX_CHUNK_SIZE) {
+        return false;
+      }
+      chunk.insert(-index - 1, key, re);
+    }
+    keyAdded();
+    return true;
+  }
+
+  @Override
+  public void removeMapping(Object indexKey, RegionEntry re) throws IMQException {
+    basicRemoveMapping(indexKey, re, true);
+  }
+
+  private boolean basicRemoveMapping(Object key, RegionEntry re, boolean findOldKey)
+      throws IMQException {
+    Object indexKey = toIndexKey(key);
+    boolean found = false;
+    boolean movedToSkipList;
+    lock.readLock().lock();
+    try {
+      movedToSkipList = usesSkipList;
+      if (!movedToSkipList) {
+        found = removeEntry(indexKey, re);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (needsCompaction) {
+      compactChunks();
+    }
+    if (movedToSkipList) {
+      super.removeMapping(key, re);
+      return true;
+    }
+    if (found) {
+      internalIndexStats.incNumValues(-1);
+    } else if (findOldKey && key != null) {
+      // the value may have been modified in place, so look for the entry under another key
+      found = basicRemoveMapping(getOldKey(indexKey, re), re, false);
+    }
+    return found;
+  }
+
+  private Object toIndexKey(Object key) throws IMQException {
+    try {
+      return TypeUtils.indexKeyFor(key);
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + key.getClass().getName(), ex);
+    }
+  }
+
+  /**
+   * Returns the other index key the RegionEntry is mapped to, or the new key if there is none.
+   */
+  private Object getOldKey(Object newKey, RegionEntry re) {
+    lock.readLock().lock();
+    try {
+      for (int c = 0; c < chunkCount; c++) {
+        Chunk chunk = chunks[c];
+        synchronized (chunk) {
+          for (int i = 0; i < chunk.size; i++) {
+            if (containsEntry(chunk.values[i], re) && !keyEquals(chunk.keys[i], newKey)) {
+              return decode(chunk.keys[i]);
+            }
+          }
+        }
+      }
+      synchronized (nullOrUndefinedLock) {
+        if (containsEntry(nullEntries, re) && !(newKey instanceof NullToken)) {
+          return IndexManager.NULL;
+        }
+        if (containsEntry(undefinedEntries, re) && !(newKey instanceof Undefined)) {
+          return QueryService.UNDEFINED;
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return newKey;
+  }
+
+  private boolean keyEquals(long key, Object indexKey) {
+    return indexKey instanceof Number && compare(key, indexKey) == 0;
+  }
+
+  private static boolean containsEntry(Object entries, RegionEntry re) {
+    return entries == re || entries instanceof Collection && ((Collection) entries).contains(re);
+  }
+
+  /**
+   * Moves all mappings into the skip list, which is used from then on. Called with the write lock
+   * held.
+   */
+  private void moveToSkipList(Object indexKey) throws IMQException {
+    logger.info("Index key {} of type {} on region {} is not a {} value, moving the index keys"
+        + " into a skip list", indexKey, indexKey.getClass().getName(), region.getFullPath(),
+        keyType.name().toLowerCase());
+    // the skip list counts the keys and values again as they are added to it
+    internalIndexStats.incNumKeys(-numKeys.get());
+    moveToSkipList(QueryService.UNDEFINED, undefinedEntries);
+    moveToSkipList(IndexManager.NULL, nullEntries);
+    for (int c = 0; c < chunkCount; c++) {
+      Chunk chunk = chunks[c];
+      for (int i = 0; i < chunk.size; i++) {
+        moveToSkipList(decode(chunk.keys[i]), chunk.values[i]);
+      }
+    }
+    chunks = NO_CHUNKS;
+    chunkCount = 0;
+    nullEntries = null;
+    undefinedEntries = null;
+    numKeys.set(0);
+    usesSkipList = true;
+  }
+
+  private void moveToSkipList(Object indexKey, Object entries) throws IMQException {
+    if (entries instanceof RegionEntry) {
+      internalIndexStats.incNumValues(-1);
+      super.updateMapping(indexKey, null, (RegionEntry) entries, null);
+    } else if (entries != null) {
+      for (Object re : (Collection) entries) {
+        internalIndexStats.incNumValues(-1);
+        super.updateMapping(indexKey, null, (RegionEntry) re, null);
+      }
+    }
+  }
+
+  /**
+   * Returns the RegionEntries of a key with the given one added.
+   */
+  private static Object addEntry(Object entries, RegionEntry re) {
+    if (entries == null) {
+      return re;
+    } else if (entries instanceof RegionEntry) {
+      IndexElemArray elemArray = new IndexElemArray();
+      elemArray.add(entries);
+      elemArray.add(re);
+      return elemArray;
+    } else if (entries instanceof IndexElemArray
+        && ((IndexElemArray) entries).size() >= IndexManager.INDEX_ELEMARRAY_THRESHOLD) {
+      // iterators may still be going through the elem array, so it is copied rather than emptied
+      IndexConcurrentHashSet set =
+          new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+      set.addAll((Collection) entries);
+      set.add(re);
+      return set;
+    }
+    ((Collection) entries).add(re);
+    return entries;
+  }
+
+  /**
+   * Adds a mapping, adding or splitting a chunk if needed. Called with the write lock held.
+   */
+  private void addToChunks(long key, RegionEntry re) {
+    if (chunkCount == 0) {
+      insertChunk(0, new Chunk(key));
+    }
+    int c = chunkFor(key);
+    Chunk chunk = chunks[c];
+    int index = chunk.indexOf(key);
+    if (index >= 0) {
+      chunk.values[index] = addEntry(chunk.values[index], re);
+      return;
+    }
+    index = -index - 1;
+    if (chunk.size == MAX_CHUNK_SIZE) {
+      if (index == MAX_CHUNK_SIZE && c == chunkCount - 1) {
+        // keys added in increasing order, like timestamps, fill every chunk
+        chunk = new Chunk(key);
+        insertChunk(c + 1, chunk);
+        index = 0;
+      } else {
+        Chunk upper = chunk.split();
+        insertChunk(c + 1, upper);
+        if (index > chunk.size) {
+          index -= chunk.size;
+          chunk = upper;
+        }
+      }
+    }
+    chunk.insert(index, key, re);
+    keyAdded();
+  }
+
+  /**
+   * Removes the RegionEntry from the entries of the given key, returning true if it was there.
+   * Called with the read lock held.
+   */
+  private boolean removeEntry(Object indexKey, RegionEntry re) {
+    if (isNullOrUndefined(indexKey)) {
+      synchronized (nullOrUndefinedLock) {
+        return removeNullOrUndefinedEntry(indexKey, re);
+      }
+    }
+
+    int c = chunkOf(indexKey);
+    if (c < 0) {
+      return false;
+    }
+    Chunk chunk = chunks[c];
+    synchronized (chunk) {
+      int index = indexOf(chunk, indexKey);
+      if (index < 0) {
+        return false;
+      }
+      Object entries = chunk.values[index];
+      if (!removeFromEntries(entries, re)) {
+        return false;
+      }
+      if (entries instanceof Collection && !((Collection) entries).isEmpty()) {
+        return true;
+      }
+      chunk.remove(index);
+      // The size of the next chunk is read without its lock, compactChunks looks at it again.
+      if (chunk.size == 0 || c + 1 < chunkCount
+          && chunk.size + chunks[c + 1].size <= MAX_CHUNK_SIZE / 2) {
+        needsCompaction = true;
+      }
+    }
+    keyRemoved();
+    return true;
+  }
+
+  private boolean removeNullOrUndefinedEntry(Object indexKey, RegionEntry re) {
+    if (indexKey instanceof NullToken) {
+      if (!removeFromEntries(nullEntries, re)) {
+        return false;
+      }
+      if (nullEntries instanceof RegionEntry || ((Collection) nullEntries).isEmpty()) {
+        nullEntries = null;
+        keyRemoved();
+      }
+      return true;
+    }
+    if (!removeFromEntries(undefinedEntries, re)) {
+      return false;
+    }
+    if (undefinedEntries instanceof RegionEntry || ((Collection) undefinedEntries).isEmpty()) {
+      undefinedEntries = null;
+      keyRemoved();
+    }
+    return true;
+  }
+
+  /**
+   * Drops the chunks emptied by removes and merges sparse chunks into the chunk before them.
+   */
+  private void compactChunks() {
+    lock.writeLock().lock();
+    try {
+      if (!needsCompaction) {
+        return;
+      }
+      needsCompaction = false;
+      int kept = 0;
+      for (int c = 0; c < chunkCount; c++) {
+        Chunk chunk = chunks[c];
+        if (chunk.size == 0) {
+          continue;
+        }
+        if (kept > 0 && chunks[kept - 1].size + chunk.size <= MAX_CHUNK_SIZE / 2) {
+          chunks[kept - 1].append(chunk);
+        } else {
+          chunks[kept++] = chunk;
+        }
+      }
+      Arrays.fill(chunks, kept, chunkCount, null);
+      chunkCount = kept;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static boolean removeFromEntries(Object entries, RegionEntry re) {
+    if (entries instanceof RegionEntry) {
+      return entries == re;
+    }
+    return entries != null && ((Collection) entries).remove(re);
+  }
+
+  private void keyAdded() {
+    numKeys.incrementAndGet();
+    internalIndexStats.incNumKeys(1);
+  }
+
+  private void keyRemoved() {
+    numKeys.decrementAndGet();
+    internalIndexStats.incNumKeys(-1);
+  }
+
+  private void insertChunk(int c, Chunk chunk) {
+    if (chunkCount == chunks.length) {
+      chunks = Arrays.copyOf(chunks, Math.max(16, chunkCount * 2));
+    }
+    System.arraycopy(chunks, c, chunks, c + 1, chunkCount - c);
+    chunks[c] = chunk;
+    chunkCount++;
+  }
+
+  /**
+   * Returns the index of the chunk a key belongs in. Called with the read or write lock held.
+   */
+  private int chunkFor(long key) {
+    return chunkBefore(k -> k <= key);
+  }
+
+  /**
+   * Returns the last chunk whose first key is before, given that all keys before come first, or
+   * the first chunk if there is none. The keys before are then all in or before that chunk. Called
+   * with the read lock held.
+   */
+  private int chunkBefore(LongPredicate before) {
+    int low = 1;
+    int high = chunkCount - 1;
+    int c = 0;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (before.test(chunks[mid].firstKey)) {
+        c = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return c;
+  }
+
+  /**
+   * Returns the chunk that may hold the given index key, or -1 if none does. Called with the read
+   * lock held.
+   */
+  private int chunkOf(Object indexKey) {
+    if (chunkCount == 0) {
+      return -1;
+    }
+    if (isKeyOfType(indexKey)) {
+      return chunkFor(encode(indexKey));
+    } else if (indexKey instanceof Number) {
+      // a key of another numeric type that may be equal to the first key that is not before it
+      LongPredicate before = key -> compare(key, indexKey) < 0;
+      for (int c = chunkBefore(before); c < chunkCount; c++) {
+        Chunk chunk = chunks[c];
+        synchronized (chunk) {
+          if (chunk.firstIndexAfter(before) < chunk.size) {
+            return c;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the given index key in a chunk returned by {@link #chunkOf(Object)}, or -1
+   * if it has no mappings. Called with the lock of the chunk held.
+   */
+  private int indexOf(Chunk chunk, Object indexKey) {
+    if (isKeyOfType(indexKey)) {
+      int index = chunk.indexOf(encode(indexKey));
+      return index < 0 ? -1 : index;
+    }
+    int index = chunk.firstIndexAfter(key -> compare(key, indexKey) < 0);
+    return index < chunk.size && compare(chunk.keys[index], indexKey) == 0 ? index : -1;
+  }
+
+  private boolean isKeyOfType(Object indexKey) {
+    switch (keyType) {
+      case INT:
+        return indexKey instanceof Integer;
+      case LONG:
+        return indexKey instanceof Long;
+      default:
+        return indexKey instanceof Double;
+    }
+  }
+
+  private static boolean isNullOrUndefined(Object indexKey) {
+    return indexKey instanceof NullToken || indexKey instanceof Undefined;
+  }
+
+  /**
+   * Returns the key of an index key of the key type. Doubles are mapped to longs that sort in the
+   * order of {@link Double#compare(double, double)}.
+   */
+  private long encode(Object indexKey) {
+    if (keyType == KeyType.DOUBLE) {
+      long bits = Double.doubleToLongBits((Double) indexKey);
+      return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+    return ((Number) indexKey).longValue();
+  }
+
+  private static double decodeDouble(long key) {
+    return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+  }
+
+  private Object decode(long key) {
+    switch (keyType) {
+      case INT:
+        return Integer.valueOf((int) key);
+      case LONG:
+        return Long.valueOf(key);
+      default:
+        return Double.valueOf(decodeDouble(key));
+    }
+  }
+
+  /**
+   * Compares a key with an index key the way the extended numeric comparator of the skip list does.
+   *
+   * @throws ClassCastException if the index key is not a number, NULL or UNDEFINED
+   */
+  private int compare(long key, Object indexKey) {
+    if (isNullOrUndefined(indexKey)) {
+      // everything is greater than NULL and UNDEFINED
+      return 1;
+    }
+    Number number = (Number) indexKey;
+    if (keyType == KeyType.DOUBLE) {
+      return Double.compare(decodeDouble(key), number.doubleValue());
+    } else if (number instanceof Double) {
+      return Double.compare((double) key, number.doubleValue());
+    } else if (number instanceof Float) {
+      return Float.compare((float) (double) key, number.floatValue());
+    } else if (keyType == KeyType.LONG || number instanceof Long) {
+      return Long.compare(key, number.longValue());
+    }
+    return Integer.compare((int) key, number.intValue());
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> get(Object indexKey) {
+    if (isNullOrUndefined(indexKey)) {
+      lock.readLock().lock();
+      try {
+        if (!usesSkipList) {
+          synchronized (nullOrUndefinedLock) {
+            return new PrimitiveKeyIterator(indexKey,
+                indexKey instanceof NullToken ? nullEntries : undefinedEntries);
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    } else if (!usesSkipList) {
+      return new PrimitiveKeyIterator(indexKey, true, indexKey, true, false, null);
+    }
+    return super.get(indexKey);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.iterator(start, startInclusive, end, endInclusive, keysToRemove);
+    }
+    return new PrimitiveKeyIterator(start, startInclusive, end, endInclusive, false, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.iterator(start, startInclusive, keysToRemove);
+    }
+    return new PrimitiveKeyIterator(start, startInclusive, null, false, false, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.iterator(keysToRemove);
+    }
+    return new PrimitiveKeyIterator(null, false, null, false, false, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.descendingIterator(start, startInclusive, end, endInclusive, keysToRemove);
+    }
+    return new PrimitiveKeyIterator(start, startInclusive, end, endInclusive, true, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.descendingIterator(start, startInclusive, keysToRemove);
+    }
+    return new PrimitiveKeyIterator(start, startInclusive, null, false, true, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Collection keysToRemove) {
+    if (usesSkipList) {
+      return super.descendingIterator(keysToRemove);
+    }
+    return new PrimitiveKeyIterator(null, false, null, false, true, keysToRemove);
+  }
+
+  @Override
+  public boolean clear() {
+    lock.writeLock().lock();
+    try {
+      chunks = NO_CHUNKS;
+      chunkCount = 0;
+      needsCompaction = false;
+      nullEntries = null;
+      undefinedEntries = null;
+      numKeys.set(0);
+      return super.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int size(Object key) {
+    lock.readLock().lock();
+    try {
+      if (!usesSkipList) {
+        if (isNullOrUndefined(key)) {
+          synchronized (nullOrUndefinedLock) {
+            return sizeOf(key instanceof NullToken ? nullEntries : undefinedEntries);
+          }
+        }
+        int c = chunkOf(key);
+        if (c < 0) {
+          return 0;
+        }
+        Chunk chunk = chunks[c];
+        synchronized (chunk) {
+          int index = indexOf(chunk, key);
+          return index < 0 ? 0 : sizeOf(chunk.values[index]);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return super.size(key);
+  }
+
+  private static int sizeOf(Object entries) {
+    if (entries == null) {
+      return 0;
+    }
+    return entries instanceof RegionEntry ? 1 : ((Collection) entries).size();
+  }
+
+  @Override
+  public int size() {
+    return usesSkipList ? super.size() : numKeys.get();
+  }
+
+  @Override
+  public String printAll() {
+    lock.readLock().lock();
+    try {
+      if (!usesSkipList) {
+        StringBuilder sb = new StringBuilder();
+        synchronized (nullOrUndefinedLock) {
+          printEntries(sb, QueryService.UNDEFINED, undefinedEntries);
+          printEntries(sb, IndexManager.NULL, nullEntries);
+        }
+        for (int c = 0; c < chunkCount; c++) {
+          Chunk chunk = chunks[c];
+          synchronized (chunk) {
+            for (int i = 0; i < chunk.size; i++) {
+              printEntries(sb, decode(chunk.keys[i]), chunk.values[i]);
+            }
+          }
+        }
+        return sb.toString();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return super.printAll();
+  }
+
+  private void printEntries(StringBuilder sb, Object indexKey, Object entries) {
+    if (entries == null) {
+      return;
+    }
+    sb.append("Key: ").append(indexKey);
+    if (entries instanceof Collection) {
+      for (Object re : (Collection) entries) {
+        sb.append(" Value:").append(getTargetObject((RegionEntry) re));
+      }
+    } else {
+      sb.append(" Value:").append(getTargetObject((RegionEntry) entries));
+    }
+    sb.append("\n");
+  }
+
+  /**
+   * Sorted keys with the RegionEntries they map to. A chunk other than the first holds the keys
+   * from its first key up to the first key of the next chunk. The first key is fixed when the chunk
+   * is added so that chunks can be looked up while their keys change.
+   */
+  private static class Chunk {
+    final long firstKey;
+
+    final long[] keys = new long[MAX_CHUNK_SIZE];
+
+    final Object[] values = new Object[MAX_CHUNK_SIZE];
+
+    int size;
+
+    Chunk(long firstKey) {
+      this.firstKey = firstKey;
+    }
+
+    int indexOf(long key) {
+      return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Returns the index of the first key that is not before, given that all keys before come first.
+     */
+    int firstIndexAfter(LongPredicate before) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (before.test(keys[mid])) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    void insert(int index, long key, Object value) {
+      System.arraycopy(keys, index, keys, index + 1, size - index);
+      System.arraycopy(values, index, values, index + 1, size - index);
+      keys[index] = key;
+      values[index] = value;
+      size++;
+    }
+
+    void remove(int index) {
+      size--;
+      System.arraycopy(keys, index + 1, keys, index, size - index);
+      System.arraycopy(values, index + 1, values, index, size - index);
+      values[size] = null;
+    }
+
+    /**
+     * Moves the upper half of the keys into a new chunk.
+     */
+    Chunk split() {
+      int half = size / 2;
+      Chunk upper = new Chunk(keys[half]);
+      upper.size = size - half;
+      System.arraycopy(keys, half, upper.keys, 0, upper.size);
+      System.arraycopy(values, half, upper.values, 0, upper.size);
+      Arrays.fill(values, half, size, null);
+      size = half;
+      return upper;
+    }
+
+    void append(Chunk next) {
+      System.arraycopy(next.keys, 0, keys, size, next.size);
+      System.arraycopy(next.values, 0, values, size, next.size);
+      size += next.size;
+    }
+  }
+
+  /**
+   * Iterates over the RegionEntries of the keys between a lower and an upper bound, copying a batch
+   * of keys at a time under the read lock and the lock of each chunk. Like the iterator of
+   * {@link MemoryIndexStore} it skips the keys to remove, and it goes on in the skip list if the
+   * mappings have been moved there.
+   */
+  private class PrimitiveKeyIterator implements CloseableIterator<IndexStoreEntry> {
+    private final Object lower;
+    private final boolean lowerInclusive;
+    private final Object upper;
+    private final boolean upperInclusive;
+    private final boolean descending;
+    private final Collection keysToRemove;
+    // the NULL or UNDEFINED key when iterating over its entries
+    private final Object nullOrUndefinedKey;
+
+    private final long[] batchKeys;
+    private final Object[] batchValues;
+    private int batchSize;
+    private int batchPosition;
+    private boolean exhausted;
+    private boolean hasLastKey;
+    private long lastKey;
+
+    private Object currKey;
+    private RegionEntry currValue;
+    private Iterator valuesIterator;
+    private CloseableIterator<IndexStoreEntry> skipListIterator;
+    private final MemoryIndexStoreEntry currentEntry =
+        new MemoryIndexStoreEntry(GemFireCacheImpl.getInstance().cacheTimeMillis());
+
+    PrimitiveKeyIterator(Object lower, boolean lowerInclusive, Object upper,
+        boolean upperInclusive, boolean descending, Collection keysToRemove) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+      this.descending = descending;
+      this.keysToRemove = keysToRemove == null ? null : new HashSet(keysToRemove);
+      this.nullOrUndefinedKey = null;
+      this.batchKeys = new long[BATCH_SIZE];
+      this.batchValues = new Object[BATCH_SIZE];
+    }
+
+    PrimitiveKeyIterator(Object nullOrUndefinedKey, Object entries) {
+      this.lower = null;
+      this.lowerInclusive = false;
+      this.upper = null;
+      this.upperInclusive = false;
+      this.descending = false;
+      this.keysToRemove = null;
+      this.nullOrUndefinedKey = nullOrUndefinedKey;
+      this.batchKeys = new long[1];
+      this.batchValues = new Object[] {entries};
+      this.batchSize = entries == null ? 0 : 1;
+      this.exhausted = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (valuesIterator != null && valuesIterator.hasNext()) {
+        return true;
+      }
+      valuesIterator = null;
+      while (skipListIterator == null) {
+        if (batchPosition == batchSize) {
+          if (exhausted) {
+            return false;
+          }
+          fetchBatch();
+          continue;
+        }
+        currKey = nullOrUndefinedKey != null ? nullOrUndefinedKey
+            : decode(batchKeys[batchPosition]);
+        Object values = batchValues[batchPosition];
+        batchValues[batchPosition++] = null;
+        if (keysToRemove != null && removeFromKeysToRemove(keysToRemove, currKey)) {
+          continue;
+        }
+        if (values instanceof RegionEntry) {
+          currValue = (RegionEntry) values;
+          return true;
+        }
+        valuesIterator = ((Collection) values).iterator();
+        if (valuesIterator.hasNext()) {
+          return true;
+        }
+        valuesIterator = null;
+      }
+      return skipListIterator.hasNext();
+    }
+
+    @Override
+    public MemoryIndexStoreEntry next() {
+      if (skipListIterator != null) {
+        return (MemoryIndexStoreEntry) skipListIterator.next();
+      }
+      if (valuesIterator == null) {
+        currentEntry.setMemoryIndexStoreEntry(currKey, currValue);
+        return currentEntry;
+      }
+      RegionEntry re = (RegionEntry) valuesIterator.next();
+      if (re == null) {
+        throw new NoSuchElementException();
+      }
+      currentEntry.setMemoryIndexStoreEntry(currKey, re);
+      return currentEntry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      if (skipListIterator != null) {
+        skipListIterator.close();
+      }
+    }
+
+    private void fetchBatch() {
+      batchSize = 0;
+      batchPosition = 0;
+      lock.readLock().lock();
+      try {
+        if (usesSkipList) {
+          skipListIterator = continueInSkipList();
+        } else if (chunkCount == 0) {
+          exhausted = true;
+        } else if (descending) {
+          fetchDescending();
+        } else {
+          fetchAscending();
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+      if (batchSize > 0) {
+        hasLastKey = true;
+        lastKey = batchKeys[batchSize - 1];
+      }
+    }
+
+    private void fetchAscending() {
+      LongPredicate before;
+      if (hasLastKey) {
+        long last = lastKey;
+        before = key -> key <= last;
+      } else if (lower != null) {
+        before = lowerInclusive ? key -> compare(key, lower) < 0 : key -> compare(key, lower) <= 0;
+      } else {
+        before = key -> false;
+      }
+      for (int c = chunkBefore(before); c < chunkCount; c++) {
+        Chunk chunk = chunks[c];
+        synchronized (chunk) {
+          for (int index = chunk.firstIndexAfter(before); index < chunk.size; index++) {
+            if (batchSize == BATCH_SIZE) {
+              return;
+            }
+            long key = chunk.keys[index];
+            if (upper != null && compare(key, upper) >= (upperInclusive ? 1 : 0)) {
+              exhausted = true;
+              return;
+            }
+            batchKeys[batchSize] = key;
+            batchValues[batchSize++] = chunk.values[index];
+          }
+        }
+      }
+      exhausted = true;
+    }
+
+    private void fetchDescending() {
+      LongPredicate before;
+      if (hasLastKey) {
+        long last = lastKey;
+        before = key -> key < last;
+      } else if (upper != null) {
+        before = upperInclusive ? key -> compare(key, upper) <= 0 : key -> compare(key, upper) < 0;
+      } else {
+        before = key -> true;
+      }
+      for (int c = chunkBefore(before); c >= 0; c--) {
+        Chunk chunk = chunks[c];
+        synchronized (chunk) {
+          for (int index = chunk.firstIndexAfter(before) - 1; index >= 0; index--) {
+            if (batchSize == BATCH_SIZE) {
+              return;
+            }
+            long key = chunk.keys[index];
+            if (lower != null && compare(key, lower) <= (lowerInclusive ? -1 : 0)) {
+              exhausted = true;
+              return;
+            }
+            batchKeys[batchSize] = key;
+            batchValues[batchSize++] = chunk.values[index];
+          }
+        }
+      }
+      exhausted = true;
+    }
+
+    /**
+     * Returns an iterator over the rest of the keys in the skip list the mappings were moved into.
+     */
+    private CloseableIterator<IndexStoreEntry> continueInSkipList() {
+      if (nullOrUndefinedKey != null) {
+        return PrimitiveKeyIndexStore.super.get(nullOrUndefinedKey);
+      }
+      Object from = lower;
+      boolean fromInclusive = lowerInclusive;
+      Object to = upper;
+      boolean toInclusive = upperInclusive;
+      if (hasLastKey && descending) {
+        to = decode(lastKey);
+        toInclusive = false;
+      } else if (hasLastKey) {
+        from = decode(lastKey);
+        fromInclusive = false;
+      }
+      if (descending) {
+        if (to != null) {
+          return PrimitiveKeyIndexStore.super.descendingIterator(from, fromInclusive, to,
+              toInclusive, keysToRemove);
+        }
+        return from == null ? PrimitiveKeyIndexStore.super.descendingIterator(keysToRemove)
+            : PrimitiveKeyIndexStore.super.descendingIterator(from, fromInclusive, keysToRemove);
+      }
+      if (to != null) {
+        return PrimitiveKeyIndexStore.super.iterator(from, fromInclusive, to, toInclusive,
+            keysToRemove);
+      }
+      return from == null ? PrimitiveKeyIndexStore.super.iterator(keysToRemove)
+          : PrimitiveKeyIndexStore.super.iterator(from, fromInclusive, keysToRemove);
+    }
+  }
+}
@@ -40,6 +40,7 @@ import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.cache.CacheWriterException;
 import org.apache.geode.cache.EntryNotFoundException;
+import org.apache.geode.cache.Operation;
 import org.apache.geode.cache.RegionAttributes;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.TimeoutException;
@@ -48,6 +49,7 @@ import org.apache.geode.internal.cache.execute.BucketMovedException;
 import org.apache.geode.internal.cache.persistence.query.mock.ByteComparator;
 import org.apache.geode.internal.cache.versions.RegionVersionVector;
 import org.apache.geode.internal.cache.versions.VersionSource;
+import org.apache.geode.internal.cache.wan.AbstractGatewaySender;
 import org.apache.geode.internal.cache.wan.AbstractGatewaySenderEventProcessor;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
 import org.apache.geode.internal.cache.wan.parallel.BucketRegionQueueUnavailableException;
@@ -78,6 +80,18 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
    */
   private final BlockingDeque<Object> eventSeqNumDeque = new LinkedBlockingDeque<Object>();
 
+  /**
+   * Maps the queue key of a pending event to the queue key of the latest event conflated into it
+   * on enqueue. Only the primary stores the conflated event, at the pending key. The secondaries
+   * queued it under its own key and remove it once the pending event has been dispatched.
+   */
+  private final Map<Long, Long> conflatedOnEnqueueKeys = new ConcurrentHashMap<Long, Long>();
+
+  /**
+   * Keeps an event from being conflated on enqueue into a pending event that is being peeked.
+   */
+  private final Object conflateOnEnqueueLock = new Object();
+
   private long lastKeyRecovered;
 
   private final AtomicLong latestQueuedKey = new AtomicLong();
@@ -217,6 +231,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
     });
     this.indexes.clear();
     this.eventSeqNumDeque.clear();
+    this.conflatedOnEnqueueKeys.clear();
   }
 
   @Override
@@ -243,6 +258,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
     try {
       this.indexes.clear();
       this.eventSeqNumDeque.clear();
+      this.conflatedOnEnqueueKeys.clear();
     } finally {
       getInitializationLock().writeLock().unlock();
     }
@@ -328,7 +344,10 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
   // No need to synchronize because it is called from a synchronized method
   private void removeIndex(Long qkey) {
     // Determine whether conflation is enabled for this queue and object
-    Object o = getNoLRU(qkey, true, false, false);
+    removeIndex(qkey, getNoLRU(qkey, true, false, false));
+  }
+
+  private void removeIndex(Long qkey, Object o) {
     if (o instanceof Conflatable) {
       Conflatable object = (Conflatable) o;
       if (object.shouldBeConflated()) {
@@ -336,21 +355,86 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
         String rName = object.getRegionToConflate();
         Object key = object.getKeyToConflate();
         Map latestIndexesForRegion = (Map) this.indexes.get(rName);
-        if (latestIndexesForRegion != null) {
-          // Remove the index.
-          Long index = (Long) latestIndexesForRegion.remove(key);
-          if (index != null) {
-            this.getPartitionedRegion().getParallelGatewaySender().getStatistics()
-                .decConflationIndexesMapSize();
-            if (logger.isDebugEnabled()) {
-              logger.debug("{}: Removed index {} for {}", this, index, object);
-            }
+        // Remove the index unless it already points to a later event for the key.
+        if (latestIndexesForRegion != null && latestIndexesForRegion.remove(key, qkey)) {
+          this.getPartitionedRegion().getParallelGatewaySender().getStatistics()
+              .decConflationIndexesMapSize();
+          if (logger.isDebugEnabled()) {
+            logger.debug("{}: Removed index {} for {}", this, qkey, object);
           }
         }
       }
     }
   }
 
+  @Override
+  public boolean addToQueue(Object key, Object value) throws ForceReattemptException {
+    if (key instanceof Long && value instanceof GatewaySenderEventImpl
+        && getPartitionedRegion().getParallelGatewaySender().isConflateOnEnqueue()
+        && getPartitionedRegion().getColocatedWith() != null
+        && getPartitionedRegion().isConflationEnabled() && getBucketAdvisor().isPrimary()) {
+      GatewaySenderEventImpl event = (GatewaySenderEventImpl) value;
+      Map latestIndexesForRegion = event.shouldBeConflated()
+          ? (Map) this.indexes.get(event.getRegionToConflate()) : null;
+      if (latestIndexesForRegion != null) {
+        synchronized (this.conflateOnEnqueueLock) {
+          Long pendingKey = (Long) latestIndexesForRegion.get(event.getKeyToConflate());
+          if (pendingKey != null) {
+            return conflateOnEnqueue(pendingKey, (Long) key, event);
+          }
+        }
+      }
+    }
+    return super.addToQueue(key, value);
+  }
+
+  /**
+   * Replaces the pending event at pendingKey, which has not been peeked yet, with the given event
+   * so that the event is sent in its place. The secondaries queue the event under its own key, so
+   * the key of an event conflated into the same pending event before is removed from them.
+   */
+  private boolean conflateOnEnqueue(Long pendingKey, Long key, GatewaySenderEventImpl value)
+      throws ForceReattemptException {
+    long startPut = CachePerfStats.getStatTime();
+    value.setShadowKey(pendingKey);
+    EntryEventImpl event =
+        EntryEventImpl.create(this, Operation.UPDATE, pendingKey, value, null, false, getMyId());
+    event.copyOffHeapToHeap();
+    boolean didPut = false;
+    try {
+      // bypass the conflation of virtualPut which would destroy the pending event
+      didPut = super.virtualPut(event, false, true, null, false, startPut, true);
+      checkReadiness();
+    } catch (RegionDestroyedException rde) {
+      getPartitionedRegion().checkReadiness();
+      if (isBucketDestroyed()) {
+        throw new ForceReattemptException("Bucket moved", rde);
+      }
+    }
+    if (didPut) {
+      AbstractGatewaySender sender = getPartitionedRegion().getParallelGatewaySender();
+      sender.getStatistics().incEventsNotQueuedConflated();
+      Long supersededKey = this.conflatedOnEnqueueKeys.put(pendingKey, key);
+      if (supersededKey != null && sender.getEventProcessor() != null) {
+        ((ConcurrentParallelGatewaySenderQueue) sender.getEventProcessor().getQueue())
+            .removeFromSecondaries(getPartitionedRegion(), getId(), supersededKey);
+      }
+      if (logger.isDebugEnabled()) {
+        logger.debug("{}: Conflated {} into the pending event at queue index={}", this, value,
+            pendingKey);
+      }
+    }
+    return didPut;
+  }
+
+  /**
+   * Returns the key the secondaries queued the latest event conflated on enqueue into the event at
+   * the given key under, or null if no event was conflated into it.
+   */
+  public Long removeKeyConflatedOnEnqueue(Object key) {
+    return key instanceof Long ? this.conflatedOnEnqueueKeys.remove(key) : null;
+  }
+
   @Override
   protected void basicDestroy(final EntryEventImpl event, final boolean cacheWrite,
       Object expectedOldValue)
@@ -406,7 +490,16 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
       }
       key = this.eventSeqNumDeque.peekFirst();
       if (key != null) {
-        object = optimalGet(key);
+        if (key instanceof Long && this.getPartitionedRegion().isConflationEnabled()
+            && this.getPartitionedRegion().getParallelGatewaySender().isConflateOnEnqueue()) {
+          // Once peeked, later events for the key must be queued behind this one
+          synchronized (this.conflateOnEnqueueLock) {
+            object = optimalGet(key);
+            removeIndex((Long) key, object);
+          }
+        } else {
+          object = optimalGet(key);
+        }
         if (object == null && !this.getPartitionedRegion().isConflationEnabled()) {
           if (logger.isDebugEnabled()) {
             logger.debug(
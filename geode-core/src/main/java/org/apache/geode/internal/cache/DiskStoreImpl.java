@@ -3456,6 +3456,11 @@ public class DiskStoreImpl implements DiskStore {
     public int size() {
       return this.ints.size() + this.longs.size();
     }
+
+    public void addAll(OplogEntryIdSet other) {
+      this.ints.addAll(other.ints);
+      this.longs.addAll(other.longs);
+    }
   }
 
   /**
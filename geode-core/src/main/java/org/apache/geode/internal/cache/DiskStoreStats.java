@@ -55,6 +55,8 @@ public class DiskStoreStats {
   private static final int oplogRecoveriesId;
   private static final int oplogRecoveryTimeId;
   private static final int oplogRecoveredBytesId;
+  private static final int drfRecoveryTimeId;
+  private static final int crfRecoveryTimeId;
   private static final int bytesReadId;
   private static final int removesId;
   private static final int removeTimeId;
@@ -73,6 +75,8 @@ public class DiskStoreStats {
 
   private static final int oplogReadsId;
   private static final int oplogSeeksId;
+  private static final int mappedOplogBytesId;
+  private static final int mappedOplogReadsId;
 
   private static final int uncreatedRecoveredRegionsId;
   private static final int backupsInProgress;
@@ -146,6 +150,12 @@ public class DiskStoreStats {
             f.createIntCounter("oplogRecoveries", oplogRecoveriesDesc, "ops"),
             f.createLongCounter("oplogRecoveryTime", oplogRecoveryTimeDesc, "nanoseconds"),
             f.createLongCounter("oplogRecoveredBytes", oplogRecoveredBytesDesc, "bytes"),
+            f.createLongCounter("drfRecoveryTime",
+                "The total amount of time spent reading oplog drf files during a recovery",
+                "nanoseconds"),
+            f.createLongCounter("crfRecoveryTime",
+                "The total amount of time spent reading oplog krf and crf files during a recovery",
+                "nanoseconds"),
             f.createLongCounter("removes", removesDesc, "ops"),
             f.createLongCounter("removeTime", removeTimeDesc, "nanoseconds"),
             f.createIntGauge("queueSize", queueSizeDesc, "entries"),
@@ -182,6 +192,12 @@ public class DiskStoreStats {
                 "oplogs"),
             f.createLongCounter("oplogReads", "Total number of oplog reads", "reads"),
             f.createLongCounter("oplogSeeks", "Total number of oplog seeks", "seeks"),
+            f.createLongGauge("mappedOplogBytes",
+                "Current number of bytes of oplog files that are memory mapped for reading",
+                "bytes"),
+            f.createLongCounter("mappedOplogReads",
+                "Total number of values read from memory mapped oplog files. Reading pages that are not resident causes page faults that show up in the readTime of these reads",
+                "reads"),
             f.createIntGauge("uncreatedRecoveredRegions",
                 "The current number of regions that have been recovered but have not yet been created.",
                 "regions"),
@@ -215,6 +231,8 @@ public class DiskStoreStats {
     oplogRecoveriesId = type.nameToId("oplogRecoveries");
     oplogRecoveryTimeId = type.nameToId("oplogRecoveryTime");
     oplogRecoveredBytesId = type.nameToId("oplogRecoveredBytes");
+    drfRecoveryTimeId = type.nameToId("drfRecoveryTime");
+    crfRecoveryTimeId = type.nameToId("crfRecoveryTime");
     removesId = type.nameToId("removes");
     removeTimeId = type.nameToId("removeTime");
     queueSizeId = type.nameToId("queueSize");
@@ -227,6 +245,8 @@ public class DiskStoreStats {
     compactUpdateTimeId = type.nameToId("compactUpdateTime");
     oplogReadsId = type.nameToId("oplogReads");
     oplogSeeksId = type.nameToId("oplogSeeks");
+    mappedOplogBytesId = type.nameToId("mappedOplogBytes");
+    mappedOplogReadsId = type.nameToId("mappedOplogReads");
 
     openOplogsId = type.nameToId("openOplogs");
     inactiveOplogsId = type.nameToId("inactiveOplogs");
@@ -376,6 +396,20 @@ public class DiskStoreStats {
     return this.stats.getLong(flushesId);
   }
 
+  /**
+   * Returns the current number of bytes of oplog files that are memory mapped for reading
+   */
+  public long getMappedOplogBytes() {
+    return this.stats.getLong(mappedOplogBytesId);
+  }
+
+  /**
+   * Returns the total number of values read from memory mapped oplog files
+   */
+  public long getMappedOplogReads() {
+    return this.stats.getLong(mappedOplogReadsId);
+  }
+
   /**
    * Invoked before data is read from disk.
    *
@@ -448,6 +482,24 @@ public class DiskStoreStats {
     this.stats.incLong(oplogRecoveredBytesId, bytesRead);
   }
 
+  /**
+   * Invoked after the drf files of all oplogs being recovered have been read.
+   *
+   * @param start The time at which reading the drf files started
+   */
+  public void endDrfRecovery(long start) {
+    this.stats.incLong(drfRecoveryTimeId, DistributionStats.getStatTime() - start);
+  }
+
+  /**
+   * Invoked after the krf or crf files of all oplogs being recovered have been read.
+   *
+   * @param start The time at which reading the krf or crf files started
+   */
+  public void endCrfRecovery(long start) {
+    this.stats.incLong(crfRecoveryTimeId, DistributionStats.getStatTime() - start);
+  }
+
   public void incRecoveredEntryCreates() {
     this.stats.incLong(recoveredEntryCreatesId, 1);
   }
@@ -499,6 +551,14 @@ public class DiskStoreStats {
     this.stats.incLong(oplogSeeksId, 1);
   }
 
+  public void incMappedOplogBytes(long delta) {
+    this.stats.incLong(mappedOplogBytesId, delta);
+  }
+
+  public void incMappedOplogReads() {
+    this.stats.incLong(mappedOplogReadsId, 1);
+  }
+
   public void incInactiveOplogs(int delta) {
     this.stats.incInt(inactiveOplogsId, delta);
   }
@@ -50,6 +50,9 @@ public class EntriesSet extends AbstractSet {
 
   protected boolean ignoreCopyOnReadForQuery = false;
 
+  /** the region entries to iterate instead of all of the region's, or null to iterate them all */
+  private Collection<?> keysForIteration;
+
   EntriesSet(LocalRegion region, boolean recursive, IteratorType viewType,
       boolean allowTombstones) {
     this.topRegion = region;
@@ -210,6 +213,10 @@ public class EntriesSet extends AbstractSet {
       // TX iterates over KEYS.
       // NonTX iterates over RegionEntry instances
       this.currRgn = rgn;
+      if (keysForIteration != null) {
+        this.currItr = keysForIteration.iterator();
+        return;
+      }
       this.currItr = view.getRegionKeysForIteration(rgn).iterator();
       this.additionalKeysFromView = view.getAdditionalKeysForIterator(rgn);
     }
@@ -226,6 +233,8 @@ public class EntriesSet extends AbstractSet {
         s++;
       }
       return s;
+    } else if (this.keysForIteration != null) {
+      return this.keysForIteration.size();
     } else if (this.recursive) {
       return this.topRegion.allEntriesSize();
     } else {
@@ -263,6 +272,19 @@ public class EntriesSet extends AbstractSet {
     return this.keepSerialized;
   }
 
+  /**
+   * Restricts this set to some of the entries of its region, as returned by iterating
+   * {@link LocalRegion#getRegionMap()} outside of a transaction. Only a set that is not recursive
+   * can be restricted.
+   */
+  public void setKeysForIteration(Collection<?> keysForIteration) {
+    if (this.recursive || this.myTX != null) {
+      throw new IllegalStateException(
+          "Only a non-transactional set of one region can be restricted");
+    }
+    this.keysForIteration = keysForIteration;
+  }
+
   public void setIgnoreCopyOnReadForQuery(boolean ignoreCopyOnReadForQuery) {
     this.ignoreCopyOnReadForQuery = ignoreCopyOnReadForQuery;
   }
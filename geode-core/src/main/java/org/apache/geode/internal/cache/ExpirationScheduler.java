@@ -27,7 +27,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ExpirationScheduler uses a single instance of java.util.Timer (and therefore a single thread) per
- * VM to schedule and execute region and entry expiration tasks.
+ * VM to schedule and execute region expiration tasks. Entry expiration tasks, of which there are
+ * many more, are scheduled on an {@link ExpirationTimerWheel} unless it is disabled.
  */
 
 public class ExpirationScheduler {
@@ -38,8 +39,33 @@ public class ExpirationScheduler {
   private static final int MAX_PENDING_CANCELS = Integer
       .getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAX_PENDING_CANCELS", 10000).intValue();
 
+  /**
+   * Set to true to schedule entry expiration tasks on the timer instead of a timer wheel.
+   */
+  private static final boolean DISABLE_TIMER_WHEEL = Boolean
+      .getBoolean(DistributionConfig.GEMFIRE_PREFIX + "ExpirationScheduler.DISABLE_TIMER_WHEEL");
+
+  /**
+   * The length in milliseconds of one tick of the timer wheel. Entry expiration may be this late.
+   */
+  private static final long TIMER_WHEEL_TICK_MILLIS = Long.getLong(
+      DistributionConfig.GEMFIRE_PREFIX + "ExpirationScheduler.TIMER_WHEEL_TICK_MILLIS", 10);
+
+  /**
+   * The number of slots in the timer wheel.
+   */
+  private static final int TIMER_WHEEL_SIZE = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "ExpirationScheduler.TIMER_WHEEL_SIZE", 4096);
+
+  /**
+   * Schedules entry expiration tasks, of which there may be one per entry. Null if disabled.
+   */
+  private final ExpirationTimerWheel wheel;
+
   public ExpirationScheduler(InternalDistributedSystem ds) {
     this.timer = new SystemTimer(ds, true);
+    this.wheel = DISABLE_TIMER_WHEEL ? null
+        : new ExpirationTimerWheel(TIMER_WHEEL_TICK_MILLIS, TIMER_WHEEL_SIZE);
   }
 
   public void forcePurge() {
@@ -70,6 +96,21 @@ public class ExpirationScheduler {
     }
   }
 
+  /**
+   * Cancels the given task. Only cancels of tasks scheduled on the timer count towards purging it;
+   * a task on the timer wheel is unlinked from its slot and leaves nothing behind to purge.
+   *
+   * @return true if the task was cancelled
+   */
+  public boolean cancelExpiryTask(ExpiryTask task) {
+    boolean onWheel = ExpirationTimerWheel.isManaged(task);
+    boolean cancelled = task.cancel();
+    if (cancelled && !onWheel) {
+      incCancels();
+    }
+    return cancelled;
+  }
+
   /** schedules the given expiration task */
   public ExpiryTask addExpiryTask(ExpiryTask task) {
     try {
@@ -79,7 +120,11 @@ public class ExpirationScheduler {
             new Object[] {task, Long.valueOf(task.getExpiryMillis())}));
       }
       // To fix bug 52267 do not create a Date here; instead calculate the relative duration.
-      timer.schedule(task, task.getExpiryMillis());
+      if (this.wheel != null && task instanceof EntryExpiryTask) {
+        this.wheel.schedule(task, task.getExpiryMillis());
+      } else {
+        timer.schedule(task, task.getExpiryMillis());
+      }
     } catch (EntryNotFoundException e) {
       // ignore - there are unsynchronized paths that allow an entry to
       // be destroyed out from under us.
@@ -99,5 +144,8 @@ public class ExpirationScheduler {
   /** @see java.util.Timer#cancel() */
   public void cancel() {
     timer.cancel();
+    if (this.wheel != null) {
+      this.wheel.cancel();
+    }
   }
 }
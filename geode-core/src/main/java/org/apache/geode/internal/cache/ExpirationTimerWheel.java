@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
+
+/**
+ * A hashed timing wheel on which {@link ExpirationScheduler} schedules entry expiration tasks.
+ * <p>
+ * Time is divided into ticks and each task is linked into the slot of the tick in which it is due.
+ * Scheduling and cancelling a task only lock that one slot and take constant time, unlike a
+ * {@link java.util.Timer} whose single priority queue is locked for a logarithmic insert and which
+ * keeps cancelled tasks until it is purged. The links are fields of {@link ExpiryTask} so
+ * scheduling allocates nothing.
+ * <p>
+ * A single thread visits one slot per tick and runs the tasks in it whose deadline has been
+ * reached. Tasks due more than one turn of the wheel away stay in their slot until a later visit.
+ * A task may run up to one tick later than requested. The thread waits without ticking while no
+ * tasks are scheduled.
+ *
+ * @since Geode 1.3
+ */
+class ExpirationTimerWheel {
+  private static final Logger logger = LogService.getLogger();
+
+  private static final int NEW = 0;
+  private static final int SCHEDULED = 1;
+  private static final int DONE = 2;
+
+  private static final AtomicIntegerFieldUpdater<ExpiryTask> STATE =
+      AtomicIntegerFieldUpdater.newUpdater(ExpiryTask.class, "wheelState");
+
+  /**
+   * The tasks due in the ticks that map to one position of the wheel, as a doubly linked list.
+   */
+  class Slot {
+    // the following are guarded by this
+
+    private ExpiryTask head;
+
+    /** The last tick for which this slot's due tasks were taken */
+    private long processedTick = -1;
+
+    /**
+     * @return true if the wheel had no other tasks
+     */
+    private boolean link(ExpiryTask task) {
+      task.wheelNext = this.head;
+      if (this.head != null) {
+        this.head.wheelPrev = task;
+      }
+      this.head = task;
+      task.wheelSlot = this;
+      return scheduledCount.getAndIncrement() == 0;
+    }
+
+    private void unlink(ExpiryTask task) {
+      if (task.wheelPrev != null) {
+        task.wheelPrev.wheelNext = task.wheelNext;
+      } else {
+        this.head = task.wheelNext;
+      }
+      if (task.wheelNext != null) {
+        task.wheelNext.wheelPrev = task.wheelPrev;
+      }
+      task.wheelPrev = null;
+      task.wheelNext = null;
+      task.wheelSlot = null;
+      scheduledCount.decrementAndGet();
+    }
+  }
+
+  private final long tickNanos;
+
+  private final Slot[] slots;
+
+  private final int mask;
+
+  private final long startNanos = System.nanoTime();
+
+  /** The tick being processed. Only written by the wheel thread. */
+  private volatile long currentTick;
+
+  private final AtomicInteger scheduledCount = new AtomicInteger();
+
+  private volatile boolean cancelled;
+
+  /**
+   * @param tickMillis the length of a tick
+   * @param wheelSize the number of slots, rounded up to a power of two
+   */
+  ExpirationTimerWheel(long tickMillis, int wheelSize) {
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+    int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    this.slots = new Slot[size];
+    for (int i = 0; i < size; i++) {
+      this.slots[i] = new Slot();
+    }
+    this.mask = size - 1;
+    final ThreadGroup group =
+        LoggingThreadGroup.createThreadGroup("Expiration Timer Wheel", logger);
+    Thread thread = new Thread(group, this::runTicks, "Expiration Timer Wheel");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Schedules the given task to run after the given delay.
+   *
+   * @throws IllegalStateException if the task was already scheduled or cancelled, or this wheel
+   *         has been cancelled
+   */
+  void schedule(ExpiryTask task, long delayMillis) {
+    if (this.cancelled) {
+      throw new IllegalStateException("Expiration timer wheel has been cancelled");
+    }
+    if (!STATE.compareAndSet(task, NEW, SCHEDULED)) {
+      throw new IllegalStateException("Task already scheduled or cancelled");
+    }
+    long due = System.nanoTime() - this.startNanos + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    long deadline = (due + this.tickNanos - 1) / this.tickNanos;
+    boolean wasEmpty;
+    while (true) {
+      deadline = Math.max(deadline, this.currentTick + 1);
+      Slot slot = this.slots[(int) (deadline & this.mask)];
+      synchronized (slot) {
+        if (deadline <= slot.processedTick) {
+          // the wheel thread moved past the deadline after we read the current tick
+          continue;
+        }
+        task.wheelDeadline = deadline;
+        wasEmpty = slot.link(task);
+        if (task.wheelState != SCHEDULED) {
+          // cancelled while we were linking it
+          slot.unlink(task);
+          return;
+        }
+      }
+      break;
+    }
+    if (wasEmpty) {
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Returns true if the given task has been handed to a wheel, even if it has since run or been
+   * cancelled.
+   */
+  static boolean isManaged(ExpiryTask task) {
+    return task.wheelState != NEW;
+  }
+
+  /**
+   * Cancels the given task. A task that has not been scheduled yet can no longer be scheduled.
+   *
+   * @return true if the task was scheduled on a wheel and will now not run
+   */
+  static boolean cancel(ExpiryTask task) {
+    if (STATE.compareAndSet(task, NEW, DONE)) {
+      return false;
+    }
+    if (!STATE.compareAndSet(task, SCHEDULED, DONE)) {
+      return false;
+    }
+    Slot slot = task.wheelSlot;
+    if (slot != null) {
+      synchronized (slot) {
+        if (task.wheelSlot == slot) {
+          slot.unlink(task);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stops the wheel thread. Tasks that have not run yet never will.
+   */
+  void cancel() {
+    this.cancelled = true;
+    synchronized (this) {
+      notifyAll();
+    }
+  }
+
+  private void runTicks() {
+    long tick = this.currentTick;
+    while (!this.cancelled) {
+      try {
+        if (!awaitTick(tick + 1)) {
+          continue;
+        }
+      } catch (InterruptedException e) {
+        if (this.cancelled) {
+          break;
+        }
+        continue;
+      }
+      tick++;
+      this.currentTick = tick;
+      List<ExpiryTask> due = takeDue(this.slots[(int) (tick & this.mask)], tick);
+      if (due != null) {
+        for (ExpiryTask task : due) {
+          if (STATE.compareAndSet(task, SCHEDULED, DONE)) {
+            task.run();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits until the given tick has started, or for a task to be scheduled if there are none.
+   *
+   * @return true if the tick has started, false if the wait should be repeated
+   */
+  private synchronized boolean awaitTick(long tick) throws InterruptedException {
+    if (this.scheduledCount.get() == 0) {
+      wait();
+      return false;
+    }
+    long remaining = tick * this.tickNanos - (System.nanoTime() - this.startNanos);
+    if (remaining > 0) {
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      return false;
+    }
+    return true;
+  }
+
+  private List<ExpiryTask> takeDue(Slot slot, long tick) {
+    List<ExpiryTask> due = null;
+    synchronized (slot) {
+      slot.processedTick = tick;
+      ExpiryTask task = slot.head;
+      while (task != null) {
+        ExpiryTask next = task.wheelNext;
+        if (task.wheelDeadline <= tick) {
+          slot.unlink(task);
+          if (due == null) {
+            due = new ArrayList<>();
+          }
+          due.add(task);
+        }
+        task = next;
+      }
+    }
+    return due;
+  }
+}
@@ -83,6 +83,20 @@ public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
     }
   }
 
+  // the following are used when this task is scheduled on an ExpirationTimerWheel
+
+  volatile int wheelState;
+
+  volatile ExpirationTimerWheel.Slot wheelSlot;
+
+  // the following are guarded by wheelSlot
+
+  ExpiryTask wheelPrev;
+
+  ExpiryTask wheelNext;
+
+  long wheelDeadline;
+
   protected ExpiryTask(LocalRegion region) {
     this.region = region;
   }
@@ -291,6 +305,9 @@ public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
   @Override
   public boolean cancel() {
     boolean superCancel = super.cancel();
+    if (ExpirationTimerWheel.cancel(this)) {
+      superCancel = true;
+    }
     LocalRegion lr = getLocalRegion();
     if (lr != null) {
       if (superCancel) {
@@ -8068,9 +8068,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       oldTask = this.entryExpiryTasks.put(regionEntry, newTask);
       ExpirationScheduler scheduler = this.cache.getExpirationScheduler();
       if (oldTask != null) {
-        if (oldTask.cancel()) {
-          scheduler.incCancels();
-        }
+        scheduler.cancelExpiryTask(oldTask);
       }
       if (!scheduler.addEntryExpiryTask(newTask)) {
         this.entryExpiryTasks.remove(regionEntry);
@@ -8093,15 +8091,11 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
   void cancelExpiryTask(RegionEntry regionEntry, ExpiryTask expiryTask) {
     if (expiryTask != null) {
       this.entryExpiryTasks.remove(regionEntry, expiryTask);
-      if (expiryTask.cancel()) {
-        this.cache.getExpirationScheduler().incCancels();
-      }
+      this.cache.getExpirationScheduler().cancelExpiryTask(expiryTask);
     } else {
       EntryExpiryTask oldTask = this.entryExpiryTasks.remove(regionEntry);
       if (oldTask != null) {
-        if (oldTask.cancel()) {
-          this.cache.getExpirationScheduler().incCancels();
-        }
+        this.cache.getExpirationScheduler().cancelExpiryTask(oldTask);
       }
     }
   }
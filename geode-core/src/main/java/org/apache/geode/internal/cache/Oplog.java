@@ -28,8 +28,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.SyncFailedException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -111,6 +115,7 @@ import org.apache.geode.internal.offheap.annotations.Released;
 import org.apache.geode.internal.offheap.annotations.Retained;
 import org.apache.geode.internal.sequencelog.EntryLogger;
 import org.apache.geode.internal.shared.NativeCalls;
+import org.apache.geode.internal.tcp.ByteBufferInputStream;
 import org.apache.geode.internal.util.BlobHelper;
 import org.apache.geode.internal.util.IOUtils;
 import org.apache.geode.internal.util.TransformUtils;
@@ -183,6 +188,13 @@ public class Oplog implements CompactableOplog, Flushable {
   private static final boolean SYNC_WRITES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "syncWrites");
 
+  /**
+   * This system property makes oplogs that are no longer appended to serve value faults from a
+   * read-only memory mapping of their crf, and makes recovery scan crf files through a mapping.
+   */
+  static final boolean MAP_CRF =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Oplog.MAP_CRF");
+
   /**
    * The HighWaterMark of recentValues.
    */
@@ -545,6 +557,13 @@ public class Oplog implements CompactableOplog, Flushable {
 
   final ByteBuffer[] bbArray = new ByteBuffer[2];
 
+  /**
+   * Shares the forcing of this oplog's files between concurrent synchronous writers. Null unless
+   * {@link OplogGroupCommit#ENABLED}.
+   */
+  private final OplogGroupCommit groupCommit =
+      OplogGroupCommit.ENABLED ? new OplogGroupCommit(new GroupCommitTarget()) : null;
+
   private boolean lockedForKRFcreate = false;
 
   /**
@@ -1495,6 +1514,18 @@ public class Oplog implements CompactableOplog, Flushable {
    * Return bytes read.
    */
   long recoverDrf(OplogEntryIdSet deletedIds, boolean alreadyRecoveredOnce, boolean latestOplog) {
+    return recoverDrf(deletedIds, alreadyRecoveredOnce, latestOplog, null);
+  }
+
+  /**
+   * Return bytes read.
+   *
+   * @param deferredUpdates if not null, the updates this drf makes to the version vectors of the
+   *        regions being recovered are added to it instead of being applied, so that the drfs of
+   *        several oplogs can be read concurrently and their updates applied in oplog order
+   */
+  long recoverDrf(OplogEntryIdSet deletedIds, boolean alreadyRecoveredOnce, boolean latestOplog,
+      Collection<Runnable> deferredUpdates) {
     File drfFile = this.drf.f;
     if (drfFile == null) {
       this.haveRecoveredDrf = true;
@@ -1564,7 +1595,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
               case OPLOG_RVV:
                 long idx = dis.getCount();
-                readRVVRecord(dis, this.drf.f, true, latestOplog);
+                readRVVRecord(dis, this.drf.f, true, latestOplog, deferredUpdates);
                 recordCount++;
                 break;
 
@@ -1730,7 +1761,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
         readGemfireVersionRecord(dis, f);
         readTotalCountRecord(dis, f);
-        readRVVRecord(dis, f, false, latestOplog);
+        readRVVRecord(dis, f, false, latestOplog, null);
         long lastOffset = 0;
         byte[] keyBytes = DataSerializer.readByteArray(dis);
         while (keyBytes != null) {
@@ -1890,10 +1921,27 @@ public class Oplog implements CompactableOplog, Flushable {
       int recordCount = 0;
       boolean foundDiskStoreRecord = false;
       FileInputStream fis = null;
+      final long crfLength = this.crf.f.length();
+      long recoveryMappedBytes = 0;
       try {
-        fis = new FileInputStream(this.crf.f);
-        dis = new CountingDataInputStream(new BufferedInputStream(fis, 1024 * 1024),
-            this.crf.f.length());
+        InputStream crfStream = null;
+        if (MAP_CRF && crfLength > 0 && crfLength <= Integer.MAX_VALUE) {
+          try {
+            crfStream = new ByteBufferInputStream(mapFile(this.crf.f, crfLength));
+            recoveryMappedBytes = crfLength;
+            this.stats.incMappedOplogBytes(recoveryMappedBytes);
+          } catch (IOException e) {
+            if (logger.isDebugEnabled()) {
+              logger.debug("Could not map {}, recovering it with a FileInputStream instead",
+                  this.crf.f, e);
+            }
+          }
+        }
+        if (crfStream == null) {
+          fis = new FileInputStream(this.crf.f);
+          crfStream = new BufferedInputStream(fis, 1024 * 1024);
+        }
+        dis = new CountingDataInputStream(crfStream, crfLength);
         boolean endOfLog = false;
         while (!endOfLog) {
           // long startPosition = byteCount;
@@ -1968,7 +2016,7 @@ public class Oplog implements CompactableOplog, Flushable {
               recordCount++;
               break;
             case OPLOG_RVV:
-              readRVVRecord(dis, this.drf.f, false, latestOplog);
+              readRVVRecord(dis, this.drf.f, false, latestOplog, null);
               recordCount++;
               break;
             default:
@@ -1990,6 +2038,10 @@ public class Oplog implements CompactableOplog, Flushable {
         if (fis != null) {
           fis.close();
         }
+        if (recoveryMappedBytes != 0) {
+          // the recovery mapping is unmapped once its stream is garbage collected
+          this.stats.incMappedOplogBytes(-recoveryMappedBytes);
+        }
       }
       if (!foundDiskStoreRecord && recordCount > 0) {
         throw new DiskAccessException(
@@ -2146,8 +2198,8 @@ public class Oplog implements CompactableOplog, Flushable {
     readEndOfRecord(dis);
   }
 
-  private void readRVVRecord(DataInput dis, File f, boolean gcRVV, boolean latestOplog)
-      throws IOException {
+  private void readRVVRecord(DataInput dis, File f, boolean gcRVV, boolean latestOplog,
+      Collection<Runnable> deferredUpdates) throws IOException {
     final boolean isPersistRecoveryDebugEnabled = logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY);
 
     long numRegions = InternalDataSerializer.readUnsignedVL(dis);
@@ -2174,8 +2226,13 @@ public class Oplog implements CompactableOplog, Flushable {
 
           // if we have a recovery store, add the recovered regions
           if (drs != null) {
-            Object member = getParent().getDiskInitFile().getCanonicalObject((int) memberId);
-            drs.recordRecoveredGCVersion((VersionSource) member, gcVersion);
+            VersionSource member =
+                (VersionSource) getParent().getDiskInitFile().getCanonicalObject((int) memberId);
+            if (deferredUpdates != null) {
+              deferredUpdates.add(() -> drs.recordRecoveredGCVersion(member, gcVersion));
+            } else {
+              drs.recordRecoveredGCVersion(member, gcVersion);
+            }
             if (isPersistRecoveryDebugEnabled) {
               logger.trace(LogMarker.PERSIST_RECOVERY,
                   "adding gcRVV entry drId={}, member={}, version={}", drId, memberId, gcVersion);
@@ -3300,6 +3357,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private void basicClose(boolean forceDelete) {
     flushAll();
+    forceForGroupCommit();
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* crf */) {
@@ -3316,6 +3374,7 @@ public class Oplog implements CompactableOplog, Flushable {
         this.crf.RAFClosed = true;
         this.stats.decOpenOplogs();
       }
+      unmapCrf();
       this.closed = true;
     }
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
@@ -3560,6 +3619,7 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private void basicCreate(DiskRegion dr, DiskEntry entry, ValueWrapper value, byte userBits,
       boolean async) throws IOException, InterruptedException {
+    long commitSeq = 0;
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
@@ -3631,6 +3691,7 @@ public class Oplog implements CompactableOplog, Flushable {
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
           startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          commitSeq = getGroupCommitSeq(async);
           // if (this.crf.currSize != startPosForSynchOp) {
           // assert false;
           // }
@@ -3686,6 +3747,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitSeq);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -3760,6 +3822,7 @@ public class Oplog implements CompactableOplog, Flushable {
       drName = getParent().getName();
     }
     flushAll(); // needed in case of async
+    forceForGroupCommit();
     lengthOfOperationCausingSwitch += 20; // for worstcase overhead of writing
                                           // first record
 
@@ -4589,6 +4652,7 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private void basicModify(DiskRegionView dr, DiskEntry entry, ValueWrapper value, byte userBits,
       boolean async, boolean calledByCompactor) throws IOException, InterruptedException {
+    long commitSeq = 0;
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1L;
@@ -4625,6 +4689,7 @@ public class Oplog implements CompactableOplog, Flushable {
             // do the io while holding lock so that switch can set doneAppending
             // Write the data to the opLog for the synch mode
             startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+            commitSeq = getGroupCommitSeq(async);
             this.crf.currSize = temp;
             startPosForSynchOp += getOpStateValueOffset();
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES)) {
@@ -4695,6 +4760,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitSeq);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4725,6 +4791,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private void basicSaveConflictVersionTag(DiskRegionView dr, VersionTag tag, boolean async)
       throws IOException, InterruptedException {
+    long commitSeq = 0;
     boolean useNextOplog = false;
     int adjustment = 0;
     getParent().getBackupLock().lock();
@@ -4749,6 +4816,7 @@ public class Oplog implements CompactableOplog, Flushable {
             }
             this.firstRecord = false;
             writeOpLogBytes(this.crf, async, true);
+            commitSeq = getGroupCommitSeq(async);
             this.crf.currSize = temp;
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES)) {
               logger.trace(LogMarker.PERSIST_WRITES,
@@ -4770,6 +4838,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitSeq);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -5040,6 +5109,7 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private void basicRemove(DiskRegionView dr, DiskEntry entry, boolean async, boolean isClear)
       throws IOException, InterruptedException {
+    long commitSeq = 0;
     DiskId id = entry.getDiskId();
 
     boolean useNextOplog = false;
@@ -5093,6 +5163,7 @@ public class Oplog implements CompactableOplog, Flushable {
             // However we can't have removes by async if we are doing a sync write
             // because we might be killed right after we do this write.
             startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+            commitSeq = getGroupCommitSeq(async);
             setHasDeletes(true);
             if (logger.isDebugEnabled(LogMarker.PERSIST_WRITES)) {
               logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()),
@@ -5124,6 +5195,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitSeq);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -5148,6 +5220,100 @@ public class Oplog implements CompactableOplog, Flushable {
     return this.crf.writeBuf;
   }
 
+  /**
+   * Returns the group commit sequence number of the record the calling thread just wrote while
+   * holding the lock, or zero if it does not need to wait for a group commit.
+   */
+  private long getGroupCommitSeq(boolean async) {
+    if (async || this.groupCommit == null) {
+      return 0;
+    }
+    return this.groupCommit.lastAppended();
+  }
+
+  /**
+   * Waits until the synchronous write with the given group commit sequence number is on disk. Must
+   * be called without holding the oplog lock.
+   */
+  private void awaitGroupCommit(long commitSeq) {
+    if (commitSeq == 0) {
+      return;
+    }
+    try {
+      this.groupCommit.awaitDurable(commitSeq);
+    } catch (IOException ex) {
+      getParent().getCancelCriterion().checkCancelInProgress(ex);
+      throw new DiskAccessException(
+          LocalizedStrings.Oplog_FAILED_WRITING_KEY_TO_0.toLocalizedString(this.diskFile.getPath()),
+          ex, getParent());
+    }
+  }
+
+  /**
+   * Writes out the buffered records of this oplog and forces the files that were written to since
+   * the last group commit.
+   */
+  private class GroupCommitTarget implements OplogGroupCommit.Target {
+    private long drfWritten;
+    private long crfWritten;
+    private long drfForced;
+    private long crfForced;
+
+    @Override
+    public void write() {
+      synchronized (Oplog.this.lock) {
+        // drf before crf, as flushAll does
+        flushAll(false, false);
+        this.drfWritten = Oplog.this.drf.bytesFlushed;
+        this.crfWritten = Oplog.this.crf.bytesFlushed;
+      }
+    }
+
+    @Override
+    public void force() throws IOException {
+      if (this.drfWritten != this.drfForced) {
+        forceForGroupCommit(Oplog.this.drf);
+        this.drfForced = this.drfWritten;
+      }
+      if (this.crfWritten != this.crfForced) {
+        forceForGroupCommit(Oplog.this.crf);
+        this.crfForced = this.crfWritten;
+      }
+    }
+  }
+
+  /**
+   * Forces the files of this oplog to disk if group commit is enabled. Called when the oplog is
+   * closed or switched so that no write is left unforced; background flushes of asynchronous
+   * writes never force.
+   */
+  private void forceForGroupCommit() {
+    if (this.groupCommit == null) {
+      return;
+    }
+    try {
+      forceForGroupCommit(this.drf);
+      forceForGroupCommit(this.crf);
+    } catch (IOException ex) {
+      getParent().getCancelCriterion().checkCancelInProgress(ex);
+      throw new DiskAccessException(
+          LocalizedStrings.Oplog_FAILED_WRITING_KEY_TO_0.toLocalizedString(this.diskFile.getPath()),
+          ex, getParent());
+    }
+  }
+
+  private void forceForGroupCommit(OplogFile olf) throws IOException {
+    if (olf.RAFClosed || olf.channel == null) {
+      return;
+    }
+    try {
+      // the files are preallocated so only their content needs to be forced
+      olf.channel.force(false);
+    } catch (ClosedChannelException ignore) {
+      // the oplog was closed, which forced the files
+    }
+  }
+
   private void flushNoSync(OplogFile olf) throws IOException {
     flushAllNoSync(false); // @todo
   }
@@ -5328,7 +5494,12 @@ public class Oplog implements CompactableOplog, Flushable {
         // " was not > lastWritePos=" + lastWritePos);
         long bytesWritten = this.opState.write(olf);
         if (!async && doFlushIfSync) {
-          flushAndSync(olf);
+          if (this.groupCommit != null) {
+            // the writer forces this with awaitGroupCommit once it has released the lock
+            this.groupCommit.appended(bytesWritten);
+          } else {
+            flushAndSync(olf);
+          }
         }
         getStats().incWrittenBytes(bytesWritten, async);
 
@@ -5376,6 +5547,14 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private volatile boolean beingRead;
 
+  /**
+   * A read-only mapping of the crf once this oplog is done appending, if {@link #MAP_CRF}.
+   */
+  private volatile MappedByteBuffer crfMapping;
+
+  /** Set if mapping the crf failed so that it is not attempted on every read */
+  private boolean crfMappingFailed;
+
   /**
    * If crfRAF has been closed then attempt to reopen the oplog for this read. Verify that this only
    * happens when test methods are invoked.
@@ -5400,6 +5579,10 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private BytesAndBits attemptGet(DiskRegionView dr, long offsetInOplog, boolean bitOnly,
       int valueLength, byte userBits) throws IOException {
+    MappedByteBuffer mapping = getCrfMapping();
+    if (mapping != null) {
+      return getFromMapping(mapping, dr, offsetInOplog, valueLength, userBits);
+    }
     boolean didReopen = false;
     boolean accessedInactive = false;
     try {
@@ -5495,6 +5678,89 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Returns the mapping of the crf, mapping it first if {@link #MAP_CRF} is set and this oplog is
+   * done appending. Returns null if the crf is not mapped; reads then go through the
+   * RandomAccessFile.
+   */
+  private MappedByteBuffer getCrfMapping() {
+    MappedByteBuffer mapping = this.crfMapping;
+    if (mapping != null || !MAP_CRF) {
+      return mapping;
+    }
+    // No need to get the backup lock prior to synchronizing (correct lock order) since the
+    // synchronized block does not attempt to get the backup lock (incorrect lock order)
+    synchronized (this.lock/* crf */) {
+      if (this.crfMapping != null || this.crfMappingFailed || !this.doneAppending || this.closed
+          || this.crf.f == null || this.crf.bytesFlushed > Integer.MAX_VALUE) {
+        return this.crfMapping;
+      }
+      try {
+        this.crfMapping = mapFile(this.crf.f, this.crf.bytesFlushed);
+        this.stats.incMappedOplogBytes(this.crf.bytesFlushed);
+      } catch (IOException e) {
+        this.crfMappingFailed = true;
+        if (logger.isDebugEnabled()) {
+          logger.debug("Could not map {}, reading it with a RandomAccessFile instead", this.crf.f,
+              e);
+        }
+      }
+      return this.crfMapping;
+    }
+  }
+
+  private static MappedByteBuffer mapFile(File f, long length) throws IOException {
+    try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+    }
+  }
+
+  /**
+   * Drops the mapping of the crf. The memory is unmapped once the buffer is garbage collected.
+   */
+  private void unmapCrf() {
+    synchronized (this.lock/* crf */) {
+      MappedByteBuffer mapping = this.crfMapping;
+      if (mapping != null) {
+        this.crfMapping = null;
+        this.stats.incMappedOplogBytes(-mapping.capacity());
+      }
+    }
+  }
+
+  /**
+   * Used by tests to confirm whether the crf of this oplog is mapped
+   */
+  boolean testIsCrfMapped() {
+    return this.crfMapping != null;
+  }
+
+  private BytesAndBits getFromMapping(MappedByteBuffer mapping, DiskRegionView dr,
+      long offsetInOplog, int valueLength, byte userBits) {
+    if ((offsetInOplog + valueLength) > mapping.capacity()) {
+      throw new DiskAccessException(
+          LocalizedStrings.Oplog_TRIED_TO_SEEK_TO_0_BUT_THE_FILE_LENGTH_IS_1_OPLOG_FILE_OBJECT_USED_FOR_READING_2
+              .toLocalizedString(offsetInOplog + valueLength, mapping.capacity(), this.crf.f),
+          dr.getName());
+    } else if (offsetInOplog < 0) {
+      throw new DiskAccessException(LocalizedStrings.Oplog_CANNOT_FIND_RECORD_0_WHEN_READING_FROM_1
+          .toLocalizedString(offsetInOplog, this.diskFile.getPath()), dr.getName());
+    }
+    ByteBuffer view = mapping.duplicate();
+    view.position((int) offsetInOplog);
+    byte[] valueBytes = new byte[valueLength];
+    view.get(valueBytes);
+    this.stats.incMappedOplogReads();
+    BytesAndBits bb = new BytesAndBits(valueBytes, userBits);
+    // also set the product version for an older product
+    final Version version = getProductVersionIfOld();
+    if (version != null) {
+      bb.setVersion(version);
+    }
+    return bb;
+  }
+
   /**
    * Extracts the Value byte array & UserBit from the OpLog
    * 
@@ -5776,6 +6042,9 @@ public class Oplog implements CompactableOplog, Flushable {
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock) {
+      if (olf == this.crf) {
+        unmapCrf();
+      }
       if (olf.currSize != 0) {
         this.dirHolder.decrementTotalOplogSize(olf.currSize);
         olf.currSize = 0;
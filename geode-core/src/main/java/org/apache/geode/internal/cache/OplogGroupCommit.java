@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * Lets the threads doing synchronous writes to an {@link Oplog} share one force of its files.
+ * <p>
+ * A writer appends its record to the oplog's write buffer and registers it with {@link #appended}
+ * while still holding the oplog lock. After releasing the lock it calls {@link #awaitDurable} with
+ * the returned sequence number. The first thread to wait becomes the leader. It may wait up to a
+ * configured time for more writers to join, or until enough bytes are pending. It then writes out
+ * everything appended so far and forces it once. The other writers wait for the leader and return
+ * once their record is covered. Writers that arrive while a force is in progress are covered by
+ * the next leader, so batches form on their own under concurrency even without a wait.
+ * <p>
+ * A failed batch is remembered by its range of sequence numbers, so its writers get the failure
+ * even if they only look after a later batch has been forced.
+ *
+ * @since Geode 1.3
+ */
+class OplogGroupCommit {
+
+  /**
+   * Set to true to make synchronous oplog writes durable by forcing the oplog files to disk, with
+   * concurrent writers sharing each force.
+   */
+  static final boolean ENABLED =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Oplog.GROUP_COMMIT");
+
+  /**
+   * The longest a leader waits for more writers before forcing. Zero, the default, forces at once.
+   */
+  static final long MAX_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "Oplog.GROUP_COMMIT_MAX_WAIT_MICROS", 0));
+
+  /**
+   * The number of pending bytes that ends a leader's wait early.
+   */
+  static final long MAX_BYTES =
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "Oplog.GROUP_COMMIT_MAX_BYTES", 1024 * 1024);
+
+  /**
+   * The files whose writes are committed.
+   */
+  interface Target {
+    /**
+     * Writes every record appended so far from the write buffers to the files.
+     */
+    void write() throws IOException;
+
+    /**
+     * Forces what {@link #write} wrote to disk.
+     */
+    void force() throws IOException;
+  }
+
+  private final Target target;
+
+  private final long maxWaitNanos;
+
+  private final long maxBytes;
+
+  // the following are guarded by this
+
+  private long appendedSeq;
+
+  private long pendingBytes;
+
+  private long durableSeq;
+
+  private long batchedSeq;
+
+  /**
+   * The batches whose write or force failed, keyed by their last sequence number.
+   */
+  private final NavigableMap<Long, FailedBatch> failedBatches = new TreeMap<>();
+
+  private boolean committing;
+
+  private boolean gathering;
+
+  OplogGroupCommit(Target target) {
+    this(target, MAX_WAIT_NANOS, MAX_BYTES);
+  }
+
+  OplogGroupCommit(Target target, long maxWaitNanos, long maxBytes) {
+    this.target = target;
+    this.maxWaitNanos = maxWaitNanos;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Records that a write of the given size was appended. Must be called while holding the lock
+   * under which records are appended so that sequence numbers follow the order of the records.
+   *
+   * @return the sequence number to pass to {@link #awaitDurable}
+   */
+  synchronized long appended(long bytes) {
+    this.pendingBytes += bytes;
+    if (this.gathering && this.pendingBytes >= this.maxBytes) {
+      notifyAll();
+    }
+    return ++this.appendedSeq;
+  }
+
+  /**
+   * Returns the sequence number of the latest write recorded by {@link #appended}.
+   */
+  synchronized long lastAppended() {
+    return this.appendedSeq;
+  }
+
+  /**
+   * Returns once the write with the given sequence number has been forced to disk, forcing it
+   * with the writes of other threads if no other thread is already doing so.
+   *
+   * @throws IOException if writing or forcing the batch containing the write failed
+   */
+  void awaitDurable(long seq) throws IOException {
+    final long firstSeq;
+    final long commitSeq;
+    boolean interrupted = false;
+    try {
+      synchronized (this) {
+        while (true) {
+          Map.Entry<Long, FailedBatch> failed = this.failedBatches.ceilingEntry(seq);
+          if (failed != null && failed.getValue().firstSeq <= seq) {
+            throw new IOException("Forcing oplog writes to disk failed", failed.getValue().cause);
+          }
+          if (this.durableSeq >= seq) {
+            return;
+          }
+          if (!this.committing) {
+            break;
+          }
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        this.committing = true;
+        interrupted |= gather();
+        firstSeq = this.batchedSeq + 1;
+        commitSeq = this.appendedSeq;
+        this.batchedSeq = commitSeq;
+        this.pendingBytes = 0;
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    boolean committed = false;
+    Exception failed = null;
+    try {
+      this.target.write();
+      this.target.force();
+      committed = true;
+    } catch (IOException | RuntimeException e) {
+      failed = e;
+      throw e;
+    } finally {
+      synchronized (this) {
+        this.committing = false;
+        if (committed) {
+          this.durableSeq = commitSeq;
+        } else if (firstSeq <= commitSeq) {
+          this.failedBatches.put(commitSeq, new FailedBatch(firstSeq, failed));
+        }
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits for more writers to append until the maximum wait elapses or the maximum number of bytes
+   * is pending.
+   *
+   * @return true if the wait was interrupted
+   */
+  private boolean gather() {
+    if (this.maxWaitNanos <= 0) {
+      return false;
+    }
+    final long deadline = System.nanoTime() + this.maxWaitNanos;
+    this.gathering = true;
+    try {
+      long remaining;
+      while (this.pendingBytes < this.maxBytes
+          && (remaining = deadline - System.nanoTime()) > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      }
+      return false;
+    } catch (InterruptedException e) {
+      return true;
+    } finally {
+      this.gathering = false;
+    }
+  }
+
+  private static class FailedBatch {
+    final long firstSeq;
+
+    final Exception cause;
+
+    FailedBatch(long firstSeq, Exception cause) {
+      this.firstSeq = firstSeq;
+      this.cause = cause;
+    }
+  }
+}
@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache;
 
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.apache.geode.cache.DiskAccessException;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.cache.DiskEntry.Helper.ValueWrapper;
 import org.apache.geode.internal.cache.DiskStoreImpl.OplogEntryIdSet;
 import org.apache.geode.internal.cache.persistence.DiskRecoveryStore;
@@ -25,6 +26,7 @@ import org.apache.geode.internal.cache.persistence.OplogType;
 import org.apache.geode.internal.cache.versions.RegionVersionVector;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
 import org.apache.geode.internal.logging.log4j.LocalizedMessage;
 import org.apache.geode.internal.logging.log4j.LogMarker;
 import org.apache.geode.internal.sequencelog.EntryLogger;
@@ -42,6 +44,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -68,6 +75,14 @@ public class PersistentOplogSet implements OplogSet {
   /** oplogs that are done being written to but not yet ready to compact */
   private final Map<Long, Oplog> inactiveOplogs = new LinkedHashMap<Long, Oplog>(16, 0.75f, true);
 
+  /**
+   * The number of threads used to read the drfs of the oplogs being recovered. The crfs and krfs,
+   * and the values, are still recovered one oplog at a time. Defaults to 1, which reads the drfs
+   * one at a time as well.
+   */
+  static final int RECOVERY_THREADS = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "PersistentOplogSet.RECOVERY_THREADS", 1);
+
   private final DiskStoreImpl parent;
 
   final AtomicInteger inactiveOpenCount = new AtomicInteger();
@@ -426,6 +441,116 @@ public class PersistentOplogSet implements OplogSet {
     }
   }
 
+  /**
+   * Reads the drfs of the given oplogs, newest first, adding the ids of the entries they destroyed
+   * to deletedIds.
+   * <p>
+   * A drf only holds the ids of destroyed entries and the gc versions of the regions, so the drfs of
+   * different oplogs can be read concurrently. Each is read into its own set and the results are
+   * merged in the same order as a serial recovery, so the outcome does not depend on which read
+   * finishes first.
+   *
+   * @param recoveryThreads the number of drfs to read at a time
+   * @return the number of bytes read
+   */
+  long recoverDrfs(TreeSet<Oplog> oplogSet, OplogEntryIdSet deletedIds, int recoveryThreads) {
+    final boolean alreadyRecoveredOnce = this.alreadyRecoveredOnce.get();
+    final int threads = Math.min(recoveryThreads, oplogSet.size());
+    long byteCount = 0;
+    if (threads <= 1) {
+      boolean latestOplog = true;
+      for (Oplog oplog : oplogSet) {
+        byteCount += oplog.recoverDrf(deletedIds, alreadyRecoveredOnce, latestOplog);
+        latestOplog = false;
+        if (!alreadyRecoveredOnce) {
+          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+        }
+      }
+      return byteCount;
+    }
+
+    final ThreadGroup group =
+        LoggingThreadGroup.createThreadGroup("Oplog Recovery Thread Group", logger);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads,
+        GemfireCacheHelper.CreateThreadFactory(group, "Oplog Drf Recovery"));
+    try {
+      List<DrfRecovery> recoveries = new ArrayList<DrfRecovery>(oplogSet.size());
+      boolean latestOplog = true;
+      for (Oplog oplog : oplogSet) {
+        DrfRecovery recovery = new DrfRecovery(oplog, alreadyRecoveredOnce, latestOplog);
+        recovery.future = executor.submit(recovery);
+        recoveries.add(recovery);
+        latestOplog = false;
+      }
+      for (DrfRecovery recovery : recoveries) {
+        byteCount += recovery.get();
+        deletedIds.addAll(recovery.deletedIds);
+        for (Runnable update : recovery.deferredUpdates) {
+          update.run();
+        }
+        if (!alreadyRecoveredOnce) {
+          updateOplogEntryId(recovery.oplog.getMaxRecoveredOplogEntryId());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return byteCount;
+  }
+
+  /**
+   * Reads the drf of one oplog into its own set of deleted ids.
+   */
+  private class DrfRecovery implements Callable<Long> {
+    final Oplog oplog;
+    final boolean alreadyRecoveredOnce;
+    final boolean latestOplog;
+    final OplogEntryIdSet deletedIds = new OplogEntryIdSet();
+    final List<Runnable> deferredUpdates = new ArrayList<Runnable>();
+    Future<Long> future;
+
+    DrfRecovery(Oplog oplog, boolean alreadyRecoveredOnce, boolean latestOplog) {
+      this.oplog = oplog;
+      this.alreadyRecoveredOnce = alreadyRecoveredOnce;
+      this.latestOplog = latestOplog;
+    }
+
+    @Override
+    public Long call() {
+      return this.oplog.recoverDrf(this.deletedIds, this.alreadyRecoveredOnce, this.latestOplog,
+          this.deferredUpdates);
+    }
+
+    long get() {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            return this.future.get();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new DiskAccessException(
+            LocalizedStrings.Oplog_FAILED_READING_FILE_DURING_RECOVERY_FROM_0
+                .toLocalizedString(this.oplog),
+            cause, parent);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
   private long recoverOplogs(long byteCount) {
     OplogEntryIdSet deletedIds = new OplogEntryIdSet();
 
@@ -442,17 +567,13 @@ public class PersistentOplogSet implements OplogSet {
     if (oplogSet.size() > 0) {
       long startOpLogRecovery = System.currentTimeMillis();
       // first figure out all entries that have been destroyed
-      boolean latestOplog = true;
-      for (Oplog oplog : oplogSet) {
-        byteCount += oplog.recoverDrf(deletedIds, this.alreadyRecoveredOnce.get(), latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
-        }
-      }
+      long startDrfRecovery = parent.getStats().startOplogRead();
+      byteCount += recoverDrfs(oplogSet, deletedIds, RECOVERY_THREADS);
+      parent.getStats().endDrfRecovery(startDrfRecovery);
       parent.incDeadRecordCount(deletedIds.size());
       // now figure out live entries
-      latestOplog = true;
+      long startCrfRecovery = parent.getStats().startOplogRead();
+      boolean latestOplog = true;
       for (Oplog oplog : oplogSet) {
         long startOpLogRead = parent.getStats().startOplogRead();
         long bytesRead = oplog.recoverCrf(deletedIds,
@@ -472,6 +593,7 @@ public class PersistentOplogSet implements OplogSet {
           drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
         }
       }
+      parent.getStats().endCrfRecovery(startCrfRecovery);
       long endOpLogRecovery = System.currentTimeMillis();
       long elapsed = endOpLogRecovery - startOpLogRecovery;
       logger.info(LocalizedMessage.create(LocalizedStrings.DiskRegion_OPLOG_LOAD_TIME, elapsed));
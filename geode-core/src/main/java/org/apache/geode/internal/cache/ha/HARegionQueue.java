@@ -105,8 +105,11 @@ import org.apache.geode.internal.util.concurrent.StoppableReentrantReadWriteLock
  * 
  * This class has a field idsAvailable which is guraded by a ReentrantReadWriteLock. The peek
  * threads which do not modify the idsAvailable LinkedhashSet take read lock , thereby increasing
- * the concurrency of peek operations. The threads like take, remove, QRM ,put& expiry take a write
- * lock while operating on the set. <BR>
+ * the concurrency of peek operations. The threads like take, remove, QRM & expiry take a write
+ * lock while operating on the set. Put threads do not take the lock at all; they append the new
+ * position to the lock free publishedIDs queue, which is moved into idsAvailable by the next thread
+ * that acquires the write lock. Until then, readers see the pending positions after those in the
+ * set. <BR>
  * <B>This class is performant for multiple dispatchers that are trying to do non blocking peek </B>
  * <br>
  * For Blocking operations the object should be of type BlockingHARegionQueue. This class has just a
@@ -171,6 +174,12 @@ public class HARegionQueue implements RegionQueue {
    */
   protected LinkedHashSet idsAvailable;
 
+  /**
+   * Positions published by put threads which have not yet been moved into idsAvailable. Puts append
+   * to it without taking the rwLock and {@link #movePublishedIDs()} drains it in publish order.
+   */
+  private final ConcurrentLinkedQueue<Long> publishedIDs = new ConcurrentLinkedQueue<Long>();
+
   /**
    * Map of HA queue region-name and value as a MapWrapper object (whose underlying map contains
    * ThreadIdentifier as key & value as the last dispatched sequence ID)
@@ -1006,25 +1015,60 @@ public class HARegionQueue implements RegionQueue {
 
   /**
    * This method adds the position of newly added object to the List of available IDs so that it is
-   * available for peek or take. This method is called from DispatchedAndCurrentEvents object. This
-   * method is invoked in a write lock for non blocking queue & in a reentrant lock in a blocking
-   * queue. In case of blocking queue , this method also signals the waiting take & peek threads to
-   * awake.
+   * available for peek or take. This method is called from DispatchedAndCurrentEvents object. The
+   * position is handed over through the publishedIDs queue so that concurrent puts do not contend
+   * on the lock guarding idsAvailable. In case of blocking queue , this method also signals the
+   * waiting take & peek threads to awake.
    *
    * @param position The Long position of the object which has been added
    */
   void publish(Long position) throws InterruptedException {
-    acquireWriteLock();
-    try {
+    this.publishedIDs.offer(position);
+    // Notify the waiting peek threads or take threads of blocking queue
+    // A void operation for the non blocking queue operations
+    notifyPeekAndTakeThreads();
+  }
+
+  /**
+   * Moves the positions published by put threads into idsAvailable. Caller must hold the write
+   * lock.
+   */
+  void movePublishedIDs() {
+    Long position;
+    while ((position = this.publishedIDs.poll()) != null) {
       this.idsAvailable.add(position);
-      // Notify the waiting peek threads or take threads of blocking queue
-      // A void operation for the non blocking queue operations
-      notifyPeekAndTakeThreads();
-    } finally {
-      releaseWriteLock();
     }
   }
 
+  /**
+   * Returns the number of available positions, including those published but not yet moved into
+   * idsAvailable. Caller must hold the read or write lock.
+   */
+  private int availableSize() {
+    return this.idsAvailable.size() + this.publishedIDs.size();
+  }
+
+  /**
+   * Returns the available positions in order, those in idsAvailable followed by those published but
+   * not yet moved. Positions are only moved under the write lock, so none is seen twice or skipped
+   * while the caller holds the read lock.
+   */
+  private Iterator availableIterator() {
+    Iterator moved = this.idsAvailable.iterator();
+    Iterator pending = this.publishedIDs.iterator();
+    return new Iterator() {
+      @Override
+      public boolean hasNext() {
+        return moved.hasNext() || pending.hasNext();
+      }
+
+      @Override
+      public Object next() {
+        return moved.hasNext() ? moved.next() : pending.next();
+      }
+    };
+  }
+
   protected boolean removeFromOtherLists(Long position) {
     return false;
   }
@@ -1150,8 +1194,9 @@ public class HARegionQueue implements RegionQueue {
     acquireReadLock();
     try {
       if (this.idsAvailable.isEmpty()) {
+        next = this.publishedIDs.peek();
         // Asif:Wait in case it is a blocking thread
-        if (waitForData()) {
+        if (next == null && waitForData()) {
           next = (Long) this.idsAvailable.iterator().next();
         }
       } else {
@@ -1386,7 +1431,7 @@ public class HARegionQueue implements RegionQueue {
   private List doReturn(int minSize, int maxSize) {
     acquireReadLock();
     try {
-      int numToReturn = this.idsAvailable.size();
+      int numToReturn = availableSize();
       if (numToReturn < minSize) {
         return null;
       }
@@ -1480,8 +1525,8 @@ public class HARegionQueue implements RegionQueue {
    * @return - list of events peeked
    */
   private List getBatchAndUpdateThreadContext(int batchSize) {
-    Iterator itr = this.idsAvailable.iterator();
-    int currSize = this.idsAvailable.size();
+    Iterator itr = availableIterator();
+    int currSize = availableSize();
     int limit = currSize >= batchSize ? batchSize : currSize;
     List batch = new ArrayList(limit);
 
@@ -1722,7 +1767,7 @@ public class HARegionQueue implements RegionQueue {
   public int size() {
     acquireReadLock();
     try {
-      return this.idsAvailable.size();
+      return availableSize();
     } finally {
       releaseReadLock();
     }
@@ -1796,7 +1841,7 @@ public class HARegionQueue implements RegionQueue {
   public boolean isEmpty() {
     acquireReadLock();
     try {
-      return internalIsEmpty();
+      return internalIsEmpty() && this.publishedIDs.isEmpty();
     } finally {
       releaseReadLock();
     }
@@ -1806,8 +1851,8 @@ public class HARegionQueue implements RegionQueue {
    * Acquires the write Lock for the non blocking class. This method is overridden in the
    * BlockingHARegionQueue class which acquires the lock on a ReentrantLock instead of
    * ReentrantReadWriteLock of this class. A write lock is aquired by any thread which intends to
-   * modify the idsAvailable HashSet , which can be either a put ,remove , take , QRM message or
-   * expiry thread
+   * modify the idsAvailable HashSet , which can be either a remove , take , QRM message or expiry
+   * thread. The positions published by puts since the last acquisition are moved into the set.
    *
    * All invocations of this method need to have {@link #releaseWriteLock()} in a matching finally
    * block.
@@ -1817,13 +1862,17 @@ public class HARegionQueue implements RegionQueue {
    */
   void acquireWriteLock() {
     this.writeLock.lock();
+    movePublishedIDs();
   }
 
   /**
    * Acquires the read Lock for the non blocking class. This method is overridden in the
    * BlockingHARegionQueue class which acquires the lock on a ReentrantLock instead of
    * ReentrantReadWriteLock of this class. A read lock is aquired by a non blocking peek while
-   * operating on the idsAvailable LinkedHashSet without structurally modifying it.
+   * operating on the idsAvailable LinkedHashSet without structurally modifying it. Positions
+   * published by puts are moved into the set first if the write lock is free. Otherwise they stay
+   * in publishedIDs, after all positions in the set, and readers see them there. The reader never
+   * waits for the write lock, so a thread that already holds the read lock can call this again.
    * 
    * All invocations of this method must have {@link #releaseReadLock()} in a matching finally
    * block.
@@ -1833,7 +1882,18 @@ public class HARegionQueue implements RegionQueue {
    */
   void acquireReadLock() {
     // TODO should this be interruptible?
-    this.readLock.lock();
+    if (!this.publishedIDs.isEmpty() && this.writeLock.tryLock()) {
+      // Downgrade so that the moved positions are visible to this reader. If the lock is busy the
+      // reader reads the pending positions through availableSize and availableIterator instead.
+      try {
+        movePublishedIDs();
+        this.readLock.lock();
+      } finally {
+        this.writeLock.unlock();
+      }
+    } else {
+      this.readLock.lock();
+    }
   }
 
   /**
@@ -2002,7 +2062,9 @@ public class HARegionQueue implements RegionQueue {
   }
 
   public void closeClientCq(ClientProxyMembershipID clientId, InternalCqQuery cqToClose) {
-    acquireReadLock();
+    // The write lock, as events without interest are removed from idsAvailable below and the read
+    // lock cannot be upgraded
+    acquireWriteLock();
     try {
       // Get all available Ids for the HA Region Queue
       Object[] availableIds = this.availableIDsArray();
@@ -2018,7 +2080,7 @@ public class HARegionQueue implements RegionQueue {
           event = this.haContainer.get(event);
         }
 
-        // Since this method is invoked in a readlock , the entry in HARegion
+        // Since this method is invoked in a writelock , the entry in HARegion
         // cannot be null
         if (event == null) {
           Assert.assertTrue(this.destroyInProgress,
@@ -2043,7 +2105,7 @@ public class HARegionQueue implements RegionQueue {
         }
       }
     } finally {
-      releaseReadLock();
+      releaseWriteLock();
     }
   }
 
@@ -2088,6 +2150,12 @@ public class HARegionQueue implements RegionQueue {
      */
     protected final StoppableCondition blockCond;
 
+    /**
+     * Number of peek & take threads waiting on blockCond. Only modified while holding the lock,
+     * read by put threads to decide whether they need to signal.
+     */
+    private volatile int dataWaiters = 0;
+
     /**
      * @param hrqa HARegionQueueAttributes through which expiry time etc for the HARegionQueue can
      *        be set
@@ -2233,6 +2301,7 @@ public class HARegionQueue implements RegionQueue {
     @Override
     void acquireWriteLock() {
       this.lock.lock();
+      movePublishedIDs();
     }
 
     /**
@@ -2241,19 +2310,45 @@ public class HARegionQueue implements RegionQueue {
     @Override
     void acquireReadLock() {
       this.lock.lock();
+      movePublishedIDs();
     }
 
     /**
-     * This method is called by the publish method when a valid Long position is added to the
-     * idsAvailable set. It should always be called after acquiring the ReentrantLock. It notifies
-     * the waiting peek & take threads.
+     * This method is called by the publish method when a valid Long position is published. It
+     * notifies the waiting peek & take threads, taking the ReentrantLock only if there are any.
      * 
      * <p>
      * author Asif
      */
     @Override
     void notifyPeekAndTakeThreads() {
-      blockCond.signalAll();
+      if (this.dataWaiters > 0) {
+        this.lock.lock();
+        try {
+          blockCond.signalAll();
+        } finally {
+          this.lock.unlock();
+        }
+      }
+    }
+
+    /**
+     * Waits on blockCond until a put publishes a position or the wait times out. This method should
+     * always be invoked after acquiring the lock on ReentrantLock object.
+     */
+    void awaitPublish() throws InterruptedException {
+      this.dataWaiters++;
+      try {
+        // A put which read dataWaiters before the increment has already published its position
+        // and will not signal, so check for it before waiting.
+        movePublishedIDs();
+        if (this.internalIsEmpty()) {
+          blockCond.await(StoppableCondition.TIME_TO_WAIT);
+        }
+      } finally {
+        this.dataWaiters--;
+      }
+      movePublishedIDs();
     }
 
     /**
@@ -2268,7 +2363,7 @@ public class HARegionQueue implements RegionQueue {
         region.getCache().getCancelCriterion().checkCancelInProgress(null);
         boolean interrupted = Thread.currentThread().isInterrupted();
         try {
-          blockCond.await(StoppableCondition.TIME_TO_WAIT);
+          awaitPublish();
         } catch (InterruptedException ie) {
           interrupted = true;
           region.getCache().getCancelCriterion().checkCancelInProgress(ie);
@@ -2342,7 +2437,7 @@ public class HARegionQueue implements RegionQueue {
       region.getCache().getCancelCriterion().checkCancelInProgress(null);
       boolean interrupted = Thread.currentThread().isInterrupted();
       try {
-        blockCond.await(StoppableCondition.TIME_TO_WAIT);
+        awaitPublish();
       } catch (InterruptedException ie) {
         interrupted = true;
         region.getCache().getCancelCriterion().checkCancelInProgress(ie);
@@ -3510,13 +3605,14 @@ public class HARegionQueue implements RegionQueue {
   private void updateHAContainer() {
     try {
       Object[] wrapperArray = null;
-      acquireReadLock();
+      // the write lock makes sure positions still being published are included
+      acquireWriteLock();
       try {
         if (this.availableIDsSize() != 0) {
           wrapperArray = this.availableIDsArray();
         }
       } finally {
-        releaseReadLock();
+        releaseWriteLock();
       }
       if (wrapperArray != null) {
         final Set wrapperSet = new HashSet();
@@ -666,6 +666,15 @@ public class AcceptorImpl extends Acceptor implements Runnable, CommBufferPool {
   @Deprecated
   private final static int DEPRECATED_SELECTOR_POOL_SIZE =
       Integer.getInteger("BridgeServer.SELECTOR_POOL_SIZE", 16).intValue();
+  /**
+   * If true, and max-threads is greater than 0, the selector thread reads each client message in
+   * full before handing the connection to a thread from the pool. Pool threads then never block
+   * waiting for the rest of a message from a slow client. Replies are still written by the pool
+   * threads.
+   */
+  private static final boolean SELECTOR_READS_WHOLE_MESSAGES =
+      Boolean.getBoolean("BridgeServer.SELECTOR_READS_WHOLE_MESSAGES");
+
   private final static int HANDSHAKE_POOL_SIZE =
       Integer.getInteger("BridgeServer.HANDSHAKE_POOL_SIZE", 4).intValue();
 
@@ -1094,6 +1103,23 @@ public class AcceptorImpl extends Acceptor implements Runnable, CommBufferPool {
             try {
               if (key.isValid() && key.isReadable()) {
                 // this is the only event we currently register for
+                if (SELECTOR_READS_WHOLE_MESSAGES && sc.readsMessageFrames()) {
+                  boolean messageComplete;
+                  try {
+                    messageComplete = sc.readMessageFrame();
+                  } catch (IOException ex) {
+                    key.cancel();
+                    this.selectorRegistrations.remove(sc);
+                    registeredKeys--;
+                    cancelCount++;
+                    finishCon(sc);
+                    continue;
+                  }
+                  if (!messageComplete) {
+                    // stay registered until the rest of the message arrives
+                    continue;
+                  }
+                }
                 try {
                   key.cancel();
                   this.selectorRegistrations.remove(sc);
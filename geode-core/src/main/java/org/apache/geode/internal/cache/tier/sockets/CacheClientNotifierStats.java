@@ -46,6 +46,8 @@ public class CacheClientNotifierStats {
   private static final String CQ_PROCESSING_TIME = "cqProcessingTime";
   private static final String COMPILED_QUERY_COUNT = "compiledQueryCount";
   private static final String COMPILED_QUERY_USED_COUNT = "compiledQueryUsedCount";
+  private static final String SHARED_PARTS_ENCODED = "sharedPartsEncoded";
+  private static final String SHARED_PARTS_REUSED = "sharedPartsReused";
 
   private static final int _eventsId;
   private static final int _eventProcessingTimeId;
@@ -67,6 +69,11 @@ public class CacheClientNotifierStats {
 
   private static final int _compiledQueryUsedCount;
 
+  // Message parts shared by the clients an event is sent to.
+  private static final int _sharedPartsEncodedId;
+
+  private static final int _sharedPartsReusedId;
+
   static {
     String statName = "CacheClientNotifierStatistics";
 
@@ -108,6 +115,14 @@ public class CacheClientNotifierStats {
         f.createLongCounter(COMPILED_QUERY_USED_COUNT, "Number of times compiled queries are used.",
             "used"),
 
+        f.createLongCounter(SHARED_PARTS_ENCODED,
+            "Number of times the parts of an event message shared by all clients were serialized.",
+            "operations"),
+
+        f.createLongCounter(SHARED_PARTS_REUSED,
+            "Number of event messages sent with parts serialized for another client.",
+            "operations"),
+
     });
 
     // Initialize id fields
@@ -127,6 +142,8 @@ public class CacheClientNotifierStats {
     _cqProcessingTimeId = _type.nameToId(CQ_PROCESSING_TIME);
     _compiledQueryCount = _type.nameToId(COMPILED_QUERY_COUNT);
     _compiledQueryUsedCount = _type.nameToId(COMPILED_QUERY_USED_COUNT);
+    _sharedPartsEncodedId = _type.nameToId(SHARED_PARTS_ENCODED);
+    _sharedPartsReusedId = _type.nameToId(SHARED_PARTS_REUSED);
   }
 
   ////////////////////// Instance Fields //////////////////////
@@ -259,4 +276,20 @@ public class CacheClientNotifierStats {
     return this._stats.getInt(_clientHealthMonitorUnRegisterId);
   }
 
+  public long getSharedPartsEncoded() {
+    return this._stats.getLong(_sharedPartsEncodedId);
+  }
+
+  public long getSharedPartsReused() {
+    return this._stats.getLong(_sharedPartsReusedId);
+  }
+
+  public void incSharedPartsEncoded() {
+    this._stats.incLong(_sharedPartsEncodedId, 1);
+  }
+
+  public void incSharedPartsReused() {
+    this._stats.incLong(_sharedPartsReusedId, 1);
+  }
+
 }
@@ -37,6 +37,7 @@ import org.apache.geode.cache.query.CqQuery;
 import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
 import org.apache.geode.cache.util.ObjectSizer;
 import org.apache.geode.internal.DSCODE;
+import org.apache.geode.internal.HeapDataOutputStream;
 import org.apache.geode.internal.InternalDataSerializer;
 import org.apache.geode.internal.Sendable;
 import org.apache.geode.internal.Version;
@@ -56,6 +57,7 @@ import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.offheap.MemoryAllocatorImpl;
+import org.apache.geode.internal.util.BlobHelper;
 
 
 /**
@@ -152,6 +154,12 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
   private VersionTag versionTag;
 
+  /**
+   * The parts of the messages to clients of the latest version a message was created for that are
+   * the same for all those clients.
+   */
+  private transient volatile SharedParts sharedParts;
+
   /* added up all constants and form single value */
   private static final int CONSTANT_MEMORY_OVERHEAD;
 
@@ -830,6 +838,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     if (clientHasCq) {
       cqMsgParts = (this.getCqs(proxyId).length * 2) + 1;
     }
+    SharedParts sharedParts = getSharedParts(proxy, clientVersion);
 
     if (isCreate() || isUpdate()) {
       // Create or update event
@@ -842,21 +851,21 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message = getMessage(7 + cqMsgParts, clientVersion);
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
         message.addStringPart(this._regionName, true);
-        message.addStringOrObjPart(this._keyOfInterest);
+        sharedParts.addKeyPart(message);
       } else {
         // Notify by subscription - send the value
         message = getMessage(9 + cqMsgParts, clientVersion);
         if (isCreate()) {
           message.setMessageType(MessageType.LOCAL_CREATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          sharedParts.addKeyPart(message);
           message.addObjPart(Boolean.FALSE); // NO delta
           // Add the value (which has already been serialized)
           message.addRawPart(latestValue, (this._valueIsObject == 0x01));
         } else {
           message.setMessageType(MessageType.LOCAL_UPDATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          sharedParts.addKeyPart(message);
 
           if (this.deltaBytes != null && !conflation && !proxy.isMarkerEnqueued()
               && !proxy.getRegionsWithEmptyDataPolicy().containsKey(_regionName)) {
@@ -877,11 +886,8 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         }
       }
 
-      message.addObjPart(this._callbackArgument);
-      if (this.versionTag != null) {
-        this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
-      }
-      message.addObjPart(this.versionTag);
+      sharedParts.addCallbackArgumentPart(message);
+      sharedParts.addVersionTagPart(message);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -904,9 +910,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
       }
       message.addStringPart(this._regionName, true);
-      message.addStringOrObjPart(this._keyOfInterest);
-      message.addObjPart(this._callbackArgument);
-      message.addObjPart(this.versionTag);
+      sharedParts.addKeyPart(message);
+      sharedParts.addCallbackArgumentPart(message);
+      sharedParts.addVersionTagPart(message);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -922,7 +928,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.LOCAL_DESTROY_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -932,7 +938,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.CLEAR_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -942,7 +948,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.INVALIDATE_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message);
 
       // Add CQ status.
       message.addObjPart(Boolean.valueOf(clientHasCq));
@@ -957,10 +963,125 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     message.setTransactionId(0);
     // Add the EventId since 5.1 (used to prevent duplicate events
     // received on the client side after a failover)
-    message.addObjPart(this._eventIdentifier);
+    sharedParts.addEventIdPart(message);
     return message;
   }
 
+  /**
+   * Returns the parts of the message for the given client that are the same for every client of
+   * its version. They are serialized for the first client of a version and shared by the messages
+   * sent to the following ones.
+   */
+  private SharedParts getSharedParts(CacheClientProxy proxy, Version clientVersion)
+      throws IOException {
+    CacheClientNotifier notifier = proxy.getCacheClientNotifier();
+    CacheClientNotifierStats stats = notifier == null ? null : notifier.getStats();
+    SharedParts parts = this.sharedParts;
+    if (parts != null && parts.version.equals(clientVersion)) {
+      if (stats != null) {
+        stats.incSharedPartsReused();
+      }
+      return parts;
+    }
+    if (this.versionTag != null && (isCreate() || isUpdate())) {
+      this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
+    }
+    parts = new SharedParts(this, clientVersion);
+    this.sharedParts = parts;
+    if (stats != null) {
+      stats.incSharedPartsEncoded();
+    }
+    return parts;
+  }
+
+  /**
+   * The key, callback argument, version tag and event id of a message serialized for clients of
+   * one version.
+   */
+  static class SharedParts {
+
+    private static final int KEY = 0;
+    private static final int CALLBACK_ARGUMENT = 1;
+    private static final int VERSION_TAG = 2;
+    private static final int EVENT_ID = 3;
+
+    final Version version;
+
+    private final byte[][] parts = new byte[4][];
+
+    private final boolean[] isObject = new boolean[4];
+
+    private final int sizeInBytes;
+
+    SharedParts(ClientUpdateMessageImpl message, Version version) throws IOException {
+      this.version = version;
+      Object key = message._keyOfInterest;
+      if (key instanceof String) {
+        try (HeapDataOutputStream hdos = new HeapDataOutputStream((String) key)) {
+          this.parts[KEY] = hdos.toByteArray();
+        }
+      } else if (key != null) {
+        serialize(KEY, key);
+      }
+      Object callbackArgument = message._callbackArgument;
+      if (callbackArgument instanceof byte[]) {
+        this.parts[CALLBACK_ARGUMENT] = (byte[]) callbackArgument;
+      } else if (callbackArgument != null) {
+        serialize(CALLBACK_ARGUMENT, callbackArgument);
+      }
+      if (message.versionTag != null) {
+        serialize(VERSION_TAG, message.versionTag);
+      }
+      serialize(EVENT_ID, message._eventIdentifier);
+
+      // this instance, its version reference and the two arrays
+      int size = Sizeable.PER_OBJECT_OVERHEAD + 12;
+      size += CachedDeserializableFactory.getArrayOfBytesSize(this.parts, true);
+      size += Sizeable.PER_OBJECT_OVERHEAD + 4 + this.isObject.length;
+      if (callbackArgument instanceof byte[]) {
+        // already accounted for by the message
+        size -= ((byte[]) callbackArgument).length;
+      }
+      this.sizeInBytes = size;
+    }
+
+    /**
+     * Returns the heap memory used by these parts, including the serialized bytes of each one.
+     */
+    int getSizeInBytes() {
+      return this.sizeInBytes;
+    }
+
+    private void serialize(int part, Object o) throws IOException {
+      Version v = this.version.equals(Version.CURRENT) ? null : this.version;
+      try (HeapDataOutputStream hdos = new HeapDataOutputStream(v)) {
+        BlobHelper.serializeTo(o, hdos);
+        this.parts[part] = hdos.toByteArray();
+        this.isObject[part] = true;
+      }
+    }
+
+    private void addPart(Message message, int part) {
+      message.addRawPart(this.parts[part], this.isObject[part]);
+    }
+
+    void addKeyPart(Message message) {
+      addPart(message, KEY);
+    }
+
+    void addCallbackArgumentPart(Message message) {
+      addPart(message, CALLBACK_ARGUMENT);
+    }
+
+    void addVersionTagPart(Message message) {
+      addPart(message, VERSION_TAG);
+    }
+
+    void addEventIdPart(Message message) {
+      addPart(message, EVENT_ID);
+    }
+  }
+
   private static final ThreadLocal<Map<Integer, Message>> CACHED_MESSAGES =
       new ThreadLocal<Map<Integer, Message>>() {
         protected Map<Integer, Message> initialValue() {
@@ -1347,6 +1468,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     // _clientInterestList reference = 4 bytes
     size += 40;
 
+    // sharedParts reference = 4 bytes
+    size += 4;
+
     // Add primitive references
     // byte _valueIsObject = 1 byte
     // boolean _shouldConflate = 1 byte
@@ -1378,6 +1502,12 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
     // The sizeOf call gets the size of the input callback argument.
     size += sizeOf(getOriginalCallbackArgument());
+
+    // The parts serialized for the clients of the latest version
+    SharedParts parts = this.sharedParts;
+    if (parts != null) {
+      size += parts.getSizeInBytes();
+    }
     return size;
   }
 
@@ -76,6 +76,11 @@ public class LegacyServerConnection extends ServerConnection {
     return true;
   }
 
+  @Override
+  protected boolean readsMessageFrames() {
+    return !this.doHandshake;
+  }
+
   protected void doOneMessage() {
     if (this.doHandshake) {
       doHandshake();
@@ -35,6 +35,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -95,6 +96,13 @@ public class Message {
 
   private static final ThreadLocal<ByteBuffer> tlCommBuffer = new ThreadLocal<>();
 
+  /**
+   * When true, a part that does not fit in the comm buffer is sent together with the buffered
+   * header in one gathering write instead of being copied through the comm buffer.
+   */
+  private static final boolean GATHERING_WRITES =
+      !Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Message.DISABLE_GATHERING_WRITES");
+
   // These two statics are fields shoved into the flags byte for transmission.
   // The MESSAGE_IS_RETRY bit is stripped out during deserialization but the other
   // is left in place
@@ -140,6 +148,13 @@ public class Message {
   private ByteBuffer cachedCommBuffer;
   protected Socket socket = null;
   private SocketChannel socketChannel = null;
+
+  /**
+   * If set, the next message is read from this channel instead of the socket.
+   *
+   * @see #setFrameChannel(ReadableByteChannel)
+   */
+  private ReadableByteChannel frameChannel = null;
   private OutputStream outputStream = null;
   protected InputStream inputStream = null;
   private boolean messageModified = true;
@@ -439,6 +454,13 @@ public class Message {
     return FIXED_LENGTH;
   }
 
+  /**
+   * Returns the largest message, in bytes, this message may be.
+   */
+  public int getMaxMessageSize() {
+    return this.maxMessageSize;
+  }
+
   public int getNumberOfParts() {
     return this.numberOfParts;
   }
@@ -604,14 +626,19 @@ public class Message {
           if (partLen <= commBuffer.remaining()) {
             part.writeTo(commBuffer);
           } else {
-            flushBuffer();
-            if (this.socketChannel != null) {
-              part.writeTo(this.socketChannel, commBuffer);
+            ByteBuffer payload = getGatheringPayload(part, commBuffer);
+            if (payload != null) {
+              writeGathering(commBuffer, payload);
             } else {
-              part.writeTo(this.outputStream, commBuffer);
-            }
-            if (this.messageStats != null) {
-              this.messageStats.incSentBytes(partLen);
+              flushBuffer();
+              if (this.socketChannel != null) {
+                part.writeTo(this.socketChannel, commBuffer);
+              } else {
+                part.writeTo(this.outputStream, commBuffer);
+              }
+              if (this.messageStats != null) {
+                this.messageStats.incSentBytes(partLen);
+              }
             }
           }
         }
@@ -630,6 +657,40 @@ public class Message {
     }
   }
 
+  /**
+   * Returns the payload of a part that does not fit in the rest of the comm buffer if it can be
+   * sent in the same write as the comm buffer, or null if it has to be copied through the comm
+   * buffer. Off-heap values are always gathered since their direct buffer goes to the socket
+   * without a copy. Heap parts are only gathered up to the size of the comm buffer because the
+   * channel copies a heap buffer to a temporary direct buffer of the same size.
+   */
+  private ByteBuffer getGatheringPayload(Part part, ByteBuffer commBuffer) {
+    if (this.socketChannel == null || !GATHERING_WRITES) {
+      return null;
+    }
+    ByteBuffer payload = part.getPayloadBuffer();
+    if (payload == null || (!payload.isDirect() && payload.remaining() > commBuffer.capacity())) {
+      return null;
+    }
+    return payload;
+  }
+
+  /**
+   * Writes what is in the comm buffer followed by the given payload with a single gathering write.
+   */
+  private void writeGathering(ByteBuffer commBuffer, ByteBuffer payload) throws IOException {
+    commBuffer.flip();
+    final ByteBuffer[] buffers = {commBuffer, payload};
+    long written = 0;
+    do {
+      written += this.socketChannel.write(buffers);
+    } while (payload.hasRemaining());
+    if (this.messageStats != null) {
+      this.messageStats.incSentBytes(written);
+    }
+    commBuffer.clear();
+  }
+
   void flushBuffer() throws IOException {
     final ByteBuffer cb = getCommBuffer();
     if (this.socketChannel != null) {
@@ -664,10 +725,11 @@ public class Message {
     this.messageType = MessageType.INVALID;
 
     final int headerLength = getHeaderLength();
-    if (this.socketChannel != null) {
+    final ReadableByteChannel channel = getReadChannel();
+    if (channel != null) {
       cb.limit(headerLength);
       do {
-        int bytesRead = this.socketChannel.read(cb);
+        int bytesRead = channel.read(cb);
         if (bytesRead == -1) {
           throw new EOFException(
               LocalizedStrings.Message_THE_CONNECTION_HAS_BEEN_RESET_WHILE_READING_THE_HEADER
@@ -853,6 +915,7 @@ public class Message {
     cb.flip();
 
     int readSecurePart = checkAndSetSecurityPart();
+    final ReadableByteChannel channel = getReadChannel();
 
     int bytesRemaining = len;
     for (int i = 0; i < numParts + readSecurePart
@@ -886,14 +949,14 @@ public class Message {
         int off = alreadyReadBytes;
         int remaining = partLen - off;
         while (remaining > 0) {
-          if (this.socketChannel != null) {
+          if (channel != null) {
             int bytesThisTime = remaining;
             cb.clear();
             if (bytesThisTime > cb.capacity()) {
               bytesThisTime = cb.capacity();
             }
             cb.limit(bytesThisTime);
-            int res = this.socketChannel.read(cb);
+            int res = channel.read(cb);
             if (res != -1) {
               cb.flip();
               bytesRemaining -= res;
@@ -963,14 +1026,15 @@ public class Message {
     }
     int bytesRead = 0;
 
-    if (this.socketChannel != null) {
+    final ReadableByteChannel channel = getReadChannel();
+    if (channel != null) {
       int remaining = commBuffer.remaining();
       if (remaining > bytesRemaining) {
         remaining = bytesRemaining;
         commBuffer.limit(commBuffer.position() + bytesRemaining);
       }
       while (remaining > 0) {
-        int res = this.socketChannel.read(commBuffer);
+        int res = channel.read(commBuffer);
         if (res != -1) {
           remaining -= res;
           bytesRead += res;
@@ -1068,6 +1132,21 @@ public class Message {
     this.messageStats = msgStats;
   }
 
+  /**
+   * Makes the next {@link #recv} read from a message that was already read off the socket, for
+   * example by a {@link MessageFrameReader}. Pass null to go back to reading from the socket.
+   */
+  void setFrameChannel(ReadableByteChannel frameChannel) {
+    this.frameChannel = frameChannel;
+  }
+
+  private ReadableByteChannel getReadChannel() {
+    if (this.frameChannel != null) {
+      return this.frameChannel;
+    }
+    return this.socketChannel;
+  }
+
   /**
    * Undo any state changes done by setComms.
    * 
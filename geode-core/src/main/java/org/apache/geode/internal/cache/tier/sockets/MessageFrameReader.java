@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.geode.internal.i18n.LocalizedStrings;
+
+/**
+ * Assembles the next {@link Message} sent by a client from a non-blocking channel. The selector
+ * thread of an {@link AcceptorImpl} calls {@link #readFrom} each time the channel is readable and
+ * only hands the connection to a worker thread once the whole message has arrived, so that worker
+ * threads never block waiting on a slow client.
+ * <p>
+ * Messages are assembled in one buffer that is reused for every message of the connection, so it
+ * is never larger than the maximum frame length. A message that does not fit is handed over as
+ * soon as its header has arrived, and the worker thread streams the rest of it from the socket
+ * just as it does when the selector does not read whole messages.
+ * <p>
+ * The assembled message is then parsed by {@link Message} as usual, reading from
+ * {@link #getFrame} instead of the socket.
+ *
+ * @since Geode 1.3
+ */
+class MessageFrameReader {
+
+  /** The message type, length, number of parts, transaction id and flags */
+  static final int HEADER_LENGTH = 17;
+
+  private static final int LENGTH_OFFSET = 4;
+
+  private final int maxMessageLength;
+
+  private final int maxFrameLength;
+
+  private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+  /** Allocated on first use and then reused for every message that fits in it */
+  private ByteBuffer frameBuffer;
+
+  /** The message being assembled in {@link #frameBuffer} */
+  private ByteBuffer frame;
+
+  /** The channel the rest of a message too large for the frame buffer is streamed from */
+  private ReadableByteChannel streamedFrom;
+
+  /**
+   * @param maxMessageLength the largest message payload a client may send
+   * @param maxFrameLength the largest message, including its header, that is assembled in memory
+   */
+  MessageFrameReader(int maxMessageLength, int maxFrameLength) {
+    this.maxMessageLength = maxMessageLength;
+    this.maxFrameLength = Math.max(maxFrameLength, HEADER_LENGTH);
+  }
+
+  /**
+   * Reads whatever part of the next message is available on the given non-blocking channel.
+   *
+   * @return true if the message can now be read from {@link #getFrame}. Unless the message was too
+   *         large to assemble, all of it is then available without reading from the channel.
+   * @throws EOFException if the client closed the channel
+   * @throws IOException if the message is larger than allowed or the read fails
+   */
+  boolean readFrom(ReadableByteChannel channel) throws IOException {
+    if (this.frame == null) {
+      read(channel, this.header);
+      if (this.header.hasRemaining()) {
+        return false;
+      }
+      int length = this.header.getInt(LENGTH_OFFSET);
+      if (length < 0 || length > this.maxMessageLength) {
+        throw new IOException(LocalizedStrings.Message_MESSAGE_SIZE_0_EXCEEDED_MAX_LIMIT_OF_1
+            .toLocalizedString(new Object[] {length, this.maxMessageLength}));
+      }
+      this.header.flip();
+      if (length > this.maxFrameLength - HEADER_LENGTH) {
+        this.streamedFrom = channel;
+        return true;
+      }
+      if (this.frameBuffer == null) {
+        this.frameBuffer = ByteBuffer.allocate(this.maxFrameLength);
+      }
+      this.frame = this.frameBuffer;
+      this.frame.clear();
+      this.frame.limit(HEADER_LENGTH + length);
+      this.frame.put(this.header);
+      this.header.clear();
+    }
+    read(channel, this.frame);
+    return !this.frame.hasRemaining();
+  }
+
+  /**
+   * Returns a channel that yields the message found by {@link #readFrom} and resets this reader
+   * for the next message. The channel must have been read to the end of the message before
+   * {@link #readFrom} is called again.
+   */
+  ReadableByteChannel getFrame() {
+    final ByteBuffer completed;
+    final ReadableByteChannel rest = this.streamedFrom;
+    if (rest != null) {
+      this.streamedFrom = null;
+      completed = ByteBuffer.allocate(HEADER_LENGTH);
+      completed.put(this.header);
+      this.header.clear();
+      completed.flip();
+    } else {
+      completed = this.frame;
+      this.frame = null;
+      completed.flip();
+    }
+    return new ReadableByteChannel() {
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+        if (!completed.hasRemaining()) {
+          return rest == null ? -1 : rest.read(dst);
+        }
+        int count = Math.min(dst.remaining(), completed.remaining());
+        ByteBuffer slice = completed.duplicate();
+        slice.limit(slice.position() + count);
+        dst.put(slice);
+        completed.position(completed.position() + count);
+        return count;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  private static void read(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      int count = channel.read(buffer);
+      if (count == -1) {
+        throw new EOFException(
+            LocalizedStrings.Message_THE_CONNECTION_HAS_BEEN_RESET_WHILE_READING_THE_HEADER
+                .toLocalizedString());
+      }
+      if (count == 0) {
+        break;
+      }
+    }
+  }
+}
@@ -350,6 +350,21 @@ public class Part {
     }
   }
 
+  /**
+   * Returns a buffer over the serialized form of this part that can be handed to a gathering write
+   * without copying it first, or null if the part is not held in a single array or in off-heap
+   * memory that can be exposed as a direct buffer.
+   */
+  ByteBuffer getPayloadBuffer() {
+    if (this.part instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) this.part);
+    } else if (this.part instanceof StoredObject) {
+      return ((StoredObject) this.part).createDirectByteBuffer();
+    } else {
+      return null;
+    }
+  }
+
   /**
    * Write the contents of this part to the specified socket channel using the specified byte
    * buffer. This is only called for parts that will not fit into the commBuffer so they need to be
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -159,6 +160,12 @@ public abstract class ServerConnection implements Runnable {
   // IMPORTANT: if new messages are added change setHandshake to initialize them
   // to the correct Version for serializing to the client
   private Message requestMsg = new Message(2, Version.CURRENT);
+
+  /**
+   * Assembles the next request in selector mode; only used by the selector thread and, for the
+   * message it has handed over, the thread processing it.
+   */
+  private MessageFrameReader frameReader;
   private Message replyMsg = new Message(1, Version.CURRENT);
   private Message responseMsg = new Message(1, Version.CURRENT);
   private Message errorMsg = new Message(1, Version.CURRENT);
@@ -1145,6 +1152,7 @@ public abstract class ServerConnection implements Runnable {
             LocalizedMessage.create(LocalizedStrings.ServerConnection_0__UNEXPECTED_EXCEPTION, ex));
         setClientDisconnectedException(ex);
       } finally {
+        this.requestMsg.setFrameChannel(null);
         getAcceptor().releaseTLCommBuffer();
         // DistributedSystem.releaseThreadsSockets();
         unsetOwner();
@@ -1197,6 +1205,36 @@ public abstract class ServerConnection implements Runnable {
     getAcceptor().registerSC(this);
   }
 
+  /**
+   * Returns true if the next data on this connection is a {@link Message} that can be assembled by
+   * {@link #readMessageFrame} before a thread is dispatched to process it.
+   */
+  protected boolean readsMessageFrames() {
+    return false;
+  }
+
+  /**
+   * Reads whatever part of this connection's next message is available without blocking. Called
+   * by the acceptor's selector thread while this connection is registered with it.
+   *
+   * @return true if the whole message, or the header of a message too large to assemble in memory,
+   *         has arrived and the next read of the request message will parse it
+   * @throws IOException if the client closed the connection or sent an invalid message
+   */
+  boolean readMessageFrame() throws IOException {
+    if (this.frameReader == null) {
+      // larger messages are streamed from the socket by the worker thread
+      this.frameReader = new MessageFrameReader(
+          Integer.getInteger(Message.MAX_MESSAGE_SIZE_PROPERTY, Message.DEFAULT_MAX_MESSAGE_SIZE),
+          this.theSocket.getReceiveBufferSize());
+    }
+    if (!this.frameReader.readFrom((ReadableByteChannel) getSelectableChannel())) {
+      return false;
+    }
+    this.requestMsg.setFrameChannel(this.frameReader.getFrame());
+    return true;
+  }
+
   public SelectableChannel getSelectableChannel() {
     return this.theSocket.getChannel();
   }
@@ -44,6 +44,7 @@ import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewayBatchCompression;
 import org.apache.geode.internal.cache.wan.GatewayReceiverStats;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.log4j.LocalizedMessage;
@@ -182,6 +183,16 @@ public class GatewayReceiverCommand extends BaseCommand {
     // " + getSocketString());
     // }
 
+    // Restore the event parts if the sender compressed them
+    try {
+      GatewayBatchCompression.decompress(clientMessage);
+    } catch (IOException | RuntimeException e) {
+      serverConnection.incrementLatestBatchIdReplied(batchId);
+      writeFatalException(clientMessage, e, serverConnection, batchId);
+      serverConnection.setAsTrue(RESPONDED);
+      return;
+    }
+
     // Retrieve the events from the message parts. The '2' below
     // represents the number of events (part0) and the batchId (part1)
     partNumber = 2;
@@ -50,6 +50,7 @@ import org.apache.geode.distributed.internal.DM;
 import org.apache.geode.distributed.internal.DistributionAdvisee;
 import org.apache.geode.distributed.internal.DistributionAdvisor;
 import org.apache.geode.distributed.internal.DistributionAdvisor.Profile;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
 import org.apache.geode.distributed.internal.ResourceEvent;
 import org.apache.geode.distributed.internal.ServerLocation;
@@ -113,6 +114,8 @@ public abstract class AbstractGatewaySender implements GatewaySender, Distributi
 
   protected boolean isConflation;
 
+  protected boolean isConflateOnEnqueue = CONFLATE_ON_ENQUEUE;
+
   protected boolean isPersistence;
 
   protected int alertThreshold;
@@ -190,6 +193,31 @@ public abstract class AbstractGatewaySender implements GatewaySender, Distributi
   public static int TOKEN_TIMEOUT =
       Integer.getInteger("GatewaySender.TOKEN_TIMEOUT", 120000).intValue();
 
+  /**
+   * The number of batches a gateway sender sends on its connection to a gateway receiver without
+   * waiting for their acknowledgement. Zero, the default, does not limit them.
+   */
+  public static final int MAXIMUM_BATCHES_IN_FLIGHT = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.MAXIMUM_BATCHES_IN_FLIGHT", 0)
+      .intValue();
+
+  /**
+   * The class name of the {@link org.apache.geode.compression.Compressor} that the batches sent to
+   * gateway receivers are compressed with. Batches are not compressed by default. Set it only once
+   * every receiver names the same class in {@link GatewayBatchCompression#RECEIVER_COMPRESSOR},
+   * since receivers reject compressed batches otherwise.
+   */
+  public static final String BATCH_COMPRESSOR =
+      System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.BATCH_COMPRESSOR");
+
+  /**
+   * Whether parallel gateway senders with batch conflation enabled conflate an update into the
+   * pending, not yet peeked event for the same key when it is queued, instead of queuing it behind
+   * that event. The queue then holds at most one pending update per key.
+   */
+  public static final boolean CONFLATE_ON_ENQUEUE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.CONFLATE_ON_ENQUEUE");
+
   /**
    * The name of the DistributedLockService used when accessing the GatewaySender's meta data
    * region.
@@ -374,6 +402,19 @@ public abstract class AbstractGatewaySender implements GatewaySender, Distributi
     this.isConflation = enableConflation;
   }
 
+  /**
+   * Returns whether this sender conflates updates on enqueue.
+   *
+   * @see #CONFLATE_ON_ENQUEUE
+   */
+  public boolean isConflateOnEnqueue() {
+    return this.isConflateOnEnqueue;
+  }
+
+  public void test_setConflateOnEnqueue(boolean conflateOnEnqueue) {
+    this.isConflateOnEnqueue = conflateOnEnqueue;
+  }
+
   public boolean isPersistenceEnabled() {
     return this.isPersistence;
   }
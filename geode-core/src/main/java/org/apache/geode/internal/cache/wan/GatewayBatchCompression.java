@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.geode.compression.CompressionException;
+import org.apache.geode.compression.Compressor;
+import org.apache.geode.compression.SnappyCompressor;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.ClassPathLoader;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.tier.sockets.CacheServerHelper;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.cache.tier.sockets.Part;
+
+/**
+ * Compresses the event parts of a batch sent by a gateway sender into one part, and restores them
+ * when the gateway receiver reads the batch. A compressed batch has two bytes in its flags part,
+ * the second one being {@link #COMPRESSED}, followed by the class name of the {@link Compressor}
+ * and the compressed event parts.
+ * <p>
+ * Compression is off unless both sides opt in. A sender only compresses batches when
+ * {@link AbstractGatewaySender#BATCH_COMPRESSOR} is set, and a receiver only decompresses batches
+ * compressed with the compressor named by {@link #RECEIVER_COMPRESSOR}. The class name read from a
+ * batch is never loaded.
+ *
+ * @since Geode 1.3
+ */
+public class GatewayBatchCompression {
+
+  /**
+   * The index of the flags part, which follows the number of events, the batch id and the
+   * distributed system id. The event parts start after it.
+   */
+  public static final int FLAGS_PART = 3;
+
+  /** The second byte of the flags part of a compressed batch. */
+  public static final byte COMPRESSED = 0x01;
+
+  /** Event parts shorter than this are sent as they are. */
+  static final int MIN_COMPRESSED_LENGTH = 1024;
+
+  /**
+   * The class name of the {@link Compressor}, such as {@link SnappyCompressor}, that gateway
+   * receivers accept compressed batches from. It should match the
+   * {@link AbstractGatewaySender#BATCH_COMPRESSOR} of the senders using it. Receivers reject
+   * compressed batches by default.
+   */
+  public static final String RECEIVER_COMPRESSOR =
+      System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "GatewayReceiver.BATCH_COMPRESSOR");
+
+  private static final ConcurrentMap<String, Compressor> compressors = new ConcurrentHashMap<>();
+
+  private GatewayBatchCompression() {
+    // no instances allowed
+  }
+
+  /**
+   * Returns the shared instance of the named {@link Compressor} class.
+   *
+   * @throws IllegalArgumentException if the class cannot be loaded or is not a Compressor
+   */
+  public static Compressor getCompressor(String className) {
+    return compressors.computeIfAbsent(className, name -> {
+      try {
+        Class<?> clazz = ClassPathLoader.getLatest().forName(name);
+        if (!Compressor.class.isAssignableFrom(clazz)) {
+          throw new IllegalArgumentException(name + " is not a " + Compressor.class.getName());
+        }
+        return (Compressor) clazz.newInstance();
+      } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+        throw new IllegalArgumentException("Unable to create the batch compressor " + name, e);
+      }
+    });
+  }
+
+  /**
+   * Returns the compressor a receiver decompresses batches compressed with the named class with.
+   *
+   * @throws CompressionException if the receiver does not accept batches compressed with it
+   */
+  static Compressor getReceiverCompressor(String className, String receiverCompressor) {
+    if (className != null && className.equals(receiverCompressor)) {
+      return getCompressor(className);
+    }
+    throw new CompressionException("The batch compressor " + className
+        + " is not accepted by this gateway receiver. Set the system property "
+        + DistributionConfig.GEMFIRE_PREFIX + "GatewayReceiver.BATCH_COMPRESSOR to accept it.");
+  }
+
+  /**
+   * Replaces the event parts of a batch message that has been built with all its parts by one
+   * compressed part. The message is left as it is if the event parts are too short, or do not
+   * get shorter, to be worth compressing.
+   *
+   * @return true if the message was compressed
+   */
+  public static boolean compress(Message message, Compressor compressor, GatewaySenderStats stats)
+      throws IOException {
+    int numberOfParts = message.getNumberOfParts();
+    HeapDataOutputStream hdos = new HeapDataOutputStream(Version.CURRENT);
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    hdos.writeInt(numberOfParts - FLAGS_PART - 1);
+    for (int i = FLAGS_PART + 1; i < numberOfParts; i++) {
+      Part part = message.getPart(i);
+      hdos.writeByte(part.getTypeCode());
+      hdos.writeInt(part.getLength());
+      part.writeTo(hdos, buffer);
+      HeapDataOutputStream.flushStream(hdos, buffer);
+    }
+    byte[] uncompressed = hdos.toByteArray();
+    if (uncompressed.length < MIN_COMPRESSED_LENGTH) {
+      return false;
+    }
+    long start = stats.startTime();
+    byte[] compressed = compressor.compress(uncompressed);
+    stats.endBatchCompression(start, uncompressed.length, compressed.length);
+    if (compressed.length >= uncompressed.length) {
+      return false;
+    }
+
+    Part flags = message.getPart(FLAGS_PART);
+    flags.setPartState(new byte[] {flags.getSerializedForm()[0], COMPRESSED}, false);
+    for (int i = FLAGS_PART + 1; i < numberOfParts; i++) {
+      message.getPart(i).clear();
+    }
+    message.getPart(FLAGS_PART + 1)
+        .setPartState(CacheServerHelper.toUTF(compressor.getClass().getName()), false);
+    message.getPart(FLAGS_PART + 2).setPartState(compressed, false);
+    message.setNumberOfParts(FLAGS_PART + 3);
+    return true;
+  }
+
+  /**
+   * Restores the event parts of a batch message read by a gateway receiver if they were
+   * compressed.
+   *
+   * @throws CompressionException if the compressed parts cannot be decompressed, were compressed
+   *         with a compressor this receiver does not accept, or are malformed
+   */
+  public static void decompress(Message message) throws IOException {
+    decompress(message, RECEIVER_COMPRESSOR);
+  }
+
+  static void decompress(Message message, String receiverCompressor) throws IOException {
+    Part flags = message.getPart(FLAGS_PART);
+    if (flags.getLength() < 2 || flags.getSerializedForm()[1] != COMPRESSED) {
+      return;
+    }
+    Compressor compressor =
+        getReceiverCompressor(message.getPart(FLAGS_PART + 1).getString(), receiverCompressor);
+    byte[] uncompressed =
+        compressor.decompress(message.getPart(FLAGS_PART + 2).getSerializedForm());
+    int maxMessageSize = message.getMaxMessageSize();
+    if (uncompressed.length > maxMessageSize) {
+      throw new CompressionException("The decompressed batch length " + uncompressed.length
+          + " exceeds the maximum message size " + maxMessageSize);
+    }
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(uncompressed));
+    int numberOfEventParts = in.readInt();
+    // every part takes at least its type code and length
+    if (numberOfEventParts < 0 || numberOfEventParts > in.available() / 5) {
+      throw new CompressionException(
+          "Invalid number of compressed event parts " + numberOfEventParts);
+    }
+    message.setNumberOfParts(FLAGS_PART + 1 + numberOfEventParts);
+    for (int i = FLAGS_PART + 1; i < message.getNumberOfParts(); i++) {
+      byte typeCode = in.readByte();
+      int length = in.readInt();
+      if (length < 0 || length > in.available()) {
+        throw new CompressionException("Invalid compressed event part length " + length);
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      message.getPart(i).init(bytes, typeCode);
+    }
+  }
+}
@@ -17,14 +17,25 @@ package org.apache.geode.internal.cache.wan;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.CancelException;
 import org.apache.geode.cache.asyncqueue.AsyncEventListener;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
 import org.apache.geode.internal.logging.log4j.LocalizedMessage;
 import org.apache.geode.i18n.StringId;
 
@@ -39,6 +50,15 @@ public class GatewaySenderEventCallbackDispatcher implements GatewaySenderEventD
 
   private static final Logger logger = LogService.getLogger();
 
+  /**
+   * The number of threads a parallel async event queue dispatcher delivers the events of the
+   * different buckets in a batch on. The events of one bucket are still delivered in order, in one
+   * call to each listener. Zero, the default, delivers the whole batch on the dispatcher thread.
+   */
+  public static final int BUCKET_DISPATCHER_THREADS = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "AsyncEventQueue.BUCKET_DISPATCHER_THREADS", 0)
+      .intValue();
+
   /**
    * The <code>SerialGatewayEventProcessor</code> used by this <code>CacheListener</code> to process
    * events.
@@ -56,9 +76,56 @@ public class GatewaySenderEventCallbackDispatcher implements GatewaySenderEventD
    */
   private final Object eventLock = new Object();
 
+  /**
+   * The executor the events of each bucket in a batch are delivered on, or null if batches are
+   * delivered on the dispatcher thread.
+   */
+  private final ExecutorService bucketExecutor;
+
+  /**
+   * The events of the batch with id {@link #deliveredBatchId} whose bucket was delivered
+   * successfully while others failed. They are not delivered again when the batch is retried. Only
+   * the dispatcher thread uses it.
+   */
+  private final Set<GatewaySenderEventImpl> deliveredEvents =
+      Collections.newSetFromMap(new IdentityHashMap<GatewaySenderEventImpl, Boolean>());
+
+  /**
+   * The id of the batch {@link #deliveredEvents} belong to. They are forgotten as soon as a batch
+   * with another id is dispatched.
+   */
+  private int deliveredBatchId = -1;
+
   public GatewaySenderEventCallbackDispatcher(AbstractGatewaySenderEventProcessor eventProcessor) {
+    this(eventProcessor, BUCKET_DISPATCHER_THREADS);
+  }
+
+  GatewaySenderEventCallbackDispatcher(AbstractGatewaySenderEventProcessor eventProcessor,
+      int bucketDispatcherThreads) {
     this.eventProcessor = eventProcessor;
     initializeEventListeners();
+    if (bucketDispatcherThreads > 0 && eventProcessor.getSender().isParallel()) {
+      this.bucketExecutor = createBucketExecutor(bucketDispatcherThreads);
+    } else {
+      this.bucketExecutor = null;
+    }
+  }
+
+  private ExecutorService createBucketExecutor(int threads) {
+    final LoggingThreadGroup loggingThreadGroup =
+        LoggingThreadGroup.createThreadGroup("Async Event Queue Bucket Dispatcher Group", logger);
+    final String threadName =
+        "Async Event Queue Bucket Dispatcher for " + this.eventProcessor.getSender().getId();
+
+    final ThreadFactory threadFactory = new ThreadFactory() {
+      public Thread newThread(final Runnable task) {
+        final Thread thread = new Thread(loggingThreadGroup, task, threadName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+
+    return Executors.newFixedThreadPool(threads, threadFactory);
   }
 
   /**
@@ -148,6 +215,82 @@ public class GatewaySenderEventCallbackDispatcher implements GatewaySenderEventD
       return true;
     }
     int batchId = this.eventProcessor.getBatchId();
+    if (this.bucketExecutor != null) {
+      return dispatchBucketBatches(events, batchId);
+    }
+    return deliverToListeners(events, batchId);
+  }
+
+  /**
+   * Delivers the events of each bucket in the batch to the listeners on the bucket executor, so a
+   * slow bucket does not hold up the delivery of the others. The buckets that are delivered
+   * successfully are not delivered again when the batch is retried because another one failed.
+   */
+  private boolean dispatchBucketBatches(List events, int batchId) throws GatewaySenderException {
+    if (batchId != this.deliveredBatchId) {
+      // the processor moved on from the batch the delivered events belong to
+      this.deliveredEvents.clear();
+      this.deliveredBatchId = batchId;
+    }
+    Map<Integer, List<GatewaySenderEventImpl>> bucketBatches = new LinkedHashMap<>();
+    for (Object o : events) {
+      GatewaySenderEventImpl event = (GatewaySenderEventImpl) o;
+      if (!this.deliveredEvents.contains(event)) {
+        List<GatewaySenderEventImpl> bucketBatch = bucketBatches.get(event.getBucketId());
+        if (bucketBatch == null) {
+          bucketBatch = new ArrayList<>();
+          bucketBatches.put(event.getBucketId(), bucketBatch);
+        }
+        bucketBatch.add(event);
+      }
+    }
+
+    List<Future<Boolean>> results = new ArrayList<>(bucketBatches.size());
+    for (final List<GatewaySenderEventImpl> bucketBatch : bucketBatches.values()) {
+      results.add(this.bucketExecutor.submit(() -> deliverToListeners(bucketBatch, batchId)));
+    }
+
+    boolean successAll = true;
+    boolean interrupted = false;
+    GatewaySenderException failure = null;
+    int i = 0;
+    for (List<GatewaySenderEventImpl> bucketBatch : bucketBatches.values()) {
+      Future<Boolean> result = results.get(i++);
+      try {
+        Boolean delivered = null;
+        while (delivered == null) {
+          try {
+            delivered = result.get();
+          } catch (InterruptedException e) {
+            // Keep waiting so that a retry cannot deliver the bucket concurrently
+            interrupted = true;
+          }
+        }
+        if (delivered) {
+          this.deliveredEvents.addAll(bucketBatch);
+        } else {
+          successAll = false;
+        }
+      } catch (ExecutionException e) {
+        // already logged by the thread that delivered the bucket
+        successAll = false;
+        failure = e.getCause() instanceof GatewaySenderException
+            ? (GatewaySenderException) e.getCause() : new GatewaySenderException(e.getCause());
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    if (successAll) {
+      this.deliveredEvents.clear();
+    }
+    return successAll;
+  }
+
+  private boolean deliverToListeners(List events, int batchId) throws GatewaySenderException {
     boolean successAll = true;
     try {
       for (AsyncEventListener listener : this.eventListeners) {
@@ -180,8 +323,9 @@ public class GatewaySenderEventCallbackDispatcher implements GatewaySenderEventD
 
   @Override
   public void stop() {
-    // no op
-
+    if (this.bucketExecutor != null) {
+      this.bucketExecutor.shutdown();
+    }
   }
 
   @Override
@@ -60,6 +60,14 @@ public class GatewaySenderStats {
   protected static final String BATCHES_REDISTRIBUTED = "batchesRedistributed";
   /** Name of the batches resized statistic */
   protected static final String BATCHES_RESIZED = "batchesResized";
+  /** Name of the batches in flight statistic */
+  protected static final String BATCHES_IN_FLIGHT = "batchesInFlight";
+  /** Name of the batch bytes before compression statistic */
+  protected static final String BATCH_BYTES_UNCOMPRESSED = "batchBytesUncompressed";
+  /** Name of the batch bytes after compression statistic */
+  protected static final String BATCH_BYTES_COMPRESSED = "batchBytesCompressed";
+  /** Name of the batch compression time statistic */
+  protected static final String BATCH_COMPRESSION_TIME = "batchCompressionTime";
   /** Name of the unprocessed events added by primary statistic */
   protected static final String UNPROCESSED_TOKENS_ADDED_BY_PRIMARY =
       "unprocessedTokensAddedByPrimary";
@@ -116,6 +124,14 @@ public class GatewaySenderStats {
   protected static int batchesRedistributedId;
   /** Id of the batches resized statistic */
   protected static int batchesResizedId;
+  /** Id of the batches in flight statistic */
+  protected static int batchesInFlightId;
+  /** Id of the batch bytes before compression statistic */
+  protected static int batchBytesUncompressedId;
+  /** Id of the batch bytes after compression statistic */
+  protected static int batchBytesCompressedId;
+  /** Id of the batch compression time statistic */
+  protected static int batchCompressionTimeId;
   /** Id of the unprocessed events added by primary statistic */
   protected static int unprocessedTokensAddedByPrimaryId;
   /** Id of the unprocessed events added by secondary statistic */
@@ -186,6 +202,17 @@ public class GatewaySenderStats {
             f.createIntCounter(BATCHES_RESIZED,
                 "Number of batches that were resized because they were too large", "operations",
                 false),
+            f.createIntGauge(BATCHES_IN_FLIGHT,
+                "Number of batches sent to the gateway receiver and not yet acknowledged.",
+                "operations", false),
+            f.createLongCounter(BATCH_BYTES_UNCOMPRESSED,
+                "Total number of bytes of the batches that were compressed, before compression.",
+                "bytes", false),
+            f.createLongCounter(BATCH_BYTES_COMPRESSED,
+                "Total number of bytes of the batches that were compressed, after compression.",
+                "bytes", false),
+            f.createLongCounter(BATCH_COMPRESSION_TIME, "Total time spent compressing batches.",
+                "nanoseconds", false),
             f.createIntCounter(UNPROCESSED_TOKENS_ADDED_BY_PRIMARY,
                 "Number of tokens added to the secondary's unprocessed token map by the primary (though a listener).",
                 "tokens"),
@@ -239,6 +266,10 @@ public class GatewaySenderStats {
     batchesDistributedId = type.nameToId(BATCHES_DISTRIBUTED);
     batchesRedistributedId = type.nameToId(BATCHES_REDISTRIBUTED);
     batchesResizedId = type.nameToId(BATCHES_RESIZED);
+    batchesInFlightId = type.nameToId(BATCHES_IN_FLIGHT);
+    batchBytesUncompressedId = type.nameToId(BATCH_BYTES_UNCOMPRESSED);
+    batchBytesCompressedId = type.nameToId(BATCH_BYTES_COMPRESSED);
+    batchCompressionTimeId = type.nameToId(BATCH_COMPRESSION_TIME);
     unprocessedTokensAddedByPrimaryId = type.nameToId(UNPROCESSED_TOKENS_ADDED_BY_PRIMARY);
     unprocessedEventsAddedBySecondaryId = type.nameToId(UNPROCESSED_EVENTS_ADDED_BY_SECONDARY);
     unprocessedEventsRemovedByPrimaryId = type.nameToId(UNPROCESSED_EVENTS_REMOVED_BY_PRIMARY);
@@ -444,6 +475,55 @@ public class GatewaySenderStats {
     this.stats.incInt(batchesResizedId, 1);
   }
 
+  /**
+   * Returns the current value of the "batchesInFlight" stat.
+   *
+   * @return the current value of the "batchesInFlight" stat
+   */
+  public int getBatchesInFlight() {
+    return this.stats.getInt(batchesInFlightId);
+  }
+
+  /**
+   * Sets the "batchesInFlight" stat.
+   *
+   * @param batches The number of batches sent and not yet acknowledged
+   */
+  public void setBatchesInFlight(int batches) {
+    this.stats.setInt(batchesInFlightId, batches);
+  }
+
+  /**
+   * Returns the current value of the "batchBytesUncompressed" stat.
+   *
+   * @return the current value of the "batchBytesUncompressed" stat
+   */
+  public long getBatchBytesUncompressed() {
+    return this.stats.getLong(batchBytesUncompressedId);
+  }
+
+  /**
+   * Returns the current value of the "batchBytesCompressed" stat.
+   *
+   * @return the current value of the "batchBytesCompressed" stat
+   */
+  public long getBatchBytesCompressed() {
+    return this.stats.getLong(batchBytesCompressedId);
+  }
+
+  /**
+   * Records the compression of a batch.
+   *
+   * @param start The time the compression started
+   * @param uncompressedBytes The number of bytes before compression
+   * @param compressedBytes The number of bytes after compression
+   */
+  public void endBatchCompression(long start, int uncompressedBytes, int compressedBytes) {
+    this.stats.incLong(batchCompressionTimeId, DistributionStats.getStatTime() - start);
+    this.stats.incLong(batchBytesUncompressedId, uncompressedBytes);
+    this.stats.incLong(batchBytesCompressedId, compressedBytes);
+  }
+
   /**
    * Sets the "eventQueueSize" stat.
    * 
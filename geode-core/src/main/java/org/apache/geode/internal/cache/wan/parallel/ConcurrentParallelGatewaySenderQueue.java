@@ -212,6 +212,11 @@ public class ConcurrentParallelGatewaySenderQueue implements RegionQueue {
     getPGSProcessor(bucketId).conflateEvent(conflatableObject, bucketId, tailKey);
   }
 
+  public void removeFromSecondaries(PartitionedRegion prQ, int bucketId, Object key) {
+    ((ParallelGatewaySenderQueue) getPGSProcessor(bucketId).getQueue()).addRemovedEvent(prQ,
+        bucketId, key);
+  }
+
   public void addShadowPartitionedRegionForUserRR(DistributedRegion userRegion) {
     for (int i = 0; i < processors.length; i++) {
       processors[i].addShadowPartitionedRegionForUserRR(userRegion);;
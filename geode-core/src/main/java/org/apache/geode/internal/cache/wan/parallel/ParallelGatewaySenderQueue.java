@@ -1043,6 +1043,11 @@ public class ParallelGatewaySenderQueue implements RegionQueue {
       }
     }
     addRemovedEvent(prQ, bucketId, key);
+    // the secondaries also queued the event that was conflated into this one on enqueue
+    Long conflatedKey = brq == null ? null : brq.removeKeyConflatedOnEnqueue(key);
+    if (conflatedKey != null) {
+      addRemovedEvent(prQ, bucketId, conflatedKey);
+    }
   }
 
   public void resetLastPeeked() {
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.geode.cache.Cache;
+
+/**
+ * Implemented by the {@link CommandProcessor}s of commands whose consecutive pipelined binary
+ * requests can be served together, with one bulk region operation rather than one operation per
+ * request.
+ *
+ * @since Geode 1.3
+ */
+public interface BatchCommandProcessor extends CommandProcessor {
+
+  /**
+   * Processes consecutive requests for this command, queueing their replies on the reader with
+   * {@link RequestReader#sendReply(ByteBuffer, ByteBuffer)} in the order of the requests.
+   * 
+   * @param requests the binary requests, as returned by {@link RequestReader#getRequest()}
+   * @param reader
+   * @param cache
+   */
+  public void processBinaryBatch(List<ByteBuffer> requests, RequestReader reader, Cache cache);
+
+}
@@ -15,75 +15,215 @@
 package org.apache.geode.internal.memcached;
 
 import java.io.IOException;
-import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.apache.logging.log4j.Logger;
 
-import org.apache.geode.LogWriter;
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheClosedException;
+import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.memcached.commands.ClientError;
 import org.apache.geode.memcached.GemFireMemcachedServer;
 import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
 
 /**
- * One instance of ConnectionHandle is created for each client that connects to
+ * One instance of ConnectionHandler is created for each client that connects to
  * {@link GemFireMemcachedServer} and is responsible for reading requests and sending responses to
  * this client.
- * 
+ * <p>
+ * The connection's channel is non-blocking and registered with an {@link EventLoop}, which calls
+ * {@link #handleRead()} and {@link #handleWrite()} when the channel is ready. When requests arrive
+ * the handler stops reading and is {@link #run() run} on a worker thread, so that a cache
+ * operation that has to wait does not hold up the other connections of the event loop. The worker
+ * processes every request the client has pipelined, then flushes all the replies together and
+ * hands the connection back to the event loop. Consecutive binary requests for a
+ * {@link BatchCommandProcessor} command, such as the quiet gets of a multi-get, are processed
+ * together.
  * 
  *
  */
 public class ConnectionHandler implements Runnable {
 
-  private final Socket socket;
+  private static final Logger logger = LogService.getLogger();
+
+  private final SocketChannel channel;
 
   private final Cache cache;
 
   private final Protocol protocol;
 
-  private static LogWriter logger;
+  private final RequestReader request;
+
+  private final EventLoop eventLoop;
 
-  public ConnectionHandler(Socket socket, Cache cache, Protocol protocol) {
-    this.socket = socket;
+  private final Executor executor;
+
+  private SelectionKey key;
+
+  /**
+   * set once the client has quit; the connection is closed when the last reply is written
+   */
+  private boolean closing;
+
+  public ConnectionHandler(SocketChannel channel, Cache cache, Protocol protocol,
+      EventLoop eventLoop, Executor executor) {
+    this.channel = channel;
     this.cache = cache;
     this.protocol = protocol;
-    if (logger == null) {
-      logger = this.cache.getLogger();
+    this.request = new RequestReader(protocol);
+    this.eventLoop = eventLoop;
+    this.executor = executor;
+  }
+
+  /**
+   * Called by the event loop once the channel is registered with its selector
+   */
+  void registered(SelectionKey key) {
+    this.key = key;
+  }
+
+  /**
+   * Called by the event loop when the client has sent more bytes
+   */
+  void handleRead() {
+    int bytesRead;
+    try {
+      bytesRead = request.read(channel);
+    } catch (IOException e) {
+      close();
+      return;
+    }
+    if (bytesRead == -1) {
+      close();
+    } else if (bytesRead > 0) {
+      // stop reading until the worker has processed what has arrived so far
+      key.interestOps(0);
+      executor.execute(this);
+    }
+  }
+
+  /**
+   * Called by the event loop when the channel can take more of the pending replies
+   */
+  void handleWrite() {
+    try {
+      if (request.flush(channel)) {
+        resume();
+      }
+    } catch (IOException e) {
+      close();
     }
   }
 
+  /**
+   * Processes all the complete requests that have been read, then flushes the replies
+   */
   public void run() {
-    RequestReader request = new RequestReader(this.socket, this.protocol);
-    while (!Thread.currentThread().isInterrupted()) {
+    try {
+      processRequests();
+      request.flush(channel);
+    } catch (CacheClosedException | IOException | IllegalStateException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("closing memcached connection {}", channel, e);
+      }
+      eventLoop.execute(this::close);
+      return;
+    } catch (RuntimeException e) {
+      // the requests after the failed one cannot be told apart from its remains, so the
+      // connection cannot be resumed
+      logger.warn("closing memcached connection {} after unexpected exception", channel, e);
+      eventLoop.execute(this::close);
+      return;
+    }
+    eventLoop.execute(this::resume);
+  }
+
+  private void processRequests() {
+    Command command = null;
+    while (!closing) {
       try {
-        Command command = request.readCommand();
-        if (logger.fineEnabled()) {
-          logger.fine("processing command:" + command);
+        if (command == null) {
+          command = request.nextCommand();
+          if (command == null) {
+            return;
+          }
         }
-        ByteBuffer reply =
-            command.getCommandProcessor().processCommand(request, this.protocol, cache);
+        if (logger.isDebugEnabled()) {
+          logger.debug("processing command:{}", command);
+        }
+        CommandProcessor processor = command.getCommandProcessor();
+        if (protocol == Protocol.BINARY && processor instanceof BatchCommandProcessor) {
+          command = processBatch(command, (BatchCommandProcessor) processor);
+          continue;
+        }
+        ByteBuffer reply = processor.processCommand(request, this.protocol, cache);
         if (reply != null) {
           request.sendReply(reply);
         }
         if (command == Command.QUIT || command == Command.QUITQ) {
-          socket.close();
-          break;
+          closing = true;
         }
       } catch (ClientError e) {
         request.sendException(e);
       } catch (IllegalArgumentException e) {
         // thrown by Command.valueOf() when there is no matching command
         request.sendException(e);
-      } catch (CacheClosedException cc) {
-        Thread.currentThread().interrupt();
-      } catch (IOException e) {
-        Thread.currentThread().interrupt();
       }
+      command = null;
     }
-    logger.fine("Connection handler " + Thread.currentThread().getName() + " terminating");
   }
 
-  protected static LogWriter getLogger() {
-    return logger;
+  /**
+   * Processes the current request together with the requests for the same command that the
+   * client has pipelined right after it.
+   * 
+   * @return the command of the request that follows them, which is now the current request, or
+   *         null if there are no more complete requests
+   */
+  private Command processBatch(Command command, BatchCommandProcessor processor) {
+    List<ByteBuffer> requests = new ArrayList<ByteBuffer>();
+    Command next;
+    do {
+      requests.add(request.getRequest());
+      next = request.nextCommand();
+    } while (next == command);
+    if (logger.isDebugEnabled()) {
+      logger.debug("processing {} {} requests together", requests.size(), command);
+    }
+    processor.processBinaryBatch(requests, request, cache);
+    return next;
+  }
+
+  /**
+   * Waits for the pending replies to be written, or else for the next requests. Always called by
+   * the event loop.
+   */
+  private void resume() {
+    if (!key.isValid()) {
+      return;
+    }
+    if (request.hasPendingReplies()) {
+      // do not read more requests until the client has taken the replies
+      key.interestOps(SelectionKey.OP_WRITE);
+    } else if (closing) {
+      close();
+    } else {
+      key.interestOps(SelectionKey.OP_READ);
+    }
+  }
+
+  void close() {
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException ignore) {
+    }
   }
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * A thread that waits on a {@link Selector} for the memcached client connections registered with
+ * it to become readable or writable, and dispatches to their {@link ConnectionHandler}. A handful
+ * of event loops serve all the connections of a server.
+ * <p>
+ * Selection keys are only changed by the event loop thread; other threads pass it work through
+ * {@link #execute(Runnable)}.
+ *
+ * @since Geode 1.3
+ */
+public class EventLoop implements Runnable {
+
+  private static final Logger logger = LogService.getLogger();
+
+  private final Selector selector;
+
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+  private final Thread thread;
+
+  public EventLoop(String name) throws IOException {
+    this.selector = Selector.open();
+    this.thread = new Thread(this, name);
+    this.thread.setDaemon(true);
+  }
+
+  public void start() {
+    this.thread.start();
+  }
+
+  /**
+   * Starts serving the given non-blocking channel
+   */
+  public void register(final SocketChannel channel, final ConnectionHandler handler) {
+    execute(() -> {
+      try {
+        handler.registered(channel.register(selector, SelectionKey.OP_READ, handler));
+      } catch (ClosedChannelException e) {
+        handler.close();
+      }
+    });
+  }
+
+  /**
+   * Runs the task on the event loop thread
+   */
+  public void execute(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        selector.select();
+        runTasks();
+        Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+        while (selected.hasNext()) {
+          SelectionKey key = selected.next();
+          selected.remove();
+          ConnectionHandler handler = (ConnectionHandler) key.attachment();
+          try {
+            if (key.isWritable()) {
+              handler.handleWrite();
+            }
+            if (key.isValid() && key.isReadable()) {
+              handler.handleRead();
+            }
+          } catch (CancelledKeyException e) {
+            handler.close();
+          }
+        }
+      }
+    } catch (ClosedSelectorException e) {
+      // shutting down
+    } catch (IOException e) {
+      logger.warn("memcached event loop {} terminating", thread.getName(), e);
+    } finally {
+      closeSelector();
+    }
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (CancelledKeyException e) {
+        // the connection was closed in the meantime
+      }
+    }
+  }
+
+  private void closeSelector() {
+    try {
+      for (SelectionKey key : selector.keys()) {
+        ((ConnectionHandler) key.attachment()).close();
+      }
+      selector.close();
+    } catch (ClosedSelectorException | IOException ignore) {
+    }
+  }
+
+  /**
+   * Closes all the connections of this event loop
+   */
+  public void shutdown() {
+    this.thread.interrupt();
+  }
+}
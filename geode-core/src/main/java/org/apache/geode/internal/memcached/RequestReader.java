@@ -15,40 +15,53 @@
 package org.apache.geode.internal.memcached;
 
 import java.io.IOException;
-import java.net.Socket;
-import java.net.SocketException;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.channels.SocketChannel;
-import java.nio.charset.CharacterCodingException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
 
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.memcached.commands.AbstractCommand;
 import org.apache.geode.internal.memcached.commands.ClientError;
 import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
 
 /**
- * Reads the first line from the request and interprets the {@link Command} from the memcached
- * client
+ * Buffers the bytes a memcached client has sent and splits them into requests, interpreting the
+ * {@link Command} of each. A client may pipeline any number of requests; {@link #nextCommand()}
+ * returns them one at a time once they have arrived completely, and {@link #getRequest()} returns
+ * the bytes of the current one. Replies are buffered until {@link #flush(WritableByteChannel)} so
+ * that the replies to a pipelined batch go out in as few writes as possible.
+ * <p>
+ * Neither reading nor flushing blocks, so one thread can serve many connections.
  * 
  *
  */
 public class RequestReader {
 
+  private static final Logger logger = LogService.getLogger();
+
   private static final Charset charsetASCII = Charset.forName("US-ASCII");
 
-  private static final ThreadLocal<CharsetDecoder> asciiDecoder =
-      new ThreadLocal<CharsetDecoder>() {
-        @Override
-        protected CharsetDecoder initialValue() {
-          return charsetASCII.newDecoder();
-        }
-      };
+  /**
+   * Initial size of the request and reply buffers. They grow to fit larger requests and replies,
+   * so an idle connection holds on to little memory.
+   */
+  private static final int INITIAL_BUFFER_SIZE = 4096;
 
-  private ByteBuffer buffer;
+  /**
+   * Longest ASCII command line accepted before the client is considered to be misbehaving.
+   */
+  private static final int MAX_LINE_LENGTH = 64 * 1024;
 
-  private ByteBuffer response;
+  /**
+   * Longest request body or ASCII data block accepted. The input buffer grows to hold a whole
+   * request, so larger requests are rejected rather than buffered.
+   */
+  static final int MAX_BODY_LENGTH = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "memcached.MAX_BODY_LENGTH", 64 * 1024 * 1024);
 
   private static final int RESPONSE_HEADER_LENGTH = 24;
 
@@ -62,151 +75,216 @@ public class RequestReader {
 
   private static final int POSITION_OPAQUE = 12;
 
-  private Socket socket;
+  /**
+   * Bytes received from the client, in fill mode. Requests not yet handed out start at
+   * {@link #requestStart}.
+   */
+  private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
 
-  private final Protocol protocol;
+  private int requestStart;
+
+  /**
+   * The request currently being processed
+   */
+  private ByteBuffer request;
 
-  private CharBuffer commandBuffer = CharBuffer.allocate(11); // no command exceeds 9 chars
+  private ByteBuffer response;
+
+  /**
+   * Replies not yet written to the client, in fill mode
+   */
+  private ByteBuffer output = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
 
-  public RequestReader(Socket socket, Protocol protocol) {
-    buffer = ByteBuffer.allocate(getBufferSize(socket.getChannel()));
-    // set position to limit so that first read attempt
-    // returns hasRemaining() false
-    buffer.position(buffer.limit());
-    this.socket = socket;
+  private final Protocol protocol;
+
+  public RequestReader(Protocol protocol) {
     this.protocol = protocol;
   }
 
-  public Command readCommand() throws IOException {
+  /**
+   * Reads whatever bytes the channel has available without blocking.
+   * 
+   * @return the number of bytes read, or -1 if the client closed the connection
+   */
+  public int read(ReadableByteChannel channel) throws IOException {
+    if (!input.hasRemaining()) {
+      makeRoom();
+    }
+    return channel.read(input);
+  }
+
+  /**
+   * Moves the unprocessed bytes to the start of the input buffer, growing it if they fill it.
+   */
+  private void makeRoom() {
+    int pending = input.position() - requestStart;
+    ByteBuffer target = input;
+    if (pending * 2 > input.capacity()) {
+      target = ByteBuffer.allocate(input.capacity() * 2);
+    }
+    input.flip();
+    input.position(requestStart);
+    if (target == input) {
+      input.compact();
+    } else {
+      target.put(input);
+    }
+    input = target;
+    requestStart = 0;
+  }
+
+  /**
+   * Returns the command of the next complete request, or null if it has not all arrived yet. The
+   * request is consumed even if it turns out to be malformed, so that the requests pipelined after
+   * it can still be served.
+   * 
+   * @throws IllegalArgumentException if an ASCII command is not known
+   * @throws ClientError if an ASCII command line is malformed
+   * @throws IllegalStateException if a binary request is corrupt; the connection cannot be used
+   *         any further
+   */
+  public Command nextCommand() {
+    if (requestStart == input.position()) {
+      // all requests served, start filling the buffer from the beginning again
+      input.clear();
+      requestStart = 0;
+      return null;
+    }
     if (protocol == Protocol.ASCII) {
-      return readAsciiCommand();
+      return nextAsciiCommand();
     }
-    return readBinaryCommand();
+    return nextBinaryCommand();
   }
 
-  private Command readBinaryCommand() throws IOException {
-    SocketChannel channel = this.socket.getChannel();
-    if (channel == null || !channel.isOpen()) {
-      throw new IllegalStateException("cannot read from channel");
+  private Command nextBinaryCommand() {
+    if (input.position() - requestStart < HEADER_LENGTH) {
+      return null;
     }
-    Command cmd = null;
-    boolean done = false;
-    boolean read = false;
-    while (!done) {
-      if (!buffer.hasRemaining()) {
-        buffer.clear();
-        read = true;
-      } else if (!read) {
-        // compact is meant for partial writes, but we want to use
-        // it partial reads, so the new limit should be the position
-        // after the compact operation and we want to start reading
-        // from the beginning
-        buffer.compact();
-        buffer.limit(buffer.position());
-        buffer.position(0);
-      }
-      if (read) {
-        int bytesRead = channel.read(buffer);
-        if (bytesRead == -1) {
-          throw new IOException("EOF");
-        }
-        buffer.flip();
+    if (input.get(requestStart) != REQUEST_MAGIC) {
+      throw new IllegalStateException("Not a valid request, magic byte incorrect");
+    }
+    int bodyLength = input.getInt(requestStart + AbstractCommand.TOTAL_BODY_LENGTH_INDEX);
+    if (bodyLength < 0) {
+      throw new IllegalStateException("Not a valid request, negative body length");
+    }
+    if (bodyLength > MAX_BODY_LENGTH) {
+      throw new IllegalStateException(
+          "Request body of " + bodyLength + " bytes exceeds the maximum of " + MAX_BODY_LENGTH);
+    }
+    if (input.position() - requestStart < HEADER_LENGTH + bodyLength) {
+      return null;
+    }
+    byte opCode = input.get(requestStart + POSITION_OPCODE);
+    consumeRequest(HEADER_LENGTH + bodyLength);
+    Command cmd = Command.getCommandFromOpCode(opCode);
+    if (logger.isTraceEnabled()) {
+      logger.trace("Request:{}{}", request, Command.buffertoString(request));
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("read command {}", cmd);
+    }
+    return cmd;
+  }
+
+  private Command nextAsciiCommand() {
+    int lineEnd = indexOfNewline();
+    if (lineEnd == -1) {
+      if (input.position() - requestStart > MAX_LINE_LENGTH) {
+        throw new IllegalStateException("Command line too long, ensure client protocol is ASCII");
       }
-      // read again if we did not read enough bytes
-      if (buffer.limit() < HEADER_LENGTH) {
-        buffer.compact();
-        read = true;
-        continue;
+      return null;
+    }
+    int lineLength = lineEnd + 1 - requestStart;
+    String[] words = new String(input.array(), requestStart, lineLength, charsetASCII).trim()
+        .split(" ");
+    String name = words[0].toUpperCase();
+    int requestLength = lineLength;
+    if (isStorageCommand(name)) {
+      int dataLength = -1;
+      try {
+        dataLength = words.length > 4 ? Integer.parseInt(words[4]) : -1;
+      } catch (NumberFormatException e) {
+        // reported below
       }
-      int requestLength = buffer.remaining();
-      byte magic = buffer.get();
-      if (magic != REQUEST_MAGIC) {
-        throw new IllegalStateException("Not a valid request, magic byte incorrect");
+      if (dataLength < 0) {
+        consumeRequest(lineLength);
+        throw new ClientError("error reading value length");
       }
-      byte opCode = buffer.get();
-      if (ConnectionHandler.getLogger().finerEnabled()) {
-        String str = Command.buffertoString(buffer);
-        ConnectionHandler.getLogger().finer("Request:" + buffer + str.toString());
+      if (dataLength > MAX_BODY_LENGTH) {
+        throw new IllegalStateException(
+            "Data block of " + dataLength + " bytes exceeds the maximum of " + MAX_BODY_LENGTH);
       }
-      int bodyLength = buffer.getInt(AbstractCommand.TOTAL_BODY_LENGTH_INDEX);
-      if ((HEADER_LENGTH + bodyLength) > requestLength) {
-        // set the position back to the start of the request
-        buffer.position(buffer.position() - 2 /* since we read two bytes */);
-        buffer.compact();
-        // ensure that the buffer is big enough
-        if (buffer.capacity() < (HEADER_LENGTH + bodyLength)) {
-          // allocate bigger buffer and copy the bytes to the bigger buffer
-          ByteBuffer oldBuffer = buffer;
-          oldBuffer.position(0);
-          buffer = ByteBuffer.allocate(HEADER_LENGTH + bodyLength);
-          buffer.put(oldBuffer);
-        }
-        read = true;
-        continue;
+      // the data block is terminated by \r\n
+      requestLength += dataLength + 2;
+      if (input.position() - requestStart < requestLength) {
+        return null;
       }
-      cmd = Command.getCommandFromOpCode(opCode);
-      done = true;
     }
-    if (ConnectionHandler.getLogger().fineEnabled()) {
-      ConnectionHandler.getLogger().fine("read command " + cmd);
+    consumeRequest(requestLength);
+    if (name.isEmpty()) {
+      logger.info("Unknown command. ensure client protocol is ASCII");
+      throw new IllegalArgumentException("Unknown command. ensure client protocol is ASCII");
     }
-    return cmd;
+    return Command.valueOf(name);
   }
 
-  private Command readAsciiCommand() throws IOException {
-    SocketChannel channel = this.socket.getChannel();
-    if (channel == null || !channel.isOpen()) {
-      throw new IllegalStateException("cannot read from channel");
+  private int indexOfNewline() {
+    byte[] bytes = input.array();
+    for (int i = requestStart; i < input.position(); i++) {
+      if (bytes[i] == '\n') {
+        return i;
+      }
     }
-    buffer.clear();
-    int bytesRead = channel.read(buffer);
-    if (bytesRead == -1) {
-      throw new IOException("EOF");
+    return -1;
+  }
+
+  private static boolean isStorageCommand(String name) {
+    switch (name) {
+      case "SET":
+      case "ADD":
+      case "REPLACE":
+      case "APPEND":
+      case "PREPEND":
+      case "CAS":
+        return true;
+      default:
+        return false;
     }
-    buffer.flip();
-    return Command.valueOf(readCommand(buffer));
   }
 
-  private String readCommand(ByteBuffer buffer) throws CharacterCodingException {
-    commandBuffer.clear();
-    asciiDecoder.get().decode(buffer, commandBuffer, false);
-    commandBuffer.flip();
-    return trimCommand(commandBuffer.toString()).toUpperCase();
+  private void consumeRequest(int length) {
+    ByteBuffer duplicate = input.duplicate();
+    duplicate.limit(requestStart + length);
+    duplicate.position(requestStart);
+    this.request = duplicate.slice();
+    requestStart += length;
   }
 
-  private String trimCommand(String str) {
-    int indexOfSpace = str.indexOf(' ');
-    String retVal = str;
-    if (indexOfSpace != -1) {
-      retVal = str.substring(0, indexOfSpace);
-    }
-    int indexOfR = retVal.indexOf("\r");
-    if (indexOfR != -1) {
-      retVal = retVal.substring(0, indexOfR);
-    }
-    if (retVal.equals("")) {
-      if (ConnectionHandler.getLogger().infoEnabled()) {
-        // TODO i18n
-        ConnectionHandler.getLogger().info("Unknown command. ensure client protocol is ASCII");
-      }
-      throw new IllegalArgumentException("Unknown command. ensure client protocol is ASCII");
-    }
-    return retVal;
+  /**
+   * @return true if there are replies that have not been written to the client yet
+   */
+  public boolean hasPendingReplies() {
+    return output.position() > 0;
   }
 
-  private int getBufferSize(SocketChannel channel) {
-    int size = 1024;
+  /**
+   * Writes as many of the buffered replies as the channel accepts without blocking.
+   * 
+   * @return true if all replies were written
+   */
+  public boolean flush(WritableByteChannel channel) throws IOException {
+    output.flip();
     try {
-      size = channel.socket().getReceiveBufferSize();
-    } catch (SocketException e) {
-      // use default size
+      channel.write(output);
+    } finally {
+      output.compact();
     }
-    return size;
+    return output.position() == 0;
   }
 
   public ByteBuffer getRequest() {
-    this.buffer.rewind();
-    return this.buffer;
+    this.request.rewind();
+    return this.request;
   }
 
   public ByteBuffer getResponse() {
@@ -256,36 +334,50 @@ public class RequestReader {
     return cleanByteArray;
   }
 
-  public void sendReply(ByteBuffer reply) throws IOException {
+  /**
+   * Queues the reply to the current request; it is written to the client on the next
+   * {@link #flush(WritableByteChannel)}.
+   */
+  public void sendReply(ByteBuffer reply) {
+    sendReply(reply, this.request);
+  }
+
+  /**
+   * Queues the reply to the given request, which need not be the current one when a batch of
+   * requests is processed together.
+   */
+  public void sendReply(ByteBuffer reply, ByteBuffer request) {
     // for binary set the response opCode
     if (this.protocol == Protocol.BINARY) {
       reply.rewind();
-      reply.put(POSITION_OPCODE, buffer.get(POSITION_OPCODE));
-      reply.putInt(POSITION_OPAQUE, buffer.getInt(POSITION_OPAQUE));
-      if (ConnectionHandler.getLogger().finerEnabled()) {
-        ConnectionHandler.getLogger()
-            .finer("sending reply:" + reply + " " + Command.buffertoString(reply));
+      reply.put(POSITION_OPCODE, request.get(POSITION_OPCODE));
+      reply.putInt(POSITION_OPAQUE, request.getInt(POSITION_OPAQUE));
+      if (logger.isTraceEnabled()) {
+        logger.trace("sending reply:{} {}", reply, Command.buffertoString(reply));
       }
     }
-    SocketChannel channel = this.socket.getChannel();
-    if (channel == null || !channel.isOpen()) {
-      throw new IllegalStateException("cannot write to channel");
-    }
-    channel.write(reply);
+    append(reply);
   }
 
   public void sendException(Exception e) {
-    SocketChannel channel = this.socket.getChannel();
-    if (channel == null || !channel.isOpen()) {
-      throw new IllegalStateException("cannot write to channel");
+    if (e instanceof ClientError) {
+      append(charsetASCII.encode(Reply.CLIENT_ERROR.toString()));
+    } else {
+      append(charsetASCII.encode(Reply.ERROR.toString()));
     }
-    try {
-      if (e instanceof ClientError) {
-        channel.write(charsetASCII.encode(Reply.CLIENT_ERROR.toString()));
-      } else {
-        channel.write(charsetASCII.encode(Reply.ERROR.toString()));
+  }
+
+  private void append(ByteBuffer reply) {
+    if (output.remaining() < reply.remaining()) {
+      int capacity = output.capacity();
+      while (capacity - output.position() < reply.remaining()) {
+        capacity *= 2;
       }
-    } catch (IOException ex) {
+      ByteBuffer larger = ByteBuffer.allocate(capacity);
+      output.flip();
+      larger.put(output);
+      output = larger;
     }
+    output.put(reply);
   }
 }
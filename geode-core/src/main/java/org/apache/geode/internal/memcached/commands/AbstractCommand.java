@@ -21,6 +21,11 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.geode.LogWriter;
 import org.apache.geode.cache.Cache;
@@ -28,6 +33,9 @@ import org.apache.geode.cache.CacheFactory;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionFactory;
 import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.execute.ResultCollector;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
 import org.apache.geode.internal.memcached.CommandProcessor;
 import org.apache.geode.internal.memcached.KeyWrapper;
 import org.apache.geode.internal.memcached.RequestReader;
@@ -154,6 +162,35 @@ public abstract class AbstractCommand implements CommandProcessor {
     return r;
   }
 
+  /**
+   * Returns the values of the given keys that are present. For a partitioned region the keys are
+   * fetched with a {@link GetAllFunction}, so that each member hosting some of them is asked only
+   * once.
+   */
+  @SuppressWarnings("unchecked")
+  protected static Map<Object, ValueWrapper> getAll(Region<Object, ValueWrapper> r,
+      Collection<?> keys) {
+    if (keys.size() < 2 || !PartitionRegionHelper.isPartitionedRegion(r)) {
+      return r.getAll(keys);
+    }
+    ResultCollector<?, ?> collector = FunctionService.onRegion(r).withFilter(new HashSet<>(keys))
+        .execute(new GetAllFunction());
+    Map<Object, ValueWrapper> values = new HashMap<>();
+    for (Object memberValues : (List<?>) collector.getResult()) {
+      values.putAll((Map<Object, ValueWrapper>) memberValues);
+    }
+    return values;
+  }
+
+  /**
+   * Queues the reply, if any, to one of a batch of binary requests
+   */
+  protected static void sendReply(RequestReader reader, ByteBuffer request, ByteBuffer reply) {
+    if (reply != null) {
+      reader.sendReply(reply, request);
+    }
+  }
+
   protected CharBuffer getFirstLineBuffer() {
     CharBuffer buffer = firstLineBuffer.get();
     if (buffer == null) {
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached.commands;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
+import org.apache.geode.internal.InternalEntity;
+import org.apache.geode.internal.memcached.ValueWrapper;
+
+/**
+ * Returns the values of the filter keys hosted by the member it runs on. Executed on the
+ * partitioned memcached region with the keys of a multi-get as the filter, it fetches all of them
+ * with one message per member, where a peer's {@link Region#getAll} would fetch them one key at a
+ * time.
+ *
+ * @since Geode 1.3
+ */
+public class GetAllFunction implements Function, InternalEntity {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final String ID = GetAllFunction.class.getName();
+
+  @Override
+  public void execute(FunctionContext context) {
+    RegionFunctionContext regionContext = (RegionFunctionContext) context;
+    Region<Object, ValueWrapper> localData =
+        PartitionRegionHelper.getLocalDataForContext(regionContext);
+    Map<Object, ValueWrapper> values = new HashMap<>();
+    for (Object key : regionContext.getFilter()) {
+      ValueWrapper value = localData.get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+    context.getResultSender().lastResult(values);
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean optimizeForWrite() {
+    return false;
+  }
+
+  @Override
+  public boolean isHA() {
+    return true;
+  }
+}
@@ -16,14 +16,17 @@ package org.apache.geode.internal.memcached.commands;
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.Region;
+import org.apache.geode.internal.memcached.BatchCommandProcessor;
 import org.apache.geode.internal.memcached.KeyWrapper;
 import org.apache.geode.internal.memcached.Reply;
 import org.apache.geode.internal.memcached.RequestReader;
@@ -44,10 +47,12 @@ import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
  * VALUE &lt;key&gt; &lt;flags&gt; &lt;bytes&gt; [&lt;cas unique&gt;]\r\n<br/>
  * &lt;data block&gt;\r\n
  * </code>
- * 
+ * <p>
+ * Consecutive pipelined binary gets, typically the GETQ or GETKQ requests of a multi-get, are
+ * fetched with a single {@link #getAll}.
  *
  */
-public class GetCommand extends AbstractCommand {
+public class GetCommand extends AbstractCommand implements BatchCommandProcessor {
 
   private static final String VALUE = "VALUE";
   private static final String W_SPACE = " ";
@@ -92,6 +97,40 @@ public class GetCommand extends AbstractCommand {
     } catch (Exception e) {
       return handleBinaryException(key, request, response, "get", e);
     }
+    return composeBinaryReply(key, val, request, response);
+  }
+
+  @Override
+  public void processBinaryBatch(List<ByteBuffer> requests, RequestReader reader, Cache cache) {
+    if (requests.size() == 1) {
+      ByteBuffer buffer = requests.get(0);
+      sendReply(reader, buffer, processBinaryCommand(buffer, reader, cache, reader.getResponse()));
+      return;
+    }
+    List<KeyWrapper> keys = new ArrayList<KeyWrapper>(requests.size());
+    for (ByteBuffer buffer : requests) {
+      keys.add(getKey(buffer, HEADER_LENGTH));
+    }
+    Map<Object, ValueWrapper> values;
+    try {
+      values = getAll(getMemcachedRegion(cache), keys);
+    } catch (Exception e) {
+      // get the keys one by one so that each request reports its own failure
+      for (ByteBuffer buffer : requests) {
+        ByteBuffer reply = processBinaryCommand(buffer, reader, cache, reader.getResponse());
+        sendReply(reader, buffer, reply);
+      }
+      return;
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      KeyWrapper key = keys.get(i);
+      sendReply(reader, requests.get(i),
+          composeBinaryReply(key, values.get(key), reader, reader.getResponse()));
+    }
+  }
+
+  private ByteBuffer composeBinaryReply(KeyWrapper key, ValueWrapper val, RequestReader request,
+      ByteBuffer response) {
     if (getLogger().fineEnabled()) {
       getLogger().fine("get:key:" + key + " val:" + val);
     }
@@ -157,8 +196,7 @@ public class GetCommand extends AbstractCommand {
       keys.add(stripNewline(firstLineElements[i]));
     }
 
-    Region<Object, ValueWrapper> r = getMemcachedRegion(cache);
-    Map<Object, ValueWrapper> results = r.getAll(keys);
+    Map<Object, ValueWrapper> results = getAll(getMemcachedRegion(cache), keys);
 
     return composeReply(results, isGets);
   }
@@ -15,9 +15,14 @@
 package org.apache.geode.internal.memcached.commands;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.Region;
+import org.apache.geode.internal.memcached.BatchCommandProcessor;
 import org.apache.geode.internal.memcached.Reply;
 import org.apache.geode.internal.memcached.RequestReader;
 import org.apache.geode.internal.memcached.ResponseStatus;
@@ -29,10 +34,12 @@ import org.apache.geode.internal.memcached.ValueWrapper;
  * </code><br/>
  * 
  * "set" means "store this data".
- * 
+ * <p>
+ * Consecutive pipelined binary sets, typically SETQ requests, are stored with a single
+ * {@link Region#putAll}.
  *
  */
-public class SetCommand extends StorageCommand {
+public class SetCommand extends StorageCommand implements BatchCommandProcessor {
 
   @Override
   public ByteBuffer processStorageCommand(String key, byte[] value, int flags, Cache cache) {
@@ -62,11 +69,7 @@ public class SetCommand extends StorageCommand {
       }
 
       if (success) {
-        if (isQuiet()) {
-          return null;
-        }
-        response.putShort(POSITION_RESPONSE_STATUS, ResponseStatus.NO_ERROR.asShort());
-        response.putLong(POSITION_CAS, val.getVersion());
+        return storedReply(val, request);
       } else {
         response.putShort(POSITION_RESPONSE_STATUS, ResponseStatus.KEY_EXISTS.asShort());
       }
@@ -76,6 +79,72 @@ public class SetCommand extends StorageCommand {
     return response;
   }
 
+  private ByteBuffer storedReply(ValueWrapper val, RequestReader request) {
+    if (isQuiet()) {
+      return null;
+    }
+    ByteBuffer response = request.getResponse();
+    response.putShort(POSITION_RESPONSE_STATUS, ResponseStatus.NO_ERROR.asShort());
+    response.putLong(POSITION_CAS, val.getVersion());
+    return response;
+  }
+
+  @Override
+  public void processBinaryBatch(List<ByteBuffer> requests, RequestReader reader, Cache cache) {
+    List<ByteBuffer> batch = new ArrayList<ByteBuffer>(requests.size());
+    List<BinaryStorageRequest> batchRequests = new ArrayList<BinaryStorageRequest>(requests.size());
+    for (ByteBuffer buffer : requests) {
+      BinaryStorageRequest request = readBinaryRequest(buffer);
+      if (request.cas != 0L) {
+        // a compare-and-set cannot be part of a putAll; store what came before it first
+        putAll(batch, batchRequests, reader, cache);
+        sendReply(reader, buffer, processBinaryComand(buffer, reader, cache));
+      } else {
+        batch.add(buffer);
+        batchRequests.add(request);
+      }
+    }
+    putAll(batch, batchRequests, reader, cache);
+  }
+
+  private void putAll(List<ByteBuffer> batch, List<BinaryStorageRequest> batchRequests,
+      RequestReader reader, Cache cache) {
+    if (batch.size() > 1) {
+      List<ValueWrapper> values = new ArrayList<ValueWrapper>(batch.size());
+      Map<Object, ValueWrapper> map = new HashMap<Object, ValueWrapper>();
+      for (BinaryStorageRequest request : batchRequests) {
+        ValueWrapper val = ValueWrapper.getWrappedValue(request.value, request.flags);
+        values.add(val);
+        // a later set of the same key overwrites an earlier one, as if stored one after the other
+        map.put(request.key, val);
+      }
+      boolean success = true;
+      try {
+        getMemcachedRegion(cache).putAll(map);
+      } catch (Exception e) {
+        // store the entries one by one so that each request reports its own failure
+        success = false;
+      }
+      if (success) {
+        for (int i = 0; i < batch.size(); i++) {
+          BinaryStorageRequest request = batchRequests.get(i);
+          if (request.expTime > 0) {
+            scheduleExpiration(request.key, request.expTime, cache);
+          }
+          sendReply(reader, batch.get(i), storedReply(values.get(i), reader));
+        }
+        batch.clear();
+        batchRequests.clear();
+        return;
+      }
+    }
+    for (ByteBuffer buffer : batch) {
+      sendReply(reader, buffer, processBinaryComand(buffer, reader, cache));
+    }
+    batch.clear();
+    batchRequests.clear();
+  }
+
   /**
    * Overriden by SETQ
    */
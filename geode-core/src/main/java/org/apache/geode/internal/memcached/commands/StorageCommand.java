@@ -74,7 +74,7 @@ public abstract class StorageCommand extends AbstractCommand {
     if (protocol == Protocol.ASCII) {
       return processAsciiCommand(buffer, cache);
     }
-    return processBinaryComand(reader, cache);
+    return processBinaryComand(buffer, reader, cache);
   }
 
   private ByteBuffer processAsciiCommand(ByteBuffer buffer, Cache cache) {
@@ -111,33 +111,49 @@ public abstract class StorageCommand extends AbstractCommand {
     return noReply ? null : retVal;
   }
 
-  private ByteBuffer processBinaryComand(RequestReader request, Cache cache) {
-    ByteBuffer buffer = request.getRequest();
+  protected ByteBuffer processBinaryComand(ByteBuffer buffer, RequestReader request,
+      Cache cache) {
+    BinaryStorageRequest r = readBinaryRequest(buffer);
+    ByteBuffer retVal =
+        processBinaryStorageCommand(r.key, r.value, r.cas, r.flags, cache, request);
+    if (r.expTime > 0) {
+      scheduleExpiration(r.key, r.expTime, cache);
+    }
+    if (getLogger().fineEnabled()) {
+      getLogger().fine("key:" + r.key);
+      getLogger().fine("value:" + Arrays.toString(r.value));
+    }
+    return retVal;
+  }
+
+  protected BinaryStorageRequest readBinaryRequest(ByteBuffer buffer) {
+    BinaryStorageRequest request = new BinaryStorageRequest();
     int extrasLength = buffer.get(EXTRAS_LENGTH_INDEX);
-    int flags = 0, expTime = 0;
 
-    KeyWrapper key = getKey(buffer, HEADER_LENGTH + extrasLength);
+    request.key = getKey(buffer, HEADER_LENGTH + extrasLength);
 
     if (extrasLength > 0) {
       assert extrasLength == 8;
       buffer.position(HEADER_LENGTH);
-      flags = buffer.getInt();
-      expTime = buffer.getInt();
+      request.flags = buffer.getInt();
+      request.expTime = buffer.getInt();
     }
 
-    byte[] value = getValue(buffer);
+    request.value = getValue(buffer);
 
-    long cas = buffer.getLong(POSITION_CAS);
+    request.cas = buffer.getLong(POSITION_CAS);
+    return request;
+  }
 
-    ByteBuffer retVal = processBinaryStorageCommand(key, value, cas, flags, cache, request);
-    if (expTime > 0) {
-      scheduleExpiration(key, expTime, cache);
-    }
-    if (getLogger().fineEnabled()) {
-      getLogger().fine("key:" + key);
-      getLogger().fine("value:" + Arrays.toString(value));
-    }
-    return retVal;
+  /**
+   * The fields of a binary storage request
+   */
+  protected static class BinaryStorageRequest {
+    KeyWrapper key;
+    byte[] value;
+    long cas;
+    int flags;
+    int expTime;
   }
 
   /**
@@ -151,7 +167,7 @@ public abstract class StorageCommand extends AbstractCommand {
    * @param p_expTime
    * @param cache
    */
-  private void scheduleExpiration(final Object key, long p_expTime, final Cache cache) {
+  protected void scheduleExpiration(final Object key, long p_expTime, final Cache cache) {
     long expTime = p_expTime;
     assert expTime > 0;
     if (p_expTime > secsIn30Days) {
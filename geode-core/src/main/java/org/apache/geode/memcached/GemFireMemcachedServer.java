@@ -22,6 +22,7 @@ import java.net.Socket;
 import java.net.UnknownHostException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -33,10 +34,12 @@ import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheFactory;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
 import org.apache.geode.internal.net.SocketCreator;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.memcached.ConnectionHandler;
+import org.apache.geode.internal.memcached.EventLoop;
 
 /**
  * This is the Server that listens for incoming memcached client connections. This server
@@ -86,9 +89,32 @@ public class GemFireMemcachedServer {
   private final int DEFAULT_PORT = 11212;
 
   /**
-   * the thread executor pool to handle requests from clients. We create one thread for each client.
+   * number of threads that wait for client connections to become readable or writable
    */
-  private ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+  private static final int NUM_EVENT_LOOPS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "memcached.eventLoopThreads",
+          Runtime.getRuntime().availableProcessors());
+
+  /**
+   * number of threads that process client requests
+   */
+  private static final int NUM_WORKERS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "memcached.workerThreads",
+          2 * Runtime.getRuntime().availableProcessors());
+
+  /**
+   * the event loops that serve the client connections, which are spread over them round robin
+   */
+  private final EventLoop[] eventLoops = new EventLoop[NUM_EVENT_LOOPS];
+
+  private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+  /**
+   * the thread executor pool to handle requests from clients. A connection is handed to a thread
+   * of this pool whenever it has requests to process, so the number of threads does not grow with
+   * the number of clients.
+   */
+  private ExecutorService executor = Executors.newFixedThreadPool(NUM_WORKERS, new ThreadFactory() {
     private final AtomicInteger counter = new AtomicInteger();
 
     @Override
@@ -181,6 +207,10 @@ public class GemFireMemcachedServer {
     if (logger.fineEnabled()) {
       logger.fine("GemFireMemcachedServer configured socket buffer size:" + getSocketBufferSize());
     }
+    for (int i = 0; i < eventLoops.length; i++) {
+      eventLoops[i] = new EventLoop("GemcachedEventLoop-" + i);
+      eventLoops[i].start();
+    }
     final CountDownLatch latch = new CountDownLatch(1);
     acceptor = new Thread(new Runnable() {
       public void run() {
@@ -223,8 +253,21 @@ public class GemFireMemcachedServer {
   }
 
   private void handleNewClient(Socket s) {
-    ConnectionHandler connHandler = new ConnectionHandler(s, cache, protocol);
-    executor.execute(connHandler);
+    SocketChannel channel = s.getChannel();
+    try {
+      channel.configureBlocking(false);
+    } catch (IOException e) {
+      logger.info("Could not serve memcached client " + s, e);
+      try {
+        channel.close();
+      } catch (IOException ignore) {
+      }
+      return;
+    }
+    EventLoop eventLoop =
+        eventLoops[(nextEventLoop.getAndIncrement() & Integer.MAX_VALUE) % eventLoops.length];
+    eventLoop.register(channel,
+        new ConnectionHandler(channel, cache, protocol, eventLoop, executor));
   }
 
   /**
@@ -234,6 +277,11 @@ public class GemFireMemcachedServer {
     if (acceptor != null) {
       this.acceptor.interrupt();
     }
+    for (EventLoop eventLoop : this.eventLoops) {
+      if (eventLoop != null) {
+        eventLoop.shutdown();
+      }
+    }
     this.executor.shutdownNow();
     this.cache.close();
   }
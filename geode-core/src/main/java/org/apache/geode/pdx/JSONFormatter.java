@@ -21,7 +21,10 @@ import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.core.JsonParser.NumberType;
 import com.fasterxml.jackson.core.JsonToken;
 import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.pdx.internal.TypeRegistry;
 import org.apache.geode.pdx.internal.json.JSONToPdxMapper;
+import org.apache.geode.pdx.internal.json.JSONToPdxWriter;
 import org.apache.geode.pdx.internal.json.PdxInstanceHelper;
 import org.apache.geode.pdx.internal.json.PdxInstanceSortedHelper;
 import org.apache.geode.pdx.internal.json.PdxListHelper;
@@ -141,7 +144,11 @@ public class JSONFormatter {
         throw new JSONFormatterException("Could not parse the " + json.getClass() + " type");
       }
       enableJSONParserFeature(jp);
-      return new JSONFormatter().getPdxInstance(jp, states.NONE, null).getPdxInstance();
+      if (Boolean.getBoolean(SORT_JSON_FIELD_NAMES_PROPERTY)) {
+        // sorting needs all of the fields of an object before any can be written
+        return new JSONFormatter().getPdxInstance(jp, states.NONE, null).getPdxInstance();
+      }
+      return new JSONToPdxWriter(getPdxRegistry()).fromJSON(jp);
     } catch (JsonParseException jpe) {
       throw new JSONFormatterException("Could not parse JSON document ", jpe);
     } catch (IOException e) {
@@ -153,6 +160,12 @@ public class JSONFormatter {
     }
   }
 
+  private static TypeRegistry getPdxRegistry() {
+    return GemFireCacheImpl
+        .getForPdx("PDX registry is unavailable because the Cache has been closed.")
+        .getPdxRegistry();
+  }
+
   private static void enableJSONParserFeature(JsonParser jp) {
     jp.enable(Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER);
     jp.enable(Feature.ALLOW_UNQUOTED_FIELD_NAMES);
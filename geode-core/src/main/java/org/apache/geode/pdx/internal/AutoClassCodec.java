@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.pdx.PdxSerializationException;
+import org.apache.geode.pdx.internal.AutoSerializableManager.ObjectArrayField;
+import org.apache.geode.pdx.internal.AutoSerializableManager.ObjectField;
+import org.apache.geode.pdx.internal.AutoSerializableManager.PdxFieldWrapper;
+
+/**
+ * Writes and reads the fields of one auto serialized class in the order of its {@link PdxType}
+ * with a method handle composed for that class. Each field becomes a direct getter or setter
+ * chained to the matching typed write or read of {@link PdxWriterImpl} and {@link PdxReaderImpl},
+ * so primitive fields are never boxed and the JIT can inline the whole class instead of
+ * dispatching through one {@link PdxFieldWrapper} per field.
+ * <p>
+ * Classes with transformed fields keep using their field wrappers, as do all classes when
+ * "gemfire.AutoSerializer.NO_METHOD_HANDLES" is set.
+ *
+ * @since Geode 1.3
+ */
+class AutoClassCodec {
+  private static final Logger logger = LogService.getLogger();
+
+  private static final boolean DISABLED =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "AutoSerializer.NO_METHOD_HANDLES");
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * The name used by the typed PdxWriterImpl write and PdxReaderImpl read methods for the fields
+   * of each wrapper class.
+   */
+  private static final Map<Class<?>, String> TYPE_NAMES = new HashMap<>();
+
+  static {
+    TYPE_NAMES.put(AutoSerializableManager.IntField.class, "Int");
+    TYPE_NAMES.put(AutoSerializableManager.ByteField.class, "Byte");
+    TYPE_NAMES.put(AutoSerializableManager.LongField.class, "Long");
+    TYPE_NAMES.put(AutoSerializableManager.BooleanField.class, "Boolean");
+    TYPE_NAMES.put(AutoSerializableManager.CharField.class, "Char");
+    TYPE_NAMES.put(AutoSerializableManager.ShortField.class, "Short");
+    TYPE_NAMES.put(AutoSerializableManager.DoubleField.class, "Double");
+    TYPE_NAMES.put(AutoSerializableManager.FloatField.class, "Float");
+    TYPE_NAMES.put(AutoSerializableManager.StringField.class, "String");
+    TYPE_NAMES.put(AutoSerializableManager.DateField.class, "Date");
+    TYPE_NAMES.put(AutoSerializableManager.ByteArrayField.class, "ByteArray");
+    TYPE_NAMES.put(AutoSerializableManager.StringArrayField.class, "StringArray");
+    TYPE_NAMES.put(AutoSerializableManager.ByteArrayArrayField.class, "ArrayOfByteArrays");
+    TYPE_NAMES.put(AutoSerializableManager.BooleanArrayField.class, "BooleanArray");
+    TYPE_NAMES.put(AutoSerializableManager.CharArrayField.class, "CharArray");
+    TYPE_NAMES.put(AutoSerializableManager.ShortArrayField.class, "ShortArray");
+    TYPE_NAMES.put(AutoSerializableManager.IntArrayField.class, "IntArray");
+    TYPE_NAMES.put(AutoSerializableManager.LongArrayField.class, "LongArray");
+    TYPE_NAMES.put(AutoSerializableManager.FloatArrayField.class, "FloatArray");
+    TYPE_NAMES.put(AutoSerializableManager.DoubleArrayField.class, "DoubleArray");
+    TYPE_NAMES.put(AutoSerializableManager.ObjectArrayField.class, "ObjectArray");
+    TYPE_NAMES.put(AutoSerializableManager.ObjectField.class, "Object");
+  }
+
+  private static final MethodHandle WRITE_OBJECT;
+  private static final MethodHandle WRITE_OBJECT_ARRAY;
+  private static final MethodHandle ORDERED_DESERIALIZE;
+  private static final MethodHandle WRITE_FAILED;
+  private static final MethodHandle READ_FAILED;
+  private static final MethodHandle WRITE_NOTHING;
+  private static final MethodHandle READ_NOTHING;
+
+  static {
+    try {
+      WRITE_OBJECT = LOOKUP.findStatic(AutoClassCodec.class, "writeObject",
+          methodType(void.class, PdxFieldWrapper.class, PdxWriterImpl.class, Object.class));
+      WRITE_OBJECT_ARRAY = LOOKUP.findStatic(AutoClassCodec.class, "writeObjectArray",
+          methodType(void.class, PdxFieldWrapper.class, PdxWriterImpl.class, Object[].class));
+      ORDERED_DESERIALIZE = LOOKUP.findVirtual(PdxFieldWrapper.class, "orderedDeserialize",
+          methodType(void.class, InternalPdxReader.class, Object.class));
+      WRITE_FAILED = LOOKUP.findStatic(AutoClassCodec.class, "writeFailed", methodType(void.class,
+          PdxFieldWrapper.class, Exception.class, PdxWriterImpl.class, Object.class));
+      READ_FAILED = LOOKUP.findStatic(AutoClassCodec.class, "readFailed", methodType(void.class,
+          PdxFieldWrapper.class, Exception.class, PdxReaderImpl.class, Object.class));
+      WRITE_NOTHING = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null)
+          .asType(methodType(void.class)), 0, PdxWriterImpl.class, Object.class);
+      READ_NOTHING = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null)
+          .asType(methodType(void.class)), 0, PdxReaderImpl.class, Object.class);
+    } catch (ReflectiveOperationException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  /** Writes every field of an object, of type (PdxWriterImpl, Object)void */
+  private final MethodHandle writeFields;
+
+  /** Reads every field into an object, of type (PdxReaderImpl, Object)void */
+  private final MethodHandle readFields;
+
+  private AutoClassCodec(MethodHandle writeFields, MethodHandle readFields) {
+    this.writeFields = writeFields;
+    this.readFields = readFields;
+  }
+
+  /**
+   * Returns a codec for the given fields of a class, or null if the class has to be serialized
+   * through its field wrappers.
+   */
+  static AutoClassCodec create(Class<?> clazz, List<PdxFieldWrapper> fields) {
+    if (DISABLED) {
+      return null;
+    }
+    MethodHandle[] writers = new MethodHandle[fields.size()];
+    MethodHandle[] readers = new MethodHandle[fields.size()];
+    try {
+      for (int i = 0; i < writers.length; i++) {
+        PdxFieldWrapper f = fields.get(i);
+        String typeName = TYPE_NAMES.get(f.getClass());
+        if (typeName == null || f.transform()) {
+          return null;
+        }
+        writers[i] = fieldWriter(f, typeName);
+        readers[i] = fieldReader(f, typeName);
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Auto serializer using field wrappers for {}", clazz, ex);
+      }
+      return null;
+    }
+    return new AutoClassCodec(sequence(writers, 0, writers.length, WRITE_NOTHING),
+        sequence(readers, 0, readers.length, READ_NOTHING));
+  }
+
+  private static MethodHandle fieldWriter(PdxFieldWrapper f, String typeName)
+      throws ReflectiveOperationException {
+    Field field = f.getField();
+    MethodHandle write;
+    if (f instanceof ObjectField) {
+      write = WRITE_OBJECT.bindTo(f);
+    } else if (f instanceof ObjectArrayField) {
+      write = WRITE_OBJECT_ARRAY.bindTo(f);
+    } else {
+      Class<?> valueType = PdxReaderImpl.class.getMethod("read" + typeName).getReturnType();
+      write = LOOKUP.findVirtual(PdxWriterImpl.class, "write" + typeName,
+          methodType(void.class, valueType));
+    }
+    MethodHandle getter = LOOKUP.unreflectGetter(field)
+        .asType(methodType(write.type().parameterType(1), Object.class));
+    MethodHandle writer = MethodHandles.filterArguments(write, 1, getter);
+    return MethodHandles.catchException(writer, Exception.class, WRITE_FAILED.bindTo(f));
+  }
+
+  private static MethodHandle fieldReader(PdxFieldWrapper f, String typeName)
+      throws ReflectiveOperationException {
+    MethodHandle reader;
+    if (f instanceof ObjectField || f instanceof ObjectArrayField) {
+      // the wrapper already accepts whatever the stream holds, such as a PdxInstance
+      reader = ORDERED_DESERIALIZE.bindTo(f)
+          .asType(methodType(void.class, PdxReaderImpl.class, Object.class));
+    } else {
+      MethodHandle read =
+          LOOKUP.findVirtual(PdxReaderImpl.class, "read" + typeName, methodType(
+              PdxReaderImpl.class.getMethod("read" + typeName).getReturnType()));
+      MethodHandle setter = LOOKUP.unreflectSetter(f.getField())
+          .asType(methodType(void.class, Object.class, read.type().returnType()));
+      // (Object, PdxReaderImpl)void reordered to (PdxReaderImpl, Object)void
+      reader = MethodHandles.permuteArguments(MethodHandles.filterArguments(setter, 1, read),
+          methodType(void.class, PdxReaderImpl.class, Object.class), 1, 0);
+    }
+    return MethodHandles.catchException(reader, Exception.class, READ_FAILED.bindTo(f));
+  }
+
+  /**
+   * Chains the given handles into one that calls them in order, combining them as a balanced tree
+   * so that deep classes do not produce deep handle chains.
+   */
+  private static MethodHandle sequence(MethodHandle[] handles, int from, int to,
+      MethodHandle empty) {
+    if (from == to) {
+      return empty;
+    }
+    if (to - from == 1) {
+      return handles[from];
+    }
+    int middle = (from + to) >>> 1;
+    return MethodHandles.foldArguments(sequence(handles, middle, to, empty),
+        sequence(handles, from, middle, empty));
+  }
+
+  /**
+   * Writes the fields of the object in the order of its auto serialized type.
+   */
+  void write(PdxWriterImpl writer, Object obj) {
+    try {
+      this.writeFields.invokeExact(writer, obj);
+    } catch (RuntimeException | Error ex) {
+      throw ex;
+    } catch (Throwable t) {
+      throw new PdxSerializationException(
+          "Serialization error for class " + obj.getClass().getName(), t);
+    }
+  }
+
+  /**
+   * Reads the fields of the object from a reader positioned for ordered reading of a type that
+   * exactly matches its class.
+   */
+  void read(PdxReaderImpl reader, Object obj) {
+    try {
+      this.readFields.invokeExact(reader, obj);
+    } catch (RuntimeException | Error ex) {
+      throw ex;
+    } catch (Throwable t) {
+      throw new PdxSerializationException(
+          "Deserialization error for class " + obj.getClass().getName(), t);
+    }
+  }
+
+  private static void writeObject(PdxFieldWrapper f, PdxWriterImpl writer, Object value) {
+    writer.writeObject(value, f.getCheckPortability());
+  }
+
+  private static void writeObjectArray(PdxFieldWrapper f, PdxWriterImpl writer, Object[] value) {
+    writer.writeObjectArray(value, f.getCheckPortability());
+  }
+
+  private static void writeFailed(PdxFieldWrapper f, Exception ex, PdxWriterImpl writer,
+      Object obj) {
+    f.handleException(true, obj, ex);
+  }
+
+  private static void readFailed(PdxFieldWrapper f, Exception ex, PdxReaderImpl reader,
+      Object obj) {
+    f.handleException(false, obj, ex);
+  }
+}
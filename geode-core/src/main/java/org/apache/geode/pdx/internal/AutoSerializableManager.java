@@ -1993,6 +1993,22 @@ public class AutoSerializableManager {
         optimizeFieldWrites = true;
       }
     }
+    AutoClassCodec codec = autoClassInfo.getCodec();
+    if (optimizeFieldWrites && codec != null) {
+      codec.write(w, obj);
+      if (w.definingNewPdxType()) {
+        for (PdxFieldWrapper f : autoClassInfo.getFields()) {
+          if (f.isIdentityField()) {
+            try {
+              w.markIdentityField(f.getName());
+            } catch (Exception ex) {
+              handleException(ex, true, f.getName(), obj);
+            }
+          }
+        }
+      }
+      return;
+    }
     for (PdxFieldWrapper f : autoClassInfo.getFields()) {
       // System.out.println("DEBUG writing field=" + f.getField().getName() + " offset=" +
       // ((PdxWriterImpl)writer).position());
@@ -2146,9 +2162,16 @@ public class AutoSerializableManager {
      */
     private PdxType serializedType = null;
 
+    /**
+     * Writes and reads the fields without going through their wrappers, or null if the class
+     * needs its wrappers.
+     */
+    private final AutoClassCodec codec;
+
     public AutoClassInfo(Class<?> clazz, List<PdxFieldWrapper> fields) {
       this.clazzRef = new WeakReference<Class<?>>(clazz);
       this.fields = fields;
+      this.codec = AutoClassCodec.create(clazz, fields);
     }
 
     public String toFormattedString() {
@@ -2197,6 +2220,10 @@ public class AutoSerializableManager {
       return this.fields;
     }
 
+    AutoClassCodec getCodec() {
+      return this.codec;
+    }
+
     public boolean matchesPdxType(PdxType t) {
       Integer pdxTypeId = Integer.valueOf(t.getTypeId());
       if (this.matchingPdxIds.contains(pdxTypeId)) {
@@ -503,6 +503,14 @@ public class PdxInstanceImpl extends PdxReaderImpl
     return this;
   }
 
+  /**
+   * Returns a reader of the current fields of this instance that has its own position in the
+   * serialized data, so it can read them without synchronizing on this instance.
+   */
+  public PdxReaderImpl getPrivateReader() {
+    return new PdxReaderImpl(getUnmodifiableReader());
+  }
+
   // All PdxReaderImpl methods that might change the ByteBuffer position
   // need to be synchronized so that they are done atomically.
   // This fixes bug 43178.
@@ -590,6 +598,11 @@ public class PdxInstanceImpl extends PdxReaderImpl
     return super.readField(fieldName);
   }
 
+  @Override
+  public synchronized Object readField(PdxField ft) {
+    return super.readField(ft);
+  }
+
   @Override
   protected synchronized Object basicGetObject() {
     DMStats stats = InternalDataSerializer.getDMStats(null);
@@ -629,6 +642,15 @@ public class PdxInstanceImpl extends PdxReaderImpl
     return getUnmodifiableReader(fieldName).readRawField(fieldName);
   }
 
+  /**
+   * Like {@link #getRawField(String)} but for a field of the type of this instance that the caller
+   * has already looked up, so that a caller reading the same field of many instances can look it
+   * up once per type.
+   */
+  public Object getRawField(PdxField field) {
+    return getUnmodifiableReader(field.getFieldName()).readRawField(field);
+  }
+
   public Object getDefaultValueIfFieldExistsInAnyPdxVersions(String fieldName, String className)
       throws FieldNotFoundInPdxVersion {
     PdxType pdxType =
@@ -626,6 +626,10 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
     if (ft == null) {
       return null;
     }
+    return readField(ft);
+  }
+
+  public Object readField(PdxField ft) {
     switch (ft.getFieldType()) {
       case CHAR:
         return readChar(ft);
@@ -842,6 +846,11 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
    */
   public void orderedDeserialize(Object obj, AutoClassInfo ci) {
     PdxReaderImpl reader = prepForOrderedReading();
+    AutoClassCodec codec = ci.getCodec();
+    if (codec != null) {
+      codec.read(reader, obj);
+      return;
+    }
     for (PdxFieldWrapper f : ci.getFields()) {
       f.orderedDeserialize(reader, obj);
     }
@@ -871,6 +880,14 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
     if (ft == null) {
       return null;
     }
+    return readRawField(ft);
+  }
+
+  /**
+   * Like {@link #readRawField(String)} but for a field already looked up in the type of this
+   * reader.
+   */
+  public Object readRawField(PdxField ft) {
     if (ft.getFieldType() == FieldType.STRING) {
       return readPdxString(ft);
     } else {
@@ -878,7 +895,7 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
       if (pdxString != null)
         return pdxString;
     }
-    return readField(field);
+    return readField(ft);
   }
 
   /**
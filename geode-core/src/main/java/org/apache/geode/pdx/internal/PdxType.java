@@ -279,7 +279,15 @@ public class PdxType implements DataSerializable {
   }
 
   public void initialize(PdxWriterImpl writer) {
-    this.vlfCount = writer.getVlfCount();
+    initialize(writer.getVlfCount());
+  }
+
+  /**
+   * Computes the position of each field in serialized data that has the given number of variable
+   * length field offsets.
+   */
+  public void initialize(int vlfCount) {
+    this.vlfCount = vlfCount;
     int size = this.fields.size();
     int fixedLenFieldOffset = 0;
     boolean seenVariableLenType = false;
@@ -36,6 +36,7 @@ import org.apache.geode.internal.util.concurrent.CopyOnWriteWeakHashMap;
 import org.apache.geode.pdx.PdxSerializationException;
 import org.apache.geode.pdx.PdxSerializer;
 import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+import org.apache.geode.pdx.internal.json.JSONTypeKey;
 
 public class TypeRegistry {
   private static final Logger logger = LogService.getLogger();
@@ -61,6 +62,9 @@ public class TypeRegistry {
 
   private final Map<Enum<?>, Integer> localEnumIds = new CopyOnWriteWeakHashMap<>();
 
+  /** the types of JSON objects keyed by the names and types of their fields */
+  private final Map<JSONTypeKey, PdxType> jsonTypes = new CopyOnWriteHashMap<>();
+
   private final TypeRegistration distributedTypeRegistry;
 
   private final InternalCache cache;
@@ -87,6 +91,7 @@ public class TypeRegistry {
     this.idToType.clear();
     this.idToEnum.clear();
     this.enumInfoToId.clear();
+    this.jsonTypes.clear();
     this.distributedTypeRegistry.testClearRegistry();
   }
 
@@ -248,6 +253,25 @@ public class TypeRegistry {
     return newType;
   }
 
+  /**
+   * Returns the type of JSON objects that have the fields of the given key, or null if no such
+   * type has been defined with {@link #defineJSONType}.
+   */
+  public PdxType getJSONType(JSONTypeKey key) {
+    return this.jsonTypes.get(key);
+  }
+
+  /**
+   * Defines the type of JSON objects that have the fields of the given key.
+   *
+   * @param key a key that will not be changed after this call
+   */
+  public PdxType defineJSONType(JSONTypeKey key, PdxType newType) {
+    defineType(newType);
+    this.jsonTypes.put(key, newType);
+    return newType;
+  }
+
   /**
    * Test hook that returns the most recently allocated type id
    * 
@@ -458,6 +482,7 @@ public class TypeRegistry {
       this.idToEnum.clear();
       this.enumInfoToId.clear();
       this.localEnumIds.clear();
+      this.jsonTypes.clear();
       AutoSerializableManager autoSerializer = getAutoSerializableManager();
       if (autoSerializer != null) {
         autoSerializer.resetCachedTypes();
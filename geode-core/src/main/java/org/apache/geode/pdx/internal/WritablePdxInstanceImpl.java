@@ -65,6 +65,14 @@ public class WritablePdxInstanceImpl extends PdxInstanceImpl implements Writable
     return super.getCachedObject();
   }
 
+  /**
+   * Flushing pending writes can give this instance a new type, so the field is looked up again.
+   */
+  @Override
+  public Object getRawField(PdxField field) {
+    return getRawField(field.getFieldName());
+  }
+
   @Override
   public synchronized int hashCode() {
     return super.hashCode();
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.apache.geode.internal.ByteBufferWriter;
+import org.apache.geode.internal.DSCODE;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.InternalDataSerializer;
+import org.apache.geode.internal.Version;
+import org.apache.geode.pdx.FieldType;
+import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.pdx.internal.PdxInputStream;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
+import org.apache.geode.pdx.internal.PdxType;
+import org.apache.geode.pdx.internal.PdxWriterImpl;
+import org.apache.geode.pdx.internal.TypeRegistry;
+
+/**
+ * Converts a JSON document into a PdxInstance in a single pass over its tokens. Each object is
+ * written as PDX data while it is parsed, with nested objects and arrays written in place, and its
+ * type is looked up by the names and types of its fields so that objects shaped like earlier ones
+ * build no PdxType.
+ * <p>
+ * The data is the same as {@link PdxInstanceHelper} writes through a PdxInstanceFactory: strings,
+ * nulls, big numbers, objects and arrays are object fields, integers are written as the smallest
+ * of byte, short and int that holds them, and arrays are LinkedLists.
+ *
+ * @since Geode 1.3
+ */
+public class JSONToPdxWriter {
+  private final TypeRegistry registry;
+
+  /** the object being written at each nesting depth */
+  private final List<ObjectState> objects = new ArrayList<>();
+
+  /** the elements of the array being written at each nesting depth */
+  private final List<HeapDataOutputStream> arrays = new ArrayList<>();
+
+  public JSONToPdxWriter(TypeRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Reads a JSON object from the parser and returns it as a PdxInstance.
+   */
+  public PdxInstance fromJSON(JsonParser jp) throws IOException {
+    JsonToken token = jp.nextToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new IllegalStateException("Expected a JSON object but found " + token);
+    }
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    PdxType type = writeObject(jp, out, 0);
+    ByteBuffer bb = out.toByteBuffer();
+    bb.get(); // skip PDX DSCODE
+    int len = bb.getInt();
+    bb.getInt(); // skip PDX type
+    return new PdxInstanceImpl(type, new PdxInputStream(bb), len);
+  }
+
+  /**
+   * Writes the object whose START_OBJECT the parser is on, header and offsets included, and
+   * returns its type.
+   */
+  private PdxType writeObject(JsonParser jp, HeapDataOutputStream out, int depth)
+      throws IOException {
+    ObjectState object = getState(this.objects, depth);
+    if (object == null) {
+      object = new ObjectState();
+      this.objects.set(depth, object);
+    }
+    object.reset();
+    out.writeByte(DSCODE.PDX);
+    HeapDataOutputStream.LongUpdater lengthAndType = out.reserveLong();
+    int start = out.size();
+    boolean seenVariableLengthField = false;
+    JsonToken token;
+    while ((token = jp.nextToken()) != JsonToken.END_OBJECT) {
+      if (token != JsonToken.FIELD_NAME) {
+        throw new IllegalStateException("Expected a field name but found " + token);
+      }
+      String fieldName = jp.getCurrentName();
+      token = jp.nextToken();
+      FieldType type = getFieldType(jp, token);
+      if (!type.isFixedWidth()) {
+        // like PdxWriterImpl, only record where variable length fields after the first start
+        if (seenVariableLengthField) {
+          object.addOffset(out.size() - start);
+        }
+        seenVariableLengthField = true;
+      }
+      object.key.add(fieldName, type);
+      writeField(jp, token, type, out, depth);
+    }
+    object.appendOffsets(out, out.size() - start);
+
+    PdxType type = this.registry.getJSONType(object.key);
+    if (type == null) {
+      type = this.registry.defineJSONType(object.key.copy(), object.key.createType());
+    }
+    long bits = ((long) (out.size() - start)) << 32 | (0x00000000FFFFFFFFL & type.getTypeId());
+    lengthAndType.update(bits);
+    return type;
+  }
+
+  /**
+   * Writes the array whose START_ARRAY the parser is on as a LinkedList.
+   */
+  private void writeArray(JsonParser jp, HeapDataOutputStream out, int depth)
+      throws IOException {
+    // the length comes before the elements, so they are written aside first
+    HeapDataOutputStream elements = getState(this.arrays, depth);
+    if (elements == null) {
+      elements = new HeapDataOutputStream(Version.CURRENT);
+      this.arrays.set(depth, elements);
+    }
+    int length = 0;
+    JsonToken token;
+    while ((token = jp.nextToken()) != JsonToken.END_ARRAY) {
+      writeValue(jp, token, elements, depth);
+      length++;
+    }
+    out.writeByte(DSCODE.LINKED_LIST);
+    InternalDataSerializer.writeArrayLength(length, out);
+    elements.sendTo((ByteBufferWriter) out);
+    elements.reset();
+  }
+
+  private static <T> T getState(List<T> states, int depth) {
+    while (states.size() <= depth) {
+      states.add(null);
+    }
+    return states.get(depth);
+  }
+
+  private FieldType getFieldType(JsonParser jp, JsonToken token) throws IOException {
+    if (token == null) {
+      throw new IllegalStateException("Expected a field value but found the end of the document");
+    }
+    switch (token) {
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return FieldType.BOOLEAN;
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        switch (jp.getNumberType()) {
+          case INT: {
+            int val = jp.getIntValue();
+            if (val > Short.MAX_VALUE || val < Short.MIN_VALUE) {
+              return FieldType.INT;
+            } else if (val > Byte.MAX_VALUE || val < Byte.MIN_VALUE) {
+              return FieldType.SHORT;
+            } else {
+              return FieldType.BYTE;
+            }
+          }
+          case LONG:
+            return FieldType.LONG;
+          case FLOAT:
+            return FieldType.FLOAT;
+          case DOUBLE:
+            return FieldType.DOUBLE;
+          default:
+            return FieldType.OBJECT;
+        }
+      default:
+        return FieldType.OBJECT;
+    }
+  }
+
+  private void writeField(JsonParser jp, JsonToken token, FieldType type,
+      HeapDataOutputStream out, int depth) throws IOException {
+    switch (type) {
+      case BOOLEAN:
+        out.writeBoolean(token == JsonToken.VALUE_TRUE);
+        break;
+      case BYTE:
+        out.writeByte(jp.getIntValue());
+        break;
+      case SHORT:
+        out.writeShort(jp.getIntValue());
+        break;
+      case INT:
+        out.writeInt(jp.getIntValue());
+        break;
+      case LONG:
+        out.writeLong(jp.getLongValue());
+        break;
+      case FLOAT:
+        out.writeFloat(jp.getFloatValue());
+        break;
+      case DOUBLE:
+        out.writeDouble(jp.getDoubleValue());
+        break;
+      default:
+        writeValue(jp, token, out, depth);
+    }
+  }
+
+  /**
+   * Writes a value the way DataSerializer writes the object PdxInstanceHelper would have made of
+   * it.
+   */
+  private void writeValue(JsonParser jp, JsonToken token, HeapDataOutputStream out, int depth)
+      throws IOException {
+    if (token == null) {
+      throw new IllegalStateException("Expected a value but found the end of the document");
+    }
+    switch (token) {
+      case START_OBJECT:
+        writeObject(jp, out, depth + 1);
+        break;
+      case START_ARRAY:
+        writeArray(jp, out, depth + 1);
+        break;
+      case VALUE_STRING:
+        InternalDataSerializer.basicWriteObject(jp.getText(), out, false);
+        break;
+      case VALUE_NULL:
+        InternalDataSerializer.basicWriteObject(null, out, false);
+        break;
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        InternalDataSerializer.basicWriteObject(token == JsonToken.VALUE_TRUE, out, false);
+        break;
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        InternalDataSerializer.basicWriteObject(getNumber(jp), out, false);
+        break;
+      default:
+        throw new IllegalStateException("Token not handled " + token);
+    }
+  }
+
+  private Object getNumber(JsonParser jp) throws IOException {
+    switch (jp.getNumberType()) {
+      case INT: {
+        int val = jp.getIntValue();
+        if (val > Short.MAX_VALUE || val < Short.MIN_VALUE) {
+          return val;
+        } else if (val > Byte.MAX_VALUE || val < Byte.MIN_VALUE) {
+          return (short) val;
+        } else {
+          return (byte) val;
+        }
+      }
+      case LONG:
+        return jp.getLongValue();
+      case BIG_INTEGER:
+        return jp.getBigIntegerValue();
+      case FLOAT:
+        return jp.getFloatValue();
+      case DOUBLE:
+        return jp.getDoubleValue();
+      case BIG_DECIMAL:
+        return jp.getDecimalValue();
+      default:
+        throw new IllegalStateException("Unknown number type " + jp.getNumberType());
+    }
+  }
+
+  private static class ObjectState {
+    final JSONTypeKey key = new JSONTypeKey();
+
+    /** the offsets of the variable length fields after the first */
+    private int[] offsets = new int[8];
+
+    private int offsetCount;
+
+    void reset() {
+      this.key.reset();
+      this.offsetCount = 0;
+    }
+
+    void addOffset(int offset) {
+      if (this.offsetCount == this.offsets.length) {
+        this.offsets = Arrays.copyOf(this.offsets, this.offsetCount * 2);
+      }
+      this.offsets[this.offsetCount++] = offset;
+    }
+
+    /**
+     * Appends the offsets in reverse order, each in the size PdxWriterImpl would use.
+     */
+    void appendOffsets(HeapDataOutputStream out, int fieldDataSize) {
+      byte sizeOfOffset = PdxWriterImpl.getSizeOfOffset(this.offsetCount, fieldDataSize);
+      for (int i = this.offsetCount - 1; i >= 0; i--) {
+        switch (sizeOfOffset) {
+          case 1:
+            out.writeByte(this.offsets[i]);
+            break;
+          case 2:
+            out.writeShort(this.offsets[i]);
+            break;
+          default:
+            out.writeInt(this.offsets[i]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal.json;
+
+import java.util.Arrays;
+
+import org.apache.geode.pdx.FieldType;
+import org.apache.geode.pdx.JSONFormatter;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxType;
+
+/**
+ * The names and types of the fields of a JSON object in document order. JSON objects with equal
+ * keys have the same {@link PdxType}, so a key finds the type of an object without building a
+ * PdxType for it.
+ * <p>
+ * {@link JSONToPdxWriter} reuses one key per nesting depth while it parses, and hands the
+ * registry a {@link #copy()} when it defines a new type.
+ *
+ * @since Geode 1.3
+ */
+public class JSONTypeKey {
+  private String[] names;
+  private FieldType[] types;
+  private int size;
+  private int hash;
+
+  JSONTypeKey() {
+    this(8);
+  }
+
+  private JSONTypeKey(int capacity) {
+    this.names = new String[capacity];
+    this.types = new FieldType[capacity];
+  }
+
+  void reset() {
+    this.size = 0;
+    this.hash = 0;
+  }
+
+  void add(String name, FieldType type) {
+    if (this.size == this.names.length) {
+      this.names = Arrays.copyOf(this.names, this.size * 2);
+      this.types = Arrays.copyOf(this.types, this.size * 2);
+    }
+    this.names[this.size] = name;
+    this.types[this.size] = type;
+    this.size++;
+    this.hash = 31 * (31 * this.hash + name.hashCode()) + type.ordinal();
+  }
+
+  JSONTypeKey copy() {
+    JSONTypeKey copy = new JSONTypeKey(Math.max(this.size, 1));
+    System.arraycopy(this.names, 0, copy.names, 0, this.size);
+    System.arraycopy(this.types, 0, copy.types, 0, this.size);
+    copy.size = this.size;
+    copy.hash = this.hash;
+    return copy;
+  }
+
+  /**
+   * Returns a new type with the fields of this key, laid out the way PdxWriterImpl lays out fields
+   * written in this order.
+   */
+  PdxType createType() {
+    PdxType type = new PdxType(JSONFormatter.JSON_CLASSNAME, false);
+    boolean seenVariableLengthField = false;
+    int vlfCount = 0;
+    for (int i = 0; i < this.size; i++) {
+      if (!this.types[i].isFixedWidth()) {
+        if (seenVariableLengthField) {
+          vlfCount++;
+        }
+        seenVariableLengthField = true;
+      }
+      type.addField(new PdxField(this.names[i], i, vlfCount, this.types[i], false));
+    }
+    type.initialize(vlfCount);
+    return type;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof JSONTypeKey)) {
+      return false;
+    }
+    JSONTypeKey other = (JSONTypeKey) obj;
+    if (this.size != other.size || this.hash != other.hash) {
+      return false;
+    }
+    for (int i = 0; i < this.size; i++) {
+      if (this.types[i] != other.types[i] || !this.names[i].equals(other.names[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("JSONTypeKey[");
+    for (int i = 0; i < this.size; i++) {
+      if (i > 0) {
+        result.append(", ");
+      }
+      result.append(this.names[i]).append(':').append(this.types[i]);
+    }
+    return result.append(']').toString();
+  }
+}
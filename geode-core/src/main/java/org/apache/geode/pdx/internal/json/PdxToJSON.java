@@ -33,6 +33,9 @@ import org.apache.geode.pdx.JSONFormatter;
 import org.apache.geode.pdx.PdxInstance;
 import org.apache.geode.pdx.internal.EnumInfo;
 import org.apache.geode.pdx.internal.EnumInfo.PdxInstanceEnumInfo;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
+import org.apache.geode.pdx.internal.PdxReaderImpl;
 
 /*
  * This class converts a PdxInstance into a JSON document.
@@ -164,6 +167,10 @@ public class PdxToJSON {
 
   private String getJSONString(JsonGenerator jg, PdxInstance pdxInstance)
       throws JsonGenerationException, IOException {
+    if (pdxInstance instanceof PdxInstanceImpl) {
+      writeFields(jg, ((PdxInstanceImpl) pdxInstance).getPrivateReader());
+      return null;
+    }
     jg.writeStartObject();
 
     List<String> pdxFields = pdxInstance.getFieldNames();
@@ -177,6 +184,48 @@ public class PdxToJSON {
     return null;
   }
 
+  /**
+   * Writes the fields straight from the serialized data of a PdxInstance, in the order of its type
+   * and without boxing primitive fields.
+   */
+  private void writeFields(JsonGenerator jg, PdxReaderImpl reader)
+      throws JsonGenerationException, IOException {
+    jg.writeStartObject();
+    for (PdxField field : reader.getPdxType().getFields()) {
+      if (field.isDeleted()) {
+        continue;
+      }
+      String pf = field.getFieldName();
+      jg.writeFieldName(pf);
+      switch (field.getFieldType()) {
+        case BOOLEAN:
+          jg.writeBoolean(reader.readBoolean(field));
+          break;
+        case BYTE:
+          jg.writeNumber(reader.readByte(field));
+          break;
+        case SHORT:
+          jg.writeNumber(reader.readShort(field));
+          break;
+        case INT:
+          jg.writeNumber(reader.readInt(field));
+          break;
+        case LONG:
+          jg.writeNumber(reader.readLong(field));
+          break;
+        case FLOAT:
+          jg.writeNumber(reader.readFloat(field));
+          break;
+        case DOUBLE:
+          jg.writeNumber(reader.readDouble(field));
+          break;
+        default:
+          writeValue(jg, reader.readField(field), pf);
+      }
+    }
+    jg.writeEndObject();
+  }
+
   private void getJSONStringFromArray(JsonGenerator jg, Object value, String pf)
       throws JsonGenerationException, IOException {
 
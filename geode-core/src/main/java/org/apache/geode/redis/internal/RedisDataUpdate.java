@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.Serializable;
+
+/**
+ * A change to the value of one Redis key, run by {@link RedisDataUpdateFunction} on the member
+ * that hosts the primary copy of the key. It is sent to that member, so it must only hold command
+ * arguments and not refer to the executor or its context.
+ *
+ * @param <V> the type of the value, such as {@link RedisList}
+ *
+ * @since Geode 1.3
+ */
+@FunctionalInterface
+public interface RedisDataUpdate<V> extends Serializable {
+
+  /**
+   * Changes the given value, which the caller has locked.
+   *
+   * @return the reply of the command, which is sent back to the member that runs the command
+   */
+  Object apply(V value);
+
+}
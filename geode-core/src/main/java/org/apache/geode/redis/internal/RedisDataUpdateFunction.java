@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.internal.InternalEntity;
+import org.apache.geode.redis.GeodeRedisServer;
+
+/**
+ * Runs a {@link RedisDataUpdate} on the value of one key. The function is routed by the key and
+ * optimized for write, so on a partitioned region it runs on the member that hosts the primary
+ * copy of the key and every change of the key is made under one lock there. Changing a copy of the
+ * value on another member would let two members each apply a command to their own copy.
+ * <p>
+ * The type of the key is checked again under the lock before the value is created, stored or
+ * removed, so a key that was deleted or given another type meanwhile is not written back.
+ * <p>
+ * The arguments are the {@link RedisDataType} of the key, whether to create the value if the key
+ * does not exist, and the update. The result is an array of the reply of the update, whether the
+ * key was removed because its value became empty, and the message of a type mismatch. The reply is
+ * null if the key does not exist and was not created.
+ *
+ * @since Geode 1.3
+ */
+public class RedisDataUpdateFunction implements Function<Object[]>, InternalEntity {
+
+  private static final long serialVersionUID = -5340468424811961397L;
+
+  public static final String ID = RedisDataUpdateFunction.class.getName();
+
+  private static final int LOCK_COUNT = 256;
+
+  /** Serializes the updates of the keys that hash to the same lock */
+  private static final Object[] LOCKS = new Object[LOCK_COUNT];
+
+  static {
+    for (int i = 0; i < LOCK_COUNT; i++) {
+      LOCKS[i] = new Object();
+    }
+  }
+
+  @Override
+  public void execute(FunctionContext<Object[]> context) {
+    RegionFunctionContext regionContext = (RegionFunctionContext) context;
+    ByteArrayWrapper key = (ByteArrayWrapper) regionContext.getFilter().iterator().next();
+    Object[] args = context.getArguments();
+    Region<ByteArrayWrapper, Object> region = regionContext.getDataSet();
+    Region<String, RedisDataType> metaRegion =
+        context.getCache().getRegion(GeodeRedisServer.REDIS_META_DATA_REGION);
+    @SuppressWarnings("unchecked")
+    RedisDataUpdate<Object> update = (RedisDataUpdate<Object>) args[2];
+    context.getResultSender().lastResult(
+        update(region, metaRegion, key, (RedisDataType) args[0], (Boolean) args[1], update));
+  }
+
+  static Object[] update(Region<ByteArrayWrapper, Object> region,
+      Region<String, RedisDataType> metaRegion, ByteArrayWrapper key, RedisDataType type,
+      boolean create, RedisDataUpdate<Object> update) {
+    String metaKey = key.toString();
+    synchronized (LOCKS[(key.hashCode() & Integer.MAX_VALUE) % LOCK_COUNT]) {
+      RedisDataType currentType = metaRegion.get(metaKey);
+      String mismatch = checkType(key, type, currentType);
+      if (mismatch != null) {
+        return new Object[] {null, false, mismatch};
+      }
+      // a value without a type is being removed
+      Object value = currentType == null ? null : region.get(key);
+      boolean created = false;
+      if (value == null) {
+        if (!create) {
+          return new Object[] {null, false, null};
+        }
+        if (currentType == null) {
+          mismatch = checkType(key, type, metaRegion.putIfAbsent(metaKey, type));
+          if (mismatch != null) {
+            return new Object[] {null, false, mismatch};
+          }
+        }
+        value = newValue(type);
+        created = true;
+      }
+      synchronized (value) {
+        Object reply = update.apply(value);
+        if (sizeOf(value) == 0) {
+          if (!created) {
+            region.remove(key);
+          }
+          metaRegion.remove(metaKey, type);
+          return new Object[] {reply, !created, null};
+        }
+        if (created || hasChanges(value)) {
+          region.put(key, value);
+        }
+        return new Object[] {reply, false, null};
+      }
+    }
+  }
+
+  private static String checkType(ByteArrayWrapper key, RedisDataType type,
+      RedisDataType currentType) {
+    if (currentType == RedisDataType.REDIS_PROTECTED) {
+      return "The key name \"" + key + "\" is protected";
+    }
+    if (currentType != null && currentType != type) {
+      return "The key name \"" + key + "\" is already used by a " + currentType.toString();
+    }
+    return null;
+  }
+
+  private static Object newValue(RedisDataType type) {
+    switch (type) {
+      case REDIS_LIST:
+        return new RedisList();
+      case REDIS_HASH:
+        return new RedisHash();
+      case REDIS_SORTEDSET:
+        return new RedisSortedSet();
+      default:
+        throw new IllegalArgumentException("Cannot update a " + type);
+    }
+  }
+
+  private static int sizeOf(Object value) {
+    if (value instanceof RedisList) {
+      return ((RedisList) value).size();
+    }
+    if (value instanceof RedisHash) {
+      return ((RedisHash) value).size();
+    }
+    return ((RedisSortedSet) value).size();
+  }
+
+  private static boolean hasChanges(Object value) {
+    if (value instanceof RedisList) {
+      return ((RedisList) value).hasChanges();
+    }
+    if (value instanceof RedisHash) {
+      return ((RedisHash) value).hasChanges();
+    }
+    return ((RedisSortedSet) value).hasChanges();
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean optimizeForWrite() {
+    return true;
+  }
+
+  /**
+   * Updates are not idempotent, so they are not retried on another member.
+   */
+  @Override
+  public boolean isHA() {
+    return false;
+  }
+
+}
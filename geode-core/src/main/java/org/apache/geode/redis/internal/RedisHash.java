@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+
+/**
+ * The value of a {@link RedisDataType#REDIS_HASH} key. All fields of the hash are kept in this one
+ * object, which is stored as a single entry of the hash region.
+ * <p>
+ * Like a Redis ziplist, a small hash is packed into one byte array of length prefixed fields and
+ * values that is searched from the start. Once the hash holds more than
+ * {@link #MAX_PACKED_ENTRIES} fields, or a field or value longer than {@link #MAX_PACKED_LENGTH}
+ * bytes, it is moved into a hash map and stays there.
+ * <p>
+ * Changes made since the object was last sent to other members are recorded and sent as a
+ * {@link Delta} instead of the whole hash. Each change sets or removes one field, so applying a
+ * change again has no further effect. A caller must hold the lock of this object from the first
+ * change until the change has been put into the region, so that the delta sent with the put
+ * contains exactly its own changes.
+ *
+ * @since Geode 1.3
+ */
+public class RedisHash implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = -6034185425139823715L;
+
+  static final int MAX_PACKED_ENTRIES = 128;
+
+  static final int MAX_PACKED_LENGTH = 64;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private static final byte SET = 0;
+
+  private static final byte DELETE = 1;
+
+  /** The fields and values of a small hash, each written as its length and its bytes */
+  private byte[] packed = EMPTY;
+
+  private int packedLength;
+
+  private int packedCount;
+
+  /** The fields of a large hash, or null while the hash is packed */
+  private Map<ByteArrayWrapper, ByteArrayWrapper> map;
+
+  /** The changes not yet sent as a delta, as fields mapped to a value or to null if removed */
+  private final Map<ByteArrayWrapper, ByteArrayWrapper> changes = new HashMap<>();
+
+  /**
+   * Set when the changes were dropped because no delta was sent for a long time, so that the next
+   * put sends the whole hash.
+   */
+  private boolean changesDropped;
+
+  public RedisHash() {}
+
+  public synchronized int size() {
+    return this.map == null ? this.packedCount : this.map.size();
+  }
+
+  /**
+   * Returns the value of the given field, or null if it is not in the hash.
+   */
+  public synchronized ByteArrayWrapper get(ByteArrayWrapper field) {
+    if (this.map != null) {
+      return this.map.get(field);
+    }
+    int offset = find(field.toBytes());
+    if (offset < 0) {
+      return null;
+    }
+    offset = skip(offset);
+    return new ByteArrayWrapper(read(offset));
+  }
+
+  public synchronized boolean containsKey(ByteArrayWrapper field) {
+    return this.map == null ? find(field.toBytes()) >= 0 : this.map.containsKey(field);
+  }
+
+  /**
+   * Sets the value of the given field.
+   *
+   * @return true if the field was not in the hash
+   */
+  public synchronized boolean put(ByteArrayWrapper field, ByteArrayWrapper value) {
+    boolean added = doPut(field, value);
+    recordChange(field, value);
+    return added;
+  }
+
+  /**
+   * Sets the value of the given field if it is not in the hash.
+   *
+   * @return true if the field was not in the hash
+   */
+  public synchronized boolean putIfAbsent(ByteArrayWrapper field, ByteArrayWrapper value) {
+    if (containsKey(field)) {
+      return false;
+    }
+    return put(field, value);
+  }
+
+  /**
+   * Removes the given field.
+   *
+   * @return true if the field was in the hash
+   */
+  public synchronized boolean remove(ByteArrayWrapper field) {
+    boolean removed = doRemove(field);
+    if (removed) {
+      recordChange(field, null);
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the fields of the hash, each with its value.
+   */
+  public synchronized List<Entry<ByteArrayWrapper, ByteArrayWrapper>> entries() {
+    List<Entry<ByteArrayWrapper, ByteArrayWrapper>> entries = new ArrayList<>(size());
+    if (this.map != null) {
+      for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : this.map.entrySet()) {
+        entries.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+      }
+    } else {
+      for (int offset = 0; offset < this.packedLength;) {
+        ByteArrayWrapper field = new ByteArrayWrapper(read(offset));
+        offset = skip(offset);
+        entries.add(new SimpleImmutableEntry<>(field, new ByteArrayWrapper(read(offset))));
+        offset = skip(offset);
+      }
+    }
+    return entries;
+  }
+
+  public synchronized List<ByteArrayWrapper> keys() {
+    List<ByteArrayWrapper> keys = new ArrayList<>(size());
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : entries()) {
+      keys.add(entry.getKey());
+    }
+    return keys;
+  }
+
+  public synchronized List<ByteArrayWrapper> values() {
+    List<ByteArrayWrapper> values = new ArrayList<>(size());
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : entries()) {
+      values.add(entry.getValue());
+    }
+    return values;
+  }
+
+  private boolean doPut(ByteArrayWrapper field, ByteArrayWrapper value) {
+    if (this.map == null && (this.packedCount >= MAX_PACKED_ENTRIES
+        || field.length() > MAX_PACKED_LENGTH || value.length() > MAX_PACKED_LENGTH)) {
+      this.map = new HashMap<>(entriesAsMap());
+      this.packed = EMPTY;
+      this.packedLength = 0;
+      this.packedCount = 0;
+    }
+    if (this.map != null) {
+      return this.map.put(field, value) == null;
+    }
+    boolean existed = removePacked(field.toBytes());
+    int needed = RedisList.varIntSize(field.length()) + field.length()
+        + RedisList.varIntSize(value.length()) + value.length();
+    if (this.packed.length - this.packedLength < needed) {
+      this.packed = Arrays.copyOf(this.packed,
+          Math.max(this.packed.length * 2, this.packedLength + needed));
+    }
+    this.packedLength = write(this.packedLength, field.toBytes());
+    this.packedLength = write(this.packedLength, value.toBytes());
+    if (!existed) {
+      this.packedCount++;
+    }
+    return !existed;
+  }
+
+  private boolean doRemove(ByteArrayWrapper field) {
+    if (this.map != null) {
+      return this.map.remove(field) != null;
+    }
+    if (removePacked(field.toBytes())) {
+      this.packedCount--;
+      return true;
+    }
+    return false;
+  }
+
+  private Map<ByteArrayWrapper, ByteArrayWrapper> entriesAsMap() {
+    Map<ByteArrayWrapper, ByteArrayWrapper> entries = new HashMap<>();
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : entries()) {
+      entries.put(entry.getKey(), entry.getValue());
+    }
+    return entries;
+  }
+
+  /**
+   * Removes the packed field and its value without changing the count.
+   *
+   * @return true if the field was found
+   */
+  private boolean removePacked(byte[] field) {
+    int offset = find(field);
+    if (offset < 0) {
+      return false;
+    }
+    int end = skip(skip(offset));
+    System.arraycopy(this.packed, end, this.packed, offset, this.packedLength - end);
+    this.packedLength -= end - offset;
+    return true;
+  }
+
+  /**
+   * Returns the offset of the given packed field, or -1 if it is not in the hash.
+   */
+  private int find(byte[] field) {
+    for (int offset = 0; offset < this.packedLength;) {
+      int length = readLength(offset);
+      int from = offset + RedisList.varIntSize(length);
+      if (length == field.length && matches(from, field)) {
+        return offset;
+      }
+      // skip the field and its value
+      offset = skip(from + length);
+    }
+    return -1;
+  }
+
+  private boolean matches(int from, byte[] field) {
+    for (int i = 0; i < field.length; i++) {
+      if (this.packed[from + i] != field[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int readLength(int offset) {
+    int length = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = this.packed[offset++];
+      length |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return length;
+  }
+
+  private byte[] read(int offset) {
+    int length = readLength(offset);
+    int from = offset + RedisList.varIntSize(length);
+    return Arrays.copyOfRange(this.packed, from, from + length);
+  }
+
+  /**
+   * Returns the offset just past the packed bytes at the given offset.
+   */
+  private int skip(int offset) {
+    int length = readLength(offset);
+    return offset + RedisList.varIntSize(length) + length;
+  }
+
+  private int write(int offset, byte[] bytes) {
+    int v = bytes.length;
+    while ((v & ~0x7F) != 0) {
+      this.packed[offset++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    this.packed[offset++] = (byte) v;
+    System.arraycopy(bytes, 0, this.packed, offset, bytes.length);
+    return offset + bytes.length;
+  }
+
+  private void recordChange(ByteArrayWrapper field, ByteArrayWrapper value) {
+    if (this.changesDropped) {
+      return;
+    }
+    this.changes.put(field, value);
+    if (this.changes.size() > size() + 1024) {
+      // no delta is being sent, so there is nobody to send these to
+      this.changes.clear();
+      this.changesDropped = true;
+    }
+  }
+
+  /**
+   * Returns true if this hash was changed since it was last sent to other members. This is also
+   * true once the changes were dropped, as the next put then has to send the whole hash.
+   */
+  public synchronized boolean hasChanges() {
+    return this.changesDropped || !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changesDropped && !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    out.writeInt(this.changes.size());
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> change : this.changes.entrySet()) {
+      ByteArrayWrapper value = change.getValue();
+      out.writeByte(value == null ? DELETE : SET);
+      DataSerializer.writeByteArray(change.getKey().toBytes(), out);
+      if (value != null) {
+        DataSerializer.writeByteArray(value.toBytes(), out);
+      }
+    }
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      byte op = in.readByte();
+      ByteArrayWrapper field = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+      if (op == SET) {
+        doPut(field, new ByteArrayWrapper(DataSerializer.readByteArray(in)));
+      } else if (op == DELETE) {
+        doRemove(field);
+      } else {
+        throw new InvalidDeltaException("Unknown hash change " + op);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    out.writeBoolean(this.map == null);
+    if (this.map == null) {
+      out.writeInt(this.packedCount);
+      DataSerializer.writeByteArray(Arrays.copyOf(this.packed, this.packedLength), out);
+    } else {
+      out.writeInt(this.map.size());
+      for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : this.map.entrySet()) {
+        DataSerializer.writeByteArray(entry.getKey().toBytes(), out);
+        DataSerializer.writeByteArray(entry.getValue().toBytes(), out);
+      }
+    }
+    this.changesDropped = false;
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    boolean isPacked = in.readBoolean();
+    int size = in.readInt();
+    if (isPacked) {
+      this.packedCount = size;
+      this.packed = DataSerializer.readByteArray(in);
+      this.packedLength = this.packed.length;
+    } else {
+      this.map = new HashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        this.map.put(new ByteArrayWrapper(DataSerializer.readByteArray(in)),
+            new ByteArrayWrapper(DataSerializer.readByteArray(in)));
+      }
+    }
+  }
+}
@@ -0,0 +1,609 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+
+/**
+ * The value of a {@link RedisDataType#REDIS_LIST} key. All elements of the list are kept in this
+ * one object, which is stored as a single entry of the list region.
+ * <p>
+ * The elements are packed into a sequence of byte array chunks, in the manner of a Redis
+ * quicklist. Each element is written as its length, its bytes and its length again, so a chunk can
+ * be walked from either end. A chunk keeps free space at both ends so pushes and pops at either end
+ * of the list only touch the first or last chunk, and a new chunk is started once a chunk holds
+ * {@link #MAX_CHUNK_BYTES}.
+ * <p>
+ * Changes made since the object was last sent to other members are recorded in order and sent as a
+ * {@link Delta} instead of the whole list. A caller must hold the lock of this object from the
+ * first change until the change has been put into the region, so that the delta sent with the put
+ * contains exactly its own changes.
+ *
+ * @since Geode 1.3
+ */
+public class RedisList implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = 4713698364019523520L;
+
+  static final int MAX_CHUNK_BYTES = 8 * 1024;
+
+  private static final int MIN_CHUNK_BYTES = 64;
+
+  private static final byte PUSH_LEFT = 0;
+
+  private static final byte PUSH_RIGHT = 1;
+
+  private static final byte POP_LEFT = 2;
+
+  private static final byte POP_RIGHT = 3;
+
+  private static final byte SET = 4;
+
+  private static final byte TRIM = 5;
+
+  private static final byte REMOVE = 6;
+
+  private static class Chunk {
+    byte[] data;
+    /** The offset of the first element */
+    int start;
+    /** The offset just past the last element */
+    int end;
+    int count;
+
+    Chunk(int capacity, int offset) {
+      this.data = new byte[capacity];
+      this.start = offset;
+      this.end = offset;
+    }
+  }
+
+  private static class Change {
+    final byte op;
+    final int index;
+    final int count;
+    final byte[] value;
+
+    Change(byte op, int index, int count, byte[] value) {
+      this.op = op;
+      this.index = index;
+      this.count = count;
+      this.value = value;
+    }
+  }
+
+  private final ArrayList<Chunk> chunks = new ArrayList<>();
+
+  private int size;
+
+  /** The changes not yet sent as a delta, in the order they were made */
+  private final List<Change> changes = new ArrayList<>();
+
+  /**
+   * Set when the changes were dropped because no delta was sent for a long time, so that the next
+   * put sends the whole list.
+   */
+  private boolean changesDropped;
+
+  public RedisList() {}
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds the given element to the head of the list.
+   *
+   * @return the size of the list after the push
+   */
+  public synchronized int pushLeft(byte[] value) {
+    int needed = encodedSize(value.length);
+    Chunk chunk = this.chunks.isEmpty() ? null : this.chunks.get(0);
+    if (chunk == null || chunk.end - chunk.start + needed > MAX_CHUNK_BYTES) {
+      int capacity = Math.max(needed, MIN_CHUNK_BYTES);
+      chunk = new Chunk(capacity, capacity);
+      this.chunks.add(0, chunk);
+    } else if (chunk.start < needed) {
+      makeRoomAtStart(chunk, needed);
+    }
+    chunk.start -= needed;
+    writeElement(chunk.data, chunk.start, value);
+    chunk.count++;
+    this.size++;
+    recordChange(PUSH_LEFT, 0, 0, value);
+    return this.size;
+  }
+
+  /**
+   * Adds the given element to the tail of the list.
+   *
+   * @return the size of the list after the push
+   */
+  public synchronized int pushRight(byte[] value) {
+    int needed = encodedSize(value.length);
+    Chunk chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+    if (chunk == null || chunk.end - chunk.start + needed > MAX_CHUNK_BYTES) {
+      chunk = new Chunk(Math.max(needed, MIN_CHUNK_BYTES), 0);
+      this.chunks.add(chunk);
+    } else if (chunk.data.length - chunk.end < needed) {
+      makeRoomAtEnd(chunk, needed);
+    }
+    chunk.end = writeElement(chunk.data, chunk.end, value);
+    chunk.count++;
+    this.size++;
+    recordChange(PUSH_RIGHT, 0, 0, value);
+    return this.size;
+  }
+
+  /**
+   * Removes and returns the head of the list, or returns null if the list is empty.
+   */
+  public synchronized byte[] popLeft() {
+    if (this.size == 0) {
+      return null;
+    }
+    byte[] value = removeFirst();
+    recordChange(POP_LEFT, 0, 0, null);
+    return value;
+  }
+
+  /**
+   * Removes and returns the tail of the list, or returns null if the list is empty.
+   */
+  public synchronized byte[] popRight() {
+    if (this.size == 0) {
+      return null;
+    }
+    byte[] value = removeLast();
+    recordChange(POP_RIGHT, 0, 0, null);
+    return value;
+  }
+
+  /**
+   * Returns the element at the given zero based index, or null if there is no such element.
+   */
+  public synchronized byte[] get(int index) {
+    if (index < 0 || index >= this.size) {
+      return null;
+    }
+    long position = locate(index);
+    return readElement(this.chunks.get((int) (position >>> 32)).data, (int) position);
+  }
+
+  /**
+   * Replaces the element at the given zero based index.
+   *
+   * @return false if there is no such element
+   */
+  public synchronized boolean set(int index, byte[] value) {
+    if (index < 0 || index >= this.size) {
+      return false;
+    }
+    long position = locate(index);
+    Chunk chunk = this.chunks.get((int) (position >>> 32));
+    int offset = (int) position;
+    int oldSize = encodedSize(readLength(chunk.data, offset));
+    int newSize = encodedSize(value.length);
+    int growth = newSize - oldSize;
+    if (growth > 0 && chunk.data.length - chunk.end < growth) {
+      int used = chunk.end - chunk.start;
+      byte[] data = new byte[Math.max(chunk.data.length, used + growth)];
+      System.arraycopy(chunk.data, chunk.start, data, 0, used);
+      offset -= chunk.start;
+      chunk.data = data;
+      chunk.start = 0;
+      chunk.end = used;
+    }
+    if (growth != 0) {
+      System.arraycopy(chunk.data, offset + oldSize, chunk.data, offset + newSize,
+          chunk.end - offset - oldSize);
+      chunk.end += growth;
+    }
+    writeElement(chunk.data, offset, value);
+    recordChange(SET, index, 0, value);
+    return true;
+  }
+
+  /**
+   * Returns the elements from the given start index up to, but excluding, the given end index.
+   */
+  public synchronized List<ByteArrayWrapper> range(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, this.size);
+    List<ByteArrayWrapper> range = new ArrayList<>(Math.max(end - start, 0));
+    if (start >= end) {
+      return range;
+    }
+    long position = locate(start);
+    int chunkIndex = (int) (position >>> 32);
+    int offset = (int) position;
+    Chunk chunk = this.chunks.get(chunkIndex);
+    for (int i = start; i < end; i++) {
+      if (offset == chunk.end) {
+        chunk = this.chunks.get(++chunkIndex);
+        offset = chunk.start;
+      }
+      byte[] value = readElement(chunk.data, offset);
+      range.add(new ByteArrayWrapper(value));
+      offset += encodedSize(value.length);
+    }
+    return range;
+  }
+
+  /**
+   * Keeps only the elements from the given start index up to, but excluding, the given end index.
+   */
+  public synchronized void trim(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.max(Math.min(end, this.size), start);
+    if (start == 0 && end == this.size) {
+      return;
+    }
+    applyTrim(start, end);
+    recordChange(TRIM, start, end, null);
+  }
+
+  /**
+   * Removes elements equal to the given value. If count is positive at most that many are removed
+   * starting from the head, if negative at most that many starting from the tail, and if zero all
+   * of them are removed.
+   *
+   * @return the number of elements removed
+   */
+  public synchronized int remove(int count, byte[] value) {
+    int removed = applyRemove(count, value);
+    if (removed > 0) {
+      recordChange(REMOVE, count, 0, value);
+    }
+    return removed;
+  }
+
+  private void applyTrim(int start, int end) {
+    int fromTail = this.size - end;
+    for (int i = 0; i < start; i++) {
+      removeFirst();
+    }
+    for (int i = 0; i < fromTail; i++) {
+      removeLast();
+    }
+  }
+
+  private int applyRemove(int count, byte[] value) {
+    List<ByteArrayWrapper> elements = range(0, this.size);
+    boolean[] matches = new boolean[elements.size()];
+    int limit = count == 0 ? Integer.MAX_VALUE : Math.abs(count);
+    int removed = 0;
+    for (int i = 0; i < elements.size() && removed < limit; i++) {
+      int index = count < 0 ? elements.size() - 1 - i : i;
+      if (Arrays.equals(elements.get(index).toBytes(), value)) {
+        matches[index] = true;
+        removed++;
+      }
+    }
+    if (removed > 0) {
+      this.chunks.clear();
+      this.size = 0;
+      for (int i = 0; i < elements.size(); i++) {
+        if (!matches[i]) {
+          append(elements.get(i).toBytes());
+        }
+      }
+    }
+    return removed;
+  }
+
+  private void append(byte[] value) {
+    int needed = encodedSize(value.length);
+    Chunk chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+    if (chunk == null || chunk.end + needed > chunk.data.length) {
+      chunk = new Chunk(Math.max(needed, MAX_CHUNK_BYTES), 0);
+      this.chunks.add(chunk);
+    }
+    chunk.end = writeElement(chunk.data, chunk.end, value);
+    chunk.count++;
+    this.size++;
+  }
+
+  private byte[] removeFirst() {
+    Chunk chunk = this.chunks.get(0);
+    byte[] value = readElement(chunk.data, chunk.start);
+    chunk.start += encodedSize(value.length);
+    if (--chunk.count == 0) {
+      this.chunks.remove(0);
+    }
+    this.size--;
+    return value;
+  }
+
+  private byte[] removeLast() {
+    int chunkIndex = this.chunks.size() - 1;
+    Chunk chunk = this.chunks.get(chunkIndex);
+    chunk.end = previousElement(chunk.data, chunk.end);
+    byte[] value = readElement(chunk.data, chunk.end);
+    if (--chunk.count == 0) {
+      this.chunks.remove(chunkIndex);
+    }
+    this.size--;
+    return value;
+  }
+
+  /**
+   * Returns the index of the chunk holding the element at the given index in the high half and the
+   * offset of the element in the low half, walking from whichever end of the list is nearer.
+   */
+  private long locate(int index) {
+    int chunkIndex;
+    Chunk chunk;
+    if (index < this.size / 2) {
+      chunkIndex = 0;
+      chunk = this.chunks.get(0);
+      while (index >= chunk.count) {
+        index -= chunk.count;
+        chunk = this.chunks.get(++chunkIndex);
+      }
+    } else {
+      int fromTail = this.size - 1 - index;
+      chunkIndex = this.chunks.size() - 1;
+      chunk = this.chunks.get(chunkIndex);
+      while (fromTail >= chunk.count) {
+        fromTail -= chunk.count;
+        chunk = this.chunks.get(--chunkIndex);
+      }
+      index = chunk.count - 1 - fromTail;
+    }
+    int offset;
+    if (index <= chunk.count / 2) {
+      offset = chunk.start;
+      for (int i = 0; i < index; i++) {
+        offset += encodedSize(readLength(chunk.data, offset));
+      }
+    } else {
+      offset = chunk.end;
+      for (int i = chunk.count; i > index; i--) {
+        offset = previousElement(chunk.data, offset);
+      }
+    }
+    return ((long) chunkIndex << 32) | offset;
+  }
+
+  private static void makeRoomAtStart(Chunk chunk, int needed) {
+    int used = chunk.end - chunk.start;
+    byte[] data = chunk.data;
+    if (data.length - used < needed) {
+      data = new byte[Math.max(Math.min(data.length * 2, MAX_CHUNK_BYTES), used + needed)];
+    }
+    System.arraycopy(chunk.data, chunk.start, data, data.length - used, used);
+    chunk.data = data;
+    chunk.start = data.length - used;
+    chunk.end = data.length;
+  }
+
+  private static void makeRoomAtEnd(Chunk chunk, int needed) {
+    int used = chunk.end - chunk.start;
+    byte[] data = chunk.data;
+    if (data.length - used < needed) {
+      data = new byte[Math.max(Math.min(data.length * 2, MAX_CHUNK_BYTES), used + needed)];
+    }
+    System.arraycopy(chunk.data, chunk.start, data, 0, used);
+    chunk.data = data;
+    chunk.start = 0;
+    chunk.end = used;
+  }
+
+  static int varIntSize(int value) {
+    int size = 1;
+    while ((value >>>= 7) != 0) {
+      size++;
+    }
+    return size;
+  }
+
+  static int encodedSize(int length) {
+    return length + 2 * varIntSize(length);
+  }
+
+  /**
+   * Writes the given element at the given offset.
+   *
+   * @return the offset just past the element
+   */
+  private static int writeElement(byte[] data, int offset, byte[] value) {
+    int length = value.length;
+    int v = length;
+    while ((v & ~0x7F) != 0) {
+      data[offset++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    data[offset++] = (byte) v;
+    System.arraycopy(value, 0, data, offset, length);
+    offset += length;
+    // the trailing copy of the length is written backwards so it can be read from its end
+    int trailer = varIntSize(length);
+    v = length;
+    for (int i = 1; i <= trailer; i++) {
+      data[offset + trailer - i] = (byte) ((v & 0x7F) | (i < trailer ? 0x80 : 0));
+      v >>>= 7;
+    }
+    return offset + trailer;
+  }
+
+  private static int readLength(byte[] data, int offset) {
+    int length = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = data[offset++];
+      length |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return length;
+  }
+
+  private static byte[] readElement(byte[] data, int offset) {
+    int length = readLength(data, offset);
+    int from = offset + varIntSize(length);
+    return Arrays.copyOfRange(data, from, from + length);
+  }
+
+  /**
+   * Returns the offset of the element that ends at the given offset.
+   */
+  private static int previousElement(byte[] data, int end) {
+    int length = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = data[--end];
+      length |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return end - length - varIntSize(length);
+  }
+
+  private void recordChange(byte op, int index, int count, byte[] value) {
+    if (this.changesDropped) {
+      return;
+    }
+    this.changes.add(new Change(op, index, count, value));
+    if (this.changes.size() > this.size + 1024) {
+      // no delta is being sent, so there is nobody to send these to
+      this.changes.clear();
+      this.changesDropped = true;
+    }
+  }
+
+  /**
+   * Returns true if this list was changed since it was last sent to other members. This is also
+   * true once the changes were dropped, as the next put then has to send the whole list.
+   */
+  public synchronized boolean hasChanges() {
+    return this.changesDropped || !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changesDropped && !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    out.writeInt(this.changes.size());
+    for (Change change : this.changes) {
+      out.writeByte(change.op);
+      switch (change.op) {
+        case PUSH_LEFT:
+        case PUSH_RIGHT:
+          DataSerializer.writeByteArray(change.value, out);
+          break;
+        case SET:
+          out.writeInt(change.index);
+          DataSerializer.writeByteArray(change.value, out);
+          break;
+        case TRIM:
+          out.writeInt(change.index);
+          out.writeInt(change.count);
+          break;
+        case REMOVE:
+          out.writeInt(change.index);
+          DataSerializer.writeByteArray(change.value, out);
+          break;
+        default:
+          break;
+      }
+    }
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      byte op = in.readByte();
+      switch (op) {
+        case PUSH_LEFT:
+          pushLeft(DataSerializer.readByteArray(in));
+          break;
+        case PUSH_RIGHT:
+          pushRight(DataSerializer.readByteArray(in));
+          break;
+        case POP_LEFT:
+        case POP_RIGHT:
+          if (this.size == 0) {
+            throw new InvalidDeltaException("Cannot pop from an empty list");
+          }
+          if (op == POP_LEFT) {
+            removeFirst();
+          } else {
+            removeLast();
+          }
+          break;
+        case SET:
+          if (!set(in.readInt(), DataSerializer.readByteArray(in))) {
+            throw new InvalidDeltaException("List index out of range");
+          }
+          break;
+        case TRIM:
+          int start = in.readInt();
+          int end = in.readInt();
+          applyTrim(start, Math.max(Math.min(end, this.size), start));
+          break;
+        case REMOVE:
+          applyRemove(in.readInt(), DataSerializer.readByteArray(in));
+          break;
+        default:
+          throw new InvalidDeltaException("Unknown list change " + op);
+      }
+    }
+    // these were applied here, not made here
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    out.writeInt(this.size);
+    out.writeInt(this.chunks.size());
+    for (Chunk chunk : this.chunks) {
+      out.writeInt(chunk.count);
+      out.writeInt(chunk.end - chunk.start);
+      out.write(chunk.data, chunk.start, chunk.end - chunk.start);
+    }
+    this.changesDropped = false;
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    this.size = in.readInt();
+    int chunkCount = in.readInt();
+    for (int i = 0; i < chunkCount; i++) {
+      int count = in.readInt();
+      int used = in.readInt();
+      Chunk chunk = new Chunk(used, 0);
+      in.readFully(chunk.data);
+      chunk.end = used;
+      chunk.count = count;
+      this.chunks.add(chunk);
+    }
+  }
+}
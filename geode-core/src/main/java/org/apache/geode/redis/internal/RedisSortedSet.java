@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+
+/**
+ * The value of a {@link RedisDataType#REDIS_SORTEDSET} key. All members of the sorted set are kept
+ * in this one object, which is stored as a single entry of the sorted set region.
+ * <p>
+ * Members are ordered by score and then by member in a skip list whose links record how many
+ * members they skip, so finding a member's rank, the member at a rank and the bounds of a score
+ * or lexicographical range all take logarithmic time. A map from member to score answers
+ * {@link #getScore} directly.
+ * <p>
+ * Changes made since the object was last sent to other members are recorded and sent as a
+ * {@link Delta} instead of the whole set. Each change sets or removes one member, so applying a
+ * change again has no further effect. A caller must hold the lock of this object from the first
+ * change until the change has been put into the region, so that the delta sent with the put
+ * contains exactly its own changes.
+ * <p>
+ * As in Redis, lexicographical ranges are only meaningful when all members have the same score.
+ *
+ * @since Geode 1.3
+ */
+public class RedisSortedSet implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = -3215496418247418352L;
+
+  private static final int MAX_LEVEL = 32;
+
+  /** One in four nodes at each level is also linked at the next level */
+  private static final int LEVEL_MASK = 3;
+
+  private static final byte ADD = 0;
+
+  private static final byte REMOVE = 1;
+
+  private static class Node {
+    final ByteArrayWrapper member;
+    final double score;
+    final Node[] forward;
+    /** The number of nodes that each forward link moves past */
+    final int[] span;
+    Node backward;
+
+    Node(int level, double score, ByteArrayWrapper member) {
+      this.member = member;
+      this.score = score;
+      this.forward = new Node[level];
+      this.span = new int[level];
+    }
+  }
+
+  private final Map<ByteArrayWrapper, Double> scores = new HashMap<>();
+
+  private final Node header = new Node(MAX_LEVEL, 0, null);
+
+  private Node tail;
+
+  private int level = 1;
+
+  /** The changes not yet sent as a delta, as members mapped to a score or to null if removed */
+  private final Map<ByteArrayWrapper, Double> changes = new HashMap<>();
+
+  /**
+   * Set when the changes were dropped because no delta was sent for a long time, so that the next
+   * put sends the whole set.
+   */
+  private boolean changesDropped;
+
+  public RedisSortedSet() {}
+
+  public synchronized int size() {
+    return this.scores.size();
+  }
+
+  /**
+   * Returns the score of the given member, or null if it is not in the set.
+   */
+  public synchronized Double getScore(ByteArrayWrapper member) {
+    return this.scores.get(member);
+  }
+
+  /**
+   * Adds the given member or changes its score.
+   *
+   * @return true if the member was not in the set
+   */
+  public synchronized boolean add(ByteArrayWrapper member, double score) {
+    Double oldScore = this.scores.put(member, score);
+    if (oldScore != null) {
+      if (oldScore == score) {
+        return false;
+      }
+      delete(oldScore, member);
+    }
+    insert(score, member);
+    recordChange(member, score);
+    return oldScore == null;
+  }
+
+  /**
+   * Removes the given member.
+   *
+   * @return true if the member was in the set
+   */
+  public synchronized boolean remove(ByteArrayWrapper member) {
+    Double score = this.scores.remove(member);
+    if (score == null) {
+      return false;
+    }
+    delete(score, member);
+    recordChange(member, null);
+    return true;
+  }
+
+  /**
+   * Returns the zero based rank of the given member in ascending order, or -1 if it is not in the
+   * set.
+   */
+  public synchronized int rank(ByteArrayWrapper member) {
+    Double score = this.scores.get(member);
+    if (score == null) {
+      return -1;
+    }
+    Node x = this.header;
+    int rank = 0;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && !isAfter(x.forward[i], score, member)) {
+        rank += x.span[i];
+        x = x.forward[i];
+      }
+      if (x != this.header && x.member.equals(member)) {
+        return rank - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the number of members with a score less than the given one, or less than or equal to
+   * it if inclusive. The members with a score in a range are those from the index returned for the
+   * lower bound up to, but excluding, the index returned for the upper bound.
+   */
+  public synchronized int countBelowScore(double score, boolean inclusive) {
+    Node x = this.header;
+    int count = 0;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null
+          && (x.forward[i].score < score || inclusive && x.forward[i].score == score)) {
+        count += x.span[i];
+        x = x.forward[i];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of members less than the given one, or less than or equal to it if
+   * inclusive, assuming all members have the same score.
+   */
+  public synchronized int countBelowMember(ByteArrayWrapper member, boolean inclusive) {
+    Node x = this.header;
+    int count = 0;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null) {
+        int cmp = x.forward[i].member.compareTo(member);
+        if (cmp > 0 || cmp == 0 && !inclusive) {
+          break;
+        }
+        count += x.span[i];
+        x = x.forward[i];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the members from the given start index up to, but excluding, the given end index in
+   * ascending order, each with its score. If reverse the indexes count from the highest member and
+   * the members are returned in descending order.
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> range(int start, int end,
+      boolean reverse) {
+    start = Math.max(start, 0);
+    end = Math.min(end, size());
+    if (start >= end) {
+      return new ArrayList<>();
+    }
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> range = new ArrayList<>(end - start);
+    if (reverse) {
+      Node x = nodeAt(size() - start);
+      for (int i = start; i < end; i++) {
+        range.add(new SimpleImmutableEntry<>(x.member, new DoubleWrapper(x.score)));
+        x = x.backward;
+      }
+    } else {
+      Node x = nodeAt(start + 1);
+      for (int i = start; i < end; i++) {
+        range.add(new SimpleImmutableEntry<>(x.member, new DoubleWrapper(x.score)));
+        x = x.forward[0];
+      }
+    }
+    return range;
+  }
+
+  /**
+   * Returns the members from the given start index up to, but excluding, the given end index in
+   * ascending order.
+   */
+  public synchronized List<ByteArrayWrapper> members(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, size());
+    List<ByteArrayWrapper> members = new ArrayList<>(Math.max(end - start, 0));
+    if (start < end) {
+      Node x = nodeAt(start + 1);
+      for (int i = start; i < end; i++) {
+        members.add(x.member);
+        x = x.forward[0];
+      }
+    }
+    return members;
+  }
+
+  /**
+   * Removes the members from the given start index up to, but excluding, the given end index in
+   * ascending order.
+   *
+   * @return the number of members removed
+   */
+  public synchronized int removeRange(int start, int end) {
+    int removed = 0;
+    for (ByteArrayWrapper member : members(start, end)) {
+      if (remove(member)) {
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns true if the given node comes after the given score and member.
+   */
+  private static boolean isAfter(Node node, double score, ByteArrayWrapper member) {
+    return node.score > score || node.score == score && node.member.compareTo(member) > 0;
+  }
+
+  /**
+   * Returns the node with the given one based rank.
+   */
+  private Node nodeAt(int rank) {
+    Node x = this.header;
+    int traversed = 0;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && traversed + x.span[i] <= rank) {
+        traversed += x.span[i];
+        x = x.forward[i];
+      }
+      if (traversed == rank) {
+        return x;
+      }
+    }
+    throw new IndexOutOfBoundsException("rank " + rank + " of " + size());
+  }
+
+  private void insert(double score, ByteArrayWrapper member) {
+    Node[] update = new Node[MAX_LEVEL];
+    int[] rank = new int[MAX_LEVEL];
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      rank[i] = i == this.level - 1 ? 0 : rank[i + 1];
+      while (x.forward[i] != null && !isAfter(x.forward[i], score, member)) {
+        rank[i] += x.span[i];
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+    // the set already holds the new member, so its size is one more than the skip list's length
+    int length = size() - 1;
+    int newLevel = randomLevel();
+    if (newLevel > this.level) {
+      for (int i = this.level; i < newLevel; i++) {
+        rank[i] = 0;
+        update[i] = this.header;
+        this.header.span[i] = length;
+      }
+      this.level = newLevel;
+    }
+    x = new Node(newLevel, score, member);
+    for (int i = 0; i < newLevel; i++) {
+      x.forward[i] = update[i].forward[i];
+      update[i].forward[i] = x;
+      x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+      update[i].span[i] = rank[0] - rank[i] + 1;
+    }
+    for (int i = newLevel; i < this.level; i++) {
+      update[i].span[i]++;
+    }
+    x.backward = update[0] == this.header ? null : update[0];
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x;
+    } else {
+      this.tail = x;
+    }
+  }
+
+  private void delete(double score, ByteArrayWrapper member) {
+    Node[] update = new Node[MAX_LEVEL];
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && isBefore(x.forward[i], score, member)) {
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+    x = x.forward[0];
+    for (int i = 0; i < this.level; i++) {
+      if (update[i].forward[i] == x) {
+        update[i].span[i] += x.span[i] - 1;
+        update[i].forward[i] = x.forward[i];
+      } else {
+        update[i].span[i]--;
+      }
+    }
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x.backward;
+    } else {
+      this.tail = x.backward;
+    }
+    while (this.level > 1 && this.header.forward[this.level - 1] == null) {
+      this.level--;
+    }
+  }
+
+  private static boolean isBefore(Node node, double score, ByteArrayWrapper member) {
+    return node.score < score || node.score == score && node.member.compareTo(member) < 0;
+  }
+
+  private static int randomLevel() {
+    int level = 1;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (level < MAX_LEVEL && (random.nextInt() & LEVEL_MASK) == 0) {
+      level++;
+    }
+    return level;
+  }
+
+  private void recordChange(ByteArrayWrapper member, Double score) {
+    if (this.changesDropped) {
+      return;
+    }
+    this.changes.put(member, score);
+    if (this.changes.size() > size() + 1024) {
+      // no delta is being sent, so there is nobody to send these to
+      this.changes.clear();
+      this.changesDropped = true;
+    }
+  }
+
+  /**
+   * Returns true if this set was changed since it was last sent to other members. This is also
+   * true once the changes were dropped, as the next put then has to send the whole set.
+   */
+  public synchronized boolean hasChanges() {
+    return this.changesDropped || !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changesDropped && !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    out.writeInt(this.changes.size());
+    for (Entry<ByteArrayWrapper, Double> change : this.changes.entrySet()) {
+      Double score = change.getValue();
+      out.writeByte(score == null ? REMOVE : ADD);
+      DataSerializer.writeByteArray(change.getKey().toBytes(), out);
+      if (score != null) {
+        out.writeDouble(score);
+      }
+    }
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      byte op = in.readByte();
+      ByteArrayWrapper member = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+      if (op == ADD) {
+        add(member, in.readDouble());
+      } else if (op == REMOVE) {
+        remove(member);
+      } else {
+        throw new InvalidDeltaException("Unknown sorted set change " + op);
+      }
+    }
+    // these were applied here, not made here
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    out.writeInt(size());
+    for (Node x = this.header.forward[0]; x != null; x = x.forward[0]) {
+      DataSerializer.writeByteArray(x.member.toBytes(), out);
+      out.writeDouble(x.score);
+    }
+    this.changesDropped = false;
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      ByteArrayWrapper member = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+      double score = in.readDouble();
+      this.scores.put(member, score);
+      insert(score, member);
+    }
+  }
+}
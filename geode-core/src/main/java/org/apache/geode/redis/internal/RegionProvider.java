@@ -15,7 +15,8 @@
 package org.apache.geode.redis.internal;
 
 import java.io.Closeable;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -32,13 +33,7 @@ import org.apache.geode.cache.CacheTransactionManager;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.cache.TransactionId;
-import org.apache.geode.cache.query.IndexExistsException;
-import org.apache.geode.cache.query.IndexInvalidException;
-import org.apache.geode.cache.query.IndexNameConflictException;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryInvalidException;
-import org.apache.geode.cache.query.QueryService;
-import org.apache.geode.cache.query.RegionNotFoundException;
+import org.apache.geode.cache.execute.FunctionService;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.management.cli.Result;
@@ -46,8 +41,6 @@ import org.apache.geode.management.cli.Result.Status;
 import org.apache.geode.management.internal.cli.commands.CreateRegionCommand;
 import org.apache.geode.redis.GeodeRedisServer;
 import org.apache.geode.redis.internal.executor.ExpirationExecutor;
-import org.apache.geode.redis.internal.executor.ListQuery;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
 
 /**
  * This class stands between {@link Executor} and {@link Cache#getRegion(String)}. This is needed
@@ -78,29 +71,51 @@ public class RegionProvider implements Closeable {
    */
   private final Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion;
 
+  /**
+   * This is the {@link RedisDataType#REDIS_SORTEDSET} {@link Region}. This is the Region that
+   * stores all sorted set contents, one {@link RedisSortedSet} per key
+   */
+  private final Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_LIST} {@link Region}. This is the Region that stores all
+   * list contents, one {@link RedisList} per key
+   */
+  private final Region<ByteArrayWrapper, RedisList> listRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_HASH} {@link Region}. This is the Region that stores all
+   * hash contents, one {@link RedisHash} per key
+   */
+  private final Region<ByteArrayWrapper, RedisHash> hashRegion;
+
   private final Cache cache;
-  private final QueryService queryService;
-  private final ConcurrentMap<ByteArrayWrapper, Map<Enum<?>, Query>> preparedQueries =
-      new ConcurrentHashMap<>();
   private final ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap;
   private final ScheduledExecutorService expirationExecutor;
   private final RegionShortcut defaultRegionType;
   private static final CreateRegionCommand createRegionCmd = new CreateRegionCommand();
   private final ConcurrentHashMap<String, Lock> locks;
+  private static final RedisDataUpdateFunction UPDATE_FUNCTION = new RedisDataUpdateFunction();
 
   public RegionProvider(Region<ByteArrayWrapper, ByteArrayWrapper> stringsRegion,
       Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion,
+      Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion,
+      Region<ByteArrayWrapper, RedisList> listRegion,
+      Region<ByteArrayWrapper, RedisHash> hashRegion,
       Region<String, RedisDataType> redisMetaRegion,
       ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap,
       ScheduledExecutorService expirationExecutor, RegionShortcut defaultShortcut) {
-    if (stringsRegion == null || hLLRegion == null || redisMetaRegion == null)
+    if (stringsRegion == null || hLLRegion == null || sortedSetRegion == null
+        || listRegion == null || hashRegion == null || redisMetaRegion == null)
       throw new NullPointerException();
     this.regions = new ConcurrentHashMap<>();
     this.stringsRegion = stringsRegion;
     this.hLLRegion = hLLRegion;
+    this.sortedSetRegion = sortedSetRegion;
+    this.listRegion = listRegion;
+    this.hashRegion = hashRegion;
     this.redisMetaRegion = redisMetaRegion;
     this.cache = GemFireCacheImpl.getInstance();
-    this.queryService = cache.getQueryService();
     this.expirationsMap = expirationsMap;
     this.expirationExecutor = expirationExecutor;
     this.defaultRegionType = defaultShortcut;
@@ -175,7 +190,7 @@ public class RegionProvider implements Closeable {
       return false;
     Lock lock = this.locks.get(key.toString());
     try {
-      if (lock != null) {// Strings/hlls will not have locks
+      if (lock != null) {// Only sets have locks
         lock.lock();
       }
       metaRemoveEntry(key);
@@ -184,6 +199,12 @@ public class RegionProvider implements Closeable {
           return this.stringsRegion.remove(key) != null;
         } else if (type == RedisDataType.REDIS_HLL) {
           return this.hLLRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_SORTEDSET) {
+          return this.sortedSetRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_LIST) {
+          return this.listRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_HASH) {
+          return this.hashRegion.remove(key) != null;
         } else {
           return destroyRegion(key, type);
         }
@@ -204,13 +225,50 @@ public class RegionProvider implements Closeable {
     }
   }
 
+  /**
+   * Runs the given update on the value of the given key on the member that hosts the primary copy
+   * of the key, see {@link RedisDataUpdateFunction}. The key is removed if its value becomes empty.
+   *
+   * @param create whether to create an empty value of the given type if the key does not exist
+   * @return the reply of the update, or null if the key does not exist and was not created
+   * @throws RedisDataTypeMismatchException if the key holds another type
+   */
+  public <V> Object updateKey(ByteArrayWrapper key, RedisDataType type, boolean create,
+      RedisDataUpdate<V> update) {
+    Region<ByteArrayWrapper, ?> region = getDataRegion(type);
+    List<?> results = (List<?>) FunctionService.onRegion(region)
+        .withFilter(Collections.singleton(key)).setArguments(new Object[] {type, create, update})
+        .execute(UPDATE_FUNCTION).getResult();
+    Object[] result = (Object[]) results.get(0);
+    if (result[2] != null) {
+      throw new RedisDataTypeMismatchException((String) result[2]);
+    }
+    if ((Boolean) result[1]) {
+      cancelKeyExpiration(key);
+    }
+    return result[0];
+  }
+
+  private Region<ByteArrayWrapper, ?> getDataRegion(RedisDataType type) {
+    switch (type) {
+      case REDIS_LIST:
+        return this.listRegion;
+      case REDIS_HASH:
+        return this.hashRegion;
+      case REDIS_SORTEDSET:
+        return this.sortedSetRegion;
+      default:
+        throw new IllegalArgumentException("No single region holds the values of a " + type);
+    }
+  }
+
   public Region<?, ?> getOrCreateRegion(ByteArrayWrapper key, RedisDataType type,
       ExecutionHandlerContext context) {
     return getOrCreateRegion0(key, type, context, true);
   }
 
   public void createRemoteRegionReferenceLocally(ByteArrayWrapper key, RedisDataType type) {
-    if (type == null || type == RedisDataType.REDIS_STRING || type == RedisDataType.REDIS_HLL)
+    if (type != RedisDataType.REDIS_SET)
       return;
     Region<?, ?> r = this.regions.get(key);
     if (r != null)
@@ -235,15 +293,6 @@ public class RegionProvider implements Closeable {
           if (r == null)
             return;
 
-          if (type == RedisDataType.REDIS_LIST) {
-            doInitializeList(key, r);
-          } else if (type == RedisDataType.REDIS_SORTEDSET) {
-            try {
-              doInitializeSortedSet(key, r);
-            } catch (RegionNotFoundException | IndexInvalidException e) {
-              // ignore
-            }
-          }
           this.regions.put(key, r);
         }
       } finally {
@@ -283,26 +332,7 @@ public class RegionProvider implements Closeable {
               txm = cache.getCacheTransactionManager();
               transactionId = txm.suspend();
             }
-            Exception concurrentCreateDestroyException = null;
-            do {
-              concurrentCreateDestroyException = null;
-              r = createRegionGlobally(stringKey);
-              try {
-                if (type == RedisDataType.REDIS_LIST) {
-                  doInitializeList(key, r);
-                } else if (type == RedisDataType.REDIS_SORTEDSET) {
-                  try {
-                    doInitializeSortedSet(key, r);
-                  } catch (RegionNotFoundException | IndexInvalidException e) {
-                    concurrentCreateDestroyException = e;
-                  }
-                }
-              } catch (QueryInvalidException e) {
-                if (e.getCause() instanceof RegionNotFoundException) {
-                  concurrentCreateDestroyException = e;
-                }
-              }
-            } while (concurrentCreateDestroyException != null);
+            r = createRegionGlobally(stringKey);
             this.regions.put(key, r);
             if (addToMeta) {
               RedisDataType existingType = metaPutIfAbsent(key, type);
@@ -350,42 +380,9 @@ public class RegionProvider implements Closeable {
    * @param type Type of key to remove all state
    */
   private void removeRegionState(ByteArrayWrapper key, RedisDataType type) {
-    this.preparedQueries.remove(key);
     this.regions.remove(key);
   }
 
-  private void doInitializeSortedSet(ByteArrayWrapper key, Region<?, ?> r)
-      throws RegionNotFoundException, IndexInvalidException {
-    String fullpath = r.getFullPath();
-    try {
-      queryService.createIndex("scoreIndex", "entry.value.score",
-          r.getFullPath() + ".entrySet entry");
-      queryService.createIndex("scoreIndex2", "value.score", r.getFullPath() + ".values value");
-    } catch (IndexNameConflictException | IndexExistsException | UnsupportedOperationException e) {
-      // ignore, these indexes already exist or unsupported but make sure prepared queries are made
-    }
-    HashMap<Enum<?>, Query> queryList = new HashMap<>();
-    for (SortedSetQuery lq : SortedSetQuery.values()) {
-      String queryString = lq.getQueryString(fullpath);
-      Query query = this.queryService.newQuery(queryString);
-      queryList.put(lq, query);
-    }
-    this.preparedQueries.put(key, queryList);
-  }
-
-  private void doInitializeList(ByteArrayWrapper key, Region r) {
-    r.put("head", 0);
-    r.put("tail", 0);
-    String fullpath = r.getFullPath();
-    HashMap<Enum<?>, Query> queryList = new HashMap<>();
-    for (ListQuery lq : ListQuery.values()) {
-      String queryString = lq.getQueryString(fullpath);
-      Query query = this.queryService.newQuery(queryString);
-      queryList.put(lq, query);
-    }
-    this.preparedQueries.put(key, queryList);
-  }
-
   /**
    * This method creates a Region globally with the given name. If there is an error in the
    * creation, a runtime exception will be thrown.
@@ -415,17 +412,6 @@ public class RegionProvider implements Closeable {
     return r;
   }
 
-  public Query getQuery(ByteArrayWrapper key, Enum<?> query) {
-    return this.preparedQueries.get(key).get(query);
-    /*
-     * if (query instanceof ListQuery) { return
-     * this.queryService.newQuery(((ListQuery)query).getQueryString(this.regions.get(key).
-     * getFullPath())); } else { return
-     * this.queryService.newQuery(((SortedSetQuery)query).getQueryString(this.regions.get(key).
-     * getFullPath())); }
-     */
-  }
-
   /**
    * Checks if the given key is associated with the passed data type. If there is a mismatch, a
    * {@link RuntimeException} is thrown
@@ -456,6 +442,18 @@ public class RegionProvider implements Closeable {
     return this.hLLRegion;
   }
 
+  public Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion() {
+    return this.sortedSetRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisList> getListRegion() {
+    return this.listRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisHash> getHashRegion() {
+    return this.hashRegion;
+  }
+
   private RedisDataType getRedisDataType(String key) {
     return this.redisMetaRegion.get(key);
   }
@@ -549,9 +547,7 @@ public class RegionProvider implements Closeable {
   }
 
   @Override
-  public void close() {
-    this.preparedQueries.clear();
-  }
+  public void close() {}
 
   public String dumpRegionsCache() {
     StringBuilder builder = new StringBuilder();
@@ -15,7 +15,6 @@
 package org.apache.geode.redis.internal.executor;
 
 import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Executor;
@@ -34,7 +33,7 @@ public abstract class AbstractExecutor implements Executor {
   /**
    * Number of Regions used by GeodeRedisServer internally
    */
-  public static final int NUM_DEFAULT_REGIONS = 3;
+  public static final int NUM_DEFAULT_REGIONS = 6;
 
   /**
    * Max length of a list
@@ -88,10 +87,6 @@ public abstract class AbstractExecutor implements Executor {
           "The key name \"" + key + "\" is already used by a " + currentType.toString());
   }
 
-  protected Query getQuery(ByteArrayWrapper key, Enum<?> type, ExecutionHandlerContext context) {
-    return context.getRegionProvider().getQuery(key, type);
-  }
-
   protected boolean removeEntry(ByteArrayWrapper key, RedisDataType type,
       ExecutionHandlerContext context) {
     if (type == null || type == RedisDataType.REDIS_PROTECTED)
@@ -100,7 +95,7 @@ public abstract class AbstractExecutor implements Executor {
     return rC.removeKey(key, type);
   }
 
-  protected int getBoundedStartIndex(int index, int size) {
+  protected static int getBoundedStartIndex(int index, int size) {
     if (size < 0)
       throw new IllegalArgumentException("Size < 0, really?");
     if (index >= 0)
@@ -109,7 +104,7 @@ public abstract class AbstractExecutor implements Executor {
       return Math.max(index + size, 0);
   }
 
-  protected int getBoundedEndIndex(int index, int size) {
+  protected static int getBoundedEndIndex(int index, int size) {
     if (size < 0)
       throw new IllegalArgumentException("Size < 0, really?");
     if (index >= 0)
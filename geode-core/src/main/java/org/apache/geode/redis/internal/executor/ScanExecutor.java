@@ -115,7 +115,9 @@ public class ScanExecutor extends AbstractScanExecutor {
     int i = -1;
     for (String key : (Collection<String>) list) {
       if (key.equals(GeodeRedisServer.REDIS_META_DATA_REGION)
-          || key.equals(GeodeRedisServer.STRING_REGION) || key.equals(GeodeRedisServer.HLL_REGION))
+          || key.equals(GeodeRedisServer.STRING_REGION) || key.equals(GeodeRedisServer.HLL_REGION)
+          || key.equals(GeodeRedisServer.SORTED_SET_REGION)
+          || key.equals(GeodeRedisServer.LIST_REGION) || key.equals(GeodeRedisServer.HASH_REGION))
         continue;
       i++;
       if (beforeCursor < cursor) {
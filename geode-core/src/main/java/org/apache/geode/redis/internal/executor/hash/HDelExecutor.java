@@ -14,13 +14,12 @@
  */
 package org.apache.geode.redis.internal.executor.hash;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
@@ -37,29 +36,25 @@ public class HDelExecutor extends HashExecutor {
       return;
     }
 
-    int numDeleted = 0;
-
     ByteArrayWrapper key = command.getKey();
-
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
+    List<byte[]> fields =
+        new ArrayList<>(commandElems.subList(START_FIELDS_INDEX, commandElems.size()));
+
+    Object numDeleted = updateHash(context, key, false, hash -> {
+      int deleted = 0;
+      for (byte[] field : fields) {
+        if (hash.remove(new ByteArrayWrapper(field)))
+          deleted++;
+      }
+      return deleted;
+    });
+
+    if (numDeleted == null) {
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
       return;
     }
-
-
-    for (int i = START_FIELDS_INDEX; i < commandElems.size(); i++) {
-      ByteArrayWrapper field = new ByteArrayWrapper(commandElems.get(i));
-      Object oldValue = keyRegion.remove(field);
-      if (oldValue != null)
-        numDeleted++;
-    }
-    if (keyRegion.isEmpty()) {
-      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_HASH);
-    }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) numDeleted));
   }
 
 }
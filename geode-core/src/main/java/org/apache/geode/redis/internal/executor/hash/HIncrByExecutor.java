@@ -16,21 +16,22 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
 public class HIncrByExecutor extends HashExecutor {
 
-  private final String ERROR_FIELD_NOT_USABLE = "The value at this field is not an integer";
+  private static final String ERROR_FIELD_NOT_USABLE =
+      "The value at this field is not an integer";
 
   private final String ERROR_INCREMENT_NOT_USABLE = "The increment on this key must be numeric";
 
-  private final String ERROR_OVERFLOW = "This incrementation cannot be performed due to overflow";
+  private static final String ERROR_OVERFLOW =
+      "This incrementation cannot be performed due to overflow";
 
   private final int FIELD_INDEX = 2;
 
@@ -58,22 +59,36 @@ public class HIncrByExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
+    byte[] field = commandElems.get(FIELD_INDEX);
 
-    byte[] byteField = commandElems.get(FIELD_INDEX);
+    Object value =
+        updateHash(context, key, true, hash -> incrementBy(hash, field, incrArray, increment));
+
+    if (value instanceof String) {
+      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), (String) value));
+      return;
+    }
+    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), (Long) value));
+  }
+
+  /**
+   * Adds the increment to the given field of the hash.
+   *
+   * @return the new value of the field, or the error message if it cannot be incremented
+   */
+  private static Object incrementBy(RedisHash hash, byte[] byteField, byte[] incrArray,
+      long increment) {
     ByteArrayWrapper field = new ByteArrayWrapper(byteField);
 
     /*
      * Put incrememnt as value if field doesn't exist
      */
 
-    ByteArrayWrapper oldValue = keyRegion.get(field);
+    ByteArrayWrapper oldValue = hash.get(field);
 
     if (oldValue == null) {
-      keyRegion.put(field, new ByteArrayWrapper(incrArray));
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), increment));
-      return;
+      hash.put(field, new ByteArrayWrapper(incrArray));
+      return increment;
     }
 
     /*
@@ -85,9 +100,7 @@ public class HIncrByExecutor extends HashExecutor {
     try {
       value = Long.parseLong(oldValue.toString());
     } catch (NumberFormatException e) {
-      command.setResponse(
-          Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_FIELD_NOT_USABLE));
-      return;
+      return ERROR_FIELD_NOT_USABLE;
     }
 
     /*
@@ -95,17 +108,14 @@ public class HIncrByExecutor extends HashExecutor {
      */
     if ((value >= 0 && increment > (Long.MAX_VALUE - value))
         || (value <= 0 && increment < (Long.MIN_VALUE - value))) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_OVERFLOW));
-      return;
+      return ERROR_OVERFLOW;
     }
 
     value += increment;
     // String newValue = String.valueOf(value);
 
-    keyRegion.put(field, new ByteArrayWrapper(Coder.longToBytes(value)));
-
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), value));
-
+    hash.put(field, new ByteArrayWrapper(Coder.longToBytes(value)));
+    return value;
   }
 
 }
@@ -16,17 +16,16 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
 public class HIncrByFloatExecutor extends HashExecutor {
 
-  private final String ERROR_FIELD_NOT_USABLE =
+  private static final String ERROR_FIELD_NOT_USABLE =
       "The value at this field cannot be incremented numerically because it is not a float";
 
   private final String ERROR_INCREMENT_NOT_USABLE =
@@ -59,22 +58,36 @@ public class HIncrByFloatExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
+    byte[] field = commandElems.get(FIELD_INDEX);
 
-    byte[] byteField = commandElems.get(FIELD_INDEX);
+    Object value =
+        updateHash(context, key, true, hash -> incrementBy(hash, field, incrArray, increment));
+
+    if (value instanceof String) {
+      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), (String) value));
+      return;
+    }
+    command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), (Double) value));
+  }
+
+  /**
+   * Adds the increment to the given field of the hash.
+   *
+   * @return the new value of the field, or the error message if it cannot be incremented
+   */
+  private static Object incrementBy(RedisHash hash, byte[] byteField, byte[] incrArray,
+      double increment) {
     ByteArrayWrapper field = new ByteArrayWrapper(byteField);
 
     /*
      * Put incrememnt as value if field doesn't exist
      */
 
-    ByteArrayWrapper oldValue = keyRegion.get(field);
+    ByteArrayWrapper oldValue = hash.get(field);
 
     if (oldValue == null) {
-      keyRegion.put(field, new ByteArrayWrapper(incrArray));
-      command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), increment));
-      return;
+      hash.put(field, new ByteArrayWrapper(incrArray));
+      return increment;
     }
 
     /*
@@ -82,23 +95,19 @@ public class HIncrByFloatExecutor extends HashExecutor {
      */
     String valueS = oldValue.toString();
     if (valueS.contains(" ")) {
-      command.setResponse(
-          Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_FIELD_NOT_USABLE));
-      return;
+      return ERROR_FIELD_NOT_USABLE;
     }
     Double value;
 
     try {
       value = Coder.stringToDouble(valueS);
     } catch (NumberFormatException e) {
-      command.setResponse(
-          Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_FIELD_NOT_USABLE));
-      return;
+      return ERROR_FIELD_NOT_USABLE;
     }
 
     value += increment;
-    keyRegion.put(field, new ByteArrayWrapper(Coder.doubleToBytes(value)));
-    command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), value));
+    hash.put(field, new ByteArrayWrapper(Coder.doubleToBytes(value)));
+    return value;
   }
 
 }
@@ -14,15 +14,12 @@
  */
 package org.apache.geode.redis.internal.executor.hash;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
@@ -41,18 +38,15 @@ public class HMSetExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
+    List<byte[]> fieldsAndValues = new ArrayList<>(commandElems.subList(2, commandElems.size()));
 
-    Map<ByteArrayWrapper, ByteArrayWrapper> map = new HashMap<ByteArrayWrapper, ByteArrayWrapper>();
-    for (int i = 2; i < commandElems.size(); i += 2) {
-      byte[] fieldArray = commandElems.get(i);
-      ByteArrayWrapper field = new ByteArrayWrapper(fieldArray);
-      byte[] value = commandElems.get(i + 1);
-      map.put(field, new ByteArrayWrapper(value));
-    }
-
-    keyRegion.putAll(map);
+    updateHash(context, key, true, hash -> {
+      for (int i = 0; i < fieldsAndValues.size(); i += 2) {
+        ByteArrayWrapper field = new ByteArrayWrapper(fieldsAndValues.get(i));
+        hash.put(field, new ByteArrayWrapper(fieldsAndValues.get(i + 1)));
+      }
+      return null;
+    });
 
     command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
 
@@ -16,13 +16,11 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
@@ -30,6 +28,7 @@ import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.executor.AbstractScanExecutor;
 
 public class HScanExecutor extends AbstractScanExecutor {
@@ -44,11 +43,9 @@ public class HScanExecutor extends AbstractScanExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider().getRegion(key);
     checkDataType(key, RedisDataType.REDIS_HASH, context);
-    if (keyRegion == null) {
+    RedisHash hash = context.getRegionProvider().getHashRegion().get(key);
+    if (hash == null) {
       command.setResponse(
           Coder.getScanResponse(context.getByteBufAllocator(), new ArrayList<String>()));
       return;
@@ -119,7 +116,7 @@ public class HScanExecutor extends AbstractScanExecutor {
     }
 
     List<Object> returnList =
-        getIteration(new HashSet(keyRegion.entrySet()), matchPattern, count, cursor);
+        getIteration(hash.entries(), matchPattern, count, cursor);
 
     command.setResponse(Coder.getScanResponse(context.getByteBufAllocator(), returnList));
   }
@@ -16,14 +16,12 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
 
 public class HSetExecutor extends HashExecutor implements Extendable {
 
@@ -44,22 +42,19 @@ public class HSetExecutor extends HashExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
-
-    byte[] byteField = commandElems.get(FIELD_INDEX);
-    ByteArrayWrapper field = new ByteArrayWrapper(byteField);
-
+    byte[] field = commandElems.get(FIELD_INDEX);
     byte[] value = commandElems.get(VALUE_INDEX);
+    boolean onlySetOnAbsent = onlySetOnAbsent();
 
-    Object oldValue;
-
-    if (onlySetOnAbsent())
-      oldValue = keyRegion.putIfAbsent(field, new ByteArrayWrapper(value));
-    else
-      oldValue = keyRegion.put(field, new ByteArrayWrapper(value));
+    Object added = updateHash(context, key, true, hash -> {
+      ByteArrayWrapper hashField = new ByteArrayWrapper(field);
+      if (onlySetOnAbsent && hash.containsKey(hashField)) {
+        return false;
+      }
+      return hash.put(hashField, new ByteArrayWrapper(value));
+    });
 
-    if (oldValue == null)
+    if ((Boolean) added)
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NEW_FIELD));
     else
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), EXISTING_FIELD));
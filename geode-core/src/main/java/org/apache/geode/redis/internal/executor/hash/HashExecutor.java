@@ -18,23 +18,37 @@ import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisDataUpdate;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
+/**
+ * Hashes are kept as {@link RedisHash} values of the hash {@link Region}. An executor changes a
+ * hash with {@link #updateHash}, which makes the change on the member that hosts the primary copy
+ * of the key, so that commands run on different members do not each change their own copy.
+ */
 public abstract class HashExecutor extends AbstractExecutor {
 
   protected final int FIELD_INDEX = 2;
 
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider()
-        .getOrCreateRegion(key, type, context);
+  protected Region<ByteArrayWrapper, RedisHash> getHashRegion(ExecutionHandlerContext context) {
+    return context.getRegionProvider().getHashRegion();
+  }
+
+  protected RedisHash getHash(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    return getHashRegion(context).get(key);
   }
 
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getRegion(ExecutionHandlerContext context,
-      ByteArrayWrapper key) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider().getRegion(key);
+  /**
+   * Runs the given update on the hash of the given key on the member that hosts the primary copy of
+   * the key. The key is removed if the hash becomes empty.
+   *
+   * @param create whether to create an empty hash if the key does not exist
+   * @return the reply of the update, or null if the key does not exist and was not created
+   */
+  protected Object updateHash(ExecutionHandlerContext context, ByteArrayWrapper key,
+      boolean create, RedisDataUpdate<RedisHash> update) {
+    return context.getRegionProvider().updateKey(key, RedisDataType.REDIS_HASH, create, update);
   }
 
 }
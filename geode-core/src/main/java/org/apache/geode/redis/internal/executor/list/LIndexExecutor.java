@@ -16,17 +16,13 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LIndexExecutor extends ListExecutor {
 
@@ -45,15 +41,13 @@ public class LIndexExecutor extends ListExecutor {
     byte[] indexArray = commandElems.get(2);
 
     checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisList list = getList(context, key);
 
-    if (keyRegion == null) {
+    if (list == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-
     Integer redisIndex;
 
     try {
@@ -68,6 +62,7 @@ public class LIndexExecutor extends ListExecutor {
      * negative values count from the tail
      */
 
+    int listSize = list.size();
     if (redisIndex < 0)
       // Since the redisIndex is negative here, this will reset it to be a standard 0 based index
       redisIndex = listSize + redisIndex;
@@ -82,37 +77,14 @@ public class LIndexExecutor extends ListExecutor {
     }
 
     /*
-     * Now we must get that element from the region
+     * Now we must get that element from the list, which is null if the index is past the tail
      */
-    Struct entry;
-    try {
-      entry = getEntryAtIndex(context, key, redisIndex);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    if (entry == null) {
+    byte[] value = list.get(redisIndex);
+    if (value == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    Object[] entryArray = entry.getFieldValues();
-    ByteArrayWrapper valueWrapper = (ByteArrayWrapper) entryArray[1];
-    command.setResponse(
-        Coder.getBulkStringResponse(context.getByteBufAllocator(), valueWrapper.toBytes()));
-  }
-
-  private Struct getEntryAtIndex(ExecutionHandlerContext context, ByteArrayWrapper key, int index)
-      throws Exception {
-
-    Query query = getQuery(key, ListQuery.LINDEX, context);
-
-    Object[] params = {Integer.valueOf(index + 1)};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    if (results == null || results.size() == 0 || results.size() <= index)
-      return null;
-    else
-      return (Struct) results.asList().get(index);
+    command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), value));
   }
 }
@@ -16,17 +16,13 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LRangeExecutor extends ListExecutor {
 
@@ -50,14 +46,14 @@ public class LRangeExecutor extends ListExecutor {
 
 
     checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisList list = getList(context, key);
 
-    if (keyRegion == null) {
+    if (list == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    int listSize = list.size();
     if (listSize == 0) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
@@ -82,32 +78,11 @@ public class LRangeExecutor extends ListExecutor {
     redisStop = Math.min(redisStop, listSize - 1);
 
 
-    List<Struct> range;
-    try {
-      range = getRange(context, key, redisStart, redisStop, keyRegion);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    List<ByteArrayWrapper> range = list.range(redisStart, redisStop + 1);
 
-    if (range == null)
+    if (range.isEmpty())
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
     else
-      command.setResponse(
-          Coder.getBulkStringArrayResponseOfValues(context.getByteBufAllocator(), range));
-  }
-
-  private List<Struct> getRange(ExecutionHandlerContext context, ByteArrayWrapper key, int start,
-      int stop, Region r) throws Exception {
-
-    Query query = getQuery(key, ListQuery.LRANGE, context);
-
-    Object[] params = {Integer.valueOf(stop + 1)};
-    SelectResults<Struct> results = (SelectResults<Struct>) query.execute(params);
-    int size = results.size();
-    if (results == null || size <= start) {
-      return null;
-    }
-
-    return results.asList().subList(start, size);
+      command.setResponse(Coder.getBulkStringArrayResponse(context.getByteBufAllocator(), range));
   }
 }
@@ -16,17 +16,11 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.executor.ListQuery;
 
 public class LRemExecutor extends ListExecutor {
 
@@ -49,15 +43,6 @@ public class LRemExecutor extends ListExecutor {
 
     int count;
 
-
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
-      return;
-    }
-
     try {
       count = Coder.bytesToInt(countArray);
     } catch (NumberFormatException e) {
@@ -65,51 +50,13 @@ public class LRemExecutor extends ListExecutor {
       return;
     }
 
-    List<Struct> removeList;
-    try {
-      removeList = getRemoveList(context, key, new ByteArrayWrapper(value), count);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    Object numRemoved = updateList(context, key, false, list -> list.remove(count, value));
 
-    int numRemoved = 0;
-
-    if (removeList == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
+    if (numRemoved == null) {
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
       return;
     }
-
-    for (Struct entry : removeList) {
-      Integer removeKey = (Integer) entry.getFieldValues()[0];
-      Object oldVal = keyRegion.remove(removeKey);
-      if (oldVal != null)
-        numRemoved++;
-    }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
-  }
-
-  private List<Struct> getRemoveList(ExecutionHandlerContext context, ByteArrayWrapper key,
-      ByteArrayWrapper value, int count) throws Exception {
-    Object[] params;
-    Query query;
-    if (count > 0) {
-      query = getQuery(key, ListQuery.LREMG, context);
-      params = new Object[] {value, Integer.valueOf(count)};
-    } else if (count < 0) {
-      query = getQuery(key, ListQuery.LREML, context);
-      params = new Object[] {value, Integer.valueOf(-count)};
-    } else {
-      query = getQuery(key, ListQuery.LREME, context);
-      params = new Object[] {value};
-    }
-
-
-    SelectResults<Struct> results = (SelectResults<Struct>) query.execute(params);
-
-    if (results == null || results.isEmpty()) {
-      return null;
-    }
-
-    return results.asList();
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) numRemoved));
   }
 }
@@ -16,16 +16,11 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.executor.ListQuery;
 
 public class LSetExecutor extends ListExecutor {
 
@@ -51,15 +46,6 @@ public class LSetExecutor extends ListExecutor {
 
     int index;
 
-
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
-      return;
-    }
-
     try {
       index = Coder.bytesToInt(indexArray);
     } catch (NumberFormatException e) {
@@ -67,42 +53,13 @@ public class LSetExecutor extends ListExecutor {
       return;
     }
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-    if (index < 0)
-      index += listSize;
-    if (index < 0 || index > listSize) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
-      return;
-    }
+    Object set = updateList(context, key, false,
+        list -> list.set(index < 0 ? index + list.size() : index, value));
 
-    Integer indexKey;
-    try {
-      indexKey = getIndexKey(context, key, index);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    if (indexKey == null) {
+    if (!Boolean.TRUE.equals(set)) {
       command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
       return;
     }
-    if (index == listSize)
-      indexKey++;
-    keyRegion.put(indexKey, new ByteArrayWrapper(value));
     command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
   }
-
-  private Integer getIndexKey(ExecutionHandlerContext context, ByteArrayWrapper key, int index)
-      throws Exception {
-    Query query = getQuery(key, ListQuery.LSET, context);
-
-    Object[] params = {Integer.valueOf(index + 1)};
-
-    SelectResults<Integer> results = (SelectResults<Integer>) query.execute(params);
-    int size = results.size();
-    if (results == null || size == 0) {
-      return null;
-    }
-
-    return results.asList().get(size - 1);
-  }
 }
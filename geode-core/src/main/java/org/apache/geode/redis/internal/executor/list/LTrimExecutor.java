@@ -16,16 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisList;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.executor.ListQuery;
 
 public class LTrimExecutor extends ListExecutor {
 
@@ -51,22 +47,6 @@ public class LTrimExecutor extends ListExecutor {
     int redisStart;
     int redisStop;
 
-
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command
-          .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_KEY_NOT_EXISTS));
-      return;
-    }
-
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-    if (listSize == 0) {
-      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-      return;
-    }
-
     try {
       redisStart = Coder.bytesToInt(startArray);
       redisStop = Coder.bytesToInt(stopArray);
@@ -75,49 +55,28 @@ public class LTrimExecutor extends ListExecutor {
       return;
     }
 
-    redisStart = getBoundedStartIndex(redisStart, listSize);
-    redisStop = getBoundedEndIndex(redisStop, listSize);
-    redisStart = Math.min(redisStart, listSize - 1);
-    redisStop = Math.min(redisStop, listSize - 1);
+    Object trimmed =
+        updateList(context, key, false, list -> trim(list, redisStart, redisStop));
 
-    if (redisStart == 0 && redisStop == listSize - 1) {
-      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-      return;
-    } else if (redisStart == 0 && redisStop < redisStart) {
-      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_LIST);
-      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
+    if (trimmed == null) {
+      command
+          .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_KEY_NOT_EXISTS));
       return;
     }
-
-    List<Integer> keepList;
-    try {
-      keepList = getRange(context, key, redisStart, redisStop, keyRegion);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
-    for (Object keyElement : keyRegion.keySet()) {
-      if (!keepList.contains(keyElement) && keyElement instanceof Integer)
-        keyRegion.remove(keyElement);
-    }
-
-    // Reset indexes in meta data region
-    keyRegion.put("head", keepList.get(0));
-    keyRegion.put("tail", keepList.get(keepList.size() - 1));
     command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
   }
 
-  private List<Integer> getRange(ExecutionHandlerContext context, ByteArrayWrapper key, int start,
-      int stop, Region r) throws Exception {
-    Query query = getQuery(key, ListQuery.LTRIM, context);
-
-    Object[] params = {Integer.valueOf(stop + 1)};
-
-    SelectResults<Integer> results = (SelectResults<Integer>) query.execute(params);
-    if (results == null || results.size() <= start) {
-      return null;
+  /**
+   * Keeps the elements from the given Redis start index to the given Redis stop index, both
+   * inclusive and each counted from the tail if negative.
+   */
+  private static boolean trim(RedisList list, int redisStart, int redisStop) {
+    int listSize = list.size();
+    int start = Math.min(getBoundedStartIndex(redisStart, listSize), listSize - 1);
+    int stop = Math.min(getBoundedEndIndex(redisStop, listSize), listSize - 1);
+    if (start != 0 || stop != listSize - 1) {
+      list.trim(start, stop + 1);
     }
-
-    return results.asList().subList(start, results.size());
+    return true;
   }
 }
@@ -14,15 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.list;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.Coder;
 
 public abstract class PushExecutor extends PushXExecutor implements Extendable {
@@ -41,11 +40,12 @@ public abstract class PushExecutor extends PushXExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<Integer, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_LIST);
-    pushElements(key, commandElems, START_VALUES_INDEX, commandElems.size(), keyRegion, pushType(),
-        context);
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    List<byte[]> values =
+        new ArrayList<>(commandElems.subList(START_VALUES_INDEX, commandElems.size()));
+    boolean left = pushType() == ListDirection.LEFT;
+
+    int listSize = (Integer) updateList(context, key, true,
+        list -> pushElements(list, values, left));
     command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
   }
 
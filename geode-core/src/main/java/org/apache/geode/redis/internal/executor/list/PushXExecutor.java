@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisList;
 
 public abstract class PushXExecutor extends ListExecutor implements Extendable {
 
@@ -38,18 +37,31 @@ public abstract class PushXExecutor extends ListExecutor implements Extendable {
     }
 
     ByteArrayWrapper key = command.getKey();
+    byte[] value = commandElems.get(2);
+    boolean left = pushType() == ListDirection.LEFT;
 
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-    if (keyRegion == null) {
+    Object listSize = updateList(context, key, false,
+        list -> left ? list.pushLeft(value) : list.pushRight(value));
+    if (listSize == null) {
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
       return;
     }
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    pushElements(key, commandElems, 2, 3, keyRegion, pushType(), context);
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) listSize));
+  }
 
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
+  /**
+   * Pushes the given values onto the head of the list if left is true, else onto its tail.
+   *
+   * @return the size of the list after the push
+   */
+  protected static int pushElements(RedisList list, List<byte[]> values, boolean left) {
+    int listSize = list.size();
+    for (byte[] value : values) {
+      listSize = left ? list.pushLeft(value) : list.pushRight(value);
+    }
+    return listSize;
   }
 
   protected abstract ListDirection pushType();
@@ -16,28 +16,66 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisDataUpdate;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
+/**
+ * Sorted sets are kept as {@link RedisSortedSet} values of the sorted set {@link Region}. An
+ * executor changes a sorted set with {@link #updateSortedSet}, which makes the change on the member
+ * that hosts the primary copy of the key, so that commands run on different members do not each
+ * change their own copy.
+ */
 public abstract class SortedSetExecutor extends AbstractExecutor {
 
-  @Override
-  protected Region<ByteArrayWrapper, DoubleWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r = (Region<ByteArrayWrapper, DoubleWrapper>) context
-        .getRegionProvider().getOrCreateRegion(key, type, context);
-    return r;
+  protected Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion(
+      ExecutionHandlerContext context) {
+    return context.getRegionProvider().getSortedSetRegion();
+  }
+
+  protected RedisSortedSet getSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    return getSortedSetRegion(context).get(key);
+  }
+
+  /**
+   * Runs the given update on the sorted set of the given key on the member that hosts the primary
+   * copy of the key. The key is removed if the set becomes empty.
+   *
+   * @param create whether to create an empty set if the key does not exist
+   * @return the reply of the update, or null if the key does not exist and was not created
+   */
+  protected Object updateSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key,
+      boolean create, RedisDataUpdate<RedisSortedSet> update) {
+    return context.getRegionProvider().updateKey(key, RedisDataType.REDIS_SORTEDSET, create,
+        update);
+  }
+
+  /**
+   * Returns the index of the first member of the given set that is above the given minimum of a
+   * lexicographical range, where "-" is below and "+" above all members.
+   */
+  protected static int getLexStartIndex(RedisSortedSet set, ByteArrayWrapper min,
+      boolean minInclusive) {
+    if (min.equals("-"))
+      return 0;
+    if (min.equals("+"))
+      return set.size();
+    return set.countBelowMember(min, !minInclusive);
   }
 
-  protected Region<ByteArrayWrapper, DoubleWrapper> getRegion(ExecutionHandlerContext context,
-      ByteArrayWrapper key) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r =
-        (Region<ByteArrayWrapper, DoubleWrapper>) context.getRegionProvider().getRegion(key);
-    return r;
+  /**
+   * Returns the index after the last member of the given set that is below the given maximum of a
+   * lexicographical range, where "-" is below and "+" above all members.
+   */
+  protected static int getLexEndIndex(RedisSortedSet set, ByteArrayWrapper max,
+      boolean maxInclusive) {
+    if (max.equals("+"))
+      return set.size();
+    if (max.equals("-"))
+      return 0;
+    return set.countBelowMember(max, maxInclusive);
   }
 
 }
@@ -16,13 +16,10 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
 public class ZIncrByExecutor extends SortedSetExecutor {
@@ -41,9 +38,6 @@ public class ZIncrByExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
-
     ByteArrayWrapper member = new ByteArrayWrapper(commandElems.get(3));
 
     double incr;
@@ -56,21 +50,22 @@ public class ZIncrByExecutor extends SortedSetExecutor {
       return;
     }
 
-    DoubleWrapper score = keyRegion.get(member);
+    Object result = updateSortedSet(context, key, true, set -> {
+      Double score = set.getScore(member);
+      double newScore = score == null ? incr : score + incr;
+      if (Double.isNaN(newScore)) {
+        return null;
+      }
+      set.add(member, newScore);
+      return newScore;
+    });
 
-    if (score == null) {
-      keyRegion.put(member, new DoubleWrapper(incr));
-      command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), incr));
-      return;
-    }
-    double result = score.score + incr;
-    if (Double.isNaN(result)) {
+    if (result == null) {
       command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NAN));
       return;
     }
-    score.score = result;
-    keyRegion.put(member, score);
-    command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), score.score));
+    command.setResponse(
+        Coder.getBulkStringResponse(context.getByteBufAllocator(), (Double) result));
   }
 
 }
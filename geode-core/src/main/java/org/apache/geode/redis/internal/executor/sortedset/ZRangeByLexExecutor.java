@@ -16,27 +16,17 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import io.netty.buffer.ByteBuf;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.FunctionDomainException;
-import org.apache.geode.cache.query.NameResolutionException;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryInvocationTargetException;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRangeByLexExecutor extends SortedSetExecutor {
 
@@ -86,10 +76,10 @@ public class ZRangeByLexExecutor extends SortedSetExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
+    RedisSortedSet set = getSortedSet(context, key);
+    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
 
-    if (keyRegion == null) {
+    if (set == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
@@ -126,12 +116,8 @@ public class ZRangeByLexExecutor extends SortedSetExecutor {
     }
     Collection<ByteArrayWrapper> list = null;
     if (!(existsLimit && limit == 0)) {
-      try {
-        list = getRange(key, keyRegion, context, Coder.stringToByteArrayWrapper(startString),
-            Coder.stringToByteArrayWrapper(stopString), minInclusive, maxInclusive, offset, limit);
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
+      list = getRange(set, Coder.stringToByteArrayWrapper(startString),
+          Coder.stringToByteArrayWrapper(stopString), minInclusive, maxInclusive, offset, limit);
     }
     if (list == null)
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
@@ -139,62 +125,19 @@ public class ZRangeByLexExecutor extends SortedSetExecutor {
       command.setResponse(getCustomBulkStringArrayResponse(list, context));
   }
 
-  private List<ByteArrayWrapper> getRange(ByteArrayWrapper key,
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion, ExecutionHandlerContext context,
-      ByteArrayWrapper start, ByteArrayWrapper stop, boolean startInclusive, boolean stopInclusive,
-      int offset, int limit) throws FunctionDomainException, TypeMismatchException,
-      NameResolutionException, QueryInvocationTargetException {
-    if (start.equals("-") && stop.equals("+")) {
-      List<ByteArrayWrapper> l = new ArrayList<ByteArrayWrapper>(keyRegion.keySet());
-      int size = l.size();
-      Collections.sort(l);
-      if (limit == 0)
-        limit += size;
-      l = l.subList(Math.min(size, offset), Math.min(offset + limit, size));
-      return l;
-    } else if (start.equals("+") || stop.equals("-"))
-      return null;
-
-    Query query;
-    Object[] params;
-    if (start.equals("-")) {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXNINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXNINF, context);
-      }
-      params = new Object[] {stop, INFINITY_LIMIT};
-    } else if (stop.equals("+")) {
-      if (startInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXPINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXPINF, context);
-      }
-      params = new Object[] {start, INFINITY_LIMIT};
-    } else {
-      if (startInclusive) {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSTISI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSTI, context);
-        }
-      } else {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEX, context);
-        }
-      }
-      params = new Object[] {start, stop, INFINITY_LIMIT};
+  private List<ByteArrayWrapper> getRange(RedisSortedSet set, ByteArrayWrapper start,
+      ByteArrayWrapper stop, boolean startInclusive, boolean stopInclusive, int offset,
+      int limit) {
+    synchronized (set) {
+      int from = getLexStartIndex(set, start, startInclusive);
+      int to = getLexEndIndex(set, stop, stopInclusive);
+      if (from >= to)
+        return null;
+      from = (int) Math.min((long) from + offset, to);
+      if (limit > 0)
+        to = (int) Math.min((long) from + limit, to);
+      return set.members(from, to);
     }
-    if (limit > 0)
-      params[params.length - 1] = (limit + offset);
-    SelectResults<ByteArrayWrapper> results =
-        (SelectResults<ByteArrayWrapper>) query.execute(params);
-    List<ByteArrayWrapper> list = results.asList();
-    int size = list.size();
-    return list.subList(Math.min(size, offset), size);
-
   }
 
   private ByteBuf getCustomBulkStringArrayResponse(Collection<ByteArrayWrapper> items,
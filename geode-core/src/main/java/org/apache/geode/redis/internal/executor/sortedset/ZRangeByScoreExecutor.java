@@ -15,26 +15,16 @@
 package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.FunctionDomainException;
-import org.apache.geode.cache.query.NameResolutionException;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryInvocationTargetException;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
-import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRangeByScoreExecutor extends SortedSetExecutor implements Extendable {
 
@@ -98,9 +88,9 @@ public class ZRangeByScoreExecutor extends SortedSetExecutor implements Extendab
     ByteArrayWrapper key = command.getKey();
 
     checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    RedisSortedSet set = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (set == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
@@ -134,13 +124,7 @@ public class ZRangeByScoreExecutor extends SortedSetExecutor implements Extendab
       return;
     }
 
-    Collection<?> list;
-    try {
-      list = getKeys(key, keyRegion, context, start, stop, startInclusive, stopInclusive, offset,
-          limit);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    Collection<?> list = getKeys(set, start, stop, startInclusive, stopInclusive, offset, limit);
 
     if (list == null)
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
@@ -148,58 +132,28 @@ public class ZRangeByScoreExecutor extends SortedSetExecutor implements Extendab
       command.setResponse(Coder.zRangeResponse(context.getByteBufAllocator(), list, withScores));
   }
 
-  private Collection<?> getKeys(ByteArrayWrapper key,
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion, ExecutionHandlerContext context,
-      double start, double stop, boolean startInclusive, boolean stopInclusive, int offset,
-      int limit) throws FunctionDomainException, TypeMismatchException, NameResolutionException,
-      QueryInvocationTargetException {
+  private Collection<?> getKeys(RedisSortedSet set, double start, double stop,
+      boolean startInclusive, boolean stopInclusive, int offset, int limit) {
     if (start == Double.POSITIVE_INFINITY || stop == Double.NEGATIVE_INFINITY || start > stop
         || (start == stop && (!startInclusive || !stopInclusive)))
       return null;
-    if (start == Double.NEGATIVE_INFINITY && stop == Double.POSITIVE_INFINITY)
-      return new HashSet(keyRegion.entrySet());
-
-    Query query;
-    Object[] params;
-    if (isReverse()) {
-      if (startInclusive) {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZREVRBSSTISI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZREVRBSSTI, context);
-        }
-      } else {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZREVRBSSI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZREVRBS, context);
-        }
-      }
-      params = new Object[] {start, stop, INFINITY_LIMIT};
-    } else {
-      if (startInclusive) {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRBSSTISI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRBSSTI, context);
-        }
-      } else {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRBSSI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRBS, context);
-        }
+
+    synchronized (set) {
+      int from = set.countBelowScore(start, !startInclusive);
+      int to = set.countBelowScore(stop, stopInclusive);
+      if (isReverse()) {
+        int size = set.size();
+        int reverseFrom = size - to;
+        to = size - from;
+        from = reverseFrom;
       }
-      params = new Object[] {start, stop, INFINITY_LIMIT};
+      if (from + (long) offset >= to)
+        return null;
+      from += offset;
+      if (limit > 0)
+        to = (int) Math.min((long) from + limit, to);
+      return set.range(from, to, isReverse());
     }
-    if (limit > 0)
-      params[params.length - 1] = (limit + offset);
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-    if (offset < results.size())
-      return (Collection<Struct>) results.asList().subList(offset, results.size());
-    else
-      return null;
   }
 
   protected boolean isReverse() {
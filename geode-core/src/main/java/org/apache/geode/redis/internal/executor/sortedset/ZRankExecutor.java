@@ -16,18 +16,14 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRankExecutor extends SortedSetExecutor implements Extendable {
 
@@ -43,48 +39,30 @@ public class ZRankExecutor extends SortedSetExecutor implements Extendable {
     ByteArrayWrapper key = command.getKey();
 
     checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    RedisSortedSet set = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (set == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
     ByteArrayWrapper member = new ByteArrayWrapper(commandElems.get(2));
 
-    DoubleWrapper value = keyRegion.get(member);
+    int rank;
+    synchronized (set) {
+      rank = set.rank(member);
+      if (rank >= 0 && isReverse())
+        rank = set.size() - 1 - rank;
+    }
 
-    if (value == null) {
+    if (rank < 0) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    int rank;
-    try {
-      rank = getRange(context, key, member, value);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
     command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), rank));
   }
 
-  private int getRange(ExecutionHandlerContext context, ByteArrayWrapper key,
-      ByteArrayWrapper member, DoubleWrapper valueWrapper) throws Exception {
-    Query query;
-    if (isReverse())
-      query = getQuery(key, SortedSetQuery.ZREVRANK, context);
-    else
-      query = getQuery(key, SortedSetQuery.ZRANK, context);
-
-    Object[] params = {valueWrapper.score, valueWrapper.score, member};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    return (Integer) results.asList().get(0);
-
-  }
-
   protected boolean isReverse() {
     return false;
   }
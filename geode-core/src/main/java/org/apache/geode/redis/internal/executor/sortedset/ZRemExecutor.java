@@ -14,15 +14,13 @@
  */
 package org.apache.geode.redis.internal.executor.sortedset;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
-import org.apache.geode.redis.internal.RedisDataType;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
 public class ZRemExecutor extends SortedSetExecutor {
@@ -38,25 +36,22 @@ public class ZRemExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    List<byte[]> members = new ArrayList<>(commandElems.subList(2, commandElems.size()));
 
-    if (keyRegion == null) {
+    Object numDeletedMembers = updateSortedSet(context, key, false, set -> {
+      int deleted = 0;
+      for (byte[] member : members) {
+        if (set.remove(new ByteArrayWrapper(member)))
+          deleted++;
+      }
+      return deleted;
+    });
+
+    if (numDeletedMembers == null) {
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
       return;
     }
-
-    int numDeletedMembers = 0;
-
-    for (int i = 2; i < commandElems.size(); i++) {
-      byte[] memberArray = commandElems.get(i);
-      ByteArrayWrapper member = new ByteArrayWrapper(memberArray);
-      Object oldVal = keyRegion.remove(member);
-      if (oldVal != null)
-        numDeletedMembers++;
-    }
-    if (keyRegion.isEmpty())
-      context.getRegionProvider().removeKey(key);
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeletedMembers));
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) numDeletedMembers));
   }
 }
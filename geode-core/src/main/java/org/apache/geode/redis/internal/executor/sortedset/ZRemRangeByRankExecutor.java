@@ -16,19 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.Region.Entry;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRemRangeByRankExecutor extends SortedSetExecutor {
 
@@ -48,14 +41,6 @@ public class ZRemRangeByRankExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NONE_REMOVED));
-      return;
-    }
-
     int startRank;
     int stopRank;
 
@@ -67,55 +52,32 @@ public class ZRemRangeByRankExecutor extends SortedSetExecutor {
       return;
     }
 
-    int sSetSize = keyRegion.size();
-
-    startRank = getBoundedStartIndex(startRank, sSetSize);
-    stopRank = getBoundedEndIndex(stopRank, sSetSize);
-    if (stopRank > sSetSize - 1)
-      stopRank = sSetSize - 1;
+    Object numRemoved =
+        updateSortedSet(context, key, false, set -> removeRange(set, startRank, stopRank));
 
-    if (startRank > stopRank) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
+    if (numRemoved == null) {
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NONE_REMOVED));
       return;
     }
-
-    int numRemoved = 0;
-    List<?> removeList = null;
-    try {
-      if (startRank == 0 && stopRank == sSetSize - 1) {
-        numRemoved = keyRegion.size();
-        context.getRegionProvider().removeKey(key);
-      } else {
-        removeList = getRemoveKeys(context, key, startRank, stopRank);
-      }
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
-    if (removeList != null) {
-      for (Object entry : removeList) {
-        ByteArrayWrapper removeKey;
-        if (entry instanceof Entry)
-          removeKey = (ByteArrayWrapper) ((Entry<?, ?>) entry).getKey();
-        else
-          removeKey = (ByteArrayWrapper) ((Struct) entry).getFieldValues()[0];
-        Object oldVal = keyRegion.remove(removeKey);
-        if (oldVal != null)
-          numRemoved++;
-      }
-      if (keyRegion.isEmpty())
-        context.getRegionProvider().removeKey(key);
-    }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) numRemoved));
   }
 
-  private List<?> getRemoveKeys(ExecutionHandlerContext context, ByteArrayWrapper key,
-      int startRank, int stopRank) throws Exception {
-    Query query = getQuery(key, SortedSetQuery.ZREMRANGEBYRANK, context);
-    Object[] params = {stopRank + 1};
+  /**
+   * Removes the members from the given start rank to the given stop rank, both inclusive and each
+   * counted from the highest rank if negative.
+   *
+   * @return the number of members removed
+   */
+  private static int removeRange(RedisSortedSet set, int startRank, int stopRank) {
+    int sSetSize = set.size();
 
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
+    int start = getBoundedStartIndex(startRank, sSetSize);
+    int stop = Math.min(getBoundedEndIndex(stopRank, sSetSize), sSetSize - 1);
 
-    return results.asList().subList(startRank, stopRank + 1);
+    if (start > stop) {
+      return 0;
+    }
+    return set.removeRange(start, stop + 1);
   }
 }
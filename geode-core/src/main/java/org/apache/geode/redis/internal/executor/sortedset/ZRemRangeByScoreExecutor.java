@@ -14,22 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.sortedset;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Map.Entry;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
 
 public class ZRemRangeByScoreExecutor extends SortedSetExecutor {
 
@@ -49,14 +41,6 @@ public class ZRemRangeByScoreExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
-      return;
-    }
-
     boolean startInclusive = true;
     boolean stopInclusive = true;
     double start;
@@ -83,63 +67,25 @@ public class ZRemRangeByScoreExecutor extends SortedSetExecutor {
       return;
     }
 
-    int numRemoved = 0;
-
-    Collection<?> removeList = null;
-    try {
-      if (start == Double.NEGATIVE_INFINITY && stop == Double.POSITIVE_INFINITY && startInclusive
-          && stopInclusive) {
-        numRemoved = keyRegion.size();
-        context.getRegionProvider().removeKey(key);
-      } else {
-        removeList = getKeys(context, key, keyRegion, start, stop, startInclusive, stopInclusive);
-      }
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
-    if (removeList != null) {
-      for (Object entry : removeList) {
-        ByteArrayWrapper remove = null;
-        if (entry instanceof Entry)
-          remove = (ByteArrayWrapper) ((Entry<?, ?>) entry).getKey();
-        else if (entry instanceof Struct)
-          remove = (ByteArrayWrapper) ((Struct) entry).getFieldValues()[0];
-        Object oldVal = keyRegion.remove(remove);
-        if (oldVal != null)
-          numRemoved++;
-        if (keyRegion.isEmpty())
-          context.getRegionProvider().removeKey(key);
-      }
+    if (start == Double.POSITIVE_INFINITY || stop == Double.NEGATIVE_INFINITY || start > stop) {
+      checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
+      return;
     }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
-  }
 
-  private Collection<?> getKeys(ExecutionHandlerContext context, ByteArrayWrapper key,
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion, double start, double stop,
-      boolean startInclusive, boolean stopInclusive) throws Exception {
-    if (start == Double.POSITIVE_INFINITY || stop == Double.NEGATIVE_INFINITY || (start > stop))
-      return null;
+    boolean fromExclusive = !startInclusive;
+    boolean toInclusive = stopInclusive;
+    Object numRemoved = updateSortedSet(context, key, false, set -> {
+      int from = set.countBelowScore(start, fromExclusive);
+      int to = set.countBelowScore(stop, toInclusive);
+      return set.removeRange(from, to);
+    });
 
-    Query query;
-    Object[] params;
-    if (startInclusive) {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRBSSTISI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRBSSTI, context);
-      }
-    } else {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRBSSI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRBS, context);
-      }
+    if (numRemoved == null) {
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
+      return;
     }
-    params = new Object[] {start, stop, INFINITY_LIMIT};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    return (Collection<?>) results.asList();
+    command.setResponse(
+        Coder.getIntegerResponse(context.getByteBufAllocator(), (Integer) numRemoved));
   }
 }
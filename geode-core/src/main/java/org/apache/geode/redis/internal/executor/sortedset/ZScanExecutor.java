@@ -16,13 +16,11 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
@@ -31,6 +29,7 @@ import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.executor.AbstractScanExecutor;
 
 public class ZScanExecutor extends AbstractScanExecutor {
@@ -46,10 +45,9 @@ public class ZScanExecutor extends AbstractScanExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-        (Region<ByteArrayWrapper, DoubleWrapper>) context.getRegionProvider().getRegion(key);
+    RedisSortedSet set = context.getRegionProvider().getSortedSetRegion().get(key);
     checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    if (keyRegion == null) {
+    if (set == null) {
       command.setResponse(
           Coder.getScanResponse(context.getByteBufAllocator(), new ArrayList<String>()));
       return;
@@ -114,9 +112,8 @@ public class ZScanExecutor extends AbstractScanExecutor {
       return;
     }
 
-    List<ByteArrayWrapper> returnList =
-        (List<ByteArrayWrapper>) getIteration(new HashSet(keyRegion.entrySet()), matchPattern,
-            count, cursor);
+    List<ByteArrayWrapper> returnList = (List<ByteArrayWrapper>) getIteration(
+        set.range(0, Integer.MAX_VALUE, false), matchPattern, count, cursor);
 
     command.setResponse(Coder.getScanResponse(context.getByteBufAllocator(), returnList));
   }
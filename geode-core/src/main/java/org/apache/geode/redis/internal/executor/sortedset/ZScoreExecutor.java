@@ -16,14 +16,13 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZScoreExecutor extends SortedSetExecutor {
 
@@ -40,19 +39,19 @@ public class ZScoreExecutor extends SortedSetExecutor {
     ByteArrayWrapper member = new ByteArrayWrapper(commandElems.get(2));
 
     checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    RedisSortedSet set = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (set == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
-    DoubleWrapper score = keyRegion.get(member);
+    Double score = set.getScore(member);
     if (score == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
-    command
-        .setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), score.toString()));
+    command.setResponse(
+        Coder.getBulkStringResponse(context.getByteBufAllocator(), Coder.doubleToString(score)));
   }
 
 }
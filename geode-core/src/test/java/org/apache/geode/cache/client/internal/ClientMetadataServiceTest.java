@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.distributed.internal.ServerLocation;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegionHelper;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category({UnitTest.class, ClientServerTest.class})
+public class ClientMetadataServiceTest {
+
+  private static final int BUCKETS = 4;
+
+  private final ServerLocation server1 = new ServerLocation("host1", 40401);
+  private final ServerLocation server2 = new ServerLocation("host2", 40402);
+
+  private ClientMetadataService service;
+  private ClientPartitionAdvisor advisor;
+  private LocalRegion region;
+  private List<Integer> keys;
+
+  @Before
+  public void setUp() {
+    Cache cache = mock(Cache.class);
+    service = spy(new ClientMetadataService(cache));
+    advisor = mock(ClientPartitionAdvisor.class);
+    region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/region");
+    when(advisor.getTotalNumBuckets()).thenReturn(BUCKETS);
+    when(advisor.adviseRandomServerLocation()).thenReturn(server2);
+    doReturn(advisor).when(service).getClientPartitionAdvisor("/region");
+    doNothing().when(service).scheduleGetPRMetaData(any(LocalRegion.class), anyBoolean());
+
+    keys = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      keys.add(i);
+    }
+  }
+
+  @Test
+  public void groupsKeysByPrimaryOfTheirBucket() {
+    when(advisor.advisePrimaryServerLocation(0)).thenReturn(server1);
+    when(advisor.advisePrimaryServerLocation(1)).thenReturn(server2);
+    when(advisor.advisePrimaryServerLocation(2)).thenReturn(server1);
+    when(advisor.advisePrimaryServerLocation(3)).thenReturn(server2);
+
+    Map<ServerLocation, HashSet> serverToKeys = service.getServerToBulkKeysMap(keys, region);
+
+    assertThat(serverToKeys).containsOnlyKeys(server1, server2);
+    assertThat(serverToKeys.get(server1)).containsOnlyElementsOf(keysOfBuckets(0, 2));
+    assertThat(serverToKeys.get(server2)).containsOnlyElementsOf(keysOfBuckets(1, 3));
+    assertThat(serverToKeys.get(server1).size() + serverToKeys.get(server2).size())
+        .isEqualTo(keys.size());
+    verify(service, never()).scheduleGetPRMetaData(any(LocalRegion.class), anyBoolean());
+  }
+
+  @Test
+  public void sendsOnlyKeysOfBucketsWithoutKnownPrimaryToRandomServer() {
+    when(advisor.advisePrimaryServerLocation(0)).thenReturn(server1);
+    when(advisor.advisePrimaryServerLocation(2)).thenReturn(server1);
+
+    Map<ServerLocation, HashSet> serverToKeys = service.getServerToBulkKeysMap(keys, region);
+
+    assertThat(serverToKeys).containsOnlyKeys(server1, server2);
+    assertThat(serverToKeys.get(server1)).containsOnlyElementsOf(keysOfBuckets(0, 2));
+    assertThat(serverToKeys.get(server2)).containsOnlyElementsOf(keysOfBuckets(1, 3))
+        .hasSize(keysOfBuckets(1, 3).size());
+    verify(service).scheduleGetPRMetaData(region, false);
+  }
+
+  @Test
+  public void sendsAllKeysToRandomServerWhenNoPrimaryIsKnown() {
+    when(advisor.advisePrimaryServerLocation(anyInt())).thenReturn(null);
+
+    Map<ServerLocation, HashSet> serverToKeys = service.getServerToBulkKeysMap(keys, region);
+
+    assertThat(serverToKeys).containsOnlyKeys(server2);
+    assertThat(serverToKeys.get(server2)).hasSize(keys.size());
+    verify(service).scheduleGetPRMetaData(region, false);
+  }
+
+  @Test
+  public void returnsNullWithoutMetadataForRegion() {
+    doReturn(null).when(service).getClientPartitionAdvisor("/region");
+
+    assertThat(service.getServerToBulkKeysMap(keys, region)).isNull();
+    verify(service).scheduleGetPRMetaData(region, false);
+  }
+
+  private List<Integer> keysOfBuckets(int... buckets) {
+    List<Integer> result = new ArrayList<>();
+    for (Integer key : keys) {
+      int bucket = PartitionedRegionHelper.getHashKey(key, BUCKETS);
+      for (int b : buckets) {
+        if (bucket == b) {
+          result.add(key);
+        }
+      }
+    }
+    return result;
+  }
+}
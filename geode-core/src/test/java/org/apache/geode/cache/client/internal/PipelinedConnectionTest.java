@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.client.ServerConnectivityException;
+import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.cache.client.internal.pooling.ConnectionManager;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class PipelinedConnectionTest {
+
+  private ConnectionManager manager;
+  private Connection pooled;
+  private PipelinedConnection pipelined;
+
+  @Before
+  public void setUp() throws Exception {
+    manager = mock(ConnectionManager.class);
+    pooled = mock(Connection.class);
+    ConnectionImpl raw = mock(ConnectionImpl.class);
+    when(raw.getCommBufferForAsyncRead()).thenReturn(ByteBuffer.allocate(64));
+    when(pooled.execute(any())).thenAnswer(invocation -> {
+      Op op = invocation.getArgument(0);
+      return op.attempt(raw);
+    });
+    pipelined = new PipelinedConnection(manager, pooled);
+  }
+
+  @After
+  public void tearDown() {
+    pipelined.close(new Exception("test finished"));
+  }
+
+  @Test
+  public void repliesCompleteFuturesInSendOrder() throws Exception {
+    AbstractOp first = mockOp("first");
+    AbstractOp second = mockOp("second");
+
+    CompletableFuture<Object> firstFuture = pipelined.execute(first);
+    CompletableFuture<Object> secondFuture = pipelined.execute(second);
+
+    assertThat(firstFuture.get(30, TimeUnit.SECONDS)).isEqualTo("first");
+    assertThat(secondFuture.get(30, TimeUnit.SECONDS)).isEqualTo("second");
+    verify(manager, never()).returnConnection(pooled);
+  }
+
+  @Test
+  public void serverExceptionFailsOnlyThatOperation() throws Exception {
+    AbstractOp failing = mock(AbstractOp.class);
+    when(failing.attemptPipelinedRead(any(), any(), anyLong()))
+        .thenThrow(new ServerOperationException("expected"));
+    AbstractOp next = mockOp("next");
+
+    CompletableFuture<Object> failed = pipelined.execute(failing);
+    CompletableFuture<Object> succeeded = pipelined.execute(next);
+
+    assertThatThrownBy(() -> failed.get(30, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(ServerOperationException.class);
+    assertThat(succeeded.get(30, TimeUnit.SECONDS)).isEqualTo("next");
+    assertThat(pipelined.isClosed()).isFalse();
+  }
+
+  @Test
+  public void readFailureClosesConnection() throws Exception {
+    AbstractOp failing = mock(AbstractOp.class);
+    when(failing.attemptPipelinedRead(any(), any(), anyLong()))
+        .thenThrow(new IOException("expected"));
+
+    CompletableFuture<Object> failed = pipelined.execute(failing);
+
+    assertThatThrownBy(() -> failed.get(30, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IOException.class);
+    verify(manager, timeout(30000)).returnConnection(eq(pooled));
+    verify(pooled).destroy();
+    assertThat(pipelined.isClosed()).isTrue();
+
+    CompletableFuture<Object> afterClose = pipelined.execute(mockOp("ignored"));
+    assertThatThrownBy(() -> afterClose.get(30, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ServerConnectivityException.class);
+  }
+
+  @Test
+  public void closeWaitsForReaderBeforeDestroyingConnection() throws Exception {
+    CountDownLatch readStarted = new CountDownLatch(1);
+    CountDownLatch socketClosed = new CountDownLatch(1);
+    AtomicBoolean readFinished = new AtomicBoolean();
+    AtomicBoolean readFinishedBeforeDestroy = new AtomicBoolean();
+    Socket socket = mock(Socket.class);
+    doAnswer(invocation -> {
+      socketClosed.countDown();
+      return null;
+    }).when(socket).close();
+    when(pooled.getSocket()).thenReturn(socket);
+    doAnswer(invocation -> {
+      readFinishedBeforeDestroy.set(readFinished.get());
+      return null;
+    }).when(pooled).destroy();
+    AbstractOp blocked = mock(AbstractOp.class);
+    when(blocked.attemptPipelinedRead(any(), any(), anyLong())).thenAnswer(invocation -> {
+      readStarted.countDown();
+      socketClosed.await(30, TimeUnit.SECONDS);
+      readFinished.set(true);
+      throw new IOException("socket closed");
+    });
+
+    CompletableFuture<Object> future = pipelined.execute(blocked);
+    assertThat(readStarted.await(30, TimeUnit.SECONDS)).isTrue();
+    pipelined.close(new Exception("expected"));
+
+    verify(pooled).destroy();
+    assertThat(readFinishedBeforeDestroy.get()).isTrue();
+    assertThatThrownBy(() -> future.get(30, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class);
+  }
+
+  private AbstractOp mockOp(Object result) throws Exception {
+    AbstractOp op = mock(AbstractOp.class);
+    when(op.attemptPipelinedRead(any(), any(), anyLong())).thenReturn(result);
+    return op;
+  }
+}
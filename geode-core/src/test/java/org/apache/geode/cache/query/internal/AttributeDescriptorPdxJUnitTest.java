@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.JSONFormatter;
+import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.pdx.WritablePdxInstance;
+import org.apache.geode.pdx.internal.PdxString;
+import org.apache.geode.test.junit.categories.IntegrationTest;
+
+@Category(IntegrationTest.class)
+public class AttributeDescriptorPdxJUnitTest {
+  private Cache cache;
+  private AttributeDescriptor name;
+  private AttributeDescriptor id;
+
+  @Before
+  public void setUp() {
+    cache = new CacheFactory().set(MCAST_PORT, "0").create();
+    MethodInvocationAuthorizer authorizer =
+        ((DefaultQueryService) cache.getQueryService()).getMethodInvocationAuthorizer();
+    name = new AttributeDescriptor(authorizer, "name");
+    id = new AttributeDescriptor(authorizer, "id");
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  public void readsFieldsOfInstancesOfDifferentTypes() throws Exception {
+    PdxInstance first = cache.createPdxInstanceFactory("Person").writeInt("id", 1)
+        .writeString("name", "one").create();
+    PdxInstance second = cache.createPdxInstanceFactory("Person").writeLong("version", 2)
+        .writeString("name", "two").writeInt("id", 2).create();
+    PdxInstance third = cache.createPdxInstanceFactory("Person").writeInt("id", 3)
+        .writeString("name", "three").create();
+
+    assertThat(id.read(first)).isEqualTo(1);
+    assertThat(id.read(second)).isEqualTo(2);
+    assertThat(id.read(third)).isEqualTo(3);
+    assertThat(name.read(first)).isEqualTo(new PdxString("one"));
+    assertThat(name.read(second)).isEqualTo(new PdxString("two"));
+    assertThat(name.read(third)).isEqualTo(new PdxString("three"));
+  }
+
+  @Test
+  public void readsMissingFieldsOfJSONAsUndefined() throws Exception {
+    PdxInstance withName = cache.createPdxInstanceFactory(JSONFormatter.JSON_CLASSNAME)
+        .writeString("name", "one").create();
+    PdxInstance withoutName =
+        cache.createPdxInstanceFactory(JSONFormatter.JSON_CLASSNAME).writeInt("id", 2).create();
+
+    assertThat(name.read(withName)).isEqualTo(new PdxString("one"));
+    assertThat(name.read(withoutName)).isEqualTo(QueryService.UNDEFINED);
+    assertThat(name.read(withName)).isEqualTo(new PdxString("one"));
+  }
+
+  @Test
+  public void readsPendingWritesOfWritableInstances() throws Exception {
+    PdxInstance instance = cache.createPdxInstanceFactory("Person").writeInt("id", 1)
+        .writeString("name", "one").create();
+    assertThat(id.read(instance)).isEqualTo(1);
+
+    WritablePdxInstance writable = instance.createWriter();
+    writable.setField("id", 5);
+
+    assertThat(id.read(writable)).isEqualTo(5);
+    assertThat(id.read(instance)).isEqualTo(1);
+  }
+
+  @Test
+  public void queriesReadFieldsOfInstancesOfDifferentTypes() throws Exception {
+    Region<Integer, PdxInstance> region =
+        cache.<Integer, PdxInstance>createRegionFactory().create("people");
+    for (int i = 0; i < 100; i++) {
+      if (i % 3 == 0) {
+        region.put(i, cache.createPdxInstanceFactory("Person").writeLong("version", i)
+            .writeString("name", "n" + i).writeInt("id", i).create());
+      } else {
+        region.put(i, cache.createPdxInstanceFactory("Person").writeInt("id", i)
+            .writeString("name", "n" + i).create());
+      }
+    }
+
+    SelectResults<?> results = (SelectResults<?>) cache.getQueryService()
+        .newQuery("SELECT p.name FROM /people p WHERE p.id >= 90").execute();
+
+    assertThat(results.asList()).containsOnly("n90", "n91", "n92", "n93", "n94", "n95", "n96",
+        "n97", "n98", "n99");
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.test.junit.categories.IntegrationTest;
+
+@Category(IntegrationTest.class)
+public class ParallelRegionScanJUnitTest {
+  private static final int ENTRIES = 2 * ParallelRegionScan.RANGE_SIZE + 5000;
+
+  private Cache cache;
+
+  @Before
+  public void setUp() {
+    cache = new CacheFactory().set(MCAST_PORT, "0").create();
+    Region<Integer, Portfolio> region = cache.<Integer, Portfolio>createRegionFactory(
+        RegionShortcut.REPLICATE).create("portfolios");
+    for (int i = 0; i < ENTRIES; i++) {
+      region.put(i, new Portfolio(i));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    ParallelRegionScan.TEST_NUM_THREADS = 0;
+    cache.close();
+  }
+
+  @Test
+  public void filtersAndProjectsLikeASequentialScan() throws Exception {
+    assertSameResults("SELECT p.ID FROM /portfolios p WHERE p.status = 'active' AND p.ID > 10");
+  }
+
+  @Test
+  public void projectsStructsLikeASequentialScan() throws Exception {
+    assertSameResults("SELECT p.ID, p.status FROM /portfolios p WHERE p.ID >= 100");
+  }
+
+  @Test
+  public void removesDuplicatesAcrossRanges() throws Exception {
+    List<?> results = assertSameResults("SELECT DISTINCT p.status FROM /portfolios p");
+    assertThat(results).containsOnly("active", "inactive").hasSize(2);
+  }
+
+  @Test
+  public void countsDistinctResultsAcrossRanges() throws Exception {
+    List<?> results =
+        assertSameResults("SELECT DISTINCT COUNT(*) FROM /portfolios p WHERE p.status = 'active'");
+    assertThat(results).containsExactly(ENTRIES / 2);
+  }
+
+  @Test
+  public void stopsAtTheLimit() throws Exception {
+    String query = "SELECT p FROM /portfolios p WHERE p.ID > 5 LIMIT 15000";
+    ParallelRegionScan.TEST_NUM_THREADS = 4;
+
+    assertThat(execute(query)).hasSize(15000);
+  }
+
+  @Test
+  public void doesNotScanOrderedQueries() throws Exception {
+    ParallelRegionScan.TEST_NUM_THREADS = 4;
+    DefaultQuery query = (DefaultQuery) cache.getQueryService()
+        .newQuery("SELECT p FROM /portfolios p ORDER BY p.ID");
+    ExecutionContext context = new QueryExecutionContext(null, cache, query);
+
+    assertThat(ParallelRegionScan.canScan(query.getSimpleSelect(), context)).isFalse();
+  }
+
+  private List<?> assertSameResults(String query) throws Exception {
+    List<?> expected = execute(query);
+    ParallelRegionScan.TEST_NUM_THREADS = 4;
+    List<?> actual = execute(query);
+
+    assertThat(actual).isNotEmpty().hasSameSizeAs(expected);
+    assertThat(actual).containsExactlyInAnyOrder(expected.toArray());
+    return actual;
+  }
+
+  private List<?> execute(String query) throws Exception {
+    return ((SelectResults<?>) cache.getQueryService().newQuery(query).execute()).asList();
+  }
+}
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.cache.query.Index;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.QueryTestUtils;
@@ -327,6 +328,39 @@ public class CompactRangeIndexJUnitTest {
     }
   }
 
+  @Test
+  public void testNumericIndexOnConstrainedRegionKeepsKeysUnboxed() throws Exception {
+    Region region = utils.getCache().createRegionFactory(RegionShortcut.REPLICATE)
+        .setValueConstraint(Portfolio.class).create("portfolios");
+    for (int i = 0; i < 1000; i++) {
+      region.put("KEY-" + i, new Portfolio(i % 100));
+    }
+    QueryService qs = utils.getCache().getQueryService();
+    String[] queries = {"SELECT * FROM /portfolios p WHERE p.ID = 42",
+        "SELECT * FROM /portfolios p WHERE p.ID > 10 AND p.ID <= 20.5",
+        "SELECT * FROM /portfolios p WHERE p.ID != 7",
+        "SELECT DISTINCT p.ID FROM /portfolios p WHERE p.ID < 5 ORDER BY p.ID desc"};
+    List<List> withoutIndex = new ArrayList<>();
+    for (String query : queries) {
+      withoutIndex.add(((SelectResults) qs.newQuery(query).execute()).asList());
+    }
+
+    index = utils.createIndex("idIndex", "p.ID", "/portfolios p");
+
+    PrimitiveKeyIndexStore indexStore =
+        (PrimitiveKeyIndexStore) ((CompactRangeIndex) index).getIndexStorage();
+    assertEquals(PrimitiveKeyIndexStore.KeyType.INT, indexStore.getKeyType());
+    assertEquals(100, indexStore.size());
+    for (int i = 0; i < queries.length; i++) {
+      List withIndex = ((SelectResults) qs.newQuery(queries[i]).execute()).asList();
+      assertEquals(queries[i], withoutIndex.get(i).size(), withIndex.size());
+      assertTrue(queries[i], withIndex.containsAll(withoutIndex.get(i)));
+    }
+    assertEquals(Arrays.asList(4, 3, 2, 1, 0),
+        ((SelectResults) qs.newQuery(queries[3]).execute()).asList());
+    assertFalse(indexStore.usesSkipList());
+  }
+
   private static class MemoryIndexStoreREToIndexElemTestHook implements TestHook {
 
     private CountDownLatch readyToStartRemoveLatch;
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.cache.query.internal.index.PrimitiveKeyIndexStore.KeyType;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class PrimitiveKeyIndexStoreJUnitTest {
+  private GemFireCacheImpl actualInstance;
+  private PrimitiveKeyIndexStore longStore;
+  private PrimitiveKeyIndexStore doubleStore;
+
+  @Before
+  public void setUp() {
+    actualInstance = GemFireCacheImpl.setInstanceForTests(mock(GemFireCacheImpl.class));
+    longStore = createStore(KeyType.LONG);
+    doubleStore = createStore(KeyType.DOUBLE);
+  }
+
+  @After
+  public void tearDown() {
+    GemFireCacheImpl.setInstanceForTests(actualInstance);
+  }
+
+  @Test
+  public void selectsKeyTypeFromExpressionType() {
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.getObjectType(long.class)))
+        .isEqualTo(KeyType.LONG);
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.getObjectType(Integer.class)))
+        .isEqualTo(KeyType.INT);
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.getObjectType(short.class)))
+        .isEqualTo(KeyType.INT);
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.getObjectType(double.class)))
+        .isEqualTo(KeyType.DOUBLE);
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.getObjectType(float.class))).isNull();
+    assertThat(PrimitiveKeyIndexStore.keyTypeFor(TypeUtils.OBJECT_TYPE)).isNull();
+  }
+
+  @Test
+  public void iteratesKeysAddedInAnyOrderInOrder() throws Exception {
+    List<Long> keys = new ArrayList<>();
+    for (long key = 0; key < 10 * PrimitiveKeyIndexStore.MAX_CHUNK_SIZE; key++) {
+      keys.add(key * 3);
+    }
+    Collections.shuffle(keys, new Random(7));
+    for (Long key : keys) {
+      longStore.addMapping(key, entry(key));
+    }
+    Collections.sort(keys);
+
+    assertThat(longStore.size()).isEqualTo(keys.size());
+    assertThat(keysOf(longStore.iterator(null))).isEqualTo(keys);
+    Collections.reverse(keys);
+    assertThat(keysOf(longStore.descendingIterator(null))).isEqualTo(keys);
+  }
+
+  @Test
+  public void comparesBoundsOfOtherNumericTypesLikeTheSkipList() throws Exception {
+    for (long key = 0; key < 100; key++) {
+      longStore.addMapping(key, entry(key));
+    }
+
+    assertThat(keysOf(longStore.iterator(10, true, 20.5, false, null))).containsExactly(10L, 11L,
+        12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+    assertThat(keysOf(longStore.iterator(95.5f, true, null))).containsExactly(96L, 97L, 98L, 99L);
+    assertThat(keysOf(longStore.descendingIterator(null, true, 3, true, null)))
+        .containsExactly(3L, 2L, 1L, 0L);
+    assertThat(keysOf(longStore.descendingIterator(97, false, null))).containsExactly(99L, 98L);
+    assertThat(keysOf(longStore.get(5))).containsExactly(5L);
+    assertThat(keysOf(longStore.get(5.5))).isEmpty();
+    assertThat(longStore.size(42.0)).isEqualTo(1);
+  }
+
+  @Test
+  public void skipsKeysToRemove() throws Exception {
+    for (long key = 0; key < 10; key++) {
+      longStore.addMapping(key, entry(key));
+    }
+
+    assertThat(keysOf(longStore.iterator(Arrays.asList(3, 5L, 7.0)))).containsExactly(0L, 1L, 2L,
+        4L, 6L, 8L, 9L);
+    assertThat(keysOf(longStore.descendingIterator(5, true, Arrays.asList(9))))
+        .containsExactly(8L, 7L, 6L, 5L);
+  }
+
+  @Test
+  public void sortsDoubleKeysLikeDoubleCompare() throws Exception {
+    List<Double> keys = Arrays.asList(Double.NEGATIVE_INFINITY, -2.5, -1.0, -0.0, 0.0,
+        Double.MIN_VALUE, 1.5, Double.POSITIVE_INFINITY, Double.NaN);
+    for (int i = keys.size() - 1; i >= 0; i--) {
+      doubleStore.addMapping(keys.get(i), entry(i));
+    }
+
+    assertThat(keysOf(doubleStore.iterator(null))).isEqualTo(keys);
+    assertThat(keysOf(doubleStore.iterator(-1, false, 1, true, null))).containsExactly(-0.0, 0.0,
+        Double.MIN_VALUE);
+  }
+
+  @Test
+  public void keepsNullAndUndefinedKeysOutOfRanges() throws Exception {
+    longStore.addMapping(1L, entry(1));
+    longStore.addMapping(IndexManager.NULL, entry(2));
+    longStore.addMapping(QueryService.UNDEFINED, entry(3));
+    longStore.addMapping(QueryService.UNDEFINED, entry(4));
+
+    assertThat(keysOf(longStore.iterator(null))).containsExactly(1L);
+    assertThat(keysOf(longStore.get(IndexManager.NULL))).containsExactly(IndexManager.NULL);
+    assertThat(keysOf(longStore.get(QueryService.UNDEFINED))).hasSize(2);
+    assertThat(longStore.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void keepsManyEntriesOfAKey() throws Exception {
+    List<RegionEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 2 * IndexManager.INDEX_ELEMARRAY_THRESHOLD; i++) {
+      entries.add(entry(i));
+      longStore.addMapping(7L, entries.get(i));
+    }
+
+    assertThat(longStore.size()).isEqualTo(1);
+    assertThat(longStore.size(7L)).isEqualTo(entries.size());
+    for (RegionEntry entry : entries) {
+      longStore.removeMapping(7L, entry);
+    }
+    assertThat(longStore.size()).isEqualTo(0);
+    assertThat(keysOf(longStore.iterator(null))).isEmpty();
+  }
+
+  @Test
+  public void movesEntriesOnUpdateAndRemovesThem() throws Exception {
+    RegionEntry entry = entry(1);
+    for (long key = 0; key < 1000; key++) {
+      longStore.addMapping(key, entry(key));
+    }
+    longStore.addMapping(5L, entry);
+
+    longStore.updateMapping(2000L, 5L, entry, null);
+    assertThat(longStore.size(5L)).isEqualTo(1);
+    assertThat(keysOf(longStore.get(2000L))).containsExactly(2000L);
+
+    // a remove with the wrong key finds the entry under its key
+    longStore.removeMapping(3L, entry);
+    assertThat(longStore.size(2000L)).isEqualTo(0);
+    for (long key = 0; key < 990; key++) {
+      longStore.removeMapping(key, entryOf(key));
+    }
+    assertThat(keysOf(longStore.iterator(null))).hasSize(10);
+  }
+
+  @Test
+  public void movesIntoTheSkipListForKeysOfAnotherType() throws Exception {
+    for (long key = 0; key < 1000; key++) {
+      longStore.addMapping(key, entry(key));
+    }
+    longStore.addMapping(IndexManager.NULL, entry(-1));
+    CloseableIterator<IndexStoreEntry> iterator = longStore.iterator(null);
+    List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      assertThat(iterator.hasNext()).isTrue();
+      keys.add(iterator.next().getDeserializedKey());
+    }
+
+    longStore.addMapping(1000, entry(1000));
+
+    assertThat(longStore.usesSkipList()).isTrue();
+    keys.addAll(keysOf(iterator));
+    assertThat(keys).hasSize(1001);
+    assertThat(longStore.size()).isEqualTo(1002);
+    assertThat(keysOf(longStore.get(IndexManager.NULL))).hasSize(1);
+    assertThat(keysOf(longStore.iterator(998L, true, null))).containsExactly(998L, 999L, 1000);
+  }
+
+  @Test
+  public void concurrentAddsAndRemovesKeepEveryKey() throws Exception {
+    int threads = 8;
+    int keysPerThread = 4 * PrimitiveKeyIndexStore.MAX_CHUNK_SIZE;
+    List<RegionEntry> threadEntries = new ArrayList<>();
+    for (long key = 0; key < threads * keysPerThread; key++) {
+      threadEntries.add(entry(key));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          // interleave the keys of the threads so that they share chunks
+          for (int i = 0; i < keysPerThread; i++) {
+            long key = (long) i * threads + thread;
+            longStore.addMapping(key, threadEntries.get((int) key));
+          }
+          for (int i = 0; i < keysPerThread; i += 2) {
+            long key = (long) i * threads + thread;
+            longStore.removeMapping(key, threadEntries.get((int) key));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<Object> expected = new ArrayList<>();
+    for (int i = 1; i < keysPerThread; i += 2) {
+      for (int thread = 0; thread < threads; thread++) {
+        expected.add((long) i * threads + thread);
+      }
+    }
+    assertThat(longStore.size()).isEqualTo(expected.size());
+    assertThat(keysOf(longStore.iterator(null))).isEqualTo(expected);
+  }
+
+  private PrimitiveKeyIndexStore createStore(KeyType keyType) {
+    PrimitiveKeyIndexStore store = new PrimitiveKeyIndexStore(mock(LocalRegion.class),
+        mock(InternalIndexStatistics.class), keyType);
+    store.setIndexOnValues(true);
+    return store;
+  }
+
+  private final List<RegionEntry> entries = new ArrayList<>();
+
+  private RegionEntry entry(Object key) {
+    RegionEntry entry = mock(RegionEntry.class);
+    when(entry.getValue(any())).thenReturn(key);
+    when(entry.getKey()).thenReturn(key);
+    entries.add(entry);
+    return entry;
+  }
+
+  private RegionEntry entryOf(Object key) {
+    for (RegionEntry entry : entries) {
+      if (key.equals(entry.getKey())) {
+        return entry;
+      }
+    }
+    throw new AssertionError("no entry for " + key);
+  }
+
+  private static List<Object> keysOf(CloseableIterator<IndexStoreEntry> iterator) {
+    List<Object> keys = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getDeserializedKey());
+    }
+    iterator.close();
+    return keys;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.distributed.internal.InternalDistributedSystem;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class ExpirationSchedulerTest {
+
+  private ExpirationScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = spy(new ExpirationScheduler(mock(InternalDistributedSystem.class)));
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.cancel();
+  }
+
+  @Test
+  public void cancellingTaskOnWheelDoesNotCountTowardsTimerPurge() {
+    EntryExpiryTask task = mock(EntryExpiryTask.class);
+    when(task.getExpiryMillis()).thenReturn(60000L);
+    when(task.cancel()).thenAnswer(invocation -> ExpirationTimerWheel.cancel(task));
+    assertThat(scheduler.addEntryExpiryTask(task)).isTrue();
+
+    assertThat(scheduler.cancelExpiryTask(task)).isTrue();
+
+    verify(scheduler, never()).incCancels();
+  }
+
+  @Test
+  public void cancellingTaskOnTimerCountsTowardsTimerPurge() {
+    ExpiryTask task = mock(ExpiryTask.class);
+    when(task.cancel()).thenReturn(true);
+
+    assertThat(scheduler.cancelExpiryTask(task)).isTrue();
+
+    verify(scheduler, times(1)).incCancels();
+  }
+
+  @Test
+  public void failedCancelIsNotCounted() {
+    ExpiryTask task = mock(ExpiryTask.class);
+
+    assertThat(scheduler.cancelExpiryTask(task)).isFalse();
+
+    verify(scheduler, never()).incCancels();
+  }
+}
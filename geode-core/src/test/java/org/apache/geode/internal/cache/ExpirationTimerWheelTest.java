@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class ExpirationTimerWheelTest {
+
+  private final ExpirationTimerWheel wheel = new ExpirationTimerWheel(1, 8);
+
+  @After
+  public void tearDown() {
+    wheel.cancel();
+  }
+
+  @Test
+  public void scheduledTaskRuns() {
+    ExpiryTask task = mock(ExpiryTask.class);
+
+    wheel.schedule(task, 5);
+
+    verify(task, timeout(30000)).run();
+  }
+
+  @Test
+  public void taskDueAfterSeveralTurnsOfTheWheelWaitsForItsDeadline() throws Exception {
+    ExpiryTask task = mock(ExpiryTask.class);
+    CountDownLatch ran = new CountDownLatch(1);
+    AtomicLong ranAt = new AtomicLong();
+    doAnswer(invocation -> {
+      ranAt.set(System.nanoTime());
+      ran.countDown();
+      return null;
+    }).when(task).run();
+
+    long scheduledAt = System.nanoTime();
+    wheel.schedule(task, 100);
+
+    assertThat(ran.await(30, TimeUnit.SECONDS)).isTrue();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(ranAt.get() - scheduledAt))
+        .isGreaterThanOrEqualTo(99);
+  }
+
+  @Test
+  public void cancelledTaskDoesNotRun() throws Exception {
+    ExpiryTask task = mock(ExpiryTask.class);
+    ExpiryTask later = mock(ExpiryTask.class);
+    wheel.schedule(task, 50);
+    wheel.schedule(later, 100);
+
+    assertThat(ExpirationTimerWheel.cancel(task)).isTrue();
+    assertThat(ExpirationTimerWheel.cancel(task)).isFalse();
+
+    verify(later, timeout(30000)).run();
+    verify(task, never()).run();
+  }
+
+  @Test
+  public void taskCancelledBeforeItIsScheduledCannotBeScheduled() {
+    ExpiryTask task = mock(ExpiryTask.class);
+
+    assertThat(ExpirationTimerWheel.cancel(task)).isFalse();
+
+    assertThatThrownBy(() -> wheel.schedule(task, 5)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void taskCannotBeScheduledTwice() {
+    ExpiryTask task = mock(ExpiryTask.class);
+    wheel.schedule(task, 1000);
+
+    assertThatThrownBy(() -> wheel.schedule(task, 5)).isInstanceOf(IllegalStateException.class);
+  }
+}
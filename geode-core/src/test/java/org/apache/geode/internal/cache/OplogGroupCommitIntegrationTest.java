@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Scope;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.persistence.UninterruptibleFileChannel;
+import org.apache.geode.test.junit.categories.IntegrationTest;
+
+/**
+ * Verifies which oplog flushes force the files to disk when group commit is enabled. Relies on
+ * each test class running in its own JVM so that the system property is read by
+ * {@link OplogGroupCommit}.
+ */
+@Category(IntegrationTest.class)
+public class OplogGroupCommitIntegrationTest extends DiskRegionTestingBase {
+
+  static {
+    System.setProperty(DistributionConfig.GEMFIRE_PREFIX + "Oplog.GROUP_COMMIT", "true");
+  }
+
+  private UninterruptibleFileChannel spyCrfChannel(Oplog oplog) {
+    UninterruptibleFileChannel spyCh = spy(oplog.getFileChannel());
+    oplog.testSetCrfChannel(spyCh);
+    return spyCh;
+  }
+
+  private Oplog getChild() {
+    return ((LocalRegion) region).getDiskRegion().getDiskStore().persistentOplogs.getChild();
+  }
+
+  @Test
+  public void asyncBackgroundFlushDoesNotForce() throws Exception {
+    assertThat(OplogGroupCommit.ENABLED).isTrue();
+    region = DiskRegionHelperFactory.getAsyncPersistOnlyRegion(cache, null);
+    UninterruptibleFileChannel spyCh = spyCrfChannel(getChild());
+
+    for (int i = 0; i < 100; i++) {
+      region.put(i, new byte[100]);
+    }
+    ((LocalRegion) region).getDiskStore().forceFlush();
+
+    verify(spyCh, never()).force(anyBoolean());
+  }
+
+  @Test
+  public void synchronousWriteForcesAtGroupCommit() throws Exception {
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, null, Scope.LOCAL);
+    UninterruptibleFileChannel spyCh = spyCrfChannel(getChild());
+
+    region.put(1, new byte[100]);
+
+    verify(spyCh, atLeastOnce()).force(false);
+  }
+
+  @Test
+  public void closeForcesAsyncWrites() throws Exception {
+    region = DiskRegionHelperFactory.getAsyncPersistOnlyRegion(cache, null);
+    Oplog oplog = getChild();
+    UninterruptibleFileChannel spyCh = spyCrfChannel(oplog);
+
+    for (int i = 0; i < 100; i++) {
+      region.put(i, new byte[100]);
+    }
+    ((LocalRegion) region).getDiskStore().forceFlush();
+    verify(spyCh, never()).force(anyBoolean());
+
+    oplog.close();
+
+    verify(spyCh, atLeastOnce()).force(false);
+  }
+}
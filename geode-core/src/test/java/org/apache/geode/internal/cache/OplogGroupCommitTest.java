@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class OplogGroupCommitTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void oneForceCoversAllWritesAppendedBeforeIt() throws Exception {
+    CountingTarget target = new CountingTarget();
+    OplogGroupCommit groupCommit = new OplogGroupCommit(target, 0, Long.MAX_VALUE);
+    List<Long> seqs = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      seqs.add(groupCommit.appended(100));
+    }
+
+    List<Future<?>> waiters = new ArrayList<>();
+    for (long seq : seqs) {
+      waiters.add(executor.submit(() -> {
+        groupCommit.awaitDurable(seq);
+        return null;
+      }));
+    }
+    for (Future<?> waiter : waiters) {
+      waiter.get(30, TimeUnit.SECONDS);
+    }
+
+    assertThat(target.forces.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void alreadyDurableWriteDoesNotForceAgain() throws Exception {
+    CountingTarget target = new CountingTarget();
+    OplogGroupCommit groupCommit = new OplogGroupCommit(target, 0, Long.MAX_VALUE);
+    long seq = groupCommit.appended(100);
+
+    groupCommit.awaitDurable(seq);
+    groupCommit.awaitDurable(seq);
+
+    assertThat(target.forces.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void failedForceFailsTheBatchButNotLaterWrites() throws Exception {
+    CountingTarget target = new CountingTarget();
+    target.failNextForce = true;
+    OplogGroupCommit groupCommit = new OplogGroupCommit(target, 0, Long.MAX_VALUE);
+    long first = groupCommit.appended(100);
+
+    assertThatThrownBy(() -> groupCommit.awaitDurable(first)).isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> groupCommit.awaitDurable(first)).isInstanceOf(IOException.class);
+
+    long second = groupCommit.appended(100);
+    groupCommit.awaitDurable(second);
+    assertThat(target.forces.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void writeOfFailedBatchStillFailsAfterNextBatchIsDurable() throws Exception {
+    CountingTarget target = new CountingTarget();
+    target.failNextForce = true;
+    OplogGroupCommit groupCommit = new OplogGroupCommit(target, 0, Long.MAX_VALUE);
+    long leaderOfFailedBatch = groupCommit.appended(100);
+    long otherWriterOfFailedBatch = groupCommit.appended(100);
+    assertThatThrownBy(() -> groupCommit.awaitDurable(leaderOfFailedBatch))
+        .isInstanceOf(IOException.class);
+
+    long writerOfNextBatch = groupCommit.appended(100);
+    groupCommit.awaitDurable(writerOfNextBatch);
+
+    assertThat(target.forces.get()).isEqualTo(1);
+    assertThatThrownBy(() -> groupCommit.awaitDurable(otherWriterOfFailedBatch))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> groupCommit.awaitDurable(leaderOfFailedBatch))
+        .isInstanceOf(IOException.class);
+    groupCommit.awaitDurable(writerOfNextBatch);
+  }
+
+  @Test
+  public void leaderStopsWaitingOnceMaxBytesArePending() throws Exception {
+    CountingTarget target = new CountingTarget();
+    OplogGroupCommit groupCommit =
+        new OplogGroupCommit(target, TimeUnit.MINUTES.toNanos(10), 200);
+    long first = groupCommit.appended(100);
+    Future<?> leader = executor.submit(() -> {
+      groupCommit.awaitDurable(first);
+      return null;
+    });
+
+    long second = groupCommit.appended(100);
+    leader.get(30, TimeUnit.SECONDS);
+    groupCommit.awaitDurable(second);
+
+    assertThat(target.forces.get()).isEqualTo(1);
+  }
+
+  private static class CountingTarget implements OplogGroupCommit.Target {
+    final AtomicInteger forces = new AtomicInteger();
+    volatile boolean failNextForce;
+
+    @Override
+    public void write() {}
+
+    @Override
+    public void force() throws IOException {
+      if (failNextForce) {
+        failNextForce = false;
+        throw new IOException("expected");
+      }
+      forces.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Scope;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.test.junit.categories.IntegrationTest;
+
+/**
+ * Tests reading crf files through memory mappings. Relies on each test class running in its own
+ * JVM so that the system property is read by {@link Oplog}.
+ */
+@Category(IntegrationTest.class)
+public class OplogMapCrfIntegrationTest extends DiskRegionTestingBase {
+
+  private static final int ENTRIES = 10;
+
+  static {
+    System.setProperty(DistributionConfig.GEMFIRE_PREFIX + "Oplog.MAP_CRF", "true");
+  }
+
+  private DiskRegionProperties getDiskRegionProperties() {
+    DiskRegionProperties props = new DiskRegionProperties();
+    props.setRolling(false);
+    props.setDiskDirs(dirs);
+    return props;
+  }
+
+  private LocalRegion createRegion() {
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, getDiskRegionProperties(),
+        Scope.LOCAL);
+    return (LocalRegion) region;
+  }
+
+  private static byte[] value(int i) {
+    byte[] value = new byte[100];
+    value[0] = (byte) i;
+    return value;
+  }
+
+  /**
+   * Writes the entries and rolls the oplog holding them so that it is done appending.
+   */
+  private Oplog populateAndRoll(LocalRegion localRegion) {
+    for (int i = 0; i < ENTRIES; i++) {
+      localRegion.put(i, value(i));
+    }
+    Oplog oplog = localRegion.getDiskStore().persistentOplogs.getChild();
+    localRegion.getDiskStore().forceRoll();
+    assertThat(localRegion.getDiskStore().persistentOplogs.getChild()).isNotSameAs(oplog);
+    return oplog;
+  }
+
+  @Test
+  public void valuesOfRolledOplogAreReadFromMapping() throws Exception {
+    assertThat(Oplog.MAP_CRF).isTrue();
+    LocalRegion localRegion = createRegion();
+    Oplog oplog = populateAndRoll(localRegion);
+    DiskStoreStats stats = localRegion.getDiskStore().getStats();
+    assertThat(oplog.testIsCrfMapped()).isFalse();
+
+    for (int i = 0; i < ENTRIES; i++) {
+      assertThat(localRegion.getValueOnDisk(i)).isEqualTo(value(i));
+    }
+
+    assertThat(oplog.testIsCrfMapped()).isTrue();
+    assertThat(stats.getMappedOplogReads()).isEqualTo(ENTRIES);
+    assertThat(stats.getMappedOplogBytes()).isGreaterThan(0);
+  }
+
+  @Test
+  public void activeOplogIsNotMapped() throws Exception {
+    LocalRegion localRegion = createRegion();
+    localRegion.put(0, value(0));
+    Oplog oplog = localRegion.getDiskStore().persistentOplogs.getChild();
+
+    assertThat(localRegion.getValueOnDisk(0)).isEqualTo(value(0));
+
+    assertThat(oplog.testIsCrfMapped()).isFalse();
+    assertThat(localRegion.getDiskStore().getStats().getMappedOplogReads()).isZero();
+  }
+
+  @Test
+  public void closeUnmapsCrf() throws Exception {
+    LocalRegion localRegion = createRegion();
+    Oplog oplog = populateAndRoll(localRegion);
+    DiskStoreStats stats = localRegion.getDiskStore().getStats();
+    localRegion.getValueOnDisk(0);
+    assertThat(oplog.testIsCrfMapped()).isTrue();
+
+    oplog.close();
+
+    assertThat(oplog.testIsCrfMapped()).isFalse();
+    assertThat(stats.getMappedOplogBytes()).isZero();
+  }
+
+  @Test
+  public void deletingEmptyOplogUnmapsCrf() throws Exception {
+    LocalRegion localRegion = createRegion();
+    Oplog oplog = populateAndRoll(localRegion);
+    DiskStoreStats stats = localRegion.getDiskStore().getStats();
+    localRegion.getValueOnDisk(0);
+    assertThat(oplog.testIsCrfMapped()).isTrue();
+
+    for (int i = 0; i < ENTRIES; i++) {
+      localRegion.destroy(i);
+    }
+
+    Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> !oplog.testIsCrfMapped());
+    assertThat(stats.getMappedOplogBytes()).isZero();
+  }
+
+  @Test
+  public void recoveryMappingIsReleasedFromStats() throws Exception {
+    LocalRegion localRegion = createRegion();
+    populateAndRoll(localRegion);
+    cache.close();
+
+    createCache();
+    localRegion = createRegion();
+    DiskStoreStats stats = localRegion.getDiskStore().getStats();
+
+    assertThat(stats.getMappedOplogBytes()).isZero();
+    for (int i = 0; i < ENTRIES; i++) {
+      assertThat(localRegion.get(i)).isEqualTo(value(i));
+    }
+  }
+}
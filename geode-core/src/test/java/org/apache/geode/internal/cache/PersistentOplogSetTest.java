@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.DiskAccessException;
+import org.apache.geode.internal.cache.DiskStoreImpl.OplogEntryIdSet;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class PersistentOplogSetTest {
+
+  /** The version vector updates made by the drfs, in the order they were applied */
+  private final List<Long> appliedUpdates = Collections.synchronizedList(new ArrayList<Long>());
+
+  private DiskStoreImpl parent;
+
+  @Before
+  public void setUp() {
+    parent = mock(DiskStoreImpl.class);
+  }
+
+  /**
+   * Returns an oplog whose drf destroys the given entry ids and makes one version vector update.
+   */
+  private Oplog oplogWithDeletes(long oplogId, long... deletedIds) {
+    return oplogWithDeletes(oplogId, null, deletedIds);
+  }
+
+  private Oplog oplogWithDeletes(long oplogId, CountDownLatch waitFor, long... deletedIds) {
+    Oplog oplog = mock(Oplog.class);
+    when(oplog.getOplogId()).thenReturn(oplogId);
+    when(oplog.getMaxRecoveredOplogEntryId()).thenReturn(oplogId * 100);
+    doCallRealMethod().when(oplog).recoverDrf(any(OplogEntryIdSet.class), anyBoolean(),
+        anyBoolean());
+    doAnswer(invocation -> {
+      if (waitFor != null) {
+        assertThat(waitFor.await(30, TimeUnit.SECONDS)).isTrue();
+      }
+      OplogEntryIdSet ids = invocation.getArgument(0);
+      for (long id : deletedIds) {
+        ids.add(id);
+      }
+      Collection<Runnable> deferredUpdates = invocation.getArgument(3);
+      Runnable update = () -> appliedUpdates.add(oplogId);
+      if (deferredUpdates == null) {
+        update.run();
+      } else {
+        deferredUpdates.add(update);
+      }
+      return 10L;
+    }).when(oplog).recoverDrf(any(OplogEntryIdSet.class), anyBoolean(), anyBoolean(), any());
+    return oplog;
+  }
+
+  private static TreeSet<Oplog> newestFirst(Oplog... oplogs) {
+    TreeSet<Oplog> result =
+        new TreeSet<>((o1, o2) -> Long.signum(o2.getOplogId() - o1.getOplogId()));
+    Collections.addAll(result, oplogs);
+    return result;
+  }
+
+  @Test
+  public void parallelRecoveryFindsSameDeletesAsSerialRecovery() {
+    OplogEntryIdSet serialIds = new OplogEntryIdSet();
+    PersistentOplogSet serialSet = new PersistentOplogSet(parent);
+    long serialBytes = serialSet.recoverDrfs(newestFirst(oplogWithDeletes(1, 10, 11),
+        oplogWithDeletes(2, 20), oplogWithDeletes(3, 30, 31)), serialIds, 1);
+    List<Long> serialUpdates = new ArrayList<>(appliedUpdates);
+    appliedUpdates.clear();
+
+    OplogEntryIdSet parallelIds = new OplogEntryIdSet();
+    PersistentOplogSet parallelSet = new PersistentOplogSet(parent);
+    long parallelBytes = parallelSet.recoverDrfs(newestFirst(oplogWithDeletes(1, 10, 11),
+        oplogWithDeletes(2, 20), oplogWithDeletes(3, 30, 31)), parallelIds, 3);
+
+    assertThat(parallelBytes).isEqualTo(serialBytes).isEqualTo(30);
+    assertThat(parallelIds.size()).isEqualTo(serialIds.size()).isEqualTo(5);
+    for (long id : new long[] {10, 11, 20, 30, 31}) {
+      assertThat(serialIds.contains(id)).isTrue();
+      assertThat(parallelIds.contains(id)).isTrue();
+    }
+    assertThat(parallelIds.contains(12)).isFalse();
+    assertThat(appliedUpdates).isEqualTo(serialUpdates).containsExactly(3L, 2L, 1L);
+    assertThat(parallelSet.getOplogEntryId()).isEqualTo(serialSet.getOplogEntryId())
+        .isEqualTo(300);
+  }
+
+  @Test
+  public void parallelRecoveryAppliesUpdatesInOplogOrderWhateverOrderReadsFinish() {
+    CountDownLatch oldestRead = new CountDownLatch(1);
+    Oplog newest = oplogWithDeletes(3, oldestRead, 30);
+    Oplog middle = oplogWithDeletes(2, oldestRead, 20);
+    Oplog oldest = oplogWithDeletes(1, 10);
+    doAnswer(invocation -> {
+      OplogEntryIdSet ids = invocation.getArgument(0);
+      ids.add(10);
+      Collection<Runnable> deferredUpdates = invocation.getArgument(3);
+      deferredUpdates.add(() -> appliedUpdates.add(1L));
+      oldestRead.countDown();
+      return 10L;
+    }).when(oldest).recoverDrf(any(OplogEntryIdSet.class), anyBoolean(), anyBoolean(), any());
+    OplogEntryIdSet deletedIds = new OplogEntryIdSet();
+
+    new PersistentOplogSet(parent).recoverDrfs(newestFirst(oldest, middle, newest), deletedIds, 3);
+
+    assertThat(deletedIds.size()).isEqualTo(3);
+    assertThat(appliedUpdates).containsExactly(3L, 2L, 1L);
+    verify(newest).recoverDrf(any(OplogEntryIdSet.class), eq(false), eq(true), any());
+    verify(middle).recoverDrf(any(OplogEntryIdSet.class), eq(false), eq(false), any());
+    verify(oldest).recoverDrf(any(OplogEntryIdSet.class), eq(false), eq(false), any());
+  }
+
+  @Test
+  public void failureReadingOneDrfIsThrownToCaller() {
+    DiskAccessException failure = new DiskAccessException("drf is corrupt");
+    Oplog failing = oplogWithDeletes(2, 20);
+    doAnswer(invocation -> {
+      throw failure;
+    }).when(failing).recoverDrf(any(OplogEntryIdSet.class), anyBoolean(), anyBoolean(), any());
+    TreeSet<Oplog> oplogs =
+        newestFirst(oplogWithDeletes(1, 10), failing, oplogWithDeletes(3, 30));
+
+    assertThatThrownBy(
+        () -> new PersistentOplogSet(parent).recoverDrfs(oplogs, new OplogEntryIdSet(), 3))
+            .isSameAs(failure);
+  }
+
+  @Test
+  public void failureReadingOneDrfIsThrownToCallerOfSerialRecovery() {
+    DiskAccessException failure = new DiskAccessException("drf is corrupt");
+    Oplog failing = oplogWithDeletes(2, 20);
+    doAnswer(invocation -> {
+      throw failure;
+    }).when(failing).recoverDrf(any(OplogEntryIdSet.class), anyBoolean(), anyBoolean(), any());
+    TreeSet<Oplog> oplogs =
+        newestFirst(oplogWithDeletes(1, 10), failing, oplogWithDeletes(3, 30));
+
+    assertThatThrownBy(
+        () -> new PersistentOplogSet(parent).recoverDrfs(oplogs, new OplogEntryIdSet(), 1))
+            .isSameAs(failure);
+  }
+}
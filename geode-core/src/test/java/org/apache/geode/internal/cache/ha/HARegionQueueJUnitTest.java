@@ -18,6 +18,7 @@ import static org.apache.geode.distributed.ConfigurationProperties.*;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.number.OrderingComparison.*;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -47,11 +48,13 @@ import org.apache.geode.cache.CacheListener;
 import org.apache.geode.cache.EntryEvent;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionExistsException;
+import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
 import org.apache.geode.cache.util.CacheListenerAdapter;
 import org.apache.geode.internal.cache.Conflatable;
 import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.RegionQueue;
+import org.apache.geode.internal.cache.tier.sockets.ClientProxyMembershipID;
 import org.apache.geode.test.dunit.ThreadUtils;
 import org.apache.geode.test.dunit.rules.DistributedRestoreSystemProperties;
 import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
@@ -143,6 +146,138 @@ public class HARegionQueueJUnitTest {
     assertThat(this.haRegionQueue.size(), is(putPerProducer * TOTAL_PUT_THREADS));
   }
 
+  /**
+   * This test does the following :<br>
+   * 1)Start a thread taking objects from a blocking queue <br>
+   * 2)Create and run producers putting to the queue while it is being drained <br>
+   * 3)verify that every object put was taken exactly once and the queue is empty
+   */
+  @Test
+  public void testConcurrentPutsAreAllTaken() throws Exception {
+    this.haRegionQueue = createHARegionQueue(true);
+    int putPerProducer = 100;
+    int totalPuts = putPerProducer * TOTAL_PUT_THREADS;
+    Set<EventID> taken = ConcurrentHashMap.newKeySet();
+    Thread consumer = new Thread(() -> {
+      try {
+        for (int i = 0; i < totalPuts; i++) {
+          Conflatable event = (Conflatable) this.haRegionQueue.take();
+          if (!taken.add(event.getEventId())) {
+            errorCollector.addError(new AssertionError("Taken twice: " + event.getEventId()));
+          }
+        }
+      } catch (Exception e) {
+        errorCollector.addError(e);
+      }
+    });
+    consumer.start();
+
+    createAndRunProducers(false, false, false, putPerProducer);
+    ThreadUtils.join(consumer, 30 * 1000);
+
+    assertThat(taken.size(), is(totalPuts));
+    assertThat(this.haRegionQueue.size(), is(0));
+  }
+
+  /**
+   * This test does the following :<br>
+   * 1)Start threads continuously reading the size of a non blocking queue <br>
+   * 2)Put objects to the queue while the readers overlap <br>
+   * 3)verify that every put is visible to size, isEmpty and peek as soon as it returns
+   */
+  @Test
+  public void testPutsAreVisibleToConcurrentReaders() throws Exception {
+    this.haRegionQueue = createHARegionQueue(false);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread[] readers = new Thread[4];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = new Thread(() -> {
+        while (!done.get()) {
+          this.haRegionQueue.size();
+          this.haRegionQueue.isEmpty();
+        }
+      });
+      readers[i].start();
+    }
+
+    try {
+      for (int i = 0; i < 1000; i++) {
+        this.haRegionQueue.put(new ConflatableObject("key" + i, "value",
+            new EventID(new byte[] {1}, 1, i), false, this.testName.getMethodName()));
+        assertThat(this.haRegionQueue.size(), is(i + 1));
+        assertThat(this.haRegionQueue.isEmpty(), is(false));
+      }
+      assertThat(this.haRegionQueue.peek(), is(notNullValue()));
+    } finally {
+      done.set(true);
+      for (Thread reader : readers) {
+        ThreadUtils.join(reader, 30 * 1000);
+      }
+    }
+  }
+
+  /**
+   * This test does the following :<br>
+   * 1)Hold the read lock of a non blocking queue <br>
+   * 2)Put an object to the queue from another thread <br>
+   * 3)verify that reading the queue again from the lock holder sees the put and does not block
+   */
+  @Test
+  public void testReadLockHolderSeesPendingPuts() throws Exception {
+    this.haRegionQueue = createHARegionQueue(false);
+    this.haRegionQueue.acquireReadLock();
+    try {
+      Thread putter = new Thread(() -> {
+        try {
+          this.haRegionQueue.put(new ConflatableObject("key", "value",
+              new EventID(new byte[] {1}, 1, 1), false, this.testName.getMethodName()));
+        } catch (Exception e) {
+          errorCollector.addError(e);
+        }
+      });
+      putter.start();
+      ThreadUtils.join(putter, 30 * 1000);
+
+      assertThat(this.haRegionQueue.size(), is(1));
+      assertThat(this.haRegionQueue.isEmpty(), is(false));
+      assertThat(this.haRegionQueue.peek(), is(notNullValue()));
+    } finally {
+      this.haRegionQueue.releaseReadLock();
+    }
+  }
+
+  /**
+   * This test does the following :<br>
+   * 1)Start a thread closing a client cq on a non blocking queue in a loop <br>
+   * 2)Put objects to the queue while the cq is being closed <br>
+   * 3)verify that neither the puts nor closeClientCq block and every put is visible
+   */
+  @Test
+  public void testCloseClientCqDuringConcurrentPuts() throws Exception {
+    this.haRegionQueue = createHARegionQueue(false);
+    ClientProxyMembershipID clientId = mock(ClientProxyMembershipID.class);
+    InternalCqQuery cq = mock(InternalCqQuery.class);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread closer = new Thread(() -> {
+      while (!done.get()) {
+        this.haRegionQueue.closeClientCq(clientId, cq);
+      }
+    });
+    closer.start();
+
+    try {
+      for (int i = 0; i < 1000; i++) {
+        this.haRegionQueue.put(new ConflatableObject("key" + i, "value",
+            new EventID(new byte[] {1}, 1, i), false, this.testName.getMethodName()));
+        assertThat(this.haRegionQueue.size(), is(i + 1));
+      }
+    } finally {
+      done.set(true);
+      ThreadUtils.join(closer, 30 * 1000);
+    }
+    assertThat(closer.isAlive(), is(false));
+  }
+
   /*
    * Test method for 'org.apache.geode.internal.cache.ha.HARegionQueue.addDispatchedMessage(Object)'
    */
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EnumListenerEvent;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class ClientUpdateMessageImplJUnitTest {
+
+  private static final int KEY_PART = 1;
+  private static final int CALLBACK_ARGUMENT_PART = 4;
+  private static final int EVENT_ID_PART = 8;
+
+  private CacheClientNotifierStats stats;
+  private EventID eventId;
+  private byte[] value;
+  private ClientUpdateMessageImpl message;
+
+  @Before
+  public void setUp() throws Exception {
+    stats = mock(CacheClientNotifierStats.class);
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/region");
+    eventId = new EventID(new byte[] {1, 2, 3}, 4, 5);
+    value = BlobHelper.serializeToBlob("value");
+    message = new ClientUpdateMessageImpl(EnumListenerEvent.AFTER_UPDATE, region, 17, value,
+        (byte) 0x01, "callback", mock(ClientProxyMembershipID.class), eventId);
+  }
+
+  @Test
+  public void clientsOfOneVersionShareTheSerializedParts() throws Exception {
+    Message first = message.getMessage(proxy(Version.CURRENT), value);
+    byte[] key = first.getPart(KEY_PART).getSerializedForm();
+    byte[] callbackArgument = first.getPart(CALLBACK_ARGUMENT_PART).getSerializedForm();
+    byte[] eventIdentifier = first.getPart(EVENT_ID_PART).getSerializedForm();
+
+    Message second = message.getMessage(proxy(Version.CURRENT), value);
+
+    assertThat(second.getPart(KEY_PART).getSerializedForm()).isSameAs(key);
+    assertThat(second.getPart(CALLBACK_ARGUMENT_PART).getSerializedForm())
+        .isSameAs(callbackArgument);
+    assertThat(second.getPart(EVENT_ID_PART).getSerializedForm()).isSameAs(eventIdentifier);
+    verify(stats).incSharedPartsEncoded();
+    verify(stats).incSharedPartsReused();
+  }
+
+  @Test
+  public void sharedPartsHoldTheSerializedFields() throws Exception {
+    Message sent = message.getMessage(proxy(Version.CURRENT), value);
+
+    assertThat(sent.getNumberOfParts()).isEqualTo(9);
+    assertThat(sent.getPart(KEY_PART).isObject()).isTrue();
+    assertThat(sent.getPart(KEY_PART).getObject()).isEqualTo(17);
+    assertThat(sent.getPart(CALLBACK_ARGUMENT_PART).getObject()).isEqualTo("callback");
+    assertThat(sent.getPart(EVENT_ID_PART).getObject()).isEqualTo(eventId);
+  }
+
+  @Test
+  public void clientsOfAnotherVersionGetTheirOwnParts() throws Exception {
+    byte[] key =
+        message.getMessage(proxy(Version.CURRENT), value).getPart(KEY_PART).getSerializedForm();
+
+    Message older = message.getMessage(proxy(Version.GFE_90), value);
+
+    assertThat(older.getPart(KEY_PART).getSerializedForm()).isNotSameAs(key);
+    assertThat(older.getPart(KEY_PART).getObject()).isEqualTo(17);
+    verify(stats, times(2)).incSharedPartsEncoded();
+  }
+
+  @Test
+  public void sizeIncludesTheSharedParts() throws Exception {
+    int sizeBefore = message.getSizeInBytes();
+
+    Message sent = message.getMessage(proxy(Version.CURRENT), value);
+
+    int partsLength = sent.getPart(KEY_PART).getLength()
+        + sent.getPart(CALLBACK_ARGUMENT_PART).getLength()
+        + sent.getPart(EVENT_ID_PART).getLength();
+    assertThat(message.getSizeInBytes()).isGreaterThan(sizeBefore + partsLength);
+  }
+
+  private CacheClientProxy proxy(Version version) {
+    CacheClientNotifier notifier = mock(CacheClientNotifier.class);
+    when(notifier.getStats()).thenReturn(stats);
+    CacheClientProxy proxy = mock(CacheClientProxy.class);
+    when(proxy.getVersion()).thenReturn(version);
+    when(proxy.getProxyID()).thenReturn(mock(ClientProxyMembershipID.class));
+    when(proxy.getCacheClientNotifier()).thenReturn(notifier);
+    return proxy;
+  }
+}
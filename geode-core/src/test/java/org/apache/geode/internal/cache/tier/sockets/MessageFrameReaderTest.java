@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.tier.MessageType;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category({UnitTest.class, ClientServerTest.class})
+public class MessageFrameReaderTest {
+
+  private static final byte[] PART = new byte[] {1, 2, 3};
+
+  @Test
+  public void assemblesMessageArrivingInSmallPieces() throws Exception {
+    TrickleChannel channel = new TrickleChannel(encodeMessage(), 5);
+    MessageFrameReader reader = new MessageFrameReader(1024, 1024);
+
+    int reads = 0;
+    while (!reader.readFrom(channel)) {
+      reads++;
+      channel.allowMore();
+    }
+
+    assertThat(reads).isGreaterThan(1);
+    Message message = new Message(1, Version.CURRENT);
+    message.setComms(mock(Socket.class), ByteBuffer.allocate(1024), mock(MessageStats.class));
+    message.setFrameChannel(reader.getFrame());
+    message.recv();
+    assertThat(message.getMessageType()).isEqualTo(MessageType.PUT);
+    assertThat(message.getNumberOfParts()).isEqualTo(1);
+    assertThat(message.getPart(0).getSerializedForm()).isEqualTo(PART);
+  }
+
+  @Test
+  public void reusesFrameBufferForConsecutiveMessages() throws Exception {
+    byte[] message = encodeMessage();
+    byte[] twoMessages = new byte[2 * message.length];
+    System.arraycopy(message, 0, twoMessages, 0, message.length);
+    System.arraycopy(message, 0, twoMessages, message.length, message.length);
+    TrickleChannel channel = new TrickleChannel(twoMessages, message.length);
+    MessageFrameReader reader = new MessageFrameReader(1024, 1024);
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(reader.readFrom(channel)).isTrue();
+      assertThat(receive(reader.getFrame()).getPart(0).getSerializedForm()).isEqualTo(PART);
+      channel.allowMore();
+    }
+  }
+
+  @Test
+  public void streamsMessageTooLargeToAssembleFromChannel() throws Exception {
+    TrickleChannel channel = new TrickleChannel(encodeMessage(), MessageFrameReader.HEADER_LENGTH);
+    MessageFrameReader reader = new MessageFrameReader(1024, MessageFrameReader.HEADER_LENGTH);
+
+    assertThat(reader.readFrom(channel)).isTrue();
+    // the worker thread reads the payload from the socket once it is blocking again
+    channel.allowMore(Integer.MAX_VALUE);
+
+    Message message = receive(reader.getFrame());
+    assertThat(message.getMessageType()).isEqualTo(MessageType.PUT);
+    assertThat(message.getPart(0).getSerializedForm()).isEqualTo(PART);
+  }
+
+  @Test
+  public void throwsEOFExceptionWhenClientCloses() throws Exception {
+    MessageFrameReader reader = new MessageFrameReader(1024, 1024);
+    ReadableByteChannel closed = new TrickleChannel(new byte[0], 0);
+
+    assertThatThrownBy(() -> reader.readFrom(closed)).isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  public void rejectsMessageLargerThanMaximum() throws Exception {
+    MessageFrameReader reader = new MessageFrameReader(4, 1024);
+
+    assertThatThrownBy(
+        () -> reader.readFrom(new TrickleChannel(encodeMessage(), Integer.MAX_VALUE)))
+            .isInstanceOf(IOException.class);
+  }
+
+  private static Message receive(ReadableByteChannel frame) throws Exception {
+    Message message = new Message(1, Version.CURRENT);
+    message.setComms(mock(Socket.class), ByteBuffer.allocate(1024), mock(MessageStats.class));
+    message.setFrameChannel(frame);
+    message.recv();
+    return message;
+  }
+
+  private static byte[] encodeMessage() {
+    int payloadLength = 5 + PART.length;
+    ByteBuffer buffer = ByteBuffer.allocate(MessageFrameReader.HEADER_LENGTH + payloadLength);
+    buffer.putInt(MessageType.PUT).putInt(payloadLength).putInt(1).putInt(-1).put((byte) 0);
+    buffer.putInt(PART.length).put((byte) 0).put(PART);
+    return buffer.array();
+  }
+
+  /**
+   * Behaves like a non-blocking channel on which a few bytes arrive at a time.
+   */
+  private static class TrickleChannel implements ReadableByteChannel {
+    private final ByteBuffer data;
+    private final int bytesPerRound;
+    private int available;
+
+    TrickleChannel(byte[] data, int bytesPerRound) {
+      this.data = ByteBuffer.wrap(data);
+      this.bytesPerRound = bytesPerRound;
+      this.available = bytesPerRound;
+    }
+
+    void allowMore() {
+      this.available = this.bytesPerRound;
+    }
+
+    void allowMore(int bytes) {
+      this.available = bytes;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      if (!this.data.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(Math.min(dst.remaining(), this.data.remaining()), this.available);
+      for (int i = 0; i < count; i++) {
+        dst.put(this.data.get());
+      }
+      this.available -= count;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
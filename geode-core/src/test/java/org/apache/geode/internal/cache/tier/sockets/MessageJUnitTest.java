@@ -17,8 +17,11 @@ package org.apache.geode.internal.cache.tier.sockets;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 
 import org.apache.geode.test.junit.categories.ClientServerTest;
 import org.junit.Before;
@@ -97,6 +100,38 @@ public class MessageJUnitTest {
     }
   }
 
+  @Test
+  public void partLargerThanBufferIsSentWithHeaderInOneGatheringWrite() throws Exception {
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    SocketChannel mockChannel = mock(SocketChannel.class);
+    when(mockChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenAnswer(invocation -> {
+      ByteBuffer[] buffers = invocation.getArgument(0);
+      long written = 0;
+      for (ByteBuffer buffer : buffers) {
+        while (buffer.hasRemaining()) {
+          sent.write(buffer.get());
+          written++;
+        }
+      }
+      return written;
+    });
+    Socket mockSocket = mock(Socket.class);
+    when(mockSocket.getChannel()).thenReturn(mockChannel);
+    Message message = new Message(1, Version.CURRENT);
+    message.setComms(mockSocket, ByteBuffer.allocate(64), mock(MessageStats.class));
+    byte[] payload = new byte[50];
+    Arrays.fill(payload, (byte) 7);
+    message.addRawPart(payload, false);
+
+    message.send();
+
+    verify(mockChannel, times(1)).write(any(ByteBuffer[].class), anyInt(), anyInt());
+    verify(mockChannel, never()).write(any(ByteBuffer.class));
+    byte[] bytes = sent.toByteArray();
+    assertEquals(17 + 5 + payload.length, bytes.length);
+    assertArrayEquals(payload, Arrays.copyOfRange(bytes, 17 + 5, bytes.length));
+  }
+
   /**
    * geode-1468: Message should clear the chunks in its Parts when performing cleanup.
    */
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.compression.CompressionException;
+import org.apache.geode.compression.Compressor;
+import org.apache.geode.compression.SnappyCompressor;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.tier.sockets.CacheServerHelper;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class GatewayBatchCompressionJUnitTest {
+
+  private static final int EVENTS = 50;
+
+  private static final String SNAPPY = SnappyCompressor.class.getName();
+
+  private static volatile boolean notLoadedInitialized;
+
+  private GatewaySenderStats stats;
+
+  @Before
+  public void setUp() {
+    stats = mock(GatewaySenderStats.class);
+  }
+
+  @Test
+  public void restoresTheEventPartsOfACompressedBatch() throws Exception {
+    Message message = createBatch(EVENTS);
+    int numberOfParts = message.getNumberOfParts();
+
+    assertThat(GatewayBatchCompression.compress(message, new SnappyCompressor(), stats)).isTrue();
+    assertThat(message.getNumberOfParts()).isEqualTo(GatewayBatchCompression.FLAGS_PART + 3);
+    verify(stats).endBatchCompression(anyLong(), anyInt(), anyInt());
+
+    GatewayBatchCompression.decompress(message, SNAPPY);
+
+    assertThat(message.getNumberOfParts()).isEqualTo(numberOfParts);
+    assertThat(message.getPart(0).getInt()).isEqualTo(EVENTS);
+    assertThat(message.getPart(1).getInt()).isEqualTo(7);
+    assertThat(message.getPart(GatewayBatchCompression.FLAGS_PART).getSerializedForm()[0])
+        .isEqualTo((byte) 1);
+    int part = GatewayBatchCompression.FLAGS_PART + 1;
+    for (int i = 0; i < EVENTS; i++) {
+      assertThat(message.getPart(part++).getInt()).isEqualTo(1);
+      assertThat(message.getPart(part++).getSerializedForm()).containsExactly((byte) 0);
+      assertThat(message.getPart(part++).getString()).isEqualTo("/region");
+      assertThat(message.getPart(part++).getObject()).isEqualTo("key" + i);
+      assertThat(message.getPart(part).isObject()).isTrue();
+      assertThat(message.getPart(part++).getObject()).isEqualTo("value of the event " + i);
+      assertThat(message.getPart(part++).getSerializedForm()).isEmpty();
+      assertThat(message.getPart(part++).getLong()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void leavesShortBatchesUncompressed() throws Exception {
+    Message message = createBatch(1);
+    int numberOfParts = message.getNumberOfParts();
+    Compressor compressor = mock(Compressor.class);
+
+    assertThat(GatewayBatchCompression.compress(message, compressor, stats)).isFalse();
+    GatewayBatchCompression.decompress(message);
+
+    verify(compressor, never()).compress(any());
+    assertThat(message.getNumberOfParts()).isEqualTo(numberOfParts);
+    assertThat(message.getPart(GatewayBatchCompression.FLAGS_PART + 3).getString())
+        .isEqualTo("/region");
+  }
+
+  @Test
+  public void loadsOnlyCompressors() {
+    assertThat(GatewayBatchCompression.getCompressor(SnappyCompressor.class.getName()))
+        .isSameAs(GatewayBatchCompression.getCompressor(SnappyCompressor.class.getName()));
+    assertThatThrownBy(() -> GatewayBatchCompression.getCompressor(String.class.getName()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> GatewayBatchCompression.getCompressor("no.such.Compressor"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void rejectsCompressorsTheReceiverDoesNotAccept() throws Exception {
+    Message message = createBatch(EVENTS);
+    GatewayBatchCompression.compress(message, new SnappyCompressor(), stats);
+    message.getPart(GatewayBatchCompression.FLAGS_PART + 1)
+        .setPartState(CacheServerHelper.toUTF(NotLoaded.class.getName()), false);
+
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message, null))
+        .isInstanceOf(CompressionException.class);
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message, "other.Compressor"))
+        .isInstanceOf(CompressionException.class);
+    assertThat(notLoadedInitialized).isFalse();
+  }
+
+  @Test
+  public void rejectsCompressedBatchesUnlessTheReceiverOptedIn() throws Exception {
+    Message message = createBatch(EVENTS);
+    GatewayBatchCompression.compress(message, new SnappyCompressor(), stats);
+
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void acceptsTheCompressorConfiguredOnTheReceiver() throws Exception {
+    Message message = createBatch(EVENTS);
+    int numberOfParts = message.getNumberOfParts();
+    GatewayBatchCompression.compress(message, new TestCompressor(), stats);
+
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message, null))
+        .isInstanceOf(CompressionException.class);
+    GatewayBatchCompression.decompress(message, TestCompressor.class.getName());
+
+    assertThat(message.getNumberOfParts()).isEqualTo(numberOfParts);
+  }
+
+  @Test
+  public void rejectsNegativePartLengths() throws Exception {
+    Message message = createCompressedBatch(1, -1);
+
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message, SNAPPY))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void rejectsPartLengthsLongerThanTheBatch() throws Exception {
+    Message message = createCompressedBatch(1, Integer.MAX_VALUE);
+
+    assertThatThrownBy(() -> GatewayBatchCompression.decompress(message, SNAPPY))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void rejectsInvalidNumbersOfParts() throws Exception {
+    assertThatThrownBy(
+        () -> GatewayBatchCompression.decompress(createCompressedBatch(-1, 1), SNAPPY))
+            .isInstanceOf(CompressionException.class);
+    assertThatThrownBy(
+        () -> GatewayBatchCompression.decompress(createCompressedBatch(1000, 1), SNAPPY))
+            .isInstanceOf(CompressionException.class);
+  }
+
+  /**
+   * Creates a batch compressed with Snappy whose compressed event parts hold the given number of
+   * parts and the given length for the first one, followed by a single byte.
+   */
+  private static Message createCompressedBatch(int numberOfEventParts, int length)
+      throws Exception {
+    HeapDataOutputStream hdos = new HeapDataOutputStream(Version.CURRENT);
+    hdos.writeInt(numberOfEventParts);
+    hdos.writeByte(0);
+    hdos.writeInt(length);
+    hdos.writeByte(1);
+    Message message = new Message(GatewayBatchCompression.FLAGS_PART + 3, Version.CURRENT);
+    message.addIntPart(1);
+    message.addIntPart(7);
+    message.addIntPart(1);
+    message.addBytesPart(new byte[] {1, GatewayBatchCompression.COMPRESSED});
+    message.addStringPart(SnappyCompressor.class.getName());
+    message.addBytesPart(new SnappyCompressor().compress(hdos.toByteArray()));
+    return message;
+  }
+
+  /**
+   * A class that must never be loaded because a batch names it.
+   */
+  public static class NotLoaded {
+    static {
+      notLoadedInitialized = true;
+    }
+  }
+
+  /**
+   * A compressor other than the built-in one, for a receiver to be configured with.
+   */
+  public static class TestCompressor implements Compressor {
+    private final Compressor delegate = new SnappyCompressor();
+
+    @Override
+    public byte[] compress(byte[] input) {
+      return delegate.compress(input);
+    }
+
+    @Override
+    public byte[] decompress(byte[] input) {
+      return delegate.decompress(input);
+    }
+  }
+
+  /**
+   * Creates a message with the parts of a batch of creates, the way the gateway sender does.
+   */
+  private static Message createBatch(int events) {
+    Message message = new Message(GatewayBatchCompression.FLAGS_PART + 1 + 7 * events,
+        Version.CURRENT);
+    message.addIntPart(events);
+    message.addIntPart(7);
+    message.addIntPart(1);
+    message.addBytesPart(new byte[] {1});
+    for (int i = 0; i < events; i++) {
+      message.addIntPart(1);
+      message.addBytesPart(new byte[] {0});
+      message.addStringPart("/region");
+      message.addObjPart("key" + i);
+      message.addObjPart("value of the event " + i);
+      message.addBytesPart(new byte[0]);
+      message.addLongPart(i);
+    }
+    return message;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.asyncqueue.AsyncEvent;
+import org.apache.geode.cache.asyncqueue.AsyncEventListener;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class GatewaySenderEventCallbackDispatcherJUnitTest {
+
+  private RecordingListener listener;
+  private AbstractGatewaySenderEventProcessor processor;
+  private GatewaySenderEventCallbackDispatcher dispatcher;
+
+  @Before
+  public void setUp() {
+    listener = new RecordingListener();
+    AbstractGatewaySender sender = mock(AbstractGatewaySender.class);
+    when(sender.getId()).thenReturn("queue");
+    when(sender.isParallel()).thenReturn(true);
+    when(sender.getAsyncEventListeners())
+        .thenReturn(Collections.<AsyncEventListener>singletonList(listener));
+    processor = mock(AbstractGatewaySenderEventProcessor.class);
+    when(processor.getSender()).thenReturn(sender);
+  }
+
+  @After
+  public void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  public void deliversTheWholeBatchAtOnceByDefault() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 0);
+    List<GatewaySenderEventImpl> batch = Arrays.asList(event(1), event(2), event(1));
+
+    assertThat(dispatcher.dispatchBatch(batch)).isTrue();
+
+    assertThat(listener.delivered).containsExactly(batch);
+  }
+
+  @Test
+  public void deliversEachBucketInOrderSeparately() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    GatewaySenderEventImpl first = event(1);
+    GatewaySenderEventImpl second = event(2);
+    GatewaySenderEventImpl third = event(1);
+    GatewaySenderEventImpl fourth = event(2);
+
+    assertThat(dispatcher.dispatchBatch(Arrays.asList(first, second, third, fourth))).isTrue();
+
+    assertThat(listener.delivered).containsOnly(Arrays.asList(first, third),
+        Arrays.asList(second, fourth));
+  }
+
+  @Test
+  public void deliversBucketsConcurrently() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    CountDownLatch bucketTwoDelivered = new CountDownLatch(1);
+    listener.beforeDelivery = events -> {
+      if (((GatewaySenderEventImpl) events.get(0)).getBucketId() == 1) {
+        return bucketTwoDelivered.await(30, TimeUnit.SECONDS);
+      }
+      bucketTwoDelivered.countDown();
+      return true;
+    };
+
+    assertThat(dispatcher.dispatchBatch(Arrays.asList(event(1), event(2)))).isTrue();
+  }
+
+  @Test
+  public void retriesOnlyTheBucketsThatFailed() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    GatewaySenderEventImpl first = event(1);
+    GatewaySenderEventImpl second = event(2);
+    List<GatewaySenderEventImpl> batch = Arrays.asList(first, second);
+    listener.beforeDelivery = events -> events.get(0) != second;
+
+    assertThat(dispatcher.dispatchBatch(batch)).isFalse();
+    listener.beforeDelivery = null;
+    listener.delivered.clear();
+    assertThat(dispatcher.dispatchBatch(batch)).isTrue();
+
+    assertThat(listener.delivered).containsExactly(Collections.singletonList(second));
+  }
+
+  @Test
+  public void retriesTheBucketsThatThrew() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    GatewaySenderEventImpl first = event(1);
+    GatewaySenderEventImpl second = event(2);
+    List<GatewaySenderEventImpl> batch = Arrays.asList(first, second);
+    listener.beforeDelivery = events -> {
+      if (events.get(0) == second) {
+        throw new IllegalStateException("database unavailable");
+      }
+      return true;
+    };
+
+    assertThatThrownBy(() -> dispatcher.dispatchBatch(batch))
+        .isInstanceOf(GatewaySenderException.class);
+    listener.beforeDelivery = null;
+    listener.delivered.clear();
+    assertThat(dispatcher.dispatchBatch(batch)).isTrue();
+
+    assertThat(listener.delivered).containsExactly(Collections.singletonList(second));
+  }
+
+  @Test
+  public void deliversAgainOnceTheBatchIdChanges() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    GatewaySenderEventImpl first = event(1);
+    GatewaySenderEventImpl second = event(2);
+    List<GatewaySenderEventImpl> batch = Arrays.asList(first, second);
+    when(processor.getBatchId()).thenReturn(7);
+    listener.beforeDelivery = events -> events.get(0) != second;
+
+    assertThat(dispatcher.dispatchBatch(batch)).isFalse();
+    listener.beforeDelivery = null;
+    listener.delivered.clear();
+    when(processor.getBatchId()).thenReturn(8);
+    assertThat(dispatcher.dispatchBatch(batch)).isTrue();
+
+    assertThat(listener.delivered).containsOnly(Collections.singletonList(first),
+        Collections.singletonList(second));
+  }
+
+  @Test
+  public void waitsForTheBucketsInFlightWhenInterrupted() throws Exception {
+    dispatcher = new GatewaySenderEventCallbackDispatcher(processor, 2);
+    GatewaySenderEventImpl first = event(1);
+    GatewaySenderEventImpl second = event(2);
+    CountDownLatch release = new CountDownLatch(1);
+    listener.beforeDelivery = events -> release.await(30, TimeUnit.SECONDS);
+    ScheduledExecutorService releaser = Executors.newSingleThreadScheduledExecutor();
+    releaser.schedule(release::countDown, 200, TimeUnit.MILLISECONDS);
+
+    boolean success;
+    boolean interrupted;
+    try {
+      Thread.currentThread().interrupt();
+      success = dispatcher.dispatchBatch(Arrays.asList(first, second));
+    } finally {
+      interrupted = Thread.interrupted();
+      releaser.shutdown();
+    }
+
+    assertThat(interrupted).isTrue();
+    assertThat(success).isTrue();
+    assertThat(listener.delivered).containsOnly(Collections.singletonList(first),
+        Collections.singletonList(second));
+  }
+
+  private static GatewaySenderEventImpl event(int bucketId) {
+    GatewaySenderEventImpl event = mock(GatewaySenderEventImpl.class);
+    when(event.getBucketId()).thenReturn(bucketId);
+    return event;
+  }
+
+  private interface Delivery {
+    boolean deliver(List events) throws Exception;
+  }
+
+  private static class RecordingListener implements AsyncEventListener {
+
+    private final List<List> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile Delivery beforeDelivery;
+
+    @Override
+    public boolean processEvents(List<AsyncEvent> events) {
+      Delivery delivery = beforeDelivery;
+      try {
+        if (delivery != null && !delivery.deliver(events)) {
+          return false;
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      delivered.add(new ArrayList<>(events));
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.memcached.GemFireMemcachedServer;
+import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
+import org.apache.geode.test.junit.categories.IntegrationTest;
+
+/**
+ * Tests how {@link ConnectionHandler} serves consecutive pipelined binary gets and sets together.
+ * The commands log through the cache of the member, so a cache is created, but most tests hand
+ * the commands a mock region to count the region operations.
+ */
+@Category(IntegrationTest.class)
+public class ConnectionHandlerBatchIntegrationTest {
+
+  private static final Charset ASCII = Charset.forName("US-ASCII");
+
+  private static final byte GET = 0x00;
+  private static final byte SET = 0x01;
+  private static final byte GETQ = 0x09;
+  private static final byte NOOP = 0x0a;
+
+  private Cache memberCache;
+
+  private Cache cache;
+
+  private Region<Object, ValueWrapper> region;
+
+  private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    memberCache = new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "").create();
+    cache = mock(Cache.class);
+    region = mock(Region.class);
+    when(cache.getRegion(GemFireMemcachedServer.REGION_NAME)).thenReturn((Region) region);
+  }
+
+  @After
+  public void tearDown() {
+    memberCache.close();
+  }
+
+  @Test
+  public void pipelinedGetsAreFetchedTogether() throws Exception {
+    Map<Object, ValueWrapper> values = new HashMap<>();
+    values.put(key("a"), value("A"));
+    values.put(key("c"), value("C"));
+    when(region.getAll(anyCollection())).thenReturn(values);
+
+    List<Response> responses = process(cache, request(GETQ, 1, "a"), request(GETQ, 2, "b"),
+        request(GETQ, 3, "c"), request(NOOP, 4, ""));
+
+    verify(region, times(1)).getAll(Arrays.asList(key("a"), key("b"), key("c")));
+    verify(region, never()).get(any());
+    // the miss on b is not answered by a quiet get
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 3, 4);
+    assertThat(responses).extracting(r -> r.opCode).containsExactly(GETQ, GETQ, NOOP);
+    assertThat(responses.get(0).value()).isEqualTo("A");
+    assertThat(responses.get(1).value()).isEqualTo("C");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void pipelinedSetsAreStoredWithOnePutAll() throws Exception {
+    List<Response> responses = process(cache, set(1, "a", "A", 0), set(2, "b", "B", 0),
+        set(3, "c", "C", 0));
+
+    ArgumentCaptor<Map<Object, ValueWrapper>> map = ArgumentCaptor.forClass(Map.class);
+    verify(region, times(1)).putAll(map.capture());
+    verify(region, never()).put(any(), any());
+    assertThat(map.getValue()).containsOnlyKeys(key("a"), key("b"), key("c"));
+    assertThat(map.getValue().get(key("b")).getValue()).isEqualTo("B".getBytes(ASCII));
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 2, 3);
+    assertThat(responses).extracting(r -> r.status).containsOnly((short) 0);
+  }
+
+  @Test
+  public void compareAndSetSplitsBatchOfSets() throws Exception {
+    when(region.replace(eq(key("c")), any(), any())).thenReturn(true);
+
+    List<Response> responses = process(cache, set(1, "a", "A", 0), set(2, "b", "B", 0),
+        set(3, "c", "C", 7), set(4, "d", "D", 0), set(5, "e", "E", 0));
+
+    InOrder inOrder = inOrder(region);
+    inOrder.verify(region).putAll(argThat(map -> map.keySet().equals(keys("a", "b"))));
+    inOrder.verify(region).replace(eq(key("c")), eq(ValueWrapper.getDummyValue(7)), any());
+    inOrder.verify(region).putAll(argThat(map -> map.keySet().equals(keys("d", "e"))));
+    verify(region, never()).put(any(), any());
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 2, 3, 4, 5);
+    assertThat(responses).extracting(r -> r.status).containsOnly((short) 0);
+  }
+
+  @Test
+  public void failedPutAllIsRetriedOneSetAtATime() throws Exception {
+    doThrow(new IllegalStateException("putAll failed")).when(region).putAll(anyMap());
+    doThrow(new IllegalStateException("put failed")).when(region).put(eq(key("b")), any());
+
+    List<Response> responses = process(cache, set(1, "a", "A", 0), set(2, "b", "B", 0),
+        set(3, "c", "C", 0));
+
+    verify(region).put(eq(key("a")), any());
+    verify(region).put(eq(key("c")), any());
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 2, 3);
+    assertThat(responses.get(0).status).isEqualTo(ResponseStatus.NO_ERROR.asShort());
+    assertThat(responses.get(1).status).isEqualTo(ResponseStatus.INTERNAL_ERROR.asShort());
+    assertThat(responses.get(1).value()).isEqualTo("put failed");
+    assertThat(responses.get(2).status).isEqualTo(ResponseStatus.NO_ERROR.asShort());
+  }
+
+  @Test
+  public void failedGetAllIsRetriedOneGetAtATime() throws Exception {
+    when(region.getAll(anyCollection())).thenThrow(new IllegalStateException("getAll failed"));
+    when(region.get(key("a"))).thenReturn(value("A"));
+    when(region.get(key("b"))).thenThrow(new IllegalStateException("get failed"));
+
+    List<Response> responses =
+        process(cache, request(GET, 1, "a"), request(GET, 2, "b"), request(GET, 3, "c"));
+
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 2, 3);
+    assertThat(responses).extracting(r -> r.opCode).containsOnly(GET);
+    assertThat(responses.get(0).value()).isEqualTo("A");
+    assertThat(responses.get(1).status).isEqualTo(ResponseStatus.INTERNAL_ERROR.asShort());
+    assertThat(responses.get(2).status).isEqualTo(ResponseStatus.KEY_NOT_FOUND.asShort());
+  }
+
+  @Test
+  public void pipelinedGetsOfPartitionedRegionAreFetchedWithGetAllFunction() throws Exception {
+    Region<Object, ValueWrapper> partitioned = memberCache
+        .<Object, ValueWrapper>createRegionFactory(RegionShortcut.PARTITION)
+        .create(GemFireMemcachedServer.REGION_NAME);
+    partitioned.put(key("a"), value("A"));
+    partitioned.put(key("c"), value("C"));
+
+    List<Response> responses = process(memberCache, request(GET, 1, "a"), request(GET, 2, "b"),
+        request(GET, 3, "c"));
+
+    assertThat(responses).extracting(r -> r.opaque).containsExactly(1, 2, 3);
+    assertThat(responses.get(0).value()).isEqualTo("A");
+    assertThat(responses.get(1).status).isEqualTo(ResponseStatus.KEY_NOT_FOUND.asShort());
+    assertThat(responses.get(2).value()).isEqualTo("C");
+  }
+
+  /**
+   * Has a connection handler read the given requests, as if pipelined by a client, and returns
+   * the responses it wrote back
+   */
+  private List<Response> process(Cache cache, ByteBuffer... requests) throws Exception {
+    ByteBuffer pipelined = ByteBuffer.allocate(64 * 1024);
+    for (ByteBuffer request : requests) {
+      pipelined.put(request.array(), 0, request.position());
+    }
+    pipelined.flip();
+    SocketChannel channel = mock(SocketChannel.class);
+    when(channel.read(any(ByteBuffer.class))).thenAnswer(invocation -> {
+      ByteBuffer dst = invocation.getArgument(0);
+      int count = Math.min(dst.remaining(), pipelined.remaining());
+      ByteBuffer chunk = pipelined.duplicate();
+      chunk.limit(chunk.position() + count);
+      dst.put(chunk);
+      pipelined.position(pipelined.position() + count);
+      return count;
+    });
+    when(channel.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+      ByteBuffer src = invocation.getArgument(0);
+      int count = src.remaining();
+      written.write(src.array(), src.arrayOffset() + src.position(), count);
+      src.position(src.limit());
+      return count;
+    });
+    ConnectionHandler handler = new ConnectionHandler(channel, cache, Protocol.BINARY,
+        mock(EventLoop.class), Runnable::run);
+    handler.registered(mock(SelectionKey.class));
+
+    handler.handleRead();
+
+    assertThat(pipelined.hasRemaining()).isFalse();
+    return parseResponses(ByteBuffer.wrap(written.toByteArray()));
+  }
+
+  private static List<Response> parseResponses(ByteBuffer buffer) {
+    List<Response> responses = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      assertThat(buffer.get()).isEqualTo((byte) 0x81);
+      Response response = new Response();
+      response.opCode = buffer.get();
+      int keyLength = buffer.getShort();
+      int extrasLength = buffer.get();
+      buffer.get();
+      response.status = buffer.getShort();
+      int bodyLength = buffer.getInt();
+      response.opaque = buffer.getInt();
+      buffer.getLong();
+      buffer.position(buffer.position() + extrasLength + keyLength);
+      response.body = new byte[bodyLength - extrasLength - keyLength];
+      buffer.get(response.body);
+      responses.add(response);
+    }
+    return responses;
+  }
+
+  private static ByteBuffer request(byte opCode, int opaque, String key) {
+    return request(opCode, opaque, key, null, 0);
+  }
+
+  private static ByteBuffer set(int opaque, String key, String value, long cas) {
+    return request(SET, opaque, key, value, cas);
+  }
+
+  private static ByteBuffer request(byte opCode, int opaque, String key, String value, long cas) {
+    byte[] keyBytes = key.getBytes(ASCII);
+    byte[] valueBytes = value == null ? new byte[0] : value.getBytes(ASCII);
+    int extrasLength = value == null ? 0 : 8;
+    ByteBuffer buffer =
+        ByteBuffer.allocate(24 + extrasLength + keyBytes.length + valueBytes.length);
+    buffer.put((byte) 0x80);
+    buffer.put(opCode);
+    buffer.putShort((short) keyBytes.length);
+    buffer.put((byte) extrasLength);
+    buffer.put(new byte[3]);
+    buffer.putInt(extrasLength + keyBytes.length + valueBytes.length);
+    buffer.putInt(opaque);
+    buffer.putLong(cas);
+    // flags and expiration of a set
+    buffer.put(new byte[extrasLength]);
+    buffer.put(keyBytes);
+    buffer.put(valueBytes);
+    return buffer;
+  }
+
+  private static KeyWrapper key(String key) {
+    return KeyWrapper.getWrappedKey(key.getBytes(ASCII));
+  }
+
+  private static Set<KeyWrapper> keys(String... keys) {
+    Set<KeyWrapper> result = new HashSet<>();
+    for (String key : keys) {
+      result.add(key(key));
+    }
+    return result;
+  }
+
+  private static ValueWrapper value(String value) {
+    return ValueWrapper.getWrappedValue(value.getBytes(ASCII), 0);
+  }
+
+  private static class Response {
+    byte opCode;
+    short status;
+    int opaque;
+    byte[] body;
+
+    String value() {
+      return new String(body, ASCII);
+    }
+  }
+}
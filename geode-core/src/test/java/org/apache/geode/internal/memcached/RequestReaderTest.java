@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class RequestReaderTest {
+
+  private static final Charset ASCII = Charset.forName("US-ASCII");
+
+  @Test
+  public void splitsPipelinedAsciiRequestsThatArriveInPieces() throws Exception {
+    RequestReader reader = new RequestReader(Protocol.ASCII);
+    ReadableByteChannel channel =
+        new TrickleChannel("get a\r\nset k 0 0 5\r\nhello\r\nget b c\r\n".getBytes(ASCII), 3);
+
+    StringBuilder commands = new StringBuilder();
+    String set = null;
+    while (reader.read(channel) > 0) {
+      Command command;
+      while ((command = reader.nextCommand()) != null) {
+        commands.append(command).append(' ');
+        if (command == Command.SET) {
+          set = string(reader.getRequest());
+        }
+      }
+    }
+
+    assertThat(commands.toString()).isEqualTo("GET SET GET ");
+    assertThat(set).isEqualTo("set k 0 0 5\r\nhello\r\n");
+  }
+
+  @Test
+  public void splitsPipelinedBinaryRequests() throws Exception {
+    ByteBuffer requests = ByteBuffer.allocate(2 * 24 + 3 + 8 + 1 + 5000);
+    binaryRequest(requests, (byte) 0x00, 0, "key", 0);
+    binaryRequest(requests, (byte) 0x01, 8, "k", 5000);
+    RequestReader reader = new RequestReader(Protocol.BINARY);
+    ReadableByteChannel channel = new TrickleChannel(requests.array(), 1000);
+
+    assertThat(reader.read(channel)).isEqualTo(1000);
+    assertThat(reader.nextCommand()).isEqualTo(Command.GET);
+    assertThat(reader.getRequest().limit()).isEqualTo(24 + 3);
+    assertThat(reader.nextCommand()).isNull();
+    while (reader.read(channel) > 0) {
+      // read the rest of the value
+    }
+    assertThat(reader.nextCommand()).isEqualTo(Command.SET);
+    assertThat(reader.getRequest().limit()).isEqualTo(24 + 8 + 1 + 5000);
+    assertThat(reader.nextCommand()).isNull();
+  }
+
+  @Test
+  public void skipsAnUnknownAsciiCommand() throws Exception {
+    RequestReader reader = new RequestReader(Protocol.ASCII);
+    reader.read(new TrickleChannel("bogus 1\r\nget a\r\n".getBytes(ASCII), 100));
+
+    assertThatThrownBy(reader::nextCommand).isInstanceOf(IllegalArgumentException.class);
+    assertThat(reader.nextCommand()).isEqualTo(Command.GET);
+    assertThat(string(reader.getRequest())).isEqualTo("get a\r\n");
+  }
+
+  @Test
+  public void rejectsBinaryRequestWithBodyOverMaximum() throws Exception {
+    ByteBuffer header = ByteBuffer.allocate(24);
+    header.put((byte) 0x80);
+    header.put((byte) 0x01);
+    header.position(8);
+    header.putInt(RequestReader.MAX_BODY_LENGTH + 1);
+    RequestReader reader = new RequestReader(Protocol.BINARY);
+    reader.read(new TrickleChannel(header.array(), 100));
+
+    assertThatThrownBy(reader::nextCommand).isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("exceeds the maximum");
+  }
+
+  @Test
+  public void rejectsAsciiDataBlockOverMaximum() throws Exception {
+    RequestReader reader = new RequestReader(Protocol.ASCII);
+    String line = "set k 0 0 " + (RequestReader.MAX_BODY_LENGTH + 1) + "\r\n";
+    reader.read(new TrickleChannel(line.getBytes(ASCII), 100));
+
+    assertThatThrownBy(reader::nextCommand).isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("exceeds the maximum");
+  }
+
+  @Test
+  public void flushesRepliesTogether() throws Exception {
+    RequestReader reader = new RequestReader(Protocol.ASCII);
+    reader.sendReply(ASCII.encode("STORED\r\n"));
+    reader.sendReply(ASCII.encode(new String(new char[10000]).replace('\0', 'v')));
+    reader.sendException(new IllegalArgumentException());
+    assertThat(reader.hasPendingReplies()).isTrue();
+
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    assertThat(reader.flush(Channels.newChannel(written))).isTrue();
+
+    assertThat(reader.hasPendingReplies()).isFalse();
+    assertThat(written.size()).isEqualTo(8 + 10000 + Reply.ERROR.toString().length());
+    assertThat(new String(written.toByteArray(), ASCII)).startsWith("STORED\r\nvvv")
+        .endsWith(Reply.ERROR.toString());
+  }
+
+  private static void binaryRequest(ByteBuffer buffer, byte opCode, int extrasLength, String key,
+      int valueLength) {
+    buffer.put((byte) 0x80);
+    buffer.put(opCode);
+    buffer.putShort((short) key.length());
+    buffer.put((byte) extrasLength);
+    buffer.put(new byte[3]);
+    buffer.putInt(extrasLength + key.length() + valueLength);
+    buffer.put(new byte[12]);
+    buffer.put(new byte[extrasLength]);
+    buffer.put(key.getBytes(ASCII));
+    buffer.put(new byte[valueLength]);
+  }
+
+  private static String string(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, ASCII);
+  }
+
+  /**
+   * Hands out the given bytes a few at a time, like a socket the client is still writing to
+   */
+  private static class TrickleChannel implements ReadableByteChannel {
+    private final ByteBuffer bytes;
+    private final int chunkSize;
+
+    TrickleChannel(byte[] bytes, int chunkSize) {
+      this.bytes = ByteBuffer.wrap(bytes);
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      int count = Math.min(Math.min(chunkSize, bytes.remaining()), dst.remaining());
+      for (int i = 0; i < count; i++) {
+        dst.put(bytes.get());
+      }
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -323,6 +323,60 @@ public class JSONFormatterJUnitTest {
       System.setProperty(JSONFormatter.SORT_JSON_FIELD_NAMES_PROPERTY, "false");
     }
   }
-}
 
+  @Test
+  public void testJSONStringWithNestedObjectsAndArrays() {
+    String js = "{\"name\":\"n\", \"small\":1, \"medium\":300, \"large\":100000,"
+        + " \"huge\":10000000000, \"real\":1.5, \"flag\":true, \"missing\":null,"
+        + " \"address\":{\"city\":\"c\", \"zip\":12345},"
+        + " \"list\":[1, \"two\", {\"three\":3}, [4, 5], false, null]}";
+
+    PdxInstance pi = JSONFormatter.fromJSON(js);
+
+    assertEquals("n", pi.getField("name"));
+    assertEquals((byte) 1, pi.getField("small"));
+    assertEquals((short) 300, pi.getField("medium"));
+    assertEquals(100000, pi.getField("large"));
+    assertEquals(10000000000L, pi.getField("huge"));
+    assertEquals(1.5d, pi.getField("real"));
+    assertEquals(Boolean.TRUE, pi.getField("flag"));
+    assertNull(pi.getField("missing"));
+    PdxInstance address = (PdxInstance) pi.getField("address");
+    assertEquals("c", address.getField("city"));
+    assertEquals(12345, address.getField("zip"));
+    List<?> list = (List<?>) pi.getField("list");
+    assertEquals(6, list.size());
+    assertEquals("two", list.get(1));
+    assertEquals((byte) 3, ((PdxInstance) list.get(2)).getField("three"));
+    assertEquals(2, ((List<?>) list.get(3)).size());
+    assertEquals(Boolean.FALSE, list.get(4));
+    assertNull(list.get(5));
+
+    assertEquals(pi, JSONFormatter.fromJSON(JSONFormatter.toJSON(pi)));
+  }
+
+  @Test
+  public void testJSONStringMatchesPdxInstanceFactory() {
+    PdxInstance pi = JSONFormatter.fromJSON("{\"name\":\"n\", \"age\":14, \"id\":70000}");
+
+    PdxInstance expected = c.createPdxInstanceFactory(JSONFormatter.JSON_CLASSNAME, false)
+        .writeObject("name", "n").writeByte("age", (byte) 14).writeInt("id", 70000).create();
 
+    assertEquals(expected, pi);
+    assertEquals(((PdxInstanceImpl) expected).getPdxType(), ((PdxInstanceImpl) pi).getPdxType());
+  }
+
+  @Test
+  public void testJSONStringsOfTheSameShapeShareAType() {
+    PdxInstance first = JSONFormatter.fromJSON("{\"a\":\"x\", \"b\":{\"c\":1}}");
+    PdxInstance second = JSONFormatter.fromJSON("{\"a\":\"y\", \"b\":{\"c\":2}}");
+    PdxInstance reordered = JSONFormatter.fromJSON("{\"b\":{\"c\":1}, \"a\":\"x\"}");
+
+    assertEquals(((PdxInstanceImpl) first).getPdxType().getTypeId(),
+        ((PdxInstanceImpl) second).getPdxType().getTypeId());
+    assertNotEquals(((PdxInstanceImpl) first).getPdxType().getTypeId(),
+        ((PdxInstanceImpl) reordered).getPdxType().getTypeId());
+    assertEquals(((PdxInstanceImpl) first.getField("b")).getPdxType().getTypeId(),
+        ((PdxInstanceImpl) reordered.getField("b")).getPdxType().getTypeId());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InOrder;
+
+import org.apache.geode.pdx.PdxSerializationException;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class AutoClassCodecTest {
+
+  @Test
+  public void writesEachFieldWithItsTypedWrite() {
+    AutoClassCodec codec = codecFor(new ReflectionBasedAutoSerializer());
+    PdxWriterImpl writer = mock(PdxWriterImpl.class);
+    Sample sample = new Sample();
+
+    codec.write(writer, sample);
+
+    InOrder inOrder = inOrder(writer);
+    inOrder.verify(writer).writeInt(1);
+    inOrder.verify(writer).writeLong(2L);
+    inOrder.verify(writer).writeString("three");
+    inOrder.verify(writer).writeIntArray(sample.values);
+    inOrder.verify(writer).writeObject(sample.extra, false);
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void readsEachFieldWithItsTypedRead() {
+    AutoClassCodec codec = codecFor(new ReflectionBasedAutoSerializer());
+    PdxReaderImpl reader = mock(PdxReaderImpl.class);
+    int[] values = {5, 6};
+    when(reader.readInt()).thenReturn(10);
+    when(reader.readLong()).thenReturn(20L);
+    when(reader.readString()).thenReturn("thirty");
+    when(reader.readIntArray()).thenReturn(values);
+    when(reader.readObject()).thenReturn("extra");
+    Sample sample = new Sample();
+
+    codec.read(reader, sample);
+
+    assertThat(sample.id).isEqualTo(10);
+    assertThat(sample.count).isEqualTo(20L);
+    assertThat(sample.name).isEqualTo("thirty");
+    assertThat(sample.values).isSameAs(values);
+    assertThat(sample.extra).isEqualTo("extra");
+  }
+
+  @Test
+  public void namesTheFieldThatFailedToRead() {
+    AutoClassCodec codec = codecFor(new ReflectionBasedAutoSerializer());
+    PdxReaderImpl reader = mock(PdxReaderImpl.class);
+    when(reader.readString()).thenThrow(new IllegalStateException("bad string"));
+
+    Throwable thrown = catchThrowable(() -> codec.read(reader, new Sample()));
+
+    assertThat(thrown).isInstanceOf(PdxSerializationException.class)
+        .hasMessageContaining("field name").hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void transformedFieldsKeepTheirWrappers() {
+    ReflectionBasedAutoSerializer serializer = new ReflectionBasedAutoSerializer() {
+      @Override
+      public boolean transformFieldValue(Field f, Class<?> clazz) {
+        return f.getName().equals("name");
+      }
+    };
+
+    assertThat(codecFor(serializer)).isNull();
+  }
+
+  private static AutoClassCodec codecFor(ReflectionBasedAutoSerializer serializer) {
+    AutoSerializableManager manager = (AutoSerializableManager) serializer.getManager();
+    return manager.getClassInfo(Sample.class).getCodec();
+  }
+
+  public static class Sample {
+    private int id = 1;
+    private long count = 2L;
+    private String name = "three";
+    private int[] values = {4};
+    private Object extra = new Object();
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class RedisDataUpdateFunctionTest {
+
+  private static final ByteArrayWrapper KEY = new ByteArrayWrapper("key".getBytes());
+
+  private final ConcurrentMap<ByteArrayWrapper, Object> data = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, RedisDataType> meta = new ConcurrentHashMap<>();
+
+  private Region<ByteArrayWrapper, Object> region;
+
+  private Region<String, RedisDataType> metaRegion;
+
+  @Before
+  public void setUp() {
+    region = mapRegion(data);
+    metaRegion = mapRegion(meta);
+  }
+
+  @Test
+  public void createsTheKeyAndItsTypeOnlyWhenAsked() {
+    Object[] result = updateList(false, list -> list.pushLeft(bytes("a")));
+    assertThat(result[0]).isNull();
+    assertThat(data).isEmpty();
+    assertThat(meta).isEmpty();
+
+    result = updateList(true, list -> list.pushLeft(bytes("a")));
+    assertThat(result[0]).isEqualTo(1);
+    assertThat(((RedisList) data.get(KEY)).size()).isEqualTo(1);
+    assertThat(meta.get(KEY.toString())).isEqualTo(RedisDataType.REDIS_LIST);
+  }
+
+  @Test
+  public void removesTheKeyAndItsTypeWhenTheValueBecomesEmpty() {
+    updateList(true, list -> list.pushLeft(bytes("a")));
+
+    Object[] result = updateList(false, list -> list.popLeft());
+
+    assertThat((byte[]) result[0]).isEqualTo(bytes("a"));
+    assertThat(result[1]).isEqualTo(true);
+    assertThat(data).isEmpty();
+    assertThat(meta).isEmpty();
+  }
+
+  @Test
+  public void doesNotLeaveAnEmptyKeyWhenACreatingUpdateAddsNothing() {
+    Object[] result = updateHash(true, hash -> "not a number");
+
+    assertThat(result[0]).isEqualTo("not a number");
+    assertThat(result[1]).isEqualTo(false);
+    assertThat(data).isEmpty();
+    assertThat(meta).isEmpty();
+  }
+
+  @Test
+  public void reportsAKeyOfAnotherType() {
+    meta.put(KEY.toString(), RedisDataType.REDIS_STRING);
+
+    Object[] result = updateList(true, list -> list.pushLeft(bytes("a")));
+
+    assertThat((String) result[2]).contains("already used by a");
+    assertThat(data).isEmpty();
+    assertThat(meta.get(KEY.toString())).isEqualTo(RedisDataType.REDIS_STRING);
+  }
+
+  @Test
+  public void doesNotWriteBackAValueWhoseKeyWasRemoved() {
+    RedisList removed = new RedisList();
+    removed.pushLeft(bytes("old"));
+    data.put(KEY, removed);
+
+    Object[] result = updateList(false, list -> list.popLeft());
+
+    assertThat(result[0]).isNull();
+    assertThat(removed.size()).isEqualTo(1);
+    assertThat(meta).isEmpty();
+  }
+
+  @Test
+  public void concurrentPopsReturnDistinctElements() throws Exception {
+    int count = 1000;
+    updateList(true, list -> {
+      for (int i = 0; i < count; i++) {
+        list.pushRight(bytes(String.valueOf(i)));
+      }
+      return null;
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Object[]>> pops = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        pops.add(executor.submit(
+            () -> updateList(false, list -> list.popLeft())));
+      }
+      List<String> popped = new ArrayList<>();
+      for (Future<Object[]> pop : pops) {
+        popped.add(new String((byte[]) pop.get()[0]));
+      }
+      assertThat(popped).doesNotHaveDuplicates().hasSize(count);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(data).isEmpty();
+    assertThat(meta).isEmpty();
+  }
+
+  @Test
+  public void concurrentIncrementsOfASortedSetMemberAreNotLost() throws Exception {
+    ByteArrayWrapper member = new ByteArrayWrapper(bytes("m"));
+    int count = 1000;
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Object[]>> increments = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        increments.add(executor.submit(() -> updateSortedSet(true, set -> {
+          Double score = set.getScore(member);
+          set.add(member, score == null ? 1 : score + 1);
+          return null;
+        })));
+      }
+      for (Future<Object[]> increment : increments) {
+        increment.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(((RedisSortedSet) data.get(KEY)).getScore(member)).isEqualTo((double) count);
+    assertThat(meta.get(KEY.toString())).isEqualTo(RedisDataType.REDIS_SORTEDSET);
+
+    Object[] result = updateSortedSet(false, set -> set.remove(member));
+
+    assertThat(result[1]).isEqualTo(true);
+    assertThat(data).isEmpty();
+    assertThat(meta).isEmpty();
+  }
+
+  private Object[] updateSortedSet(boolean create, RedisDataUpdate<RedisSortedSet> update) {
+    return update(RedisDataType.REDIS_SORTEDSET, create, update);
+  }
+
+  private Object[] updateList(boolean create, RedisDataUpdate<RedisList> update) {
+    return update(RedisDataType.REDIS_LIST, create, update);
+  }
+
+  private Object[] updateHash(boolean create, RedisDataUpdate<RedisHash> update) {
+    return update(RedisDataType.REDIS_HASH, create, update);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object[] update(RedisDataType type, boolean create, RedisDataUpdate<?> update) {
+    return RedisDataUpdateFunction.update(region, metaRegion, KEY, type, create,
+        (RedisDataUpdate<Object>) update);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Region<K, V> mapRegion(ConcurrentMap<K, V> map) {
+    Region<K, V> region = mock(Region.class);
+    when(region.get(any())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
+    when(region.put(any(), any())).thenAnswer(
+        invocation -> map.put(invocation.getArgument(0), invocation.getArgument(1)));
+    when(region.putIfAbsent(any(), any())).thenAnswer(
+        invocation -> map.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)));
+    when(region.remove(any())).thenAnswer(invocation -> map.remove(invocation.getArgument(0)));
+    when(region.remove(any(), any())).thenAnswer(
+        invocation -> map.remove(invocation.getArgument(0), invocation.getArgument(1)));
+    return region;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes();
+  }
+
+}
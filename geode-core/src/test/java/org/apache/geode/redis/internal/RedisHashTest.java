@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class RedisHashTest {
+
+  @Test
+  public void setsGetsAndRemovesFields() {
+    RedisHash hash = new RedisHash();
+    assertThat(hash.put(wrap("a"), wrap("1"))).isTrue();
+    assertThat(hash.put(wrap("b"), wrap("2"))).isTrue();
+    assertThat(hash.put(wrap("a"), wrap("3"))).isFalse();
+    assertThat(hash.putIfAbsent(wrap("b"), wrap("4"))).isFalse();
+
+    assertThat(hash.size()).isEqualTo(2);
+    assertThat(hash.get(wrap("a"))).isEqualTo(wrap("3"));
+    assertThat(hash.get(wrap("b"))).isEqualTo(wrap("2"));
+    assertThat(hash.get(wrap("c"))).isNull();
+    assertThat(hash.remove(wrap("a"))).isTrue();
+    assertThat(hash.remove(wrap("a"))).isFalse();
+    assertThat(hash.keys()).containsExactly(wrap("b"));
+    assertThat(hash.values()).containsExactly(wrap("2"));
+  }
+
+  @Test
+  public void keepsItsFieldsWhenItOutgrowsThePackedEncoding() {
+    RedisHash hash = new RedisHash();
+    for (int i = 0; i < RedisHash.MAX_PACKED_ENTRIES; i++) {
+      hash.put(wrap("f" + i), wrap("v" + i));
+    }
+    hash.put(wrap("long"), wrap(new String(new char[RedisHash.MAX_PACKED_LENGTH + 1])));
+    hash.put(wrap("f0"), wrap("changed"));
+
+    assertThat(hash.size()).isEqualTo(RedisHash.MAX_PACKED_ENTRIES + 1);
+    assertThat(hash.get(wrap("f0"))).isEqualTo(wrap("changed"));
+    assertThat(hash.get(wrap("f" + (RedisHash.MAX_PACKED_ENTRIES - 1))))
+        .isEqualTo(wrap("v" + (RedisHash.MAX_PACKED_ENTRIES - 1)));
+  }
+
+  @Test
+  public void matchesAHashMapUnderRandomChanges() {
+    Random random = new Random(31);
+    RedisHash hash = new RedisHash();
+    Map<ByteArrayWrapper, ByteArrayWrapper> expected = new HashMap<>();
+    for (int i = 0; i < 5000; i++) {
+      // few enough fields that the hash is usually packed
+      ByteArrayWrapper field = wrap("f" + random.nextInt(i < 4000 ? 40 : 400));
+      if (random.nextInt(3) == 0) {
+        assertThat(hash.remove(field)).isEqualTo(expected.remove(field) != null);
+      } else {
+        ByteArrayWrapper value = wrap("v" + random.nextInt());
+        assertThat(hash.put(field, value)).isEqualTo(expected.put(field, value) == null);
+      }
+      assertThat(hash.size()).isEqualTo(expected.size());
+    }
+
+    assertThat(asMap(hash)).isEqualTo(expected);
+  }
+
+  @Test
+  public void deltaAppliesOnlyTheChangesSinceTheLastDelta() throws Exception {
+    RedisHash hash = new RedisHash();
+    hash.put(wrap("a"), wrap("1"));
+    hash.put(wrap("b"), wrap("2"));
+    RedisHash copy = copy(hash);
+    sendDelta(hash, new RedisHash());
+
+    hash.put(wrap("c"), wrap("3"));
+    hash.put(wrap("a"), wrap("4"));
+    hash.remove(wrap("b"));
+    assertThat(hash.hasDelta()).isTrue();
+    sendDelta(hash, copy);
+
+    assertThat(hash.hasDelta()).isFalse();
+    assertThat(asMap(copy)).isEqualTo(asMap(hash)).hasSize(2);
+  }
+
+  @Test
+  public void serializesPackedAndUnpackedHashes() throws Exception {
+    RedisHash small = new RedisHash();
+    RedisHash large = new RedisHash();
+    for (int i = 0; i < 10 * RedisHash.MAX_PACKED_ENTRIES; i++) {
+      if (i < 10) {
+        small.put(wrap("f" + i), wrap("v" + i));
+      }
+      large.put(wrap("f" + i), wrap("v" + i));
+    }
+
+    assertThat(asMap(copy(small))).isEqualTo(asMap(small));
+    assertThat(asMap(copy(large))).isEqualTo(asMap(large));
+  }
+
+  private static ByteArrayWrapper wrap(String value) {
+    return new ByteArrayWrapper(Coder.stringToBytes(value));
+  }
+
+  private static Map<ByteArrayWrapper, ByteArrayWrapper> asMap(RedisHash hash) {
+    Map<ByteArrayWrapper, ByteArrayWrapper> map = new HashMap<>();
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : hash.entries()) {
+      map.put(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+
+  private static RedisHash copy(RedisHash hash) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    hash.toData(new DataOutputStream(bytes));
+    RedisHash copy = new RedisHash();
+    copy.fromData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    return copy;
+  }
+
+  private static void sendDelta(RedisHash from, RedisHash to) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    from.toDelta(new DataOutputStream(bytes));
+    to.fromDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+}
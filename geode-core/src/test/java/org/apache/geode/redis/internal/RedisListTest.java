@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class RedisListTest {
+
+  @Test
+  public void pushesAndPopsAtBothEnds() {
+    RedisList list = new RedisList();
+    assertThat(list.pushRight(bytes("b"))).isEqualTo(1);
+    assertThat(list.pushLeft(bytes("a"))).isEqualTo(2);
+    assertThat(list.pushRight(bytes("c"))).isEqualTo(3);
+
+    assertThat(strings(list.range(0, 3))).containsExactly("a", "b", "c");
+    assertThat(Coder.bytesToString(list.popLeft())).isEqualTo("a");
+    assertThat(Coder.bytesToString(list.popRight())).isEqualTo("c");
+    assertThat(Coder.bytesToString(list.popRight())).isEqualTo("b");
+    assertThat(list.popLeft()).isNull();
+    assertThat(list.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void getsAndSetsElementsAcrossChunks() {
+    RedisList list = new RedisList();
+    int count = 3 * RedisList.MAX_CHUNK_BYTES / 10;
+    for (int i = 0; i < count; i++) {
+      list.pushRight(bytes("e" + i));
+    }
+
+    assertThat(Coder.bytesToString(list.get(count - 1))).isEqualTo("e" + (count - 1));
+    assertThat(list.get(count)).isNull();
+    assertThat(list.set(count / 2, bytes("a much longer replacement element"))).isTrue();
+    assertThat(list.set(1, bytes(""))).isTrue();
+    assertThat(list.set(count, bytes("x"))).isFalse();
+
+    assertThat(Coder.bytesToString(list.get(count / 2)))
+        .isEqualTo("a much longer replacement element");
+    assertThat(Coder.bytesToString(list.get(1))).isEmpty();
+    assertThat(Coder.bytesToString(list.get(count / 2 + 1))).isEqualTo("e" + (count / 2 + 1));
+  }
+
+  @Test
+  public void removesElementsFromEitherEnd() {
+    RedisList list = new RedisList();
+    for (String element : new String[] {"a", "x", "b", "x", "c", "x"}) {
+      list.pushRight(bytes(element));
+    }
+
+    assertThat(list.remove(1, bytes("x"))).isEqualTo(1);
+    assertThat(strings(list.range(0, 10))).containsExactly("a", "b", "x", "c", "x");
+    assertThat(list.remove(-1, bytes("x"))).isEqualTo(1);
+    assertThat(strings(list.range(0, 10))).containsExactly("a", "b", "x", "c");
+    assertThat(list.remove(0, bytes("x"))).isEqualTo(1);
+    assertThat(list.remove(0, bytes("y"))).isEqualTo(0);
+    assertThat(strings(list.range(0, 10))).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void trimsToARange() {
+    RedisList list = new RedisList();
+    for (int i = 0; i < 10; i++) {
+      list.pushRight(bytes("e" + i));
+    }
+
+    list.trim(2, 5);
+
+    assertThat(strings(list.range(0, 10))).containsExactly("e2", "e3", "e4");
+  }
+
+  @Test
+  public void matchesALinkedListUnderRandomChanges() {
+    Random random = new Random(23);
+    RedisList list = new RedisList();
+    LinkedList<String> expected = new LinkedList<>();
+    for (int i = 0; i < 20000; i++) {
+      String element = randomElement(random);
+      switch (random.nextInt(6)) {
+        case 0:
+          list.pushLeft(bytes(element));
+          expected.addFirst(element);
+          break;
+        case 1:
+        case 2:
+          list.pushRight(bytes(element));
+          expected.addLast(element);
+          break;
+        case 3:
+          assertThat(string(list.popLeft())).isEqualTo(expected.pollFirst());
+          break;
+        case 4:
+          assertThat(string(list.popRight())).isEqualTo(expected.pollLast());
+          break;
+        default:
+          if (!expected.isEmpty()) {
+            int index = random.nextInt(expected.size());
+            list.set(index, bytes(element));
+            expected.set(index, element);
+          }
+      }
+    }
+
+    assertThat(list.size()).isEqualTo(expected.size());
+    assertThat(strings(list.range(0, expected.size()))).isEqualTo(expected);
+  }
+
+  @Test
+  public void deltaReplaysTheChangesSinceTheLastDelta() throws Exception {
+    RedisList list = new RedisList();
+    list.pushRight(bytes("a"));
+    list.pushRight(bytes("b"));
+    RedisList copy = copy(list);
+    sendDelta(list, new RedisList());
+
+    list.pushLeft(bytes("c"));
+    list.popRight();
+    list.set(1, bytes("d"));
+    list.pushRight(bytes("d"));
+    list.remove(-1, bytes("d"));
+    list.pushRight(bytes("e"));
+    list.trim(1, 3);
+    assertThat(list.hasDelta()).isTrue();
+    sendDelta(list, copy);
+
+    assertThat(list.hasDelta()).isFalse();
+    assertThat(strings(copy.range(0, 10))).isEqualTo(strings(list.range(0, 10)))
+        .containsExactly("d", "e");
+  }
+
+  @Test
+  public void serializesAllElements() throws Exception {
+    RedisList list = new RedisList();
+    for (int i = 0; i < 5000; i++) {
+      list.pushLeft(bytes("e" + i));
+    }
+
+    RedisList copy = copy(list);
+
+    assertThat(copy.range(0, 5000)).isEqualTo(list.range(0, 5000));
+    copy.pushLeft(bytes("first"));
+    copy.pushRight(bytes("last"));
+    assertThat(string(copy.get(0))).isEqualTo("first");
+    assertThat(string(copy.get(5001))).isEqualTo("last");
+    assertThat(copy.hasDelta()).isTrue();
+  }
+
+  private static String randomElement(Random random) {
+    // mostly small elements, with some long enough to need a multi-byte length
+    int length = random.nextInt(10) == 0 ? 100 + random.nextInt(300) : random.nextInt(12);
+    StringBuilder element = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      element.append((char) ('a' + random.nextInt(26)));
+    }
+    return element.toString();
+  }
+
+  private static byte[] bytes(String value) {
+    return Coder.stringToBytes(value);
+  }
+
+  private static String string(byte[] value) {
+    return value == null ? null : Coder.bytesToString(value);
+  }
+
+  private static List<String> strings(List<ByteArrayWrapper> range) {
+    List<String> strings = new ArrayList<>();
+    for (ByteArrayWrapper element : range) {
+      strings.add(element.toString());
+    }
+    return strings;
+  }
+
+  private static RedisList copy(RedisList list) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    list.toData(new DataOutputStream(bytes));
+    RedisList copy = new RedisList();
+    copy.fromData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    return copy;
+  }
+
+  private static void sendDelta(RedisList from, RedisList to) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    from.toDelta(new DataOutputStream(bytes));
+    to.fromDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class RedisSortedSetTest {
+
+  @Test
+  public void ordersMembersByScoreThenMember() {
+    RedisSortedSet set = new RedisSortedSet();
+    assertThat(set.add(member("b"), 2)).isTrue();
+    assertThat(set.add(member("a"), 2)).isTrue();
+    assertThat(set.add(member("c"), 1)).isTrue();
+
+    assertThat(members(set.range(0, 3, false))).containsExactly("c", "a", "b");
+    assertThat(members(set.range(0, 3, true))).containsExactly("b", "a", "c");
+    assertThat(set.rank(member("c"))).isEqualTo(0);
+    assertThat(set.rank(member("b"))).isEqualTo(2);
+    assertThat(set.rank(member("d"))).isEqualTo(-1);
+  }
+
+  @Test
+  public void changingTheScoreMovesTheMember() {
+    RedisSortedSet set = new RedisSortedSet();
+    set.add(member("a"), 1);
+    set.add(member("b"), 2);
+
+    assertThat(set.add(member("a"), 3)).isFalse();
+
+    assertThat(set.size()).isEqualTo(2);
+    assertThat(set.getScore(member("a"))).isEqualTo(3);
+    assertThat(members(set.range(0, 2, false))).containsExactly("b", "a");
+  }
+
+  @Test
+  public void countsBelowScoresAndMembers() {
+    RedisSortedSet set = new RedisSortedSet();
+    set.add(member("a"), 1);
+    set.add(member("b"), 2);
+    set.add(member("c"), 2);
+    set.add(member("d"), 3);
+
+    assertThat(set.countBelowScore(2, false)).isEqualTo(1);
+    assertThat(set.countBelowScore(2, true)).isEqualTo(3);
+    assertThat(set.countBelowScore(Double.NEGATIVE_INFINITY, true)).isEqualTo(0);
+    assertThat(set.countBelowScore(Double.POSITIVE_INFINITY, true)).isEqualTo(4);
+    assertThat(set.countBelowMember(member("c"), false)).isEqualTo(2);
+    assertThat(set.countBelowMember(member("c"), true)).isEqualTo(3);
+  }
+
+  @Test
+  public void removesRanges() {
+    RedisSortedSet set = new RedisSortedSet();
+    for (int i = 0; i < 10; i++) {
+      set.add(member("m" + i), i);
+    }
+
+    assertThat(set.removeRange(2, 5)).isEqualTo(3);
+
+    assertThat(set.size()).isEqualTo(7);
+    assertThat(members(set.range(0, 4, false))).containsExactly("m0", "m1", "m5", "m6");
+  }
+
+  @Test
+  public void matchesASortedListUnderRandomChanges() {
+    Random random = new Random(17);
+    RedisSortedSet set = new RedisSortedSet();
+    Map<String, Double> expected = new HashMap<>();
+    for (int i = 0; i < 5000; i++) {
+      String name = "m" + random.nextInt(500);
+      if (random.nextInt(3) == 0) {
+        assertThat(set.remove(member(name))).isEqualTo(expected.remove(name) != null);
+      } else {
+        double score = random.nextInt(50);
+        assertThat(set.add(member(name), score)).isEqualTo(expected.put(name, score) == null);
+      }
+    }
+
+    List<String> sorted = sorted(expected);
+    assertThat(set.size()).isEqualTo(sorted.size());
+    assertThat(members(set.range(0, sorted.size(), false))).isEqualTo(sorted);
+    for (int i = 0; i < sorted.size(); i++) {
+      assertThat(set.rank(member(sorted.get(i)))).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void deltaAppliesOnlyTheChangesSinceTheLastDelta() throws Exception {
+    RedisSortedSet set = new RedisSortedSet();
+    set.add(member("a"), 1);
+    set.add(member("b"), 2);
+    RedisSortedSet copy = copy(set);
+    sendDelta(set, new RedisSortedSet());
+
+    set.add(member("c"), 3);
+    set.add(member("a"), 4);
+    set.remove(member("b"));
+    assertThat(set.hasDelta()).isTrue();
+    sendDelta(set, copy);
+
+    assertThat(set.hasDelta()).isFalse();
+    assertThat(members(copy.range(0, 10, false))).containsExactly("c", "a");
+    assertThat(copy.getScore(member("a"))).isEqualTo(4);
+  }
+
+  @Test
+  public void serializesAllMembers() throws Exception {
+    RedisSortedSet set = new RedisSortedSet();
+    for (int i = 0; i < 100; i++) {
+      set.add(member("m" + i), i % 7);
+    }
+
+    RedisSortedSet copy = copy(set);
+
+    assertThat(copy.range(0, 100, false)).isEqualTo(set.range(0, 100, false));
+    assertThat(copy.hasDelta()).isFalse();
+  }
+
+  private static ByteArrayWrapper member(String name) {
+    return new ByteArrayWrapper(Coder.stringToBytes(name));
+  }
+
+  private static List<String> members(List<Entry<ByteArrayWrapper, DoubleWrapper>> range) {
+    List<String> members = new ArrayList<>();
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : range) {
+      members.add(entry.getKey().toString());
+    }
+    return members;
+  }
+
+  private static List<String> sorted(Map<String, Double> scores) {
+    List<String> members = new ArrayList<>(scores.keySet());
+    members.sort(Comparator.<String, Double>comparing(scores::get)
+        .thenComparing((a, b) -> member(a).compareTo(member(b))));
+    return members;
+  }
+
+  private static RedisSortedSet copy(RedisSortedSet set) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    set.toData(new DataOutputStream(bytes));
+    RedisSortedSet copy = new RedisSortedSet();
+    copy.fromData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    return copy;
+  }
+
+  private static void sendDelta(RedisSortedSet from, RedisSortedSet to) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    from.toDelta(new DataOutputStream(bytes));
+    to.fromDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+}
@@ -0,0 +1,524 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.cq;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.CompiledID;
+import org.apache.geode.cache.query.internal.CompiledIteratorDef;
+import org.apache.geode.cache.query.internal.CompiledJunction;
+import org.apache.geode.cache.query.internal.CompiledLiteral;
+import org.apache.geode.cache.query.internal.CompiledPath;
+import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.PathUtils;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * An index over the where clauses of the distinct CQ queries that lets an event skip evaluating
+ * the queries its value cannot satisfy.
+ * <p>
+ * A query is indexed if its where clause is a comparison of an attribute path of the iterator with
+ * a string, integer, long, double or boolean literal, using one of =, &lt;, &lt;=, &gt; or &gt;=,
+ * or is an AND whose first operand is such a comparison. The literals of all indexed queries on the
+ * same path are kept in sorted maps per operator, so the queries whose comparison holds for a
+ * value are found with a few range lookups instead of one evaluation per query. Each path is read
+ * from a value at most once, using the same attribute resolution as the query engine.
+ * <p>
+ * A query is only reported as excluded when evaluating it is certain not to select the value.
+ * Values of types the comparison would treat differently from the sorted maps, such as floats,
+ * dates or strings compared with numbers, are left to the normal evaluation, as are all queries
+ * that are not indexed.
+ *
+ * @since Geode 1.3
+ */
+class CqPredicateIndex {
+
+  /**
+   * Set to true to evaluate every CQ query against every event.
+   */
+  static final boolean DISABLED =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "cq.DISABLE_PREDICATE_INDEX");
+
+  private static final int EQ = 0;
+  private static final int LT = 1;
+  private static final int LE = 2;
+  private static final int GT = 3;
+  private static final int GE = 4;
+
+  private enum Kind {
+    STRING, INTEGRAL, DECIMAL, BOOLEAN
+  }
+
+  /** The marker for a path that could not be read from a value */
+  private static final Object UNKNOWN = new Object();
+
+  /**
+   * The indexed comparison of a query, with the path on the left: value op constant.
+   */
+  private static class Predicate {
+    final String field;
+    final List<String> path;
+    final int op;
+    final Kind kind;
+    final Object constant;
+    /** True if the comparison is the whole where clause rather than the first operand of an AND */
+    final boolean whole;
+
+    Predicate(List<String> path, int op, Kind kind, Object constant, boolean whole) {
+      this.field = String.join(".", path);
+      this.path = path;
+      this.op = op;
+      this.kind = kind;
+      this.constant = constant;
+      this.whole = whole;
+    }
+  }
+
+  /**
+   * The queries comparing values with constants of one type, by operator and constant.
+   */
+  private static class Table<K> {
+    private final List<TreeMap<K, Set<String>>> byOp = new ArrayList<>(GE + 1);
+
+    Table() {
+      for (int op = EQ; op <= GE; op++) {
+        this.byOp.add(new TreeMap<>());
+      }
+    }
+
+    void add(int op, K constant, String queryString) {
+      this.byOp.get(op).computeIfAbsent(constant, k -> new HashSet<>()).add(queryString);
+    }
+
+    void remove(int op, K constant, String queryString) {
+      TreeMap<K, Set<String>> map = this.byOp.get(op);
+      Set<String> queries = map.get(constant);
+      if (queries != null && queries.remove(queryString) && queries.isEmpty()) {
+        map.remove(constant);
+      }
+    }
+
+    /**
+     * Adds the queries whose comparison holds for the given value to the given set.
+     */
+    void collect(K value, boolean equalityOnly, Set<String> into) {
+      Set<String> equal = this.byOp.get(EQ).get(value);
+      if (equal != null) {
+        into.addAll(equal);
+      }
+      if (equalityOnly) {
+        return;
+      }
+      // value < constant
+      addAll(this.byOp.get(LT).tailMap(value, false), into);
+      addAll(this.byOp.get(LE).tailMap(value, true), into);
+      // value > constant
+      addAll(this.byOp.get(GT).headMap(value, false), into);
+      addAll(this.byOp.get(GE).headMap(value, true), into);
+    }
+
+    private static <K> void addAll(NavigableMap<K, Set<String>> map, Set<String> into) {
+      for (Set<String> queries : map.values()) {
+        into.addAll(queries);
+      }
+    }
+  }
+
+  /**
+   * The indexed queries on one attribute path.
+   */
+  private static class Field {
+    final Table<String> strings = new Table<>();
+    final Table<Long> integrals = new Table<>();
+    /** The integral constants converted to double, as used when comparing with a double value */
+    final Table<Double> integralsAsDoubles = new Table<>();
+    final Table<Double> decimals = new Table<>();
+    final Table<Boolean> booleans = new Table<>();
+    int size;
+
+    void add(Predicate p, String queryString) {
+      switch (p.kind) {
+        case STRING:
+          this.strings.add(p.op, (String) p.constant, queryString);
+          break;
+        case INTEGRAL:
+          this.integrals.add(p.op, (Long) p.constant, queryString);
+          this.integralsAsDoubles.add(p.op, ((Long) p.constant).doubleValue(), queryString);
+          break;
+        case DECIMAL:
+          this.decimals.add(p.op, (Double) p.constant, queryString);
+          break;
+        case BOOLEAN:
+          this.booleans.add(p.op, (Boolean) p.constant, queryString);
+          break;
+      }
+      this.size++;
+    }
+
+    void remove(Predicate p, String queryString) {
+      switch (p.kind) {
+        case STRING:
+          this.strings.remove(p.op, (String) p.constant, queryString);
+          break;
+        case INTEGRAL:
+          this.integrals.remove(p.op, (Long) p.constant, queryString);
+          this.integralsAsDoubles.remove(p.op, ((Long) p.constant).doubleValue(), queryString);
+          break;
+        case DECIMAL:
+          this.decimals.remove(p.op, (Double) p.constant, queryString);
+          break;
+        case BOOLEAN:
+          this.booleans.remove(p.op, (Boolean) p.constant, queryString);
+          break;
+      }
+      this.size--;
+    }
+
+    /**
+     * Returns the queries whose comparison holds for the given value, which must be one that
+     * {@link CqPredicateIndex#decides} some predicates for.
+     */
+    Set<String> candidates(Object value) {
+      Set<String> candidates = new HashSet<>();
+      if (value instanceof String) {
+        this.strings.collect((String) value, false, candidates);
+      } else if (value instanceof PdxString) {
+        this.strings.collect(value.toString(), true, candidates);
+      } else if (value instanceof Double) {
+        // the query engine compares a double with any other number as doubles
+        this.decimals.collect((Double) value, false, candidates);
+        this.integralsAsDoubles.collect((Double) value, false, candidates);
+      } else if (value instanceof Boolean) {
+        this.booleans.collect((Boolean) value, true, candidates);
+      } else {
+        long l = ((Number) value).longValue();
+        this.integrals.collect(l, false, candidates);
+        this.decimals.collect((double) l, false, candidates);
+      }
+      return candidates;
+    }
+  }
+
+  private final InternalCache cache;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // the following are guarded by lock
+
+  private final Map<String, Predicate> predicates = new HashMap<>();
+
+  private final Map<String, Field> fields = new HashMap<>();
+
+  /** Incremented on every change so that matchers drop candidates computed before it */
+  private long version;
+
+  CqPredicateIndex(InternalCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Indexes the where clause of the given query if it has an indexable comparison.
+   *
+   * @param queryString the query string shared by the CQs running the query
+   * @param select the compiled server side query
+   */
+  void add(String queryString, CompiledSelect select) {
+    Predicate p = analyze(select);
+    if (p == null) {
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      if (this.predicates.containsKey(queryString)) {
+        return;
+      }
+      this.predicates.put(queryString, p);
+      this.fields.computeIfAbsent(p.field, k -> new Field()).add(p, queryString);
+      this.version++;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the given query from the index.
+   */
+  void remove(String queryString) {
+    this.lock.writeLock().lock();
+    try {
+      Predicate p = this.predicates.remove(queryString);
+      if (p == null) {
+        return;
+      }
+      Field field = this.fields.get(p.field);
+      field.remove(p, queryString);
+      if (field.size == 0) {
+        this.fields.remove(p.field);
+      }
+      this.version++;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a matcher for one event value. A matcher is not thread safe.
+   */
+  Matcher matcher(Object value) {
+    return new Matcher(value);
+  }
+
+  /**
+   * Tells which indexed queries cannot select a value. Each attribute path is read from the value
+   * the first time a query on it is checked.
+   */
+  class Matcher {
+    private final Object value;
+
+    private final Map<String, Object> fieldValues = new HashMap<>();
+
+    private final Map<String, Set<String>> candidates = new HashMap<>();
+
+    private long candidatesVersion;
+
+    private Matcher(Object value) {
+      this.value = value;
+    }
+
+    /**
+     * Returns true if evaluating the given query against the value would certainly not select it.
+     */
+    boolean excludes(String queryString) {
+      lock.readLock().lock();
+      try {
+        Predicate p = predicates.get(queryString);
+        if (p == null) {
+          return false;
+        }
+        Object fieldValue = this.fieldValues.get(p.field);
+        if (fieldValue == null && !this.fieldValues.containsKey(p.field)) {
+          fieldValue = read(p.path);
+          this.fieldValues.put(p.field, fieldValue);
+        }
+        if (fieldValue == UNKNOWN) {
+          return false;
+        }
+        // Comparing null or UNDEFINED yields false for = and UNDEFINED otherwise. Either
+        // excludes the value when the comparison is the whole where clause, but an AND keeps
+        // evaluating its other operands after an UNDEFINED one.
+        if (fieldValue == null) {
+          return p.whole || p.op == EQ;
+        }
+        if (fieldValue == QueryService.UNDEFINED) {
+          return p.whole;
+        }
+        if (!decides(fieldValue, p)) {
+          return false;
+        }
+        if (this.candidatesVersion != version) {
+          this.candidates.clear();
+          this.candidatesVersion = version;
+        }
+        Set<String> matching = this.candidates.get(p.field);
+        if (matching == null) {
+          matching = fields.get(p.field).candidates(fieldValue);
+          this.candidates.put(p.field, matching);
+        }
+        return !matching.contains(queryString);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private Object read(List<String> path) {
+      ExecutionContext context = new ExecutionContext(null, cache);
+      Object target = this.value;
+      try {
+        for (String attribute : path) {
+          target = PathUtils.evaluateAttribute(context, target, attribute);
+        }
+      } catch (Exception e) {
+        // the query will fail the same way when it is evaluated
+        return UNKNOWN;
+      }
+      return target;
+    }
+  }
+
+  /**
+   * Returns true if comparing the given non null value with the constant of the given predicate
+   * orders them the same way as the index does.
+   */
+  private static boolean decides(Object value, Predicate p) {
+    if (value instanceof String) {
+      return p.kind == Kind.STRING;
+    }
+    if (value instanceof PdxString) {
+      // PdxStrings are ordered by their encoded bytes
+      return p.kind == Kind.STRING && p.op == EQ;
+    }
+    if (value instanceof Boolean) {
+      return p.kind == Kind.BOOLEAN;
+    }
+    if (value instanceof Double || isIntegral(value)) {
+      return p.kind == Kind.INTEGRAL || p.kind == Kind.DECIMAL;
+    }
+    return false;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte;
+  }
+
+  /**
+   * Returns the indexable comparison of the given query, or null if it has none.
+   */
+  private static Predicate analyze(CompiledSelect select) {
+    List iterators = select.getIterators();
+    CompiledValue where = select.getWhereClause();
+    if (iterators == null || iterators.size() != 1 || where == null) {
+      return null;
+    }
+    String iteratorName = ((CompiledIteratorDef) iterators.get(0)).getName();
+    if (where instanceof CompiledJunction) {
+      CompiledJunction junction = (CompiledJunction) where;
+      if (junction.getOperator() != OQLLexerTokenTypes.LITERAL_and) {
+        return null;
+      }
+      // only the first operand is always evaluated
+      return analyzeComparison((CompiledValue) junction.getChildren().get(0), iteratorName, false);
+    }
+    return analyzeComparison(where, iteratorName, true);
+  }
+
+  private static Predicate analyzeComparison(CompiledValue value, String iteratorName,
+      boolean whole) {
+    // subclasses such as LIKE compare differently
+    if (value == null || value.getClass() != CompiledComparison.class) {
+      return null;
+    }
+    CompiledComparison comparison = (CompiledComparison) value;
+    int op = toOp(comparison.getOperator());
+    CompiledValue attribute;
+    CompiledValue literal;
+    if (comparison._right instanceof CompiledLiteral) {
+      attribute = comparison._left;
+      literal = comparison._right;
+    } else if (comparison._left instanceof CompiledLiteral) {
+      attribute = comparison._right;
+      literal = comparison._left;
+      op = reverse(op);
+    } else {
+      return null;
+    }
+    List<String> path = toPath(attribute, iteratorName);
+    if (op < 0 || path == null) {
+      return null;
+    }
+    Object constant;
+    try {
+      constant = literal.evaluate(null);
+    } catch (Exception e) {
+      return null;
+    }
+    if (constant instanceof String) {
+      return new Predicate(path, op, Kind.STRING, constant, whole);
+    }
+    if (isIntegral(constant)) {
+      return new Predicate(path, op, Kind.INTEGRAL, ((Number) constant).longValue(), whole);
+    }
+    if (constant instanceof Double) {
+      return new Predicate(path, op, Kind.DECIMAL, constant, whole);
+    }
+    if (constant instanceof Boolean && op == EQ) {
+      return new Predicate(path, op, Kind.BOOLEAN, constant, whole);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the attribute names leading from the iterator to the given value, or null if it is not
+   * an attribute path of the iterator.
+   */
+  private static List<String> toPath(CompiledValue value, String iteratorName) {
+    List<String> path = new ArrayList<>();
+    while (value instanceof CompiledPath) {
+      path.add(((CompiledPath) value).getTailID());
+      value = ((CompiledPath) value).getReceiver();
+    }
+    if (!(value instanceof CompiledID)) {
+      return null;
+    }
+    String id = ((CompiledID) value).getId();
+    if (!id.equals(iteratorName)) {
+      // an attribute of the implicit iterator
+      path.add(id);
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  private static int toOp(int operator) {
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_EQ:
+        return EQ;
+      case OQLLexerTokenTypes.TOK_LT:
+        return LT;
+      case OQLLexerTokenTypes.TOK_LE:
+        return LE;
+      case OQLLexerTokenTypes.TOK_GT:
+        return GT;
+      case OQLLexerTokenTypes.TOK_GE:
+        return GE;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Returns the operator for the comparison with its operands swapped.
+   */
+  private static int reverse(int op) {
+    switch (op) {
+      case LT:
+        return GT;
+      case LE:
+        return GE;
+      case GT:
+        return LT;
+      case GE:
+        return LE;
+      default:
+        return op;
+    }
+  }
+}
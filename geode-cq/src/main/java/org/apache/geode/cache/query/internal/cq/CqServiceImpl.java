@@ -129,6 +129,9 @@ public class CqServiceImpl implements CqService {
   // With query as key and Set of CQs as values.
   private final ConcurrentHashMap matchingCqMap;
 
+  // Index over the where clauses of the queries in matchingCqMap, null if disabled.
+  private final CqPredicateIndex predicateIndex;
+
   // CQ Service statistics
   private final CqServiceStatisticsImpl cqServiceStats;
   private final CqServiceVsdStats stats;
@@ -163,6 +166,7 @@ public class CqServiceImpl implements CqService {
 
     // Initialize the Map which maintains the matching cqs.
     this.matchingCqMap = new ConcurrentHashMap<String, HashSet<String>>();
+    this.predicateIndex = CqPredicateIndex.DISABLED ? null : new CqPredicateIndex(cache);
 
     // Initialize the VSD statistics
     StatisticsFactory factory = this.cache.getDistributedSystem();
@@ -1260,6 +1264,9 @@ public class CqServiceImpl implements CqService {
     EntryEvent entryEvent = (EntryEvent) event;
     Object eventKey = entryEvent.getKey();
 
+    CqPredicateIndex.Matcher newValueMatcher = null;
+    CqPredicateIndex.Matcher oldValueMatcher = null;
+
     boolean isDupEvent = ((EntryEventImpl) event).isPossibleDuplicate();
     // The CQ query needs to be applied when the op is update, destroy
     // invalidate and in case when op is create and its an duplicate
@@ -1303,6 +1310,7 @@ public class CqServiceImpl implements CqService {
         if (newValue != null) {
           // We have a new value to run the query on
           cqUnfilteredEventsSet_newValue.add(newValue);
+          newValueMatcher = getPredicateMatcher(newValue);
         }
       }
 
@@ -1348,11 +1356,15 @@ public class CqServiceImpl implements CqService {
               synchronized (cQuery) {
                 // Apply query on new value.
                 if (!cqUnfilteredEventsSet_newValue.isEmpty()) {
-                  executionStartTime = this.stats.startCqQueryExecution();
-
-                  b_cqResults_newValue =
-                      evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_newValue});
-                  this.stats.endCqQueryExecution(executionStartTime);
+                  if (isExcluded(newValueMatcher, cQuery)) {
+                    this.stats.incCqQueryExecutionsSkipped();
+                  } else {
+                    executionStartTime = this.stats.startCqQueryExecution();
+
+                    b_cqResults_newValue =
+                        evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_newValue});
+                    this.stats.endCqQueryExecution(executionStartTime);
+                  }
                 }
               }
 
@@ -1385,16 +1397,21 @@ public class CqServiceImpl implements CqService {
                     Object oldValue = entryEvent.getOldValue();
                     if (oldValue != null) {
                       cqUnfilteredEventsSet_oldValue.add(oldValue);
+                      oldValueMatcher = getPredicateMatcher(oldValue);
                     }
                   }
 
                   synchronized (cQuery) {
                     // Apply query on old value.
                     if (!cqUnfilteredEventsSet_oldValue.isEmpty()) {
-                      executionStartTime = this.stats.startCqQueryExecution();
-                      b_cqResults_oldValue =
-                          evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_oldValue});
-                      this.stats.endCqQueryExecution(executionStartTime);
+                      if (isExcluded(oldValueMatcher, cQuery)) {
+                        this.stats.incCqQueryExecutionsSkipped();
+                      } else {
+                        executionStartTime = this.stats.startCqQueryExecution();
+                        b_cqResults_oldValue =
+                            evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_oldValue});
+                        this.stats.endCqQueryExecution(executionStartTime);
+                      }
                     } else {
                       if (isDebugEnabled) {
                         logger.debug(
@@ -1551,6 +1568,9 @@ public class CqServiceImpl implements CqService {
         matchingCQs = Collections.newSetFromMap(new ConcurrentHashMap());
         matchingCqMap.put(cqQuery, matchingCQs);
         this.stats.incUniqueCqQuery();
+        if (this.predicateIndex != null && cq.getQuery() instanceof DefaultQuery) {
+          this.predicateIndex.add(cqQuery, ((DefaultQuery) cq.getQuery()).getSelect());
+        }
       } else {
         matchingCQs = (Set) matchingCqMap.get(cqQuery);
       }
@@ -1579,6 +1599,9 @@ public class CqServiceImpl implements CqService {
         if (matchingCQs.isEmpty()) {
           matchingCqMap.remove(cqQuery);
           this.stats.decUniqueCqQuery();
+          if (this.predicateIndex != null) {
+            this.predicateIndex.remove(cqQuery);
+          }
         }
       }
     }
@@ -1593,6 +1616,22 @@ public class CqServiceImpl implements CqService {
     return matchingCqMap;
   }
 
+  /**
+   * Returns a matcher of the given event value against the predicate index, or null if the index
+   * is disabled.
+   */
+  private CqPredicateIndex.Matcher getPredicateMatcher(Object value) {
+    return this.predicateIndex == null ? null : this.predicateIndex.matcher(value);
+  }
+
+  /**
+   * Returns true if the predicate index shows that the query of the given CQ cannot select the
+   * value of the given matcher, so the query need not be evaluated.
+   */
+  private boolean isExcluded(CqPredicateIndex.Matcher matcher, CqQueryImpl cQuery) {
+    return matcher != null && matcher.excludes(cQuery.getQueryString());
+  }
+
   /**
    * Applies the query on the event. This method takes care of the performance related changed done
    * to improve the CQ-query performance. When CQ-query is executed first time, it saves the query
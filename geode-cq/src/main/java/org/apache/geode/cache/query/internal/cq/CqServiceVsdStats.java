@@ -73,6 +73,9 @@ public class CqServiceVsdStats {
   /** Unique CQs, number of different CQ queries */
   private static final String UNIQUE_CQ_QUERY = "numUniqueCqQuery";
 
+  /** CQ query executions skipped using the predicate index */
+  private static final String CQ_QUERY_EXECUTIONS_SKIPPED = "cqQueryExecutionsSkipped";
+
   /** Id of the CQs created statistic */
   private static final int _numCqsCreatedId;
 
@@ -103,6 +106,9 @@ public class CqServiceVsdStats {
   /** Id for unique CQs, difference in CQ queries */
   private static final int _numUniqueCqQuery;
 
+  /** Id for CQ query executions skipped using the predicate index */
+  private static final int _cqQueryExecutionsSkippedId;
+
   /*
    * Static initializer to create and initialize the <code>StatisticsType</code>
    */
@@ -125,6 +131,10 @@ public class CqServiceVsdStats {
             f.createIntGauge(CQ_QUERY_EXECUTION_IN_PROGRESS, "CQ Query Execution In Progress.",
                 "operations"),
             f.createIntGauge(UNIQUE_CQ_QUERY, "Number of Unique CQ Querys.", "Queries"),
+            f.createLongCounter(CQ_QUERY_EXECUTIONS_SKIPPED,
+                "Number of CQ Query Executions skipped because the event value could not satisfy"
+                    + " the query's indexed comparison.",
+                "operations"),
 
         });
 
@@ -139,6 +149,7 @@ public class CqServiceVsdStats {
     _cqQueryExecutionsCompletedId = _type.nameToId(CQ_QUERY_EXECUTIONS_COMPLETED);
     _cqQueryExecutionInProgressId = _type.nameToId(CQ_QUERY_EXECUTION_IN_PROGRESS);
     _numUniqueCqQuery = _type.nameToId(UNIQUE_CQ_QUERY);
+    _cqQueryExecutionsSkippedId = _type.nameToId(CQ_QUERY_EXECUTIONS_SKIPPED);
   }
 
   /** The <code>Statistics</code> instance to which most behavior is delegated */
@@ -305,6 +316,22 @@ public class CqServiceVsdStats {
     this._stats.incLong(_cqQueryExecutionsCompletedId, 1);
   }
 
+  /**
+   * Increments the "cqQueryExecutionsSkipped" stat by 1.
+   */
+  void incCqQueryExecutionsSkipped() {
+    this._stats.incLong(_cqQueryExecutionsSkippedId, 1);
+  }
+
+  /**
+   * Returns the number of CQ query executions skipped using the predicate index.
+   *
+   * @return long number of skipped executions.
+   */
+  public long getCqQueryExecutionsSkipped() {
+    return this._stats.getLong(_cqQueryExecutionsSkippedId);
+  }
+
   /**
    * Returns the total time spent executing the CQ Queries.
    * 
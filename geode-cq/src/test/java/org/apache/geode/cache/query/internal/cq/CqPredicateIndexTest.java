@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.cq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.InternalQueryService;
+import org.apache.geode.cache.query.internal.MethodInvocationAuthorizer;
+import org.apache.geode.cache.query.internal.QCompiler;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class CqPredicateIndexTest {
+
+  private CqPredicateIndex index;
+
+  @Before
+  public void setUp() {
+    InternalCache cache = mock(InternalCache.class);
+    InternalQueryService queryService = mock(InternalQueryService.class);
+    when(cache.getQueryService()).thenReturn(queryService);
+    when(queryService.getMethodInvocationAuthorizer())
+        .thenReturn(mock(MethodInvocationAuthorizer.class));
+    index = new CqPredicateIndex(cache);
+  }
+
+  @Test
+  public void excludesRangeQueriesTheValueDoesNotSatisfy() {
+    add("SELECT * FROM $1 p WHERE p.price > 100");
+    add("SELECT * FROM $1 p WHERE p.price <= 50");
+    add("SELECT * FROM $1 p WHERE 75 < p.price");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 100")).isTrue();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price <= 50")).isTrue();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE 75 < p.price")).isFalse();
+  }
+
+  @Test
+  public void comparesIntegralValuesWithDecimalConstantsAsDoubles() {
+    add("SELECT * FROM $1 p WHERE p.price >= 80.5");
+    add("SELECT * FROM $1 p WHERE p.price < 80.5");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price >= 80.5")).isTrue();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price < 80.5")).isFalse();
+  }
+
+  @Test
+  public void excludesEqualityQueriesOnOtherStrings() {
+    add("SELECT * FROM $1 WHERE symbol = 'GEOD'");
+    add("SELECT * FROM $1 WHERE symbol = 'ABC'");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 WHERE symbol = 'GEOD'")).isFalse();
+    assertThat(matcher.excludes("SELECT * FROM $1 WHERE symbol = 'ABC'")).isTrue();
+  }
+
+  @Test
+  public void indexesTheFirstOperandOfAnAnd() {
+    add("SELECT * FROM $1 p WHERE p.symbol = 'ABC' AND p.price > 0");
+
+    assertThat(index.matcher(new Trade("GEOD", 80))
+        .excludes("SELECT * FROM $1 p WHERE p.symbol = 'ABC' AND p.price > 0")).isTrue();
+  }
+
+  @Test
+  public void doesNotExcludeQueriesThatAreNotIndexed() {
+    add("SELECT * FROM $1 p WHERE p.price > 100 OR p.symbol = 'ABC'");
+    add("SELECT * FROM $1 p WHERE p.symbol LIKE 'A%'");
+    add("SELECT * FROM $1 p WHERE p.price <> 80");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 100 OR p.symbol = 'ABC'"))
+        .isFalse();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.symbol LIKE 'A%'")).isFalse();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price <> 80")).isFalse();
+  }
+
+  @Test
+  public void doesNotExcludeWhenTheValueTypeDoesNotMatchTheConstant() {
+    add("SELECT * FROM $1 p WHERE p.symbol > 100");
+
+    assertThat(index.matcher(new Trade("GEOD", 80))
+        .excludes("SELECT * FROM $1 p WHERE p.symbol > 100")).isFalse();
+  }
+
+  @Test
+  public void undefinedAttributeOnlyExcludesTheWholeWhereClause() {
+    add("SELECT * FROM $1 p WHERE p.quantity > 100");
+    add("SELECT * FROM $1 p WHERE p.quantity = 100 AND p.price > 0");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.quantity > 100")).isTrue();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.quantity = 100 AND p.price > 0"))
+        .isFalse();
+  }
+
+  @Test
+  public void nullAttributeOnlyExcludesEqualityInsideAnAnd() {
+    add("SELECT * FROM $1 p WHERE p.symbol = 'ABC' AND p.price > 0");
+    add("SELECT * FROM $1 p WHERE p.symbol > 'ABC' AND p.price > 0");
+    add("SELECT * FROM $1 p WHERE p.symbol > 'ABC'");
+
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade(null, 80));
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.symbol = 'ABC' AND p.price > 0"))
+        .isTrue();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.symbol > 'ABC' AND p.price > 0"))
+        .isFalse();
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.symbol > 'ABC'")).isTrue();
+  }
+
+  @Test
+  public void removedQueryIsNoLongerExcluded() {
+    add("SELECT * FROM $1 p WHERE p.price > 100");
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 100")).isTrue();
+
+    index.remove("SELECT * FROM $1 p WHERE p.price > 100");
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 100")).isFalse();
+  }
+
+  @Test
+  public void queryAddedAfterAnEarlierCheckIsMatchedAgainstTheValue() {
+    add("SELECT * FROM $1 p WHERE p.price > 100");
+    CqPredicateIndex.Matcher matcher = index.matcher(new Trade("GEOD", 80));
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 100")).isTrue();
+
+    add("SELECT * FROM $1 p WHERE p.price > 10");
+
+    assertThat(matcher.excludes("SELECT * FROM $1 p WHERE p.price > 10")).isFalse();
+  }
+
+  private void add(String queryString) {
+    index.add(queryString, (CompiledSelect) new QCompiler().compileQuery(queryString));
+  }
+
+  public static class Trade {
+    private final String symbol;
+    private final int price;
+
+    Trade(String symbol, int price) {
+      this.symbol = symbol;
+      this.price = price;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    public int getPrice() {
+      return price;
+    }
+  }
+}
@@ -15,7 +15,9 @@
 package org.apache.geode.cache.client.internal;
 
 import org.apache.geode.InternalGemFireError;
+import org.apache.geode.SerializationException;
 import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.compression.Compressor;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.tier.MessageType;
@@ -23,12 +25,15 @@ import org.apache.geode.internal.cache.tier.sockets.ChunkedMessage;
 import org.apache.geode.internal.cache.tier.sockets.Message;
 import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewayBatchCompression;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventRemoteDispatcher;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventRemoteDispatcher.GatewayAck;
+import org.apache.geode.internal.cache.wan.GatewaySenderStats;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
 
+import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.util.Iterator;
 import java.util.List;
@@ -50,20 +55,27 @@ public class GatewaySenderBatchOp {
    * @param batchId the ID of this batch
    * @param removeFromQueueOnException true if the events should be processed even after some
    *        exception
+   * @param compressor the compressor for the batch, or null to send it uncompressed. The receiver
+   *        must have opted in to it. Batches to receivers older than Geode 1.3 are not compressed.
+   * @param stats the statistics recording the compression
    */
   public static void executeOn(Connection con, ExecutablePool pool, List events, int batchId,
-      boolean removeFromQueueOnException, boolean isRetry) {
+      boolean removeFromQueueOnException, boolean isRetry, Compressor compressor,
+      GatewaySenderStats stats) {
     AbstractOp op = null;
     // System.out.println("Version: "+con.getWanSiteVersion());
     // Is this check even needed anymore? It looks like we just create the same exact op impl with
     // the same parameters...
     if (Version.GFE_651.compareTo(con.getWanSiteVersion()) >= 0) {
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, null, stats);
     } else {
       // Default should create a batch of server version (ACCEPTOR.VERSION)
+      if (Version.GEODE_130.compareTo(con.getWanSiteVersion()) > 0) {
+        compressor = null;
+      }
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, compressor, stats);
     }
     pool.executeOn(con, op, true/* timeoutFatal */);
   }
@@ -84,7 +96,7 @@ public class GatewaySenderBatchOp {
      * @throws org.apache.geode.SerializationException if serialization fails
      */
     public GatewaySenderGFEBatchOpImpl(List events, int batchId, boolean removeFromQueueOnException,
-        int dsId, boolean isRetry) {
+        int dsId, boolean isRetry, Compressor compressor, GatewaySenderStats stats) {
       super(MessageType.GATEWAY_RECEIVER_COMMAND, calcPartCount(events));
       if (isRetry) {
         getMessage().setIsRetry();
@@ -134,6 +146,13 @@ public class GatewaySenderBatchOp {
           getMessage().addLongPart(event.getVersionTimeStamp());
         }
       }
+      if (compressor != null) {
+        try {
+          GatewayBatchCompression.compress(getMessage(), compressor, stats);
+        } catch (IOException e) {
+          throw new SerializationException("Unable to compress batch " + batchId, e);
+        }
+      }
     }
 
     public GatewaySenderGFEBatchOpImpl() {
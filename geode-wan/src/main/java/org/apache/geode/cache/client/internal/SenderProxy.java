@@ -17,7 +17,9 @@ package org.apache.geode.cache.client.internal;
 import java.util.List;
 
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.compression.Compressor;
 import org.apache.geode.distributed.internal.ServerLocation;
+import org.apache.geode.internal.cache.wan.GatewaySenderStats;
 
 /**
  * Used to send operations from a sender to a receiver.
@@ -30,9 +32,10 @@ public class SenderProxy extends ServerProxy {
   }
 
   public void dispatchBatch_NewWAN(Connection con, List events, int batchId,
-      boolean removeFromQueueOnException, boolean isRetry) {
+      boolean removeFromQueueOnException, boolean isRetry, Compressor compressor,
+      GatewaySenderStats stats) {
     GatewaySenderBatchOp.executeOn(con, this.pool, events, batchId, removeFromQueueOnException,
-        isRetry);
+        isRetry, compressor, stats);
   }
 
   public Object receiveAckFromReceiver(Connection con) {
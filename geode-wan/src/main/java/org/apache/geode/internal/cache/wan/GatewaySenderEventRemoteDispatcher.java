@@ -17,6 +17,7 @@ package org.apache.geode.internal.cache.wan;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -31,6 +32,7 @@ import org.apache.geode.cache.client.internal.Connection;
 import org.apache.geode.cache.client.internal.SenderProxy;
 import org.apache.geode.cache.client.internal.pooling.ConnectionDestroyedException;
 import org.apache.geode.cache.wan.GatewaySender;
+import org.apache.geode.compression.Compressor;
 import org.apache.geode.distributed.internal.ServerLocation;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.UpdateAttributesProcessor;
@@ -62,6 +64,16 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
 
   private ReentrantReadWriteLock connectionLifeCycleLock = new ReentrantReadWriteLock();
 
+  /**
+   * The compressor the batches are compressed with, or null to send them uncompressed.
+   */
+  private final Compressor batchCompressor;
+
+  /**
+   * Notified by the ack reader thread when batches have been acknowledged.
+   */
+  private final Object batchesInFlightSync = new Object();
+
   /**
    * This count is reset to 0 each time a successful connection is made.
    */
@@ -70,6 +82,7 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
   public GatewaySenderEventRemoteDispatcher(AbstractGatewaySenderEventProcessor eventProcessor) {
     this.processor = eventProcessor;
     this.sender = eventProcessor.getSender();
+    this.batchCompressor = createBatchCompressor();
     // this.ackReaderThread = new AckReaderThread(sender);
     try {
       initializeConnection();
@@ -80,6 +93,18 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
     }
   }
 
+  private static Compressor createBatchCompressor() {
+    if (AbstractGatewaySender.BATCH_COMPRESSOR == null) {
+      return null;
+    }
+    try {
+      return GatewayBatchCompression.getCompressor(AbstractGatewaySender.BATCH_COMPRESSOR);
+    } catch (IllegalArgumentException e) {
+      logger.warn("Sending gateway batches uncompressed", e);
+      return null;
+    }
+  }
+
   protected GatewayAck readAcknowledgement() {
     SenderProxy sp = new SenderProxy(this.processor.getSender().getProxy());
     GatewayAck ack = null;
@@ -195,6 +220,7 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
 
   private boolean _dispatchBatch(List events, boolean isRetry) {
     Exception ex = null;
+    waitForBatchesInFlight();
     int currentBatchId = this.processor.getBatchId();
     connection = getConnection(true);
     int batchIdForThisConnection = this.processor.getBatchId();
@@ -213,7 +239,8 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
       try {
         if (connection != null) {
           sp.dispatchBatch_NewWAN(connection, events, currentBatchId,
-              sender.isRemoveFromQueueOnException(), isRetry);
+              sender.isRemoveFromQueueOnException(), isRetry, this.batchCompressor, statistics);
+          statistics.setBatchesInFlight(this.processor.getBatchIdToEventsMap().size());
           if (logger.isDebugEnabled()) {
             logger.debug(
                 "{} : Dispatched batch (id={}) of {} events, queue size: {} on connection {}",
@@ -290,6 +317,45 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
     }
   }
 
+  /**
+   * Waits while {@link AbstractGatewaySender#MAXIMUM_BATCHES_IN_FLIGHT} batches sent on the
+   * connection have not been acknowledged. Acknowledgements arrive in the order the batches were
+   * sent, so the wait ends when the oldest batch is acknowledged, or when the connection is reset
+   * and the unacknowledged batches are sent again.
+   */
+  private void waitForBatchesInFlight() {
+    if (AbstractGatewaySender.MAXIMUM_BATCHES_IN_FLIGHT <= 0) {
+      return;
+    }
+    // the batch about to be sent is in the map already
+    Map<Integer, List<GatewaySenderEventImpl>[]> batches = this.processor.getBatchIdToEventsMap();
+    boolean interrupted = Thread.interrupted();
+    try {
+      synchronized (this.batchesInFlightSync) {
+        while (batches.size() > AbstractGatewaySender.MAXIMUM_BATCHES_IN_FLIGHT
+            && !this.processor.isStopped() && !this.processor.isConnectionReset()) {
+          try {
+            this.batchesInFlightSync.wait(100);
+          } catch (InterruptedException e) {
+            interrupted = true;
+            this.sender.getCancelCriterion().checkCancelInProgress(e);
+          }
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void batchesAcknowledged() {
+    this.sender.getStatistics().setBatchesInFlight(this.processor.getBatchIdToEventsMap().size());
+    synchronized (this.batchesInFlightSync) {
+      this.batchesInFlightSync.notifyAll();
+    }
+  }
+
   /**
    * Acquires or adds a new <code>Connection</code> to the corresponding <code>Gateway</code>
    *
@@ -660,12 +726,14 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
               }
               processor.handleSuccessBatchAck(batchId);
             }
+            batchesAcknowledged();
           } else {
             // If we have received IOException.
             if (logger.isDebugEnabled()) {
               logger.debug("{}: Received null ack from remote site.", processor.getSender());
             }
             processor.handleException();
+            batchesAcknowledged();
             try { // This wait is before trying to getting new connection to
                   // receive ack. Without this there will be continuous call to
                   // getConnection
@@ -25,11 +25,22 @@ import org.apache.geode.test.junit.categories.DistributedTest;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
+import org.awaitility.Awaitility;
+
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.RegionQueue;
+import org.apache.geode.internal.cache.wan.AbstractGatewaySender;
+import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
 import org.apache.geode.internal.cache.wan.WANTestBase;
 import org.apache.geode.test.dunit.IgnoredException;
+import org.apache.geode.test.dunit.VM;
 
 /**
  * 
@@ -176,6 +187,188 @@ public class ParallelWANConflationDUnitTest extends WANTestBase {
     validateReceiverRegionSize(keyValues);
   }
 
+  @Test
+  public void testParallelPropagationConflationOnEnqueue() throws Exception {
+    initialSetUp();
+
+    createSendersWithConflation();
+
+    setConflateOnEnqueue(true);
+
+    createSenderPRs(1);
+
+    startPausedSenders();
+
+    createReceiverPrs();
+
+    final Map keyValues = putKeyValues();
+
+    vm4.invoke(() -> checkQueueSize("ln", keyValues.size()));
+
+    final Map updateKeyValues = new HashMap();
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        updateKeyValues.put(i, i + "_updated_" + round);
+      }
+      vm4.invoke(() -> putGivenKeyValue(getTestMethodName(), updateKeyValues));
+
+      // every update after the first one replaces the pending update for its key
+      vm4.invoke(() -> checkQueueSize("ln", keyValues.size() + updateKeyValues.size()));
+    }
+
+    int conflated = 0;
+    for (VM vm : new VM[] {vm4, vm5, vm6, vm7}) {
+      conflated += vm.invoke(() -> WANTestBase.getSenderStats("ln", -1)).get(7);
+    }
+    assertEquals(4 * updateKeyValues.size(), conflated);
+
+    vm2.invoke(() -> validateRegionSize(getTestMethodName(), 0));
+
+    resumeSenders();
+
+    keyValues.putAll(updateKeyValues);
+    validateReceiverRegionSize(keyValues);
+
+    for (VM vm : new VM[] {vm4, vm5, vm6, vm7}) {
+      vm.invoke(() -> validateAllLocalBucketsDrained("ln"));
+    }
+  }
+
+  @Test
+  public void testConflationOnEnqueueKeepsEveryEventOnSecondariesForFailover()
+      throws Exception {
+    initialSetUp();
+
+    createSendersWithConflation();
+
+    setConflateOnEnqueue(true);
+
+    createSenderPRs(1);
+
+    startPausedSenders();
+
+    createReceiverPrs();
+
+    final Map keyValues = putKeyValues();
+
+    final Map updateKeyValues = new HashMap();
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        updateKeyValues.put(i, i + "_updated_" + round);
+      }
+      vm4.invoke(() -> putGivenKeyValue(getTestMethodName(), updateKeyValues));
+    }
+
+    // the primaries hold the create and a single update with the latest value for each key
+    Map<Object, List<Object>> primaryValues = getQueuedValues(true, vm4, vm5, vm6, vm7);
+    assertEquals(keyValues.size(), primaryValues.size());
+    for (Object key : keyValues.keySet()) {
+      List<Object> expected = new ArrayList<>();
+      expected.add(keyValues.get(key));
+      if (updateKeyValues.containsKey(key)) {
+        expected.add(updateKeyValues.get(key));
+      }
+      assertEquals("Primary events for key " + key, expected, primaryValues.get(key));
+    }
+
+    // the secondaries keep the update the pending event was queued for, and the latest update
+    // under its own key. The updates conflated in between are removed from them.
+    Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> {
+      Map<Object, List<Object>> secondaryValues = getQueuedValues(false, vm4, vm5, vm6, vm7);
+      assertEquals(keyValues.size(), secondaryValues.size());
+      for (Object key : keyValues.keySet()) {
+        List<Object> expected = new ArrayList<>();
+        expected.add(keyValues.get(key));
+        if (updateKeyValues.containsKey(key)) {
+          expected.add(key + "_updated_0");
+          expected.add(updateKeyValues.get(key));
+        }
+        assertEquals("Secondary events for key " + key, expected, secondaryValues.get(key));
+      }
+    });
+
+    vm4.invoke(() -> killSender());
+
+    // the secondaries of the buckets vm4 was primary for take over with the latest update queued
+    Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> {
+      Map<Object, List<Object>> failedOverValues = getQueuedValues(true, vm5, vm6, vm7);
+      assertEquals(keyValues.size(), failedOverValues.size());
+      for (Object key : updateKeyValues.keySet()) {
+        List<Object> values = failedOverValues.get(key);
+        assertEquals("Latest event for key " + key, updateKeyValues.get(key),
+            values.get(values.size() - 1));
+      }
+    });
+
+    vm2.invoke(() -> validateRegionSize(getTestMethodName(), 0));
+
+    vm5.invoke(() -> resumeSender("ln"));
+    vm6.invoke(() -> resumeSender("ln"));
+    vm7.invoke(() -> resumeSender("ln"));
+
+    keyValues.putAll(updateKeyValues);
+    validateReceiverRegionSize(keyValues);
+
+    for (VM vm : new VM[] {vm5, vm6, vm7}) {
+      vm.invoke(() -> validateAllLocalBucketsDrained("ln"));
+    }
+  }
+
+  protected void setConflateOnEnqueue(boolean conflateOnEnqueue) {
+    for (VM vm : new VM[] {vm4, vm5, vm6, vm7}) {
+      vm.invoke(() -> ((AbstractGatewaySender) cache.getGatewaySender("ln"))
+          .test_setConflateOnEnqueue(conflateOnEnqueue));
+    }
+  }
+
+  /**
+   * Returns the values of the events queued in the primary or secondary buckets of the given
+   * members, in queue order, by the key of their event.
+   */
+  protected Map<Object, List<Object>> getQueuedValues(boolean primary, VM... vms) {
+    Map<Object, List<Object>> queuedValues = new HashMap<>();
+    for (VM vm : vms) {
+      queuedValues.putAll(vm.invoke(() -> getLocalQueuedValues("ln", primary)));
+    }
+    return queuedValues;
+  }
+
+  protected static Map<Object, List<Object>> getLocalQueuedValues(String senderId,
+      boolean primary) {
+    AbstractGatewaySender sender = (AbstractGatewaySender) cache.getGatewaySender(senderId);
+    RegionQueue regionQueue = sender.getQueues().toArray(new RegionQueue[1])[0];
+    Map<Object, List<Object>> queuedValues = new HashMap<>();
+    for (BucketRegion bucket : ((PartitionedRegion) regionQueue.getRegion()).getDataStore()
+        .getAllLocalBucketRegions()) {
+      if (bucket.getBucketAdvisor().isPrimary() != primary) {
+        continue;
+      }
+      for (Object queueKey : new TreeSet<Object>(bucket.keySet())) {
+        Object value = bucket.getValueInVM(queueKey);
+        if (value instanceof GatewaySenderEventImpl) {
+          GatewaySenderEventImpl event = (GatewaySenderEventImpl) value;
+          queuedValues.computeIfAbsent(event.getKey(), key -> new ArrayList<>())
+              .add(event.getDeserializedValue());
+        }
+      }
+    }
+    return queuedValues;
+  }
+
+  /**
+   * Secondary buckets are drained too, so no event conflated on enqueue is left behind in them.
+   */
+  protected static void validateAllLocalBucketsDrained(String senderId) {
+    AbstractGatewaySender sender = (AbstractGatewaySender) cache.getGatewaySender(senderId);
+    RegionQueue regionQueue = sender.getQueues().toArray(new RegionQueue[1])[0];
+    for (BucketRegion bucket : ((PartitionedRegion) regionQueue.getRegion()).getDataStore()
+        .getAllLocalBucketRegions()) {
+      Awaitility.await().atMost(30, TimeUnit.SECONDS)
+          .until(() -> assertEquals("Entries left in bucket " + bucket.getId(), 0,
+              bucket.keySet().size()));
+    }
+  }
+
   @Test
   public void testParallelPropagationConflationOfRandomKeys() throws Exception {
     initialSetUp();